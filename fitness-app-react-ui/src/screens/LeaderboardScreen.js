@@ -4,6 +4,35 @@ import { getAuthData, leaderboardAPI, userAPI } from '../services/api';
 import Navbar from '../components/Navbar';
 import './LeaderboardScreen.css';
 
+// Format user display names
+// For the current user, we replace the name with their profile name if available
+const toRow = (entry, userId, currentUserDisplayName) => {
+  const isCurrentUser = entry.userId === userId;
+  let displayName = entry.username || entry.userId; // Default to username from backend, else userId
+
+  // If this is the current user and we have their name, use it (override backend if needed)
+  if (isCurrentUser && currentUserDisplayName) {
+    displayName = currentUserDisplayName;
+  } else if (!entry.username) {
+    // Only if no username from backend, try to format userId
+    const userIdMatch = entry.userId.match(/user-(\d+)/);
+    if (userIdMatch) {
+      displayName = `User ${userIdMatch[1]}`;
+    }
+  }
+
+  return {
+    id: entry.userId,
+    name: displayName,
+    score: entry.score,
+    rank: entry.rank,
+    avatar: '👤',
+    isCurrentUser: isCurrentUser
+  };
+};
+
+const LEADERBOARD_SIZE = 10;
+
 const LeaderboardScreen = () => {
   const [leaderboard, setLeaderboard] = useState([]);
   const [userRank, setUserRank] = useState(null);
@@ -24,7 +53,7 @@ const LeaderboardScreen = () => {
     setError(null);
     try {
       const [globalLeaderboard, userRankData] = await Promise.all([
-        leaderboardAPI.getGlobal(10),
+        leaderboardAPI.getGlobal(LEADERBOARD_SIZE),
         leaderboardAPI.getUserRank()
       ]);
 
@@ -41,33 +70,8 @@ const LeaderboardScreen = () => {
         console.log('Could not fetch user profile for name');
       }
 
-      // Format user display names
-      // Since LeaderboardEntry doesn't include username, we use userId
-      // For the current user, we'll replace it with their name if available
-      setLeaderboard(globalLeaderboard.map((entry, index) => {
-        const isCurrentUser = entry.userId === userId;
-        let displayName = entry.username || entry.userId; // Default to username from backend, else userId
-
-        // If this is the current user and we have their name, use it (override backend if needed)
-        if (isCurrentUser && currentUserDisplayName) {
-          displayName = currentUserDisplayName;
-        } else if (!entry.username) {
-          // Only if no username from backend, try to format userId
-          const userIdMatch = entry.userId.match(/user-(\d+)/);
-          if (userIdMatch) {
-            displayName = `User ${userIdMatch[1]}`;
-          }
-        }
-
-        return {
-          id: entry.userId,
-          name: displayName,
-          score: entry.score,
-          rank: index + 1,
-          avatar: '👤',
-          isCurrentUser: isCurrentUser
-        };
-      }));
+      setLeaderboard(globalLeaderboard.map((entry, index) =>
+        toRow({ ...entry, rank: index + 1 }, userId, currentUserDisplayName)));
 
       if (userRankData) {
         setUserRank(userRankData.rank);
@@ -110,6 +114,30 @@ const LeaderboardScreen = () => {
     // eslint-disable-next-line react-hooks/exhaustive-deps
   }, [navigate]);
 
+  // Follow the top of the board live: a snapshot on connect, then only what changed
+  useEffect(() => {
+    const { userId } = getAuthData();
+    if (!userId || typeof EventSource === 'undefined') {
+      return undefined;
+    }
+
+    const source = leaderboardAPI.streamGlobal(LEADERBOARD_SIZE, {
+      onSnapshot: (entries) => {
+        setLeaderboard(entries.map((entry) => toRow(entry, userId, currentUserName)));
+      },
+      onDiff: ({ moves, entries, exits }) => {
+        setLeaderboard((rows) => {
+          const changed = new Set([...exits, ...moves.map((entry) => entry.userId)]);
+          return rows
+            .filter((row) => !changed.has(row.id))
+            .concat([...moves, ...entries].map((entry) => toRow(entry, userId, currentUserName)))
+            .sort((a, b) => a.rank - b.rank);
+        });
+      }
+    });
+    return () => source.close();
+  }, [currentUserName]);
+
   const getRankIcon = (rank) => {
     if (rank === 1) return '1st';
     if (rank === 2) return '2nd';
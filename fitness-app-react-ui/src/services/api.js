@@ -329,6 +329,19 @@ export const leaderboardAPI = {
     return response.data;
   },
 
+  /**
+   * Subscribe to live changes of the global leaderboard (Server-Sent Events)
+   * @param {number} limit - Number of entries to follow
+   * @param {Object} handlers - { onSnapshot(entries), onDiff({ moves, entries, exits }) }
+   * @returns {EventSource} - Call close() to unsubscribe
+   */
+  streamGlobal: (limit = 10, { onSnapshot, onDiff }) => {
+    const source = new EventSource(`${LEADERBOARD_SERVICE_URL}/leaderboard/stream?n=${limit}`);
+    source.addEventListener('snapshot', (event) => onSnapshot(JSON.parse(event.data)));
+    source.addEventListener('diff', (event) => onDiff(JSON.parse(event.data)));
+    return source;
+  },
+
   /**
    * Get user's rank
    * @returns {Promise} - User's rank details
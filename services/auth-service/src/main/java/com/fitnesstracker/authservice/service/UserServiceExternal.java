@@ -1,6 +1,7 @@
 package com.fitnesstracker.authservice.service;
 
 import com.fitnesstracker.authservice.dto.RegistrationRequest;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
@@ -11,8 +12,13 @@ import java.util.Map;
 @Service
 public class UserServiceExternal {
 
-    private static final String USER_SERVICE_BASE_URL = "http://localhost:8081/api/users";
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
+    private final String userServiceUrl;
+
+    public UserServiceExternal(RestTemplate restTemplate, @Value("${user-service.url}") String userServiceUrl) {
+        this.restTemplate = restTemplate;
+        this.userServiceUrl = userServiceUrl;
+    }
 
     /**
      * Calls the User Service API to create the user profile after authentication
@@ -41,7 +47,7 @@ public class UserServiceExternal {
 
         // This is a synchronous call to the external User Service
         ResponseEntity<Void> response = restTemplate.postForEntity(
-                USER_SERVICE_BASE_URL + "/create",
+                userServiceUrl,
                 entity,
                 Void.class);
 
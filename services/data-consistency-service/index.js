@@ -27,6 +27,8 @@ class DataConsistencyService {
     
     // Leaderboard service URL (K8s service discovery)
     this.leaderboardServiceUrl = process.env.LEADERBOARD_SERVICE_URL || 'http://leaderboard-service:8083';
+    // Off when leaderboard-service consumes workout events itself, so workouts are not scored twice
+    this.leaderboardUpdatesEnabled = process.env.LEADERBOARD_UPDATES_ENABLED !== 'false';
   }
 
   async connect() {
@@ -154,7 +156,8 @@ class DataConsistencyService {
       await this.recalculateChallengeProgress(workoutData.userId);
       
       // Update leaderboard with points based on workout
-      await this.updateLeaderboard(workoutData.userId, workoutData.duration, workoutData.calories);
+      await this.updateLeaderboard(workoutData.userId, workoutData.duration, workoutData.calories,
+        workoutData.workoutId);
       
       console.log('Workout data consistency verified');
     } catch (error) {
@@ -227,7 +230,10 @@ class DataConsistencyService {
     }
   }
 
-  async updateLeaderboard(userId, duration, calories) {
+  async updateLeaderboard(userId, duration, calories, workoutId) {
+    if (!this.leaderboardUpdatesEnabled) {
+      return;
+    }
     try {
       // Calculate points: 1 point per minute of workout + 0.1 points per calorie
       const durationPoints = duration ? parseFloat(duration) : 0;
@@ -240,7 +246,8 @@ class DataConsistencyService {
       }
 
       const url = new URL(`${this.leaderboardServiceUrl}/leaderboard/update/${userId}`);
-      const postData = JSON.stringify({ scoreDelta: totalPoints });
+      // The workoutId lets leaderboard-service drop the update if this event is redelivered
+      const postData = JSON.stringify({ scoreDelta: totalPoints, idempotencyKey: workoutId != null ? String(workoutId) : undefined });
       
       const options = {
         hostname: url.hostname,
@@ -11,11 +11,6 @@ public class LeaderboardServiceApplication {
         SpringApplication.run(LeaderboardServiceApplication.class, args);
     }
 
-    @org.springframework.context.annotation.Bean
-    public org.springframework.web.client.RestTemplate restTemplate() {
-        return new org.springframework.web.client.RestTemplate();
-    }
-
     @org.springframework.context.annotation.Bean
     public org.springframework.web.servlet.config.annotation.WebMvcConfigurer corsConfigurer() {
         return new org.springframework.web.servlet.config.annotation.WebMvcConfigurer() {
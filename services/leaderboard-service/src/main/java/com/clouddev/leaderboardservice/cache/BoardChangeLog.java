@@ -0,0 +1,105 @@
+package com.clouddev.leaderboardservice.cache;
+
+import com.clouddev.leaderboardservice.event.ScoreChangedEvent;
+import com.clouddev.leaderboardservice.model.BoardChange;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * The most recent committed score changes seen by this instance, each with
+ * the board version it produced, for /leaderboard/changes.
+ *
+ * A fixed ring of ring-size changes kept in parallel arrays, so memory is
+ * bounded and appending never allocates beyond the userId reference. Once
+ * the ring wraps, the oldest changes are overwritten and versions up to the
+ * last overwritten one can no longer be answered from here.
+ */
+@Component
+public class BoardChangeLog {
+
+    private final long[] versions;
+    private final String[] userIds;
+    private final double[] scores;
+    private final long[] streaks;
+
+    // All guarded by this
+    private int next;
+    private int size;
+    private boolean recordedAny;
+    // Every change after this version is still in the ring
+    private long horizon;
+
+    public BoardChangeLog(@Value("${leaderboard.changes.ring-size:65536}") int ringSize) {
+        int capacity = Math.max(1, ringSize);
+        this.versions = new long[capacity];
+        this.userIds = new String[capacity];
+        this.scores = new double[capacity];
+        this.streaks = new long[capacity];
+    }
+
+    /**
+     * Assigns the change its version and stores it. Both happen under the
+     * log's lock, so changes are held in version order even when commits
+     * are delivered on several threads.
+     */
+    synchronized long record(ScoreChangedEvent event, LongSupplier nextVersion) {
+        long version = nextVersion.getAsLong();
+        if (!recordedAny) {
+            recordedAny = true;
+            horizon = version - 1L;
+        }
+        if (size == versions.length) {
+            horizon = versions[next];
+        } else {
+            size++;
+        }
+        versions[next] = version;
+        userIds[next] = event.userId();
+        scores[next] = event.score();
+        streaks[next] = event.streak();
+        next = (next + 1) % versions.length;
+        return version;
+    }
+
+    /**
+     * The latest values of every entry changed after since, in the order of
+     * their last change, or empty if the ring no longer holds all of them
+     * (or since is ahead of current).
+     *
+     * @param current the board version now; nothing recorded so far means no change since it
+     */
+    public synchronized Optional<List<BoardChange>> changesSince(long since, long current) {
+        long oldest = recordedAny ? horizon : current;
+        if (since < oldest || since > current) {
+            return Optional.empty();
+        }
+
+        // Versions increase around the ring, so the first change after since is found by binary search
+        int start = (next - size + versions.length) % versions.length;
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (versions[(start + mid) % versions.length] > since) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+
+        Map<String, BoardChange> latest = new LinkedHashMap<>();
+        for (int i = low; i < size; i++) {
+            int slot = (start + i) % versions.length;
+            // Re-insert so the entry is ordered by its last change
+            latest.remove(userIds[slot]);
+            latest.put(userIds[slot], new BoardChange(userIds[slot], scores[slot], streaks[slot]));
+        }
+        return Optional.of(new ArrayList<>(latest.values()));
+    }
+}
@@ -0,0 +1,57 @@
+package com.clouddev.leaderboardservice.cache;
+
+import com.clouddev.leaderboardservice.event.ScoreChangedEvent;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Monotonic version of the board as seen by this instance. It is bumped
+ * after every committed score change, so anything derived from the board
+ * can tell whether it is out of date by comparing version numbers. Each
+ * change is also kept in the BoardChangeLog under the version it produced.
+ *
+ * The version starts at the wall clock in microseconds and counts up by
+ * one per change, so versions from an earlier run compare lower and, while
+ * there are fewer than a million changes a second, no version is ahead of
+ * the time of its change. /leaderboard/changes relies on that to turn an
+ * old version into an updated_at bound.
+ *
+ * The version only counts changes made through this instance; with more
+ * than one replica, cached views also need a max age, and
+ * /leaderboard/changes reads every version by updated_at.
+ */
+@Component
+public class BoardVersion {
+
+    private final BoardChangeLog changeLog;
+    private final AtomicLong version;
+
+    @Autowired
+    public BoardVersion(BoardChangeLog changeLog) {
+        this(changeLog, System.currentTimeMillis() * 1000L);
+    }
+
+    BoardVersion() {
+        this(new BoardChangeLog(16), 0L);
+    }
+
+    BoardVersion(BoardChangeLog changeLog, long initialVersion) {
+        this.changeLog = changeLog;
+        this.version = new AtomicLong(initialVersion);
+    }
+
+    public long current() {
+        return version.get();
+    }
+
+    // Runs right after the rank index so views rebuilt at the new version see the change
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 10)
+    public void onScoreChanged(ScoreChangedEvent event) {
+        changeLog.record(event, version::incrementAndGet);
+    }
+}
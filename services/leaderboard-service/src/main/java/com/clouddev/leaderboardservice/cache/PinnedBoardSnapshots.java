@@ -0,0 +1,220 @@
+package com.clouddev.leaderboardservice.cache;
+
+import com.clouddev.leaderboardservice.index.RankIndex;
+import com.clouddev.leaderboardservice.index.RankedEntry;
+import com.clouddev.leaderboardservice.model.PageCursor;
+import com.clouddev.leaderboardservice.model.WindowedScore;
+import com.clouddev.leaderboardservice.repository.LeaderboardRepository;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Frozen copies of the all-time board that paging clients can pin, so every
+ * page they fetch comes from one consistent ranking while scores keep
+ * changing.
+ *
+ * A snapshot is taken from the rank index when it is serving, otherwise
+ * with keyset reads in one REPEATABLE READ transaction. Clients that pin
+ * while the board is still at the same BoardVersion share a snapshot. Each
+ * snapshot gets a random id, so a cursor that reaches another replica finds
+ * nothing rather than a different board. Memory is bounded: at most
+ * max-snapshots are held, each for ttl-ms after it was last read, and
+ * boards larger than max-entries are not pinned at all.
+ */
+@Component
+public class PinnedBoardSnapshots {
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private final LeaderboardRepository leaderboardRepository;
+    private final RankIndex rankIndex;
+    private final BoardVersion boardVersion;
+    private final TransactionTemplate snapshotTransaction;
+    private final long ttlNanos;
+    private final int maxSnapshots;
+    private final int maxEntries;
+    private final LongSupplier clock;
+
+    private final SecureRandom random = new SecureRandom();
+    private final Object buildLock = new Object();
+    // Access order, so the least recently paged snapshot is evicted first
+    private final Map<Long, Snapshot> snapshots = new LinkedHashMap<>(16, 0.75f, true);
+
+    @Autowired
+    public PinnedBoardSnapshots(LeaderboardRepository leaderboardRepository, RankIndex rankIndex,
+            BoardVersion boardVersion, PlatformTransactionManager transactionManager,
+            @Value("${leaderboard.page.pin-ttl-ms:60000}") long ttlMs,
+            @Value("${leaderboard.page.pin-max-snapshots:2}") int maxSnapshots,
+            @Value("${leaderboard.page.pin-max-entries:100000}") int maxEntries) {
+        this(leaderboardRepository, rankIndex, boardVersion, transactionManager, ttlMs, maxSnapshots, maxEntries,
+                System::nanoTime);
+    }
+
+    PinnedBoardSnapshots(LeaderboardRepository leaderboardRepository, RankIndex rankIndex,
+            BoardVersion boardVersion, PlatformTransactionManager transactionManager,
+            long ttlMs, int maxSnapshots, int maxEntries, LongSupplier clock) {
+        this.leaderboardRepository = leaderboardRepository;
+        this.rankIndex = rankIndex;
+        this.boardVersion = boardVersion;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTransaction.setReadOnly(true);
+        this.ttlNanos = ttlMs * 1_000_000L;
+        this.maxSnapshots = Math.max(1, maxSnapshots);
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    /**
+     * A snapshot of the board at its current version, taken if none is held
+     * yet. Empty if the board has more than max-entries entries.
+     */
+    public Optional<Snapshot> pin() {
+        synchronized (buildLock) {
+            // Read the version first: a change landing mid-build is then picked up by the next pin
+            long version = boardVersion.current();
+            Optional<Snapshot> existing = findByVersion(version);
+            if (existing.isPresent()) {
+                return existing;
+            }
+
+            List<WindowedScore> rows = rankIndex.isServing() ? copyRankIndex() : copyTable();
+            if (rows == null) {
+                return Optional.empty();
+            }
+
+            Snapshot snapshot = new Snapshot(random.nextLong(), version, List.copyOf(rows));
+            store(snapshot);
+            return Optional.of(snapshot);
+        }
+    }
+
+    /**
+     * The pinned snapshot with this id, or empty if it has expired, been
+     * evicted or was taken by another instance.
+     */
+    public Optional<Snapshot> get(long snapshotId) {
+        long now = clock.getAsLong();
+        synchronized (snapshots) {
+            removeExpired(now);
+            Snapshot snapshot = snapshots.get(snapshotId);
+            if (snapshot == null) {
+                return Optional.empty();
+            }
+            snapshot.lastReadNanos = now;
+            return Optional.of(snapshot);
+        }
+    }
+
+    private Optional<Snapshot> findByVersion(long version) {
+        long now = clock.getAsLong();
+        synchronized (snapshots) {
+            removeExpired(now);
+            for (Snapshot snapshot : snapshots.values()) {
+                if (snapshot.version() == version) {
+                    snapshot.lastReadNanos = now;
+                    return Optional.of(snapshot);
+                }
+            }
+            return Optional.empty();
+        }
+    }
+
+    private void store(Snapshot snapshot) {
+        synchronized (snapshots) {
+            snapshot.lastReadNanos = clock.getAsLong();
+            snapshots.put(snapshot.id(), snapshot);
+            Iterator<Snapshot> eldest = snapshots.values().iterator();
+            while (snapshots.size() > maxSnapshots) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+
+    private void removeExpired(long now) {
+        snapshots.values().removeIf(snapshot -> now - snapshot.lastReadNanos >= ttlNanos);
+    }
+
+    private List<WindowedScore> copyRankIndex() {
+        List<RankedEntry> ranked = rankIndex.top(maxEntries + 1);
+        if (ranked.size() > maxEntries) {
+            return null;
+        }
+        List<WindowedScore> rows = new ArrayList<>(ranked.size());
+        for (RankedEntry entry : ranked) {
+            rows.add(new WindowedScore(entry.userId(), entry.score(), entry.streak(), null, entry.rank()));
+        }
+        return rows;
+    }
+
+    private List<WindowedScore> copyTable() {
+        return snapshotTransaction.execute(status -> {
+            List<WindowedScore> rows = new ArrayList<>();
+            PageCursor after = null;
+            List<WindowedScore> batch;
+            do {
+                batch = leaderboardRepository.findPage(after, LOAD_BATCH_SIZE);
+                rows.addAll(batch);
+                if (rows.size() > maxEntries) {
+                    return null;
+                }
+                if (!batch.isEmpty()) {
+                    WindowedScore last = batch.get(batch.size() - 1);
+                    after = new PageCursor(last.score(), last.userId(), last.rank(), null);
+                }
+            } while (batch.size() == LOAD_BATCH_SIZE);
+            return rows;
+        });
+    }
+
+    /**
+     * One pinned copy of the board, in board order with positional ranks.
+     */
+    public static final class Snapshot {
+        private final long id;
+        private final long version;
+        private final List<WindowedScore> rows;
+        private volatile long lastReadNanos;
+
+        public Snapshot(long id, long version, List<WindowedScore> rows) {
+            this.id = id;
+            this.version = version;
+            this.rows = rows;
+        }
+
+        public long id() {
+            return id;
+        }
+
+        public long version() {
+            return version;
+        }
+
+        public int size() {
+            return rows.size();
+        }
+
+        /**
+         * Up to limit rows starting after the given position. Positions are
+         * fixed within a snapshot, so no key lookup is needed.
+         */
+        public List<WindowedScore> page(long afterPosition, int limit) {
+            int from = (int) Math.min(afterPosition, rows.size());
+            int to = (int) Math.min((long) from + limit, rows.size());
+            return rows.subList(from, to);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.clouddev.leaderboardservice.cache;
+
+import com.clouddev.leaderboardservice.model.LeaderboardEntry;
+import com.clouddev.leaderboardservice.model.LeaderboardWindow;
+import com.clouddev.leaderboardservice.service.LeaderboardService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Cache of serialized /leaderboard/top/{n} responses, keyed by window and n.
+ *
+ * Each snapshot holds the JSON body as bytes plus a strong ETag over those
+ * bytes, and is tagged with the BoardVersion it was built at. A snapshot is
+ * served only while the board is still at that version and it is younger
+ * than max-age-ms; the age limit covers changes this instance does not see,
+ * such as writes through other replicas and username changes, and the start
+ * of a new day, week or month for the windowed boards.
+ */
+@Component
+public class TopNSnapshotCache {
+
+    private final LeaderboardService leaderboardService;
+    private final BoardVersion boardVersion;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int maxN;
+    private final int maxEntries;
+    private final long maxAgeNanos;
+    private final LongSupplier clock;
+
+    private final Map<Key, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TopNSnapshotCache(LeaderboardService leaderboardService, BoardVersion boardVersion,
+            ObjectMapper objectMapper,
+            @Value("${leaderboard.top-cache.enabled:true}") boolean enabled,
+            @Value("${leaderboard.top-cache.max-n:1000}") int maxN,
+            @Value("${leaderboard.top-cache.max-entries:32}") int maxEntries,
+            @Value("${leaderboard.top-cache.max-age-ms:2000}") long maxAgeMs) {
+        this(leaderboardService, boardVersion, objectMapper, enabled, maxN, maxEntries, maxAgeMs, System::nanoTime);
+    }
+
+    TopNSnapshotCache(LeaderboardService leaderboardService, BoardVersion boardVersion, ObjectMapper objectMapper,
+            boolean enabled, int maxN, int maxEntries, long maxAgeMs, LongSupplier clock) {
+        this.leaderboardService = leaderboardService;
+        this.boardVersion = boardVersion;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.maxN = maxN;
+        this.maxEntries = maxEntries;
+        this.maxAgeNanos = maxAgeMs * 1_000_000L;
+        this.clock = clock;
+    }
+
+    public Snapshot topN(int n) {
+        return topN(LeaderboardWindow.ALL, n);
+    }
+
+    /**
+     * Returns the current top-N snapshot of the window's board, rebuilding
+     * it if the board has moved on or the snapshot is too old. Page sizes
+     * outside 1..max-n, or beyond max-entries distinct (window, n) pairs,
+     * are built fresh and not stored.
+     */
+    public Snapshot topN(LeaderboardWindow window, int n) {
+        Key key = new Key(window, n);
+        // Read the version first: a change landing mid-build leaves this snapshot already stale
+        long version = boardVersion.current();
+        long now = clock.getAsLong();
+
+        Snapshot cached = enabled ? snapshots.get(key) : null;
+        if (cached != null && cached.version() == version && now - cached.builtAtNanos() < maxAgeNanos) {
+            return cached;
+        }
+
+        Snapshot snapshot = build(window, n, version, now);
+        if (enabled && n > 0 && n <= maxN && (cached != null || snapshots.size() < maxEntries)) {
+            snapshots.put(key, snapshot);
+        }
+        return snapshot;
+    }
+
+    private Snapshot build(LeaderboardWindow window, int n, long version, long now) {
+        List<LeaderboardEntry> entries = window == LeaderboardWindow.ALL
+                ? leaderboardService.getTopN(n)
+                : leaderboardService.getTopN(n, window);
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(entries);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize top " + n + " " + window + " leaderboard", e);
+        }
+        return new Snapshot(version, body, "\"" + DigestUtils.md5DigestAsHex(body) + "\"", now);
+    }
+
+    private record Key(LeaderboardWindow window, int n) {
+    }
+
+    /**
+     * A serialized response body with its strong ETag (quoted).
+     */
+    public record Snapshot(long version, byte[] body, String etag, long builtAtNanos) {
+
+        /**
+         * True if an If-None-Match header value names this snapshot's ETag.
+         * Uses weak comparison, as RFC 9110 requires for If-None-Match.
+         */
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+                return false;
+            }
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.equals("*")) {
+                    return true;
+                }
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
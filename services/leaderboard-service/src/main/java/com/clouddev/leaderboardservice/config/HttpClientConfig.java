@@ -0,0 +1,125 @@
+package com.clouddev.leaderboardservice.config;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * HTTP client for calls to other services, kept identical in auth-service
+ * and leaderboard-service so both are tuned through the same http.client.*
+ * properties.
+ *
+ * Connections are pooled and kept alive, with a total limit, a default
+ * per-route limit and optional per-route overrides. Pool usage is published
+ * as httpcomponents.httpclient.pool.* meters. With http.client.h2c.enabled
+ * the JDK client is used instead and multiplexes calls over HTTP/2
+ * cleartext; the pool limits and metrics do not apply in that mode.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Bean
+    public PoolingHttpClientConnectionManager httpClientConnectionManager(
+            @Value("${http.client.max-total:100}") int maxTotal,
+            @Value("${http.client.max-per-route:20}") int maxPerRoute,
+            @Value("${http.client.route-limits:}") String routeLimits,
+            @Value("${http.client.connect-timeout-ms:500}") long connectTimeoutMs,
+            @Value("${http.client.validate-after-inactivity-ms:2000}") long validateAfterInactivityMs) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setValidateAfterInactivity(TimeValue.ofMilliseconds(validateAfterInactivityMs))
+                        .build())
+                .build();
+        for (Map.Entry<HttpHost, Integer> limit : parseRouteLimits(routeLimits).entrySet()) {
+            connectionManager.setMaxPerRoute(new HttpRoute(limit.getKey()), limit.getValue());
+        }
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient pooledHttpClient(PoolingHttpClientConnectionManager connectionManager,
+            @Value("${http.client.read-timeout-ms:1000}") long readTimeoutMs,
+            @Value("${http.client.pool-timeout-ms:500}") long poolTimeoutMs,
+            @Value("${http.client.keep-alive-ms:30000}") long keepAliveMs) {
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolTimeoutMs))
+                        .build())
+                // Used when the server sends no Keep-Alive header
+                .setKeepAliveStrategy((response, context) -> TimeValue.ofMilliseconds(keepAliveMs))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(keepAliveMs))
+                .build();
+    }
+
+    @Bean
+    public RestTemplate restTemplate(CloseableHttpClient pooledHttpClient,
+            @Value("${http.client.h2c.enabled:false}") boolean h2cEnabled,
+            @Value("${http.client.connect-timeout-ms:500}") long connectTimeoutMs,
+            @Value("${http.client.read-timeout-ms:1000}") long readTimeoutMs) {
+        ClientHttpRequestFactory requestFactory;
+        if (h2cEnabled) {
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_2)
+                    .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                    .build();
+            JdkClientHttpRequestFactory jdkRequestFactory = new JdkClientHttpRequestFactory(httpClient);
+            jdkRequestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+            requestFactory = jdkRequestFactory;
+        } else {
+            requestFactory = new HttpComponentsClientHttpRequestFactory(pooledHttpClient);
+        }
+        return new RestTemplate(requestFactory);
+    }
+
+    @Bean
+    public MeterBinder httpClientPoolMetrics(PoolingHttpClientConnectionManager connectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "http-client");
+    }
+
+    /**
+     * Parses "host:port=max,host:port=max" into per-route connection limits
+     * for plain HTTP routes.
+     */
+    static Map<HttpHost, Integer> parseRouteLimits(String routeLimits) {
+        Map<HttpHost, Integer> limits = new LinkedHashMap<>();
+        if (routeLimits == null || routeLimits.isBlank()) {
+            return limits;
+        }
+        for (String entry : routeLimits.split(",")) {
+            String[] parts = entry.trim().split("=");
+            String[] hostAndPort = parts.length == 2 ? parts[0].trim().split(":") : new String[0];
+            if (hostAndPort.length != 2) {
+                throw new IllegalArgumentException("Invalid http.client.route-limits entry: " + entry);
+            }
+            limits.put(new HttpHost("http", hostAndPort[0], Integer.parseInt(hostAndPort[1])),
+                    Integer.parseInt(parts[1].trim()));
+        }
+        return limits;
+    }
+}
@@ -0,0 +1,37 @@
+package com.clouddev.leaderboardservice.config;
+
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Declares the durable queue that receives user-service profile-changed
+ * events, bound to the shared fitness_events topic exchange.
+ */
+@Configuration
+@ConditionalOnProperty(name = "leaderboard.profile-events.enabled", havingValue = "true")
+public class ProfileEventsConfig {
+
+    @Bean
+    public TopicExchange fitnessEventsExchange(
+            @Value("${leaderboard.profile-events.exchange:fitness_events}") String exchange) {
+        return new TopicExchange(exchange, true, false);
+    }
+
+    @Bean
+    public Queue profileEventsQueue(
+            @Value("${leaderboard.profile-events.queue:leaderboard-service-profiles}") String queue) {
+        return new Queue(queue, true);
+    }
+
+    @Bean
+    public Binding profileEventsBinding(Queue profileEventsQueue, TopicExchange fitnessEventsExchange,
+            @Value("${leaderboard.profile-events.routing-key:user.profile.changed}") String routingKey) {
+        return BindingBuilder.bind(profileEventsQueue).to(fitnessEventsExchange).with(routingKey);
+    }
+}
@@ -0,0 +1,23 @@
+package com.clouddev.leaderboardservice.config;
+
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.boot.actuate.amqp.RabbitHealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Reports the broker connection under the "rabbit" health check whenever
+ * either listener consumes from it. Boot's own check is switched off
+ * (management.health.rabbit.enabled) since a single property cannot say
+ * "profile events or workout events".
+ */
+@Configuration
+@ConditionalOnExpression("${leaderboard.profile-events.enabled:false} or ${leaderboard.workout-events.enabled:false}")
+public class RabbitHealthConfig {
+
+    @Bean
+    public RabbitHealthIndicator rabbitHealthIndicator(RabbitTemplate rabbitTemplate) {
+        return new RabbitHealthIndicator(rabbitTemplate);
+    }
+}
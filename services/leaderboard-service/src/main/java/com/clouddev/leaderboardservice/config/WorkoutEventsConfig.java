@@ -0,0 +1,67 @@
+package com.clouddev.leaderboardservice.config;
+
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Declares the durable queue that receives workout-service workout-logged
+ * events, bound to the shared fitness_events topic exchange, and the
+ * batching listener container that consumes it.
+ *
+ * Each consumer keeps up to prefetch messages in flight and hands the
+ * listener up to batch-size of them at once, waiting at most
+ * batch-timeout-ms for a batch to fill. Acks are manual: WorkoutEventListener
+ * acknowledges each batch itself once its transaction has committed.
+ */
+@Configuration
+@ConditionalOnProperty(name = "leaderboard.workout-events.enabled", havingValue = "true")
+public class WorkoutEventsConfig {
+
+    @Bean
+    public TopicExchange workoutEventsExchange(
+            @Value("${leaderboard.workout-events.exchange:fitness_events}") String exchange) {
+        return new TopicExchange(exchange, true, false);
+    }
+
+    @Bean
+    public Queue workoutEventsQueue(
+            @Value("${leaderboard.workout-events.queue:leaderboard-service-workouts}") String queue) {
+        return new Queue(queue, true);
+    }
+
+    @Bean
+    public Binding workoutEventsBinding(Queue workoutEventsQueue, TopicExchange workoutEventsExchange,
+            @Value("${leaderboard.workout-events.routing-key:workout.logged}") String routingKey) {
+        return BindingBuilder.bind(workoutEventsQueue).to(workoutEventsExchange).with(routingKey);
+    }
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory workoutEventsContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory,
+            @Value("${leaderboard.workout-events.prefetch:500}") int prefetch,
+            @Value("${leaderboard.workout-events.batch-size:250}") int batchSize,
+            @Value("${leaderboard.workout-events.batch-timeout-ms:100}") long batchTimeoutMs,
+            @Value("${leaderboard.workout-events.concurrency:1}") int concurrency) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(Math.max(1, batchSize));
+        // A batch can only fill if at least that many messages are in flight
+        factory.setPrefetchCount(Math.max(prefetch, batchSize));
+        factory.setReceiveTimeout(batchTimeoutMs);
+        factory.setConcurrentConsumers(Math.max(1, concurrency));
+        return factory;
+    }
+}
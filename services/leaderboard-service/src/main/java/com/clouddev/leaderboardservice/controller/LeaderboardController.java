@@ -1,48 +1,495 @@
 package com.clouddev.leaderboardservice.controller;
 
+import com.clouddev.leaderboardservice.cache.TopNSnapshotCache;
+import com.clouddev.leaderboardservice.dedupe.IdempotencyKeys;
+import com.clouddev.leaderboardservice.group.GroupRegistry;
+import com.clouddev.leaderboardservice.index.ScoreHistogram;
+import com.clouddev.leaderboardservice.model.BoardChanges;
+import com.clouddev.leaderboardservice.model.GroupLeaderboard;
 import com.clouddev.leaderboardservice.model.LeaderboardEntry;
+import com.clouddev.leaderboardservice.model.LeaderboardNeighborhood;
+import com.clouddev.leaderboardservice.model.LeaderboardPage;
+import com.clouddev.leaderboardservice.model.LeaderboardWindow;
+import com.clouddev.leaderboardservice.model.PageCursor;
+import com.clouddev.leaderboardservice.model.ScoreDistribution;
+import com.clouddev.leaderboardservice.model.ScorePercentile;
+import com.clouddev.leaderboardservice.model.ScoreUpdateItem;
+import com.clouddev.leaderboardservice.model.ScoreUpdateResult;
+import com.clouddev.leaderboardservice.model.UserRankResult;
+import com.clouddev.leaderboardservice.replica.ReplicatedScores;
+import com.clouddev.leaderboardservice.service.BoardChangeFeed;
 import com.clouddev.leaderboardservice.service.LeaderboardService;
+import com.clouddev.leaderboardservice.service.ScoreUpdateBuffer;
+import com.clouddev.leaderboardservice.shard.ShardedLeaderboard;
+import com.clouddev.leaderboardservice.stream.TopNStream;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/leaderboard")
 public class LeaderboardController {
 
+    private static final int MAX_USER_ID_LENGTH = 255;
+
     private final LeaderboardService leaderboardService;
+    private final ScoreUpdateBuffer scoreUpdateBuffer;
+    private final TopNSnapshotCache topNSnapshotCache;
+    private final ScoreHistogram scoreHistogram;
+    private final TopNStream topNStream;
+    private final BoardChangeFeed boardChangeFeed;
+    private final IdempotencyKeys idempotencyKeys;
+    private final GroupRegistry groupRegistry;
+    private final ShardedLeaderboard shardedLeaderboard;
+    private final ReplicatedScores replicatedScores;
+    private final int maxBatchSize;
+    private final int maxAroundK;
+    private final int maxTopN;
+    private final int maxPageLimit;
+    private final int maxStreamN;
+    private final int maxRanks;
 
-    public LeaderboardController(LeaderboardService leaderboardService) {
+    public LeaderboardController(LeaderboardService leaderboardService, ScoreUpdateBuffer scoreUpdateBuffer,
+            TopNSnapshotCache topNSnapshotCache, ScoreHistogram scoreHistogram, TopNStream topNStream,
+            BoardChangeFeed boardChangeFeed, IdempotencyKeys idempotencyKeys, GroupRegistry groupRegistry,
+            ShardedLeaderboard shardedLeaderboard, ReplicatedScores replicatedScores,
+            @Value("${leaderboard.batch.max-size:1000}") int maxBatchSize,
+            @Value("${leaderboard.around.max-k:50}") int maxAroundK,
+            @Value("${leaderboard.top.max-n:1000}") int maxTopN,
+            @Value("${leaderboard.page.max-limit:200}") int maxPageLimit,
+            @Value("${leaderboard.stream.max-n:100}") int maxStreamN,
+            @Value("${leaderboard.ranks.max-size:1000}") int maxRanks) {
         this.leaderboardService = leaderboardService;
+        this.scoreUpdateBuffer = scoreUpdateBuffer;
+        this.topNSnapshotCache = topNSnapshotCache;
+        this.scoreHistogram = scoreHistogram;
+        this.topNStream = topNStream;
+        this.boardChangeFeed = boardChangeFeed;
+        this.idempotencyKeys = idempotencyKeys;
+        this.groupRegistry = groupRegistry;
+        this.shardedLeaderboard = shardedLeaderboard;
+        this.replicatedScores = replicatedScores;
+        this.maxBatchSize = maxBatchSize;
+        this.maxAroundK = maxAroundK;
+        this.maxTopN = maxTopN;
+        this.maxPageLimit = maxPageLimit;
+        this.maxStreamN = maxStreamN;
+        this.maxRanks = maxRanks;
     }
 
+    /**
+     * Adds a delta to the user's score. An idempotency key, from the
+     * Idempotency-Key header or the body, makes retries safe: a key already
+     * applied for the user is answered 200 without changing the score.
+     */
     @PostMapping("/update/{userId}")
     public ResponseEntity<Void> updateScore(@PathVariable String userId,
+                                            @RequestHeader(value = "Idempotency-Key", required = false)
+                                            String idempotencyKeyHeader,
                                             @RequestBody ScoreUpdateRequest request) {
         double delta = request != null ? request.scoreDelta() : 0.0d;
-        leaderboardService.updateScore(userId, delta);
+        String idempotencyKey = idempotencyKeyHeader != null ? idempotencyKeyHeader
+                : request != null ? request.idempotencyKey() : null;
+        if (!idempotencyKeys.claim(userId, idempotencyKey)) {
+            return ResponseEntity.ok().build();
+        }
+
+        try {
+            if (scoreUpdateBuffer.isEnabled()) {
+                // Write-behind: the delta is persisted by the next buffer flush
+                scoreUpdateBuffer.add(userId, delta, LocalDate.now(ZoneOffset.UTC));
+            } else {
+                leaderboardService.updateScore(userId, delta);
+            }
+        } catch (RuntimeException e) {
+            idempotencyKeys.release(userId, idempotencyKey);
+            throw e;
+        }
         return ResponseEntity.accepted().build();
     }
 
+    /**
+     * Applies many score updates in one transaction. Items are validated
+     * individually; the response lists the outcome of each in request order.
+     * Items repeating an idempotency key that was already applied are
+     * reported as duplicates and skipped. When sharded, items on a shard
+     * that failed are reported as failed while the other shards' items stay
+     * applied, and only the failed items' keys are released for a retry.
+     */
+    @PostMapping("/update/batch")
+    public ResponseEntity<List<ScoreUpdateResult>> updateScores(@RequestBody List<ScoreUpdateItem> items) {
+        if (items == null || items.size() > maxBatchSize) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        boolean[] duplicate = new boolean[items.size()];
+        List<ScoreUpdateItem> fresh = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            ScoreUpdateItem item = items.get(i);
+            duplicate[i] = item != null && !idempotencyKeys.claim(item.userId(), item.idempotencyKey());
+            if (!duplicate[i]) {
+                fresh.add(item);
+            }
+        }
+
+        List<ScoreUpdateResult> applied;
+        try {
+            applied = leaderboardService.applyScoreBatch(fresh);
+        } catch (RuntimeException e) {
+            fresh.forEach(this::releaseKey);
+            throw e;
+        }
+
+        List<ScoreUpdateResult> results = new ArrayList<>(items.size());
+        int next = 0;
+        for (int i = 0; i < items.size(); i++) {
+            if (duplicate[i]) {
+                results.add(ScoreUpdateResult.duplicate(items.get(i).userId()));
+                continue;
+            }
+            ScoreUpdateResult result = applied.get(next++);
+            if (result.status() == ScoreUpdateResult.Status.REJECTED
+                    || result.status() == ScoreUpdateResult.Status.FAILED) {
+                // Not written, so a retry with the same key must go through
+                releaseKey(items.get(i));
+            }
+            results.add(result);
+        }
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * Pages through the all-time board with an opaque keyset cursor. Pass
+     * pin=true on the first request to page over one frozen ranking; 410
+     * means that snapshot has expired and paging must restart. 501 when
+     * the board is sharded.
+     */
+    @GetMapping
+    public ResponseEntity<LeaderboardPage> getPage(@RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "50") int limit,
+            @RequestParam(value = "pin", defaultValue = "false") boolean pin) {
+        if (shardedLeaderboard.isEnabled()) {
+            return notImplemented();
+        }
+        if (limit < 1 || limit > maxPageLimit) {
+            return ResponseEntity.badRequest().build();
+        }
+        PageCursor after;
+        try {
+            after = PageCursor.parse(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Optional<LeaderboardPage> page = leaderboardService.getPage(after, limit, pin);
+        return page.map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.GONE).build());
+    }
+
+    /**
+     * Serves the cached snapshot for n on the requested board (window=day,
+     * week or month; all-time by default). Clients that poll with
+     * If-None-Match get 304 with no body while the board is unchanged.
+     * n above top.max-n is clamped to it, so the response may be shorter
+     * than asked; deeper reads page through GET /leaderboard.
+     * The windowed boards answer 501 when the board is sharded or replicated.
+     */
     @GetMapping("/top/{n}")
-    public ResponseEntity<List<LeaderboardEntry>> getTop(@PathVariable int n) {
-        List<LeaderboardEntry> entries = leaderboardService.getTopN(n);
-        return ResponseEntity.ok(entries);
+    public ResponseEntity<byte[]> getTop(@PathVariable int n,
+            @RequestParam(value = "window", required = false) String window,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Optional<LeaderboardWindow> parsedWindow = parseWindow(window);
+        if (parsedWindow.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (parsedWindow.get() != LeaderboardWindow.ALL && !periodBoardsKept()) {
+            return notImplemented();
+        }
+
+        TopNSnapshotCache.Snapshot snapshot = topNSnapshotCache.topN(parsedWindow.get(), Math.min(n, maxTopN));
+        if (snapshot.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(snapshot.etag()).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(snapshot.etag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(snapshot.body());
+    }
+
+    /**
+     * Server-Sent Events stream of the all-time top n: a "snapshot" event
+     * with the current list, then "diff" events with moves, entries and
+     * exits, at most one per tick. 503 when the stream limit is reached.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(@RequestParam(value = "n", defaultValue = "10") int n) {
+        if (n < 1 || n > maxStreamN) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Optional<SseEmitter> emitter = topNStream.subscribe(n);
+        return emitter.map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
+
+    /**
+     * All-time entries whose score or streak changed after the given board
+     * version, for clients that mirror the board. 410 with resync=true means
+     * the changes are no longer available: reload the board, then continue
+     * from the returned version. Versions are never negative.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<BoardChanges> getChanges(@RequestParam("since") long since) {
+        if (since < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        BoardChanges changes = boardChangeFeed.changesSince(since);
+        return ResponseEntity.status(changes.resync() ? HttpStatus.GONE : HttpStatus.OK).body(changes);
     }
 
     @GetMapping("/rank/{userId}")
-    public ResponseEntity<LeaderboardEntry> getRank(@PathVariable String userId) {
-        Optional<LeaderboardEntry> entry = leaderboardService.getRank(userId);
+    public ResponseEntity<LeaderboardEntry> getRank(@PathVariable String userId,
+            @RequestParam(value = "window", required = false) String window) {
+        Optional<LeaderboardWindow> parsedWindow = parseWindow(window);
+        if (parsedWindow.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (parsedWindow.get() != LeaderboardWindow.ALL && !periodBoardsKept()) {
+            return notImplemented();
+        }
+
+        Optional<LeaderboardEntry> entry = leaderboardService.getRank(userId, parsedWindow.get());
         return entry.map(ResponseEntity::ok)
                 .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
     }
 
-    public record ScoreUpdateRequest(double scoreDelta) {}
+    /**
+     * All-time ranks for a list of users, e.g. a challenge's participants,
+     * in request order. Users with no entry are reported as UNKNOWN.
+     */
+    @PostMapping("/ranks")
+    public ResponseEntity<List<UserRankResult>> getRanks(@RequestBody List<String> userIds) {
+        if (userIds == null || userIds.size() > maxRanks) {
+            return ResponseEntity.badRequest().build();
+        }
+        for (String userId : userIds) {
+            if (userId == null || userId.isBlank() || userId.length() > MAX_USER_ID_LENGTH) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        return ResponseEntity.ok(leaderboardService.getRanks(userIds));
+    }
+
+    /**
+     * The user's all-time position with k entries on either side; 501 when
+     * the board is sharded.
+     */
+    @GetMapping("/around/{userId}")
+    public ResponseEntity<LeaderboardNeighborhood> getAround(@PathVariable String userId,
+            @RequestParam(value = "k", defaultValue = "5") int k) {
+        if (shardedLeaderboard.isEnabled()) {
+            return notImplemented();
+        }
+        if (k < 0 || k > maxAroundK) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Optional<LeaderboardNeighborhood> neighborhood = leaderboardService.getAround(userId, k);
+        return neighborhood.map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    }
+
+    /**
+     * "Top X%" for the user from the score histogram; 503 until the
+     * histogram has been loaded, 501 when the board is sharded.
+     */
+    @GetMapping("/percentile/{userId}")
+    public ResponseEntity<ScorePercentile> getPercentile(@PathVariable String userId) {
+        if (shardedLeaderboard.isEnabled()) {
+            return notImplemented();
+        }
+        if (!scoreHistogram.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+
+        Optional<ScorePercentile> percentile = leaderboardService.getPercentile(userId);
+        return percentile.map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    }
+
+    /**
+     * All-time score distribution as non-empty log-sized buckets; 501 when
+     * the board is sharded.
+     */
+    @GetMapping("/histogram")
+    public ResponseEntity<ScoreDistribution> getHistogram() {
+        if (shardedLeaderboard.isEnabled()) {
+            return notImplemented();
+        }
+        if (!scoreHistogram.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(scoreHistogram.distribution());
+    }
+
+    /**
+     * Registers a group (a challenge, a friends list) with exactly these
+     * members, replacing any earlier ones. 503 when the group limit is
+     * reached.
+     */
+    @PutMapping("/groups/{groupId}")
+    public ResponseEntity<Void> putGroup(@PathVariable String groupId, @RequestBody List<String> members) {
+        if (!validMembers(members)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return groupRegistry.put(groupId, members)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+
+    /**
+     * Adds members to a group, creating it if needed. 400 if the group
+     * would grow past the member limit.
+     */
+    @PostMapping("/groups/{groupId}/members")
+    public ResponseEntity<Void> addGroupMembers(@PathVariable String groupId, @RequestBody List<String> members) {
+        if (!validMembers(members)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return groupRegistry.addMembers(groupId, members)
+                    ? ResponseEntity.noContent().build()
+                    : ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @DeleteMapping("/groups/{groupId}/members/{userId}")
+    public ResponseEntity<Void> removeGroupMember(@PathVariable String groupId, @PathVariable String userId) {
+        return groupRegistry.removeMembers(groupId, List.of(userId))
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    @DeleteMapping("/groups/{groupId}")
+    public ResponseEntity<Void> deleteGroup(@PathVariable String groupId) {
+        return groupRegistry.remove(groupId) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * The top of a registered group, its members ranked among themselves.
+     * Group reads answer 501 when the board is sharded.
+     */
+    @GetMapping("/groups/{groupId}")
+    public ResponseEntity<GroupLeaderboard> getGroupBoard(@PathVariable String groupId,
+            @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        if (shardedLeaderboard.isEnabled()) {
+            return notImplemented();
+        }
+        if (limit < 1 || limit > groupRegistry.maxMembers()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return groupRegistry.members(groupId)
+                .map(members -> ResponseEntity.ok(leaderboardService.getGroupBoard(groupId, members, limit)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    }
+
+    /**
+     * The user's rank within a registered group; 404 if the group does not
+     * exist or the user is not a member with a score.
+     */
+    @GetMapping("/groups/{groupId}/rank/{userId}")
+    public ResponseEntity<LeaderboardEntry> getRankInGroup(@PathVariable String groupId,
+            @PathVariable String userId) {
+        if (shardedLeaderboard.isEnabled()) {
+            return notImplemented();
+        }
+        return groupRegistry.members(groupId)
+                .flatMap(members -> leaderboardService.getRankInGroup(members, userId))
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    }
+
+    /**
+     * Ranks a member list sent with the request, e.g. the caller's friends,
+     * without registering it.
+     */
+    @PostMapping("/groups/rank")
+    public ResponseEntity<GroupLeaderboard> rankMembers(@RequestBody List<String> members,
+            @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        if (!validMembers(members) || limit < 1 || limit > groupRegistry.maxMembers()) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (shardedLeaderboard.isEnabled()) {
+            return notImplemented();
+        }
+        return ResponseEntity.ok(leaderboardService.getGroupBoard(null, new LinkedHashSet<>(members), limit));
+    }
+
+    /**
+     * For reads of tables or copies that the configured write path does not
+     * keep up to date.
+     */
+    private static <T> ResponseEntity<T> notImplemented() {
+        return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED).build();
+    }
+
+    /**
+     * Whether writes reach leaderboard_period_scores: sharded writes go to
+     * the shards and replicated ones are copied into leaderboard_entries
+     * only, so the day, week and month boards would stop counting.
+     */
+    private boolean periodBoardsKept() {
+        return !shardedLeaderboard.isEnabled() && !replicatedScores.isEnabled();
+    }
+
+    private boolean validMembers(List<String> members) {
+        if (members == null || members.size() > groupRegistry.maxMembers()) {
+            return false;
+        }
+        for (String userId : members) {
+            if (userId == null || userId.isBlank() || userId.length() > MAX_USER_ID_LENGTH) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Optional<LeaderboardWindow> parseWindow(String window) {
+        try {
+            return Optional.of(LeaderboardWindow.parse(window));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private void releaseKey(ScoreUpdateItem item) {
+        if (item != null) {
+            idempotencyKeys.release(item.userId(), item.idempotencyKey());
+        }
+    }
+
+    public record ScoreUpdateRequest(double scoreDelta, String idempotencyKey) {}
 }
@@ -0,0 +1,61 @@
+package com.clouddev.leaderboardservice.dedupe;
+
+/**
+ * Fixed-size Bloom filter over 64-bit key hashes. Probes are derived from
+ * the two halves of the hash (Kirsch-Mitzenmacher double hashing), so a key
+ * is hashed once however many probes there are. Not thread-safe.
+ */
+final class BloomFilter {
+
+    private final long[] words;
+    private final long bits;
+    private final int probes;
+
+    /**
+     * Sized for the given number of keys at roughly the given false-positive rate.
+     */
+    BloomFilter(int expectedKeys, double falsePositiveRate) {
+        long n = Math.max(1, expectedKeys);
+        double ln2 = Math.log(2.0d);
+        long wanted = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (ln2 * ln2));
+        this.words = new long[(int) Math.max(1L, (wanted + 63L) >>> 6)];
+        this.bits = words.length * 64L;
+        this.probes = (int) Math.max(1L, Math.round((double) bits / n * ln2));
+    }
+
+    boolean mightContain(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= probes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void add(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= probes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            words[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-16 code units, finished with the
+     * SplitMix64 mixer so both halves are usable as independent hashes.
+     */
+    static long hash(CharSequence key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+}
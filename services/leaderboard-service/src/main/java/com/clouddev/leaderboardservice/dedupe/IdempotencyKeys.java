@@ -0,0 +1,152 @@
+package com.clouddev.leaderboardservice.dedupe;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded dedupe window for score updates that carry an idempotency key,
+ * such as the workoutId of a workout-logged event. Keys are scoped to the
+ * user, so two users cannot collide on the same key.
+ *
+ * The exact store is an insertion-ordered map of the last max-keys keys,
+ * each remembered for ttl-ms. In front of it sit two Bloom filter
+ * generations that between them hold every key the map can still contain:
+ * a new key, the common case, is usually answered from the filter bits
+ * without probing the map, and only a filter hit is confirmed there. When
+ * the current generation has taken max-keys keys it becomes the previous
+ * one and a fresh generation starts, so the filters never fill up.
+ *
+ * A key is claimed before its update is applied and must be released if
+ * the update fails, so a retry is not dropped. The window is per instance:
+ * a duplicate that reaches a different replica is not caught. Duplicates
+ * (hits), new keys (misses) and filter short-cuts are published as
+ * leaderboard.dedupe.* meters.
+ */
+@Component
+public class IdempotencyKeys {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01d;
+
+    private final boolean enabled;
+    private final int maxKeys;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter filterNegatives;
+    private final Counter evictions;
+
+    // All guarded by this
+    private final LinkedHashMap<String, Long> expiries = new LinkedHashMap<>();
+    private BloomFilter current;
+    private BloomFilter previous;
+    private int currentKeys;
+
+    @Autowired
+    public IdempotencyKeys(MeterRegistry meterRegistry,
+            @Value("${leaderboard.dedupe.enabled:true}") boolean enabled,
+            @Value("${leaderboard.dedupe.max-keys:100000}") int maxKeys,
+            @Value("${leaderboard.dedupe.ttl-ms:86400000}") long ttlMs) {
+        this(meterRegistry, enabled, maxKeys, ttlMs, System::nanoTime);
+    }
+
+    IdempotencyKeys(MeterRegistry meterRegistry, boolean enabled, int maxKeys, long ttlMs, LongSupplier clock) {
+        this.enabled = enabled;
+        this.maxKeys = Math.max(1, maxKeys);
+        this.ttlNanos = ttlMs * 1_000_000L;
+        this.clock = clock;
+        this.current = new BloomFilter(this.maxKeys, FALSE_POSITIVE_RATE);
+        this.previous = new BloomFilter(this.maxKeys, FALSE_POSITIVE_RATE);
+        this.hits = Counter.builder("leaderboard.dedupe.hits")
+                .description("Score updates dropped because their idempotency key was seen before")
+                .register(meterRegistry);
+        this.misses = Counter.builder("leaderboard.dedupe.misses")
+                .description("Score updates whose idempotency key was new").register(meterRegistry);
+        this.filterNegatives = Counter.builder("leaderboard.dedupe.filter.negatives")
+                .description("New idempotency keys answered by the Bloom filter alone").register(meterRegistry);
+        this.evictions = Counter.builder("leaderboard.dedupe.evictions")
+                .description("Keys forgotten before their ttl because the window was full").register(meterRegistry);
+        Gauge.builder("leaderboard.dedupe.size", this, IdempotencyKeys::size)
+                .description("Idempotency keys currently remembered").register(meterRegistry);
+    }
+
+    public synchronized int size() {
+        return expiries.size();
+    }
+
+    /**
+     * Records the key for the user and returns true, or returns false if it
+     * was already recorded within the window and the update is a duplicate.
+     * Updates without a key are always applied.
+     */
+    public boolean claim(String userId, String idempotencyKey) {
+        if (!enabled || idempotencyKey == null || idempotencyKey.isEmpty()) {
+            return true;
+        }
+        String key = scoped(userId, idempotencyKey);
+        long hash = BloomFilter.hash(key);
+        long now = clock.getAsLong();
+        synchronized (this) {
+            if (current.mightContain(hash) || previous.mightContain(hash)) {
+                Long expiresAt = expiries.get(key);
+                if (expiresAt != null && now - expiresAt < 0L) {
+                    hits.increment();
+                    return false;
+                }
+            } else {
+                filterNegatives.increment();
+            }
+            misses.increment();
+
+            // Re-insert so the map stays in expiry order
+            expiries.remove(key);
+            expiries.put(key, now + ttlNanos);
+            current.add(hash);
+            if (++currentKeys >= maxKeys) {
+                previous = current;
+                current = new BloomFilter(maxKeys, FALSE_POSITIVE_RATE);
+                currentKeys = 0;
+            }
+            trim(now);
+            return true;
+        }
+    }
+
+    /**
+     * Forgets a claimed key after its update failed, so a retry is applied.
+     */
+    public void release(String userId, String idempotencyKey) {
+        if (!enabled || idempotencyKey == null || idempotencyKey.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            expiries.remove(scoped(userId, idempotencyKey));
+        }
+    }
+
+    private void trim(long now) {
+        Iterator<Map.Entry<String, Long>> eldest = expiries.entrySet().iterator();
+        while (eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            if (expiries.size() > maxKeys) {
+                evictions.increment();
+            } else if (now - entry.getValue() < 0L) {
+                break;
+            }
+            eldest.remove();
+        }
+    }
+
+    private static String scoped(String userId, String idempotencyKey) {
+        return userId + '\u0000' + idempotencyKey;
+    }
+}
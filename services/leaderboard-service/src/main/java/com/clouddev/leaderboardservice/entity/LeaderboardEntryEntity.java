@@ -27,6 +27,9 @@ public class LeaderboardEntryEntity {
     @Column(name = "last_activity_date")
     private LocalDate lastActivityDate;
 
+    @Column(name = "display_name")
+    private String displayName;
+
     @Column(name = "created_at", updatable = false)
     private OffsetDateTime createdAt;
 
@@ -86,6 +89,14 @@ public class LeaderboardEntryEntity {
         this.lastActivityDate = lastActivityDate;
     }
 
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public void setDisplayName(String displayName) {
+        this.displayName = displayName;
+    }
+
     public OffsetDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,10 @@
+package com.clouddev.leaderboardservice.event;
+
+/**
+ * A user's profile was created or updated in user-service. Carries only the
+ * fields the leaderboard keeps a copy of.
+ *
+ * @param name the display name, or null if the profile has none
+ */
+public record ProfileChangedEvent(String userId, String name) {
+}
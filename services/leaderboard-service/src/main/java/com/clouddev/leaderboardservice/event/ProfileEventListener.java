@@ -0,0 +1,52 @@
+package com.clouddev.leaderboardservice.event;
+
+import com.clouddev.leaderboardservice.names.DisplayNameUpdater;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Consumes user-service profile-changed events from the fitness_events
+ * exchange. Messages use the same envelope as the other services:
+ * {@code {"type": "ProfileChanged", "timestamp": ..., "data": {"userId": ..., "name": ...}}}.
+ * Malformed messages are rejected without requeue; failures to apply an
+ * event are requeued.
+ */
+@Component
+@ConditionalOnProperty(name = "leaderboard.profile-events.enabled", havingValue = "true")
+public class ProfileEventListener {
+
+    private final ObjectMapper objectMapper;
+    private final DisplayNameUpdater displayNameUpdater;
+
+    public ProfileEventListener(ObjectMapper objectMapper, DisplayNameUpdater displayNameUpdater) {
+        this.objectMapper = objectMapper;
+        this.displayNameUpdater = displayNameUpdater;
+    }
+
+    @RabbitListener(queues = "${leaderboard.profile-events.queue:leaderboard-service-profiles}")
+    public void onMessage(Message message) {
+        displayNameUpdater.onProfileChanged(parse(message.getBody()));
+    }
+
+    ProfileChangedEvent parse(byte[] body) {
+        JsonNode data;
+        try {
+            data = objectMapper.readTree(body).path("data");
+        } catch (IOException e) {
+            throw new AmqpRejectAndDontRequeueException("Profile-changed event is not valid JSON", e);
+        }
+
+        JsonNode userId = data.path("userId");
+        if (!userId.isTextual() || userId.asText().isBlank()) {
+            throw new AmqpRejectAndDontRequeueException("Profile-changed event has no data.userId");
+        }
+        JsonNode name = data.path("name");
+        return new ProfileChangedEvent(userId.asText(), name.isTextual() ? name.asText() : null);
+    }
+}
@@ -0,0 +1,18 @@
+package com.clouddev.leaderboardservice.event;
+
+import java.time.LocalDate;
+
+/**
+ * Published by LeaderboardService whenever a user's score or streak changes.
+ * Listeners that keep in-memory views of the board should subscribe with
+ * {@code @TransactionalEventListener} so they only see committed changes.
+ *
+ * @param previousScore score before the change, or null if the entry was just created
+ */
+public record ScoreChangedEvent(String userId, Double previousScore, double score, long streak,
+        LocalDate lastActivityDate) {
+
+    public double delta() {
+        return previousScore != null ? score - previousScore : score;
+    }
+}
@@ -0,0 +1,156 @@
+package com.clouddev.leaderboardservice.event;
+
+import com.clouddev.leaderboardservice.dedupe.IdempotencyKeys;
+import com.clouddev.leaderboardservice.model.ScoreDelta;
+import com.clouddev.leaderboardservice.service.LeaderboardService;
+import com.clouddev.leaderboardservice.shard.ShardWriteException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabbitmq.client.Channel;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scores workout-service workout-logged events straight from the
+ * fitness_events exchange, replacing the data-consistency-service HTTP call
+ * per event. Messages use the shared envelope:
+ * {@code {"type": "WorkoutLogged", "timestamp": ..., "data": {"userId": ..., "duration": ..., "calories": ...}}}.
+ *
+ * Each delivered batch (see WorkoutEventsConfig) is applied with one
+ * applyScoreDeltas call, so one transaction, and acked with a single
+ * multiple ack after it commits.
+ * Points match data-consistency-service: one per minute plus 0.1 per
+ * calorie, on the UTC day of the event. The workoutId is the idempotency
+ * key, so a redelivered workout is only scored once within the dedupe
+ * window (see IdempotencyKeys). Malformed messages and workouts
+ * worth no points are logged and acked with the batch rather than failing
+ * it; a failure to apply the batch requeues all of it, so delivery is at
+ * least once. When sharded, the workouts of users whose shard committed
+ * are acked and only the rest are requeued.
+ */
+@Component
+@ConditionalOnProperty(name = "leaderboard.workout-events.enabled", havingValue = "true")
+public class WorkoutEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkoutEventListener.class);
+
+    private static final String EVENT_TYPE = "WorkoutLogged";
+    private static final int MAX_USER_ID_LENGTH = 255;
+
+    private final ObjectMapper objectMapper;
+    private final LeaderboardService leaderboardService;
+    private final IdempotencyKeys idempotencyKeys;
+
+    public WorkoutEventListener(ObjectMapper objectMapper, LeaderboardService leaderboardService,
+            IdempotencyKeys idempotencyKeys) {
+        this.objectMapper = objectMapper;
+        this.leaderboardService = leaderboardService;
+        this.idempotencyKeys = idempotencyKeys;
+    }
+
+    @RabbitListener(queues = "${leaderboard.workout-events.queue:leaderboard-service-workouts}",
+            containerFactory = "workoutEventsContainerFactory")
+    public void onMessages(List<Message> messages, Channel channel) throws IOException {
+        if (messages.isEmpty()) {
+            return;
+        }
+        // The claimed workout of each message, or null
+        LoggedWorkout[] claimed = new LoggedWorkout[messages.size()];
+        List<ScoreDelta> deltas = new ArrayList<>(messages.size());
+        for (int i = 0; i < messages.size(); i++) {
+            LoggedWorkout workout = parse(messages.get(i).getBody()).orElse(null);
+            if (workout != null && idempotencyKeys.claim(workout.delta().userId(), workout.workoutId())) {
+                claimed[i] = workout;
+                deltas.add(workout.delta());
+            }
+        }
+
+        try {
+            leaderboardService.applyScoreDeltas(deltas);
+        } catch (RuntimeException e) {
+            // Shards that committed keep their users' deltas: those workouts are done and must not be retried
+            Set<String> committed = e instanceof ShardWriteException partial
+                    ? partial.committedUserIds()
+                    : Collections.emptySet();
+            logger.error("Failed to apply {} workout events, requeueing those not committed: {}", messages.size(),
+                    e.getMessage());
+            // One ack or nack per message: not every broker honours a multiple nack for the whole batch
+            for (int i = 0; i < messages.size(); i++) {
+                long deliveryTag = messages.get(i).getMessageProperties().getDeliveryTag();
+                LoggedWorkout workout = claimed[i];
+                if (workout != null && committed.contains(workout.delta().userId())) {
+                    channel.basicAck(deliveryTag, false);
+                    continue;
+                }
+                if (workout != null) {
+                    idempotencyKeys.release(workout.delta().userId(), workout.workoutId());
+                }
+                channel.basicNack(deliveryTag, false, true);
+            }
+            return;
+        }
+        // Delivery tags increase on a channel, so one multiple ack covers the batch
+        channel.basicAck(messages.get(messages.size() - 1).getMessageProperties().getDeliveryTag(), true);
+    }
+
+    Optional<LoggedWorkout> parse(byte[] body) {
+        JsonNode event;
+        try {
+            event = objectMapper.readTree(body);
+        } catch (IOException e) {
+            logger.warn("Skipping workout event that is not valid JSON: {}", e.getMessage());
+            return Optional.empty();
+        }
+
+        if (!EVENT_TYPE.equals(event.path("type").asText())) {
+            logger.warn("Skipping event of type {} on the workout events queue", event.path("type").asText());
+            return Optional.empty();
+        }
+        JsonNode data = event.path("data");
+        JsonNode userId = data.path("userId");
+        if (!userId.isValueNode() || userId.asText().isBlank() || userId.asText().length() > MAX_USER_ID_LENGTH) {
+            logger.warn("Skipping workout event without a usable data.userId");
+            return Optional.empty();
+        }
+
+        // pg numerics arrive as strings; asDouble parses them and falls back to 0
+        double points = data.path("duration").asDouble(0.0d) + data.path("calories").asDouble(0.0d) * 0.1d;
+        if (!Double.isFinite(points) || points <= 0.0d) {
+            return Optional.empty();
+        }
+        JsonNode workoutId = data.path("workoutId");
+        return Optional.of(new LoggedWorkout(workoutId.isValueNode() ? workoutId.asText() : null,
+                new ScoreDelta(userId.asText(), points, activityDate(event.path("timestamp")))));
+    }
+
+    private static LocalDate activityDate(JsonNode timestamp) {
+        if (timestamp.isTextual()) {
+            try {
+                return LocalDate.ofInstant(Instant.parse(timestamp.asText()), ZoneOffset.UTC);
+            } catch (DateTimeParseException e) {
+                logger.debug("Workout event timestamp {} is not an ISO instant, using today", timestamp.asText());
+            }
+        }
+        return LocalDate.now(ZoneOffset.UTC);
+    }
+
+    /**
+     * A scored workout and its workoutId, null if the event had none.
+     */
+    record LoggedWorkout(String workoutId, ScoreDelta delta) {
+    }
+}
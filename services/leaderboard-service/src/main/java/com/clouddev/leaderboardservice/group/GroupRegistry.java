@@ -0,0 +1,120 @@
+package com.clouddev.leaderboardservice.group;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Member sets registered under a group ID (a challenge, a friends list),
+ * for ranking users among the group instead of the whole board.
+ *
+ * Members are held as compressed bitmaps over interned userIds, so a group
+ * of a few hundred users takes a few hundred bytes and can be read without
+ * going to Postgres. Bitmaps are never changed once published: updates
+ * build a copy and swap it in, so readers need no lock.
+ *
+ * Groups live in memory on this instance only and are lost on restart;
+ * the owner of a group (e.g. challenge-service) re-registers it. At most
+ * max-groups groups of at most max-members members are held.
+ */
+@Component
+public class GroupRegistry {
+
+    private final UserIdInterner interner = new UserIdInterner();
+    private final Map<String, RoaringBitmap> groups = new ConcurrentHashMap<>();
+    private final int maxGroups;
+    private final int maxMembers;
+
+    public GroupRegistry(@Value("${leaderboard.groups.max-groups:10000}") int maxGroups,
+            @Value("${leaderboard.groups.max-members:5000}") int maxMembers) {
+        this.maxGroups = maxGroups;
+        this.maxMembers = maxMembers;
+    }
+
+    public int maxMembers() {
+        return maxMembers;
+    }
+
+    public int size() {
+        return groups.size();
+    }
+
+    /**
+     * Registers the group with exactly these members, replacing any earlier
+     * members.
+     *
+     * @return false if the group is new and max-groups groups are already held
+     * @throws IllegalArgumentException if there are more than max-members members
+     */
+    public boolean put(String groupId, Collection<String> members) {
+        RoaringBitmap bitmap = interner.intern(members);
+        checkSize(bitmap);
+        bitmap.runOptimize();
+        return store(groupId, bitmap);
+    }
+
+    /**
+     * Adds members to the group, creating it if needed.
+     *
+     * @return false if the group is new and max-groups groups are already held
+     * @throws IllegalArgumentException if the group would exceed max-members members
+     */
+    public boolean addMembers(String groupId, Collection<String> members) {
+        RoaringBitmap added = interner.intern(members);
+        // Racing updates of one group are serialised here; the published bitmap is only ever replaced
+        synchronized (this) {
+            RoaringBitmap current = groups.get(groupId);
+            RoaringBitmap merged = current != null ? RoaringBitmap.or(current, added) : added;
+            checkSize(merged);
+            merged.runOptimize();
+            return store(groupId, merged);
+        }
+    }
+
+    /**
+     * Removes members from the group; a group left empty is kept.
+     *
+     * @return false if there is no such group
+     */
+    public synchronized boolean removeMembers(String groupId, Collection<String> members) {
+        RoaringBitmap current = groups.get(groupId);
+        if (current == null) {
+            return false;
+        }
+        RoaringBitmap remaining = RoaringBitmap.andNot(current, interner.lookup(members));
+        remaining.runOptimize();
+        groups.put(groupId, remaining);
+        return true;
+    }
+
+    public synchronized boolean remove(String groupId) {
+        return groups.remove(groupId) != null;
+    }
+
+    /**
+     * The group's members, or empty if there is no such group.
+     */
+    public Optional<List<String>> members(String groupId) {
+        RoaringBitmap bitmap = groups.get(groupId);
+        return bitmap != null ? Optional.of(interner.userIds(bitmap)) : Optional.empty();
+    }
+
+    private synchronized boolean store(String groupId, RoaringBitmap bitmap) {
+        if (!groups.containsKey(groupId) && groups.size() >= maxGroups) {
+            return false;
+        }
+        groups.put(groupId, bitmap);
+        return true;
+    }
+
+    private void checkSize(RoaringBitmap bitmap) {
+        if (bitmap.getCardinality() > maxMembers) {
+            throw new IllegalArgumentException("A group holds at most " + maxMembers + " members");
+        }
+    }
+}
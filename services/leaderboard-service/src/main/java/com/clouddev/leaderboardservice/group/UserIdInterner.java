@@ -0,0 +1,73 @@
+package com.clouddev.leaderboardservice.group;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+/**
+ * Assigns each userId a dense int the first time it is seen, so groups can
+ * be stored as bitmaps of small integers. IDs are never reassigned or
+ * freed: memory grows with the number of distinct users ever added to a
+ * group, roughly one map entry per user.
+ */
+final class UserIdInterner {
+
+    // Guarded by this
+    private final Map<String, Integer> ids = new HashMap<>();
+    private String[] userIds = new String[1024];
+
+    /**
+     * The bitmap of the given users' ints, assigning ints to new users.
+     */
+    synchronized RoaringBitmap intern(Collection<String> users) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (String userId : users) {
+            Integer id = ids.get(userId);
+            if (id == null) {
+                id = ids.size();
+                if (id == userIds.length) {
+                    userIds = Arrays.copyOf(userIds, id * 2);
+                }
+                userIds[id] = userId;
+                ids.put(userId, id);
+            }
+            bitmap.add(id);
+        }
+        return bitmap;
+    }
+
+    /**
+     * The int of each given user that has one. Users never interned cannot
+     * be in any bitmap, so they are left out.
+     */
+    synchronized RoaringBitmap lookup(Collection<String> users) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (String userId : users) {
+            Integer id = ids.get(userId);
+            if (id != null) {
+                bitmap.add(id);
+            }
+        }
+        return bitmap;
+    }
+
+    /**
+     * The userIds of every int in the bitmap, in int order.
+     */
+    synchronized List<String> userIds(RoaringBitmap bitmap) {
+        String[] resolved = new String[bitmap.getCardinality()];
+        IntIterator iterator = bitmap.getIntIterator();
+        for (int i = 0; iterator.hasNext(); i++) {
+            resolved[i] = userIds[iterator.next()];
+        }
+        return Arrays.asList(resolved);
+    }
+
+    synchronized int size() {
+        return ids.size();
+    }
+}
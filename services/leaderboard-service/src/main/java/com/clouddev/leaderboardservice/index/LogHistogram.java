@@ -0,0 +1,107 @@
+package com.clouddev.leaderboardservice.index;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Log-bucketed counts of non-negative values, laid out like HdrHistogram:
+ * values below 2^bits get a bucket each, and every power of two above that
+ * is split into 2^bits equal sub-buckets, so a bucket is never wider than
+ * 1/2^bits of its lower bound. Recording and moving a value are O(1); the
+ * bucket count is fixed by bits (960 for bits = 4).
+ *
+ * Values are truncated to whole numbers and negative values are counted as
+ * zero. Counts may go negative while used as a delta (see ScoreHistogram).
+ */
+class LogHistogram {
+
+    private final int bits;
+    private final int subBuckets;
+    private final AtomicLongArray counts;
+    private final AtomicLong total = new AtomicLong();
+
+    LogHistogram(int bits) {
+        this.bits = bits;
+        this.subBuckets = 1 << bits;
+        this.counts = new AtomicLongArray(subBuckets + (63 - bits) * subBuckets);
+    }
+
+    int bucketCount() {
+        return counts.length();
+    }
+
+    long total() {
+        return total.get();
+    }
+
+    long count(int bucket) {
+        return counts.get(bucket);
+    }
+
+    void record(double value) {
+        counts.incrementAndGet(bucketOf(value));
+        total.incrementAndGet();
+    }
+
+    void remove(double value) {
+        counts.decrementAndGet(bucketOf(value));
+        total.decrementAndGet();
+    }
+
+    /**
+     * Moves one count from the bucket of from to the bucket of to. The
+     * total is unchanged.
+     */
+    void move(double from, double to) {
+        int fromBucket = bucketOf(from);
+        int toBucket = bucketOf(to);
+        if (fromBucket != toBucket) {
+            counts.decrementAndGet(fromBucket);
+            counts.incrementAndGet(toBucket);
+        }
+    }
+
+    void add(LogHistogram other) {
+        for (int i = 0; i < counts.length(); i++) {
+            long count = other.counts.get(i);
+            if (count != 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+        total.addAndGet(other.total.get());
+    }
+
+    int bucketOf(double value) {
+        long v = value >= Long.MAX_VALUE ? Long.MAX_VALUE : Math.max(0L, (long) value);
+        if (v < subBuckets) {
+            return (int) v;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(v);
+        int shift = exponent - bits;
+        long mantissa = v >>> shift;
+        return subBuckets + shift * subBuckets + (int) (mantissa - subBuckets);
+    }
+
+    /**
+     * Smallest value in the bucket.
+     */
+    double lowerBound(int bucket) {
+        if (bucket < subBuckets) {
+            return bucket;
+        }
+        int shift = (bucket - subBuckets) / subBuckets;
+        long mantissa = subBuckets + (bucket - subBuckets) % subBuckets;
+        return (double) (mantissa << shift);
+    }
+
+    /**
+     * First value past the bucket.
+     */
+    double upperBound(int bucket) {
+        if (bucket < subBuckets) {
+            return bucket + 1.0d;
+        }
+        int shift = (bucket - subBuckets) / subBuckets;
+        return lowerBound(bucket) + Math.pow(2, shift);
+    }
+}
@@ -0,0 +1,325 @@
+package com.clouddev.leaderboardservice.index;
+
+import com.clouddev.leaderboardservice.entity.LeaderboardEntryEntity;
+import com.clouddev.leaderboardservice.event.ScoreChangedEvent;
+import com.clouddev.leaderboardservice.repository.LeaderboardRepository;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * In-process order-statistic index over leaderboard_entries.
+ *
+ * When enabled it is loaded from the table in the background at startup and
+ * then kept current from committed ScoreChangedEvents, so getRank and getTopN
+ * can be answered in O(log n) without touching Postgres. After-commit
+ * events for one user can arrive out of commit order, so an event is
+ * applied only when its previous score is the indexed one; otherwise the
+ * user's row is read again. Until the load has
+ * finished the service keeps using the SQL path and the readiness probe
+ * reports DOWN (see RankIndexHealthIndicator).
+ */
+@Component
+public class RankIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(RankIndex.class);
+    private static final long LOAD_RETRY_DELAY_MS = 5000L;
+
+    private final LeaderboardRepository leaderboardRepository;
+    private final boolean enabled;
+    private final int loadBatchSize;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, IndexedScore> scores = new HashMap<>();
+    private final ScoreSkipList ordering = new ScoreSkipList();
+    private volatile boolean ready;
+
+    public RankIndex(LeaderboardRepository leaderboardRepository,
+            @Value("${leaderboard.rank-index.enabled:false}") boolean enabled,
+            @Value("${leaderboard.rank-index.load-batch-size:1000}") int loadBatchSize) {
+        this.leaderboardRepository = leaderboardRepository;
+        this.enabled = enabled;
+        this.loadBatchSize = loadBatchSize;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * True when reads should be answered from the index instead of SQL.
+     */
+    public boolean isServing() {
+        return enabled && ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordering.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void startLoading() {
+        if (!enabled) {
+            return;
+        }
+        Thread loader = new Thread(this::loadUntilReady, "rank-index-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onScoreChanged(ScoreChangedEvent event) {
+        if (enabled && !putIfCurrent(event)) {
+            // Out of commit order, or the load has not reached the user yet
+            reload(event.userId());
+        }
+    }
+
+    /**
+     * Applies the event if it follows the indexed score: the user is not
+     * indexed and the event created the entry, or the indexed score is the
+     * event's previous score.
+     */
+    boolean putIfCurrent(ScoreChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            IndexedScore indexed = scores.get(event.userId());
+            boolean current = indexed == null
+                    ? event.previousScore() == null
+                    : event.previousScore() != null && Double.compare(indexed.score(), event.previousScore()) == 0;
+            if (current) {
+                put(event.userId(), event.score(), event.streak());
+            }
+            return current;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the user's entry with their committed row. The row is read
+     * outside the lock and written only if no other change landed
+     * meanwhile; otherwise it is read again, so an older read never
+     * overwrites a newer one.
+     */
+    void reload(String userId) {
+        while (true) {
+            IndexedScore before = indexed(userId);
+            Optional<LeaderboardEntryEntity> row = leaderboardRepository.findById(userId);
+            lock.writeLock().lock();
+            try {
+                if (scores.get(userId) != before) {
+                    continue;
+                }
+                row.ifPresent(entity -> put(userId, entity.getScore(), entity.getStreakCount()));
+                return;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private IndexedScore indexed(String userId) {
+        lock.readLock().lock();
+        try {
+            return scores.get(userId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Loads every row using keyset pagination on user_id. Rows are added with
+     * putIfAbsent so that a score change that lands while the load is running
+     * is never overwritten by the older row read from the table.
+     */
+    void load() {
+        String lastUserId = "";
+        List<LeaderboardEntryEntity> batch;
+        do {
+            batch = leaderboardRepository.findByUserIdGreaterThanOrderByUserIdAsc(
+                    lastUserId, PageRequest.ofSize(loadBatchSize));
+            for (LeaderboardEntryEntity entity : batch) {
+                putIfAbsent(entity.getUserId(), entity.getScore(), entity.getStreakCount());
+                lastUserId = entity.getUserId();
+            }
+        } while (batch.size() == loadBatchSize);
+
+        ready = true;
+        logger.info("Rank index loaded with {} entries", size());
+    }
+
+    public void put(String userId, double score, long streak) {
+        lock.writeLock().lock();
+        try {
+            IndexedScore previous = scores.put(userId, new IndexedScore(score, streak));
+            if (previous != null) {
+                ordering.remove(userId, previous.score());
+            }
+            ordering.insert(userId, score);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void putIfAbsent(String userId, double score, long streak) {
+        lock.writeLock().lock();
+        try {
+            if (scores.putIfAbsent(userId, new IndexedScore(score, streak)) == null) {
+                ordering.insert(userId, score);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Optional<RankedEntry> rankOf(String userId) {
+        lock.readLock().lock();
+        try {
+            IndexedScore indexed = scores.get(userId);
+            if (indexed == null) {
+                return Optional.empty();
+            }
+            long rank = ordering.countHigherThan(indexed.score()) + 1L;
+            return Optional.of(new RankedEntry(userId, indexed.score(), indexed.streak(), rank));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The first n entries in board order, ties broken by userId. Ranks are
+     * positional, the same as the SQL getTopN path.
+     */
+    public List<RankedEntry> top(int n) {
+        lock.readLock().lock();
+        try {
+            List<ScoreSkipList.Node> nodes = ordering.range(1L, n);
+            List<RankedEntry> entries = new ArrayList<>(nodes.size());
+            for (int i = 0; i < nodes.size(); i++) {
+                ScoreSkipList.Node node = nodes.get(i);
+                entries.add(new RankedEntry(node.userId, node.score, scores.get(node.userId).streak(), i + 1L));
+            }
+            return entries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The user's entry with up to k entries on either side, in board order.
+     * Ranks are the same as rankOf's, so tied users share one and are listed
+     * by userId.
+     * Empty if the user is not on the board.
+     */
+    public List<RankedEntry> around(String userId, int k) {
+        lock.readLock().lock();
+        try {
+            IndexedScore indexed = scores.get(userId);
+            if (indexed == null) {
+                return List.of();
+            }
+            long position = ordering.positionOf(userId, indexed.score());
+            long from = Math.max(1L, position - k);
+            List<ScoreSkipList.Node> nodes = ordering.range(from, (int) (position - from) + k + 1);
+            List<RankedEntry> entries = new ArrayList<>(nodes.size());
+            long rank = 0L;
+            for (int i = 0; i < nodes.size(); i++) {
+                ScoreSkipList.Node node = nodes.get(i);
+                if (i == 0) {
+                    rank = ordering.countHigherThan(node.score) + 1L;
+                } else if (node.score != nodes.get(i - 1).score) {
+                    rank = from + i;
+                }
+                entries.add(new RankedEntry(node.userId, node.score, scores.get(node.userId).streak(), rank));
+            }
+            return entries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to limit entries that follow (score, userId) in board order, for
+     * keyset paging. The key need not be on the board any more. Ranks are
+     * positional like top(n).
+     */
+    public List<RankedEntry> after(double score, String userId, int limit) {
+        lock.readLock().lock();
+        try {
+            long from = ordering.countUpTo(userId, score) + 1L;
+            List<ScoreSkipList.Node> nodes = ordering.range(from, limit);
+            List<RankedEntry> entries = new ArrayList<>(nodes.size());
+            for (int i = 0; i < nodes.size(); i++) {
+                ScoreSkipList.Node node = nodes.get(i);
+                entries.add(new RankedEntry(node.userId, node.score, scores.get(node.userId).streak(), from + i));
+            }
+            return entries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The given users that are on the board, ranked among themselves in
+     * board order. Ranks are positional within the set, like top(n).
+     */
+    public List<RankedEntry> rankAmong(Collection<String> userIds) {
+        List<RankedEntry> members = new ArrayList<>(userIds.size());
+        lock.readLock().lock();
+        try {
+            for (String userId : userIds) {
+                IndexedScore indexed = scores.get(userId);
+                if (indexed != null) {
+                    members.add(new RankedEntry(userId, indexed.score(), indexed.streak(), 0L));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return RankedEntry.ranked(members);
+    }
+
+    private void loadUntilReady() {
+        while (!ready) {
+            try {
+                load();
+            } catch (RuntimeException e) {
+                logger.error("Failed to load rank index, retrying in {} ms: {}", LOAD_RETRY_DELAY_MS, e.getMessage());
+                try {
+                    Thread.sleep(LOAD_RETRY_DELAY_MS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private record IndexedScore(double score, long streak) {
+    }
+}
@@ -0,0 +1,33 @@
+package com.clouddev.leaderboardservice.index;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Included in the readiness group so the pod does not receive traffic until
+ * the rank index has been loaded. Always UP when the index is disabled.
+ */
+@Component
+public class RankIndexHealthIndicator implements HealthIndicator {
+
+    private final RankIndex rankIndex;
+
+    public RankIndexHealthIndicator(RankIndex rankIndex) {
+        this.rankIndex = rankIndex;
+    }
+
+    @Override
+    public Health health() {
+        if (!rankIndex.isEnabled()) {
+            return Health.up().withDetail("enabled", false).build();
+        }
+        if (!rankIndex.isReady()) {
+            return Health.down().withDetail("enabled", true).withDetail("loaded", false).build();
+        }
+        return Health.up()
+                .withDetail("enabled", true)
+                .withDetail("entries", rankIndex.size())
+                .build();
+    }
+}
@@ -0,0 +1,28 @@
+package com.clouddev.leaderboardservice.index;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A user's position on the board as seen by the in-memory rank index.
+ */
+public record RankedEntry(String userId, double score, long streak, long rank) {
+
+    private static final Comparator<RankedEntry> BOARD_ORDER = Comparator.comparingDouble(RankedEntry::score)
+            .reversed().thenComparing(RankedEntry::userId);
+
+    /**
+     * The entries sorted into board order, score descending then userId,
+     * with positional ranks from 1. Ranks passed in are ignored.
+     */
+    public static List<RankedEntry> ranked(List<RankedEntry> entries) {
+        List<RankedEntry> sorted = new ArrayList<>(entries);
+        sorted.sort(BOARD_ORDER);
+        for (int i = 0; i < sorted.size(); i++) {
+            RankedEntry entry = sorted.get(i);
+            sorted.set(i, new RankedEntry(entry.userId(), entry.score(), entry.streak(), i + 1L));
+        }
+        return sorted;
+    }
+}
@@ -0,0 +1,276 @@
+package com.clouddev.leaderboardservice.index;
+
+import com.clouddev.leaderboardservice.event.ScoreChangedEvent;
+import com.clouddev.leaderboardservice.model.PageCursor;
+import com.clouddev.leaderboardservice.model.ScoreDistribution;
+import com.clouddev.leaderboardservice.model.WindowedScore;
+import com.clouddev.leaderboardservice.repository.LeaderboardRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Distribution of all-time scores, for "top X%" percentiles and the
+ * histogram endpoint, without scanning leaderboard_entries per request.
+ *
+ * Each committed ScoreChangedEvent moves one count from the bucket of the
+ * previous score to the bucket of the new one (see LogHistogram), so the
+ * cost per update is O(1) and memory does not grow with the number of
+ * users. At startup the histogram is built in the background from one
+ * REPEATABLE READ keyset scan. Events that arrive while the scan runs go
+ * into a separate delta that is added once the scan is done, so changes
+ * committed after the scan's snapshot are not lost.
+ *
+ * The delta must hold exactly the changes the snapshot misses. Score
+ * writers hold commitGate's read lock from before their commit until
+ * their events have been delivered, and the load takes the snapshot and
+ * starts the delta under its write lock, so every change either commits
+ * and is delivered before the snapshot or commits after the delta exists.
+ * Writes outside a transaction (leaderboard.replicas copies) cannot be
+ * held this way.
+ */
+@Component
+public class ScoreHistogram {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScoreHistogram.class);
+    private static final long LOAD_RETRY_DELAY_MS = 5000L;
+
+    private final LeaderboardRepository leaderboardRepository;
+    private final TransactionTemplate snapshotTransaction;
+    private final boolean enabled;
+    private final int subBucketBits;
+    private final int loadBatchSize;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantReadWriteLock commitGate = new ReentrantReadWriteLock();
+    private volatile LogHistogram live;
+    // Non-null while a load is running; guarded by lock
+    private LogHistogram delta;
+
+    public ScoreHistogram(LeaderboardRepository leaderboardRepository, PlatformTransactionManager transactionManager,
+            @Value("${leaderboard.histogram.enabled:true}") boolean enabled,
+            @Value("${leaderboard.histogram.sub-bucket-bits:4}") int subBucketBits,
+            @Value("${leaderboard.histogram.load-batch-size:1000}") int loadBatchSize) {
+        this.leaderboardRepository = leaderboardRepository;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.subBucketBits = Math.max(1, Math.min(subBucketBits, 10));
+        this.loadBatchSize = loadBatchSize;
+    }
+
+    public boolean isReady() {
+        return live != null;
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void startLoading() {
+        if (!enabled) {
+            return;
+        }
+        Thread loader = new Thread(this::loadUntilReady, "score-histogram-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Holds the writing transaction's commit, once per transaction, until
+     * no load is taking its snapshot, and lets a load wait for it until its
+     * events have been delivered.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void holdCommit(ScoreChangedEvent event) {
+        if (!enabled || TransactionSynchronizationManager.hasResource(commitGate)) {
+            return;
+        }
+        commitGate.readLock().lock();
+        TransactionSynchronizationManager.bindResource(commitGate, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResource(commitGate);
+                commitGate.readLock().unlock();
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 5)
+    public void onScoreChanged(ScoreChangedEvent event) {
+        lock.readLock().lock();
+        try {
+            LogHistogram target = delta != null ? delta : live;
+            if (target == null) {
+                return;
+            }
+            if (event.previousScore() == null) {
+                target.record(event.score());
+            } else {
+                target.move(event.previousScore(), event.score());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Builds the histogram from the table and starts serving it.
+     */
+    void load() {
+        LogHistogram loaded;
+        try {
+            loaded = snapshotTransaction.execute(status -> scanTable(snapshotFirstPage()));
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                delta = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            loaded.add(delta);
+            delta = null;
+            live = loaded;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Score histogram loaded with {} entries", loaded.total());
+    }
+
+    /**
+     * Number of users counted.
+     *
+     * @throws IllegalStateException if the histogram has not been loaded yet
+     */
+    public long total() {
+        return requireLive().total();
+    }
+
+    /**
+     * Share of the board, in percent, whose score is at or above the given
+     * score: 1.0 means the top 1%. Scores sharing the user's bucket are
+     * split by linear interpolation, so the error is bounded by the bucket
+     * count at that score; below 2^bits buckets are exact and ties count as
+     * at or above. Returns 100 for an empty board.
+     *
+     * @throws IllegalStateException if the histogram has not been loaded yet
+     */
+    public double topPercent(double score) {
+        LogHistogram histogram = requireLive();
+        long total = histogram.total();
+        if (total <= 0) {
+            return 100.0d;
+        }
+
+        int bucket = histogram.bucketOf(score);
+        double above = 0.0d;
+        for (int i = bucket + 1; i < histogram.bucketCount(); i++) {
+            above += histogram.count(i);
+        }
+        double lower = histogram.lowerBound(bucket);
+        double upper = histogram.upperBound(bucket);
+        double value = Math.max(lower, Math.floor(score));
+        // The other users in this bucket are assumed spread evenly across it
+        above += Math.max(0L, histogram.count(bucket) - 1L) * ((upper - value) / (upper - lower));
+
+        return Math.min(100.0d, 100.0d * (above + 1.0d) / total);
+    }
+
+    /**
+     * Non-empty buckets in ascending order of score.
+     *
+     * @throws IllegalStateException if the histogram has not been loaded yet
+     */
+    public ScoreDistribution distribution() {
+        LogHistogram histogram = requireLive();
+        List<ScoreDistribution.Bucket> buckets = new ArrayList<>();
+        for (int i = 0; i < histogram.bucketCount(); i++) {
+            long count = histogram.count(i);
+            if (count > 0) {
+                buckets.add(new ScoreDistribution.Bucket(histogram.lowerBound(i), histogram.upperBound(i), count));
+            }
+        }
+        return new ScoreDistribution(histogram.total(), buckets);
+    }
+
+    private LogHistogram requireLive() {
+        LogHistogram histogram = live;
+        if (histogram == null) {
+            throw new IllegalStateException("Score histogram is not loaded");
+        }
+        return histogram;
+    }
+
+    /**
+     * Reads the first page, which takes the transaction's snapshot, and
+     * starts the delta, with no score change committing in between.
+     */
+    private List<WindowedScore> snapshotFirstPage() {
+        commitGate.writeLock().lock();
+        try {
+            List<WindowedScore> firstPage = leaderboardRepository.findPage(null, loadBatchSize);
+            lock.writeLock().lock();
+            try {
+                delta = new LogHistogram(subBucketBits);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return firstPage;
+        } finally {
+            commitGate.writeLock().unlock();
+        }
+    }
+
+    private LogHistogram scanTable(List<WindowedScore> firstPage) {
+        LogHistogram histogram = new LogHistogram(subBucketBits);
+        List<WindowedScore> batch = firstPage;
+        while (true) {
+            for (WindowedScore row : batch) {
+                histogram.record(row.score());
+            }
+            if (batch.isEmpty() || batch.size() < loadBatchSize) {
+                return histogram;
+            }
+            WindowedScore last = batch.get(batch.size() - 1);
+            batch = leaderboardRepository.findPage(new PageCursor(last.score(), last.userId(), last.rank(), null),
+                    loadBatchSize);
+        }
+    }
+
+    private void loadUntilReady() {
+        while (live == null) {
+            try {
+                load();
+            } catch (RuntimeException e) {
+                logger.error("Failed to load score histogram, retrying in {} ms: {}", LOAD_RETRY_DELAY_MS,
+                        e.getMessage());
+                try {
+                    Thread.sleep(LOAD_RETRY_DELAY_MS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
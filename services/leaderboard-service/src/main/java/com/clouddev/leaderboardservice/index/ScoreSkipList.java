@@ -0,0 +1,209 @@
+package com.clouddev.leaderboardservice.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Indexable skip list ordered by score descending, then userId ascending.
+ * Every forward pointer carries a span (number of nodes it jumps over), so
+ * position lookups and "how many rank above" counts are O(log n).
+ *
+ * Not thread-safe; RankIndex guards it with a read/write lock.
+ */
+class ScoreSkipList {
+
+    private static final int MAX_LEVEL = 32;
+    private static final double LEVEL_PROBABILITY = 0.25;
+
+    private final Node head = new Node(null, 0.0d, MAX_LEVEL);
+    private int level = 1;
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    void insert(String userId, double score) {
+        Node[] update = new Node[MAX_LEVEL];
+        int[] rank = new int[MAX_LEVEL];
+
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = i == level - 1 ? 0 : rank[i + 1];
+            while (x.next[i] != null && precedes(x.next[i], score, userId)) {
+                rank[i] += x.span[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+
+        int newLevel = randomLevel();
+        if (newLevel > level) {
+            for (int i = level; i < newLevel; i++) {
+                rank[i] = 0;
+                update[i] = head;
+                update[i].span[i] = size;
+            }
+            level = newLevel;
+        }
+
+        Node node = new Node(userId, score, newLevel);
+        for (int i = 0; i < newLevel; i++) {
+            node.next[i] = update[i].next[i];
+            update[i].next[i] = node;
+            node.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = (rank[0] - rank[i]) + 1;
+        }
+        for (int i = newLevel; i < level; i++) {
+            update[i].span[i]++;
+        }
+        size++;
+    }
+
+    boolean remove(String userId, double score) {
+        Node[] update = new Node[MAX_LEVEL];
+
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && precedes(x.next[i], score, userId)) {
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+
+        Node target = x.next[0];
+        if (target == null || target.score != score || !target.userId.equals(userId)) {
+            return false;
+        }
+
+        for (int i = 0; i < level; i++) {
+            if (update[i].next[i] == target) {
+                update[i].span[i] += target.span[i] - 1;
+                update[i].next[i] = target.next[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * Number of entries with a strictly higher score. Adding one gives the
+     * same rank as the SQL "COUNT(*) + 1 ... WHERE score > ?" query, so tied
+     * users share a rank.
+     */
+    long countHigherThan(double score) {
+        long traversed = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && precedes(x.next[i], score, null)) {
+                traversed += x.span[i];
+                x = x.next[i];
+            }
+        }
+        return traversed;
+    }
+
+    /**
+     * 1-based position of (score, userId) in board order, counting every
+     * entry that sorts before it. The entry itself need not be present.
+     */
+    long positionOf(String userId, double score) {
+        long traversed = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && precedes(x.next[i], score, userId)) {
+                traversed += x.span[i];
+                x = x.next[i];
+            }
+        }
+        return traversed + 1L;
+    }
+
+    /**
+     * Number of entries that sort before or at (score, userId), so the
+     * next entry after that key is at this count plus one.
+     */
+    long countUpTo(String userId, double score) {
+        long traversed = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && (precedes(x.next[i], score, userId)
+                    || (x.next[i].score == score && x.next[i].userId.equals(userId)))) {
+                traversed += x.span[i];
+                x = x.next[i];
+            }
+        }
+        return traversed;
+    }
+
+    /**
+     * Entries at 1-based positions [from, from + count), in board order.
+     */
+    List<Node> range(long from, int count) {
+        if (from < 1 || from > size || count <= 0) {
+            return List.of();
+        }
+        Node x = nodeAt(from);
+        List<Node> nodes = new ArrayList<>(Math.min(count, size));
+        while (x != null && nodes.size() < count) {
+            nodes.add(x);
+            x = x.next[0];
+        }
+        return nodes;
+    }
+
+    private Node nodeAt(long position) {
+        long traversed = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && traversed + x.span[i] <= position) {
+                traversed += x.span[i];
+                x = x.next[i];
+            }
+            if (traversed == position) {
+                return x;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * True when node sorts strictly before (score, userId). A null userId
+     * stands for "before every user with this score".
+     */
+    private static boolean precedes(Node node, double score, String userId) {
+        if (node.score != score) {
+            return node.score > score;
+        }
+        return userId != null && node.userId.compareTo(userId) < 0;
+    }
+
+    private static int randomLevel() {
+        int lvl = 1;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (lvl < MAX_LEVEL && random.nextDouble() < LEVEL_PROBABILITY) {
+            lvl++;
+        }
+        return lvl;
+    }
+
+    static final class Node {
+        final String userId;
+        final double score;
+        final Node[] next;
+        final int[] span;
+
+        Node(String userId, double score, int level) {
+            this.userId = userId;
+            this.score = score;
+            this.next = new Node[level];
+            this.span = new int[level];
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.clouddev.leaderboardservice.model;
+
+/**
+ * A user's all-time score and streak after a change, as listed by
+ * /leaderboard/changes.
+ */
+public record BoardChange(String userId, double score, long streak) {
+}
@@ -0,0 +1,18 @@
+package com.clouddev.leaderboardservice.model;
+
+import java.util.List;
+
+/**
+ * Response of /leaderboard/changes: the entries changed after the requested
+ * version, each with its latest values and listed once.
+ *
+ * @param version board version to pass as since on the next call
+ * @param resync true if the changes could not be listed; the client should reload the whole board and then
+ *        continue from version
+ */
+public record BoardChanges(long version, boolean resync, List<BoardChange> changes) {
+
+    public static BoardChanges resync(long version) {
+        return new BoardChanges(version, true, List.of());
+    }
+}
@@ -0,0 +1,16 @@
+package com.clouddev.leaderboardservice.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+
+/**
+ * The top of a group's own board: its members ranked among themselves by
+ * all-time score, ties broken by userId. Members without a score are left
+ * out.
+ *
+ * @param groupId the registered group, or null for a member list sent with the request
+ * @param size the number of members on the board, which may exceed entries
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record GroupLeaderboard(String groupId, int size, List<LeaderboardEntry> entries) {
+}
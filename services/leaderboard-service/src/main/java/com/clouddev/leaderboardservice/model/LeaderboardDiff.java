@@ -0,0 +1,57 @@
+package com.clouddev.leaderboardservice.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Changes between two top-N lists of the same board, as sent on
+ * /leaderboard/stream. Applying it to the older list yields the newer one.
+ *
+ * @param moves entries still in the top N whose rank, score, streak or name changed, with their new values
+ * @param entries entries that joined the top N
+ * @param exits userIds that left the top N
+ */
+public record LeaderboardDiff(List<LeaderboardEntry> moves, List<LeaderboardEntry> entries, List<String> exits) {
+
+    public static LeaderboardDiff between(List<LeaderboardEntry> previous, List<LeaderboardEntry> current) {
+        Map<String, LeaderboardEntry> before = new HashMap<>();
+        for (LeaderboardEntry entry : previous) {
+            before.put(entry.getUserId(), entry);
+        }
+
+        List<LeaderboardEntry> moves = new ArrayList<>();
+        List<LeaderboardEntry> entries = new ArrayList<>();
+        Set<String> stillIn = new HashSet<>();
+        for (LeaderboardEntry entry : current) {
+            LeaderboardEntry old = before.get(entry.getUserId());
+            if (old == null) {
+                entries.add(entry);
+                continue;
+            }
+            stillIn.add(entry.getUserId());
+            if (old.getRank() != entry.getRank() || old.getScore() != entry.getScore()
+                    || old.getStreak() != entry.getStreak() || !Objects.equals(old.getUsername(), entry.getUsername())) {
+                moves.add(entry);
+            }
+        }
+
+        List<String> exits = new ArrayList<>();
+        for (LeaderboardEntry entry : previous) {
+            if (!stillIn.contains(entry.getUserId())) {
+                exits.add(entry.getUserId());
+            }
+        }
+        return new LeaderboardDiff(moves, entries, exits);
+    }
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return moves.isEmpty() && entries.isEmpty() && exits.isEmpty();
+    }
+}
@@ -0,0 +1,12 @@
+package com.clouddev.leaderboardservice.model;
+
+import java.util.List;
+
+/**
+ * A user's place on the all-time board with the entries just above and
+ * below, in board order. The user's own entry is included in entries.
+ *
+ * @param rank the user's position in board order, as in entries
+ */
+public record LeaderboardNeighborhood(String userId, long rank, List<LeaderboardEntry> entries) {
+}
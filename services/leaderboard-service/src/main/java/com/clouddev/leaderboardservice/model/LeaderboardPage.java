@@ -0,0 +1,14 @@
+package com.clouddev.leaderboardservice.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+
+/**
+ * One page of the all-time board in board order.
+ *
+ * @param nextCursor cursor for the following page, or null on the last page
+ * @param version board version of the pinned snapshot being paged through, or null for the live board
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record LeaderboardPage(List<LeaderboardEntry> entries, String nextCursor, Long version) {
+}
@@ -0,0 +1,57 @@
+package com.clouddev.leaderboardservice.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Locale;
+
+/**
+ * Time span a leaderboard covers. ALL is the all-time board; the others rank
+ * users by the score earned in the current UTC day, ISO week (Monday to
+ * Sunday) or calendar month.
+ */
+public enum LeaderboardWindow {
+    ALL,
+    DAY,
+    WEEK,
+    MONTH;
+
+    /**
+     * First day of the period that contains the date. Must agree with the
+     * date_trunc buckets written by LeaderboardRepositoryImpl.
+     */
+    public LocalDate periodStart(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+            case ALL -> throw new IllegalStateException("The all-time board has no periods");
+        };
+    }
+
+    /**
+     * Start of the period the given number of periods before the one that
+     * contains the date.
+     */
+    public LocalDate periodStart(LocalDate date, int periodsBack) {
+        LocalDate start = periodStart(date);
+        return switch (this) {
+            case DAY -> start.minusDays(periodsBack);
+            case WEEK -> start.minusWeeks(periodsBack);
+            case MONTH -> start.minusMonths(periodsBack);
+            case ALL -> start;
+        };
+    }
+
+    /**
+     * Parses a ?window= value case-insensitively; null or blank means ALL.
+     *
+     * @throws IllegalArgumentException for unknown values
+     */
+    public static LeaderboardWindow parse(String value) {
+        if (value == null || value.isBlank()) {
+            return ALL;
+        }
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
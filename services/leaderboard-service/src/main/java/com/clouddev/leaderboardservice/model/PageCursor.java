@@ -0,0 +1,47 @@
+package com.clouddev.leaderboardservice.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position after the last entry of a leaderboard page. Clients see it only
+ * as an opaque string (see encode and parse).
+ *
+ * @param position the board position of that entry, used for the ranks on the next page
+ * @param snapshotId the pinned snapshot being paged through, or null for the live board
+ */
+public record PageCursor(double score, String userId, long position, Long snapshotId) {
+
+    /**
+     * URL-safe Base64 of "snapshotId:score:position:userId". userId goes last
+     * so it may itself contain colons.
+     */
+    public String encode() {
+        String raw = (snapshotId != null ? snapshotId.toString() : "") + ":" + score + ":" + position + ":" + userId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor returned by encode. Null or blank means the first
+     * page.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static PageCursor parse(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+        String[] parts = raw.split(":", 4);
+        if (parts.length != 4 || parts[3].isEmpty()) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        double score = Double.parseDouble(parts[1]);
+        long position = Long.parseLong(parts[2]);
+        if (!Double.isFinite(score) || position < 0) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        Long snapshotId = parts[0].isEmpty() ? null : Long.valueOf(parts[0]);
+        return new PageCursor(score, parts[3], position, snapshotId);
+    }
+}
@@ -0,0 +1,9 @@
+package com.clouddev.leaderboardservice.model;
+
+import java.time.LocalDate;
+
+/**
+ * A score change for one user on a given activity date.
+ */
+public record ScoreDelta(String userId, double scoreDelta, LocalDate activityDate) {
+}
@@ -0,0 +1,16 @@
+package com.clouddev.leaderboardservice.model;
+
+import java.util.List;
+
+/**
+ * Counts of all-time scores per histogram bucket, in ascending order.
+ * Empty buckets are left out.
+ */
+public record ScoreDistribution(long total, List<Bucket> buckets) {
+
+    /**
+     * Scores in [from, to).
+     */
+    public record Bucket(double from, double to, long count) {
+    }
+}
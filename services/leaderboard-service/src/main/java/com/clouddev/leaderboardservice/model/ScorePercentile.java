@@ -0,0 +1,10 @@
+package com.clouddev.leaderboardservice.model;
+
+/**
+ * Where a user's all-time score falls on the board.
+ *
+ * @param topPercent share of users, in percent, scoring at or above this user (1.0 = top 1%)
+ * @param total number of users on the board
+ */
+public record ScorePercentile(String userId, double score, double topPercent, long total) {
+}
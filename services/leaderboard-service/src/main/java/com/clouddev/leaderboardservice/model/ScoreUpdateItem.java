@@ -0,0 +1,15 @@
+package com.clouddev.leaderboardservice.model;
+
+import java.time.LocalDate;
+
+/**
+ * One entry of a batch score update. activityDate defaults to today (UTC)
+ * when omitted. An item whose idempotencyKey was already applied for the
+ * same user is skipped as a duplicate.
+ */
+public record ScoreUpdateItem(String userId, Double scoreDelta, LocalDate activityDate, String idempotencyKey) {
+
+    public ScoreUpdateItem(String userId, Double scoreDelta, LocalDate activityDate) {
+        this(userId, scoreDelta, activityDate, null);
+    }
+}
@@ -0,0 +1,37 @@
+package com.clouddev.leaderboardservice.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of one item of a batch score update, reported in request order.
+ * Applied items carry the user's score and streak after the whole batch;
+ * rejected items carry the reason and were not written; duplicate items
+ * repeated an idempotency key that was already applied and were skipped;
+ * failed items were on a shard that did not commit and may be retried.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ScoreUpdateResult(String userId, Status status, Double score, Long streak, String error) {
+
+    public enum Status {
+        APPLIED,
+        REJECTED,
+        DUPLICATE,
+        FAILED
+    }
+
+    public static ScoreUpdateResult applied(String userId, double score, long streak) {
+        return new ScoreUpdateResult(userId, Status.APPLIED, score, streak, null);
+    }
+
+    public static ScoreUpdateResult duplicate(String userId) {
+        return new ScoreUpdateResult(userId, Status.DUPLICATE, null, null, null);
+    }
+
+    public static ScoreUpdateResult rejected(String userId, String error) {
+        return new ScoreUpdateResult(userId, Status.REJECTED, null, null, error);
+    }
+
+    public static ScoreUpdateResult failed(String userId, String error) {
+        return new ScoreUpdateResult(userId, Status.FAILED, null, null, error);
+    }
+}
@@ -0,0 +1,42 @@
+package com.clouddev.leaderboardservice.model;
+
+import java.time.LocalDate;
+
+/**
+ * Row returned by the upsert statements: the user's values after the write.
+ *
+ * @param previousScore score just before the write, read under its row
+ *        lock rather than derived from the delta; null if the row did not
+ *        exist before the write
+ */
+public record UpsertedScore(String userId, double score, long streak, LocalDate lastActivityDate,
+        Double previousScore) {
+
+    public boolean inserted() {
+        return previousScore == null;
+    }
+
+    /**
+     * The row after adding the delta, for writers that cannot use the
+     * upsert statement. Follows its streak rules: same day keeps the streak
+     * (at least 1), the next day extends it, an older date is a late event
+     * and leaves it alone, anything else restarts it at 1.
+     */
+    public UpsertedScore plus(ScoreDelta delta) {
+        LocalDate date = delta.activityDate();
+        long nextStreak;
+        if (lastActivityDate == null) {
+            nextStreak = 1;
+        } else if (date.equals(lastActivityDate)) {
+            nextStreak = Math.max(streak, 1);
+        } else if (date.equals(lastActivityDate.plusDays(1))) {
+            nextStreak = streak + 1;
+        } else if (date.isBefore(lastActivityDate)) {
+            nextStreak = streak;
+        } else {
+            nextStreak = 1;
+        }
+        LocalDate nextActivity = lastActivityDate == null || date.isAfter(lastActivityDate) ? date : lastActivityDate;
+        return new UpsertedScore(userId, score + delta.scoreDelta(), nextStreak, nextActivity, score);
+    }
+}
@@ -0,0 +1,27 @@
+package com.clouddev.leaderboardservice.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One user's all-time rank from a bulk rank lookup, reported in request
+ * order. Found users carry the same fields as /leaderboard/rank/{userId};
+ * unknown users have no entry on the board.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserRankResult(String userId, Status status, String username, Double score, Long rank,
+        Long streak) {
+
+    public enum Status {
+        FOUND,
+        UNKNOWN
+    }
+
+    public static UserRankResult found(LeaderboardEntry entry) {
+        return new UserRankResult(entry.getUserId(), Status.FOUND, entry.getUsername(), entry.getScore(),
+                entry.getRank(), entry.getStreak());
+    }
+
+    public static UserRankResult unknown(String userId) {
+        return new UserRankResult(userId, Status.UNKNOWN, null, null, null, null);
+    }
+}
@@ -0,0 +1,11 @@
+package com.clouddev.leaderboardservice.model;
+
+/**
+ * A user's score within one leaderboard period, joined with the all-time
+ * entry for the streak and display name. findAround also uses it for
+ * all-time rows, with the all-time rank.
+ *
+ * @param displayName stored display name, or null if none has been stored yet
+ */
+public record WindowedScore(String userId, double score, long streak, String displayName, long rank) {
+}
@@ -0,0 +1,44 @@
+package com.clouddev.leaderboardservice.names;
+
+import com.clouddev.leaderboardservice.event.ProfileChangedEvent;
+import com.clouddev.leaderboardservice.repository.LeaderboardRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Keeps the denormalized display_name column in leaderboard_entries current
+ * from profile-changed events, so reads can take names from the same row as
+ * the score. Users without an entry yet are skipped; their name is filled in
+ * from user-service the first time the entry is read.
+ */
+@Component
+public class DisplayNameUpdater {
+
+    private static final Logger logger = LoggerFactory.getLogger(DisplayNameUpdater.class);
+
+    private final LeaderboardRepository leaderboardRepository;
+    private final UserNameCache userNameCache;
+
+    public DisplayNameUpdater(LeaderboardRepository leaderboardRepository, UserNameCache userNameCache) {
+        this.leaderboardRepository = leaderboardRepository;
+        this.userNameCache = userNameCache;
+    }
+
+    @Transactional
+    public void onProfileChanged(ProfileChangedEvent event) {
+        if (event.userId() == null || event.userId().isBlank()) {
+            logger.warn("Ignoring profile-changed event without a userId");
+            return;
+        }
+
+        String name = event.name() != null && !event.name().isBlank() ? event.name() : null;
+        int updated = leaderboardRepository.updateDisplayName(event.userId(), name);
+        // Drop the old name so the next read picks up the stored one
+        userNameCache.invalidate(event.userId());
+        if (updated == 0) {
+            logger.debug("No leaderboard entry for user {} yet, display name not stored", event.userId());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.clouddev.leaderboardservice.names;
+
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.Executor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Threads for name lookups started alongside the shard reads, so a rank
+ * read waits for the slower of the two rather than their sum. Lookups get
+ * their own threads because they block on user-service for up to its
+ * call timeout. When every thread is busy, or threads is 0, the lookup
+ * runs on the calling thread, which is the sequential read again.
+ */
+@Component
+public class NameLookupExecutor implements Executor {
+
+    private final ThreadPoolExecutor pool;
+
+    public NameLookupExecutor(@Value("${leaderboard.name-lookup.threads:32}") int threads) {
+        if (threads <= 0) {
+            this.pool = null;
+            return;
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(0, threads, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "name-lookup-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @Override
+    public void execute(Runnable lookup) {
+        if (pool == null) {
+            lookup.run();
+        } else {
+            pool.execute(lookup);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+}
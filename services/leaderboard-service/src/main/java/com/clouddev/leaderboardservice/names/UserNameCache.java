@@ -0,0 +1,170 @@
+package com.clouddev.leaderboardservice.names;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded local cache of userId to display name in front of user-service.
+ *
+ * Entries expire after ttl-ms; IDs that user-service has no name for are
+ * cached as negative entries for the shorter negative-ttl-ms. When the
+ * cache is full the least recently used entry is evicted. Only misses are
+ * passed to the loader, in one call. Hit, miss and eviction counts are
+ * published as leaderboard.username.cache.* meters.
+ */
+@Component
+public class UserNameCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserNameCache.class);
+
+    private final boolean enabled;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final LongSupplier clock;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    private final LinkedHashMap<String, CachedName> entries;
+
+    @Autowired
+    public UserNameCache(MeterRegistry meterRegistry,
+            @Value("${leaderboard.username-cache.enabled:true}") boolean enabled,
+            @Value("${leaderboard.username-cache.max-size:10000}") int maxSize,
+            @Value("${leaderboard.username-cache.ttl-ms:600000}") long ttlMs,
+            @Value("${leaderboard.username-cache.negative-ttl-ms:60000}") long negativeTtlMs) {
+        this(meterRegistry, enabled, maxSize, ttlMs, negativeTtlMs, System::nanoTime);
+    }
+
+    UserNameCache(MeterRegistry meterRegistry, boolean enabled, int maxSize, long ttlMs, long negativeTtlMs,
+            LongSupplier clock) {
+        this.enabled = enabled;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlMs * 1_000_000L;
+        this.negativeTtlNanos = negativeTtlMs * 1_000_000L;
+        this.clock = clock;
+        this.hits = Counter.builder("leaderboard.username.cache.hits")
+                .description("Username lookups answered from the local cache").register(meterRegistry);
+        this.misses = Counter.builder("leaderboard.username.cache.misses")
+                .description("Username lookups that had to go to user-service").register(meterRegistry);
+        this.evictions = Counter.builder("leaderboard.username.cache.evictions")
+                .description("Entries evicted because the cache was full").register(meterRegistry);
+        // Access order, so the eldest entry is the least recently used
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedName> eldest) {
+                if (size() > UserNameCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        Gauge.builder("leaderboard.username.cache.size", this, UserNameCache::size)
+                .description("Entries currently held, including negative ones").register(meterRegistry);
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Returns names for the given IDs. Cached names are used as is; the rest
+     * are requested from the loader in one call and cached, with IDs missing
+     * from its answer cached as negative entries. IDs without a name are
+     * left out of the result. If the loader fails, nothing is cached and
+     * only the cached names are returned.
+     */
+    public Map<String, String> getAll(Collection<String> userIds,
+            Function<Set<String>, Map<String, String>> loader) {
+        if (userIds == null || userIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        Set<String> requested = new LinkedHashSet<>(userIds);
+        if (!enabled) {
+            Map<String, String> loaded = load(loader, requested);
+            return loaded != null ? loaded : new HashMap<>();
+        }
+
+        Map<String, String> names = new HashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        long now = clock.getAsLong();
+        synchronized (entries) {
+            for (String userId : requested) {
+                CachedName cached = entries.get(userId);
+                if (cached != null && now < cached.expiresAtNanos()) {
+                    if (cached.name() != null) {
+                        names.put(userId, cached.name());
+                    }
+                } else {
+                    missing.add(userId);
+                }
+            }
+        }
+        hits.increment(requested.size() - missing.size());
+        if (missing.isEmpty()) {
+            return names;
+        }
+        misses.increment(missing.size());
+
+        Map<String, String> loaded = load(loader, missing);
+        if (loaded == null) {
+            return names;
+        }
+
+        long loadedAt = clock.getAsLong();
+        synchronized (entries) {
+            for (String userId : missing) {
+                String name = loaded.get(userId);
+                entries.put(userId, new CachedName(name, loadedAt + (name != null ? ttlNanos : negativeTtlNanos)));
+                if (name != null) {
+                    names.put(userId, name);
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Calls the loader, returning null if it failed so nothing gets cached.
+     */
+    private static Map<String, String> load(Function<Set<String>, Map<String, String>> loader, Set<String> userIds) {
+        try {
+            Map<String, String> loaded = loader.apply(userIds);
+            return loaded != null ? new HashMap<>(loaded) : new HashMap<>();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to fetch usernames for {} users: {}", userIds.size(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Drops the cached entry so the next lookup goes to user-service.
+     */
+    public void invalidate(String userId) {
+        synchronized (entries) {
+            entries.remove(userId);
+        }
+    }
+
+    private record CachedName(String name, long expiresAtNanos) {
+    }
+}
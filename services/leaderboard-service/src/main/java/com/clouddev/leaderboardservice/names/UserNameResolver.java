@@ -0,0 +1,193 @@
+package com.clouddev.leaderboardservice.names;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Coalesces username lookups from concurrent requests into batched
+ * user-service calls, in the style of a DataLoader.
+ *
+ * The first lookup opens a batch and starts a window-ms timer; lookups
+ * arriving before it fires join the same batch. The batch is sent as one
+ * /api/users/names call when the timer fires or when it reaches
+ * max-batch-size IDs, and every waiting caller then gets its own subset
+ * of the answer. A lookup therefore waits at most window-ms longer than a
+ * direct call.
+ *
+ * The dispatch threads only time the windows; the blocking user-service
+ * calls run on separate fetch threads, one per user-service call slot, so
+ * a slow user-service cannot hold up the windows of later batches. A batch
+ * arriving while every fetch thread is busy is refused rather than queued,
+ * and resolve() waits at most max-wait-ms; either way the caller falls
+ * back to userIds.
+ */
+@Component
+public class UserNameResolver {
+
+    private final UserServiceClient userServiceClient;
+    private final boolean enabled;
+    private final long windowMicros;
+    private final int maxBatchSize;
+    private final long maxWaitMs;
+
+    private final ScheduledExecutorService dispatcher;
+    private final ThreadPoolExecutor fetcher;
+    private final Object lock = new Object();
+    private Batch open;
+
+    public UserNameResolver(UserServiceClient userServiceClient,
+            @Value("${leaderboard.username-resolver.enabled:true}") boolean enabled,
+            @Value("${leaderboard.username-resolver.window-ms:2}") long windowMs,
+            @Value("${leaderboard.username-resolver.max-batch-size:200}") int maxBatchSize,
+            @Value("${leaderboard.username-resolver.dispatch-threads:4}") int dispatchThreads,
+            @Value("${leaderboard.user-service.max-concurrent:20}") int fetchThreads,
+            @Value("${leaderboard.username-resolver.max-wait-ms:1100}") long maxWaitMs) {
+        this.userServiceClient = userServiceClient;
+        this.enabled = enabled;
+        this.windowMicros = windowMs * 1000L;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxWaitMs = maxWaitMs;
+        this.dispatcher = Executors.newScheduledThreadPool(Math.max(1, dispatchThreads),
+                daemonThreads("username-resolver-"));
+        this.fetcher = new ThreadPoolExecutor(0, Math.max(1, fetchThreads), 60L, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), daemonThreads("username-fetch-"));
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Resolves names for the given IDs, blocking until the batch they joined
+     * has been answered or max-wait-ms has passed. IDs without a name are
+     * left out of the result; failures of the batched call are rethrown to
+     * every caller in it.
+     *
+     * @throws UserServiceUnavailableException if no answer came in time
+     */
+    public Map<String, String> resolve(Set<String> userIds) {
+        try {
+            return load(userIds).orTimeout(maxWaitMs, TimeUnit.MILLISECONDS).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                throw new UserServiceUnavailableException("no username answer within " + maxWaitMs + " ms");
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public CompletableFuture<Map<String, String>> load(Set<String> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return CompletableFuture.completedFuture(new HashMap<>());
+        }
+        if (!enabled) {
+            return CompletableFuture.completedFuture(userServiceClient.fetchNames(userIds));
+        }
+
+        Waiter waiter = new Waiter(userIds, new CompletableFuture<>());
+        Batch full = null;
+        synchronized (lock) {
+            if (open == null) {
+                Batch batch = new Batch();
+                open = batch;
+                dispatcher.schedule(() -> dispatchIfOpen(batch), windowMicros, TimeUnit.MICROSECONDS);
+            }
+            open.userIds.addAll(userIds);
+            open.waiters.add(waiter);
+            if (open.userIds.size() >= maxBatchSize) {
+                full = open;
+                open = null;
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return waiter.future;
+    }
+
+    private void dispatchIfOpen(Batch batch) {
+        synchronized (lock) {
+            // Already sent because it filled up before the window closed
+            if (open != batch) {
+                return;
+            }
+            open = null;
+        }
+        dispatch(batch);
+    }
+
+    private void dispatch(Batch batch) {
+        try {
+            fetcher.execute(() -> fetch(batch));
+        } catch (RejectedExecutionException e) {
+            fail(batch, new UserServiceUnavailableException("too many concurrent user-service calls"));
+        }
+    }
+
+    private void fetch(Batch batch) {
+        Map<String, String> names;
+        try {
+            names = userServiceClient.fetchNames(batch.userIds);
+        } catch (RuntimeException e) {
+            fail(batch, e);
+            return;
+        }
+
+        for (Waiter waiter : batch.waiters) {
+            Map<String, String> subset = new HashMap<>();
+            for (String userId : waiter.userIds) {
+                String name = names.get(userId);
+                if (name != null) {
+                    subset.put(userId, name);
+                }
+            }
+            waiter.future.complete(subset);
+        }
+    }
+
+    private static void fail(Batch batch, RuntimeException e) {
+        for (Waiter waiter : batch.waiters) {
+            waiter.future.completeExceptionally(e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        dispatcher.shutdown();
+        fetcher.shutdown();
+    }
+
+    private static final class Batch {
+        private final Set<String> userIds = new LinkedHashSet<>();
+        private final List<Waiter> waiters = new ArrayList<>();
+    }
+
+    private record Waiter(Set<String> userIds, CompletableFuture<Map<String, String>> future) {
+    }
+}
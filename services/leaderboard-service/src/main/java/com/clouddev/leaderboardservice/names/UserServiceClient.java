@@ -0,0 +1,324 @@
+package com.clouddev.leaderboardservice.names;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Calls user-service for display names. Failures are thrown to the caller
+ * so that nothing upstream mistakes an outage for "no name".
+ *
+ * Each call is bounded by call-timeout-ms. At most max-concurrent requests
+ * are in flight; callers wait up to bulkhead-wait-ms for a slot and are
+ * then refused. A request keeps its slot until it actually ends, so ones
+ * abandoned at the timeout (and interrupted) still count against the
+ * limit, and they run on a pool of max-concurrent threads. A circuit breaker refuses calls outright while user-service
+ * keeps failing, so leaderboard reads fall back to userIds immediately.
+ * With hedging enabled, a call still running after the recent p95 latency
+ * is duplicated and the first answer wins.
+ */
+@Component
+public class UserServiceClient {
+
+    private static final int LATENCY_SAMPLES = 128;
+    private static final int MIN_SAMPLES_FOR_HEDGE_DELAY = 20;
+
+    private final RestTemplate restTemplate;
+    private final String userServiceUrl;
+    private final long callTimeoutMs;
+    private final long bulkheadWaitMs;
+    private final boolean hedgeEnabled;
+    private final long hedgeMinDelayMs;
+
+    private final Semaphore bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final ThreadPoolExecutor executor;
+
+    private final long[] latencySamples = new long[LATENCY_SAMPLES];
+    private int latencyCount;
+
+    public UserServiceClient(RestTemplate restTemplate,
+            @Value("${USER_SERVICE_URL:http://user-service:8081}") String userServiceUrl,
+            @Value("${leaderboard.user-service.call-timeout-ms:1000}") long callTimeoutMs,
+            @Value("${leaderboard.user-service.max-concurrent:20}") int maxConcurrent,
+            @Value("${leaderboard.user-service.bulkhead-wait-ms:50}") long bulkheadWaitMs,
+            @Value("${leaderboard.user-service.circuit.failure-threshold:5}") int failureThreshold,
+            @Value("${leaderboard.user-service.circuit.open-ms:10000}") long circuitOpenMs,
+            @Value("${leaderboard.user-service.hedge.enabled:false}") boolean hedgeEnabled,
+            @Value("${leaderboard.user-service.hedge.min-delay-ms:20}") long hedgeMinDelayMs) {
+        this.restTemplate = restTemplate;
+        this.userServiceUrl = userServiceUrl;
+        this.callTimeoutMs = callTimeoutMs;
+        this.bulkheadWaitMs = bulkheadWaitMs;
+        this.hedgeEnabled = hedgeEnabled;
+        this.hedgeMinDelayMs = hedgeMinDelayMs;
+        int slots = Math.max(1, maxConcurrent);
+        this.bulkhead = new Semaphore(slots);
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, circuitOpenMs);
+        AtomicInteger threadCount = new AtomicInteger();
+        // Every running request holds a slot, so one thread per slot is always enough
+        this.executor = new ThreadPoolExecutor(slots, slots, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "user-service-call-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public CircuitBreaker.State circuitState() {
+        return circuitBreaker.state();
+    }
+
+    public Map<String, String> fetchNames(Collection<String> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        List<String> ids = new ArrayList<>(userIds);
+        acquireSlot();
+        if (!circuitBreaker.tryAcquirePermission()) {
+            bulkhead.release();
+            throw new UserServiceUnavailableException("user-service circuit is open");
+        }
+
+        long start = System.nanoTime();
+        try {
+            // The request started here owns the slot from now on
+            Map<String, String> names = hedgeEnabled ? callHedged(ids) : call(ids);
+            circuitBreaker.onSuccess();
+            recordLatency(System.nanoTime() - start);
+            return names;
+        } catch (HttpClientErrorException e) {
+            // A 4xx means user-service is up and answering
+            circuitBreaker.onSuccess();
+            throw e;
+        } catch (RuntimeException e) {
+            circuitBreaker.onFailure();
+            throw e;
+        }
+    }
+
+    private void acquireSlot() {
+        try {
+            if (!bulkhead.tryAcquire(bulkheadWaitMs, TimeUnit.MILLISECONDS)) {
+                throw new UserServiceUnavailableException("too many concurrent user-service calls");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UserServiceUnavailableException("interrupted waiting for a user-service call slot");
+        }
+    }
+
+    private Map<String, String> call(List<String> ids) {
+        Request request = start(ids);
+        try {
+            return await(request.result, callTimeoutMs);
+        } finally {
+            request.cancel();
+        }
+    }
+
+    private Map<String, String> callHedged(List<String> ids) {
+        long start = System.nanoTime();
+        Request primary = start(ids);
+        try {
+            long hedgeDelayMs = Math.min(hedgeDelayMs(), callTimeoutMs);
+            try {
+                return primary.result.get(hedgeDelayMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // Still running after the usual p95, fall through and hedge
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UserServiceUnavailableException("interrupted calling user-service");
+            } catch (ExecutionException e) {
+                throw unwrap(e);
+            }
+
+            long remainingMs = callTimeoutMs - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            // A hedge needs its own bulkhead slot, so hedging never exceeds max-concurrent
+            if (remainingMs <= 0 || !bulkhead.tryAcquire()) {
+                return await(primary.result, Math.max(0L, remainingMs));
+            }
+
+            Request hedge = start(ids);
+            try {
+                return await(firstSuccessful(primary.result, hedge.result), remainingMs);
+            } finally {
+                hedge.cancel();
+            }
+        } finally {
+            primary.cancel();
+        }
+    }
+
+    /**
+     * Starts a request on a bulkhead slot the caller has already taken. The
+     * slot is released when the request ends, not when its caller stops
+     * waiting.
+     */
+    private Request start(List<String> ids) {
+        Request request = new Request(ids);
+        try {
+            executor.execute(request);
+        } catch (RejectedExecutionException e) {
+            bulkhead.release();
+            throw new UserServiceUnavailableException("user-service client is shut down");
+        }
+        return request;
+    }
+
+    private static CompletableFuture<Map<String, String>> firstSuccessful(
+            CompletableFuture<Map<String, String>> primary, CompletableFuture<Map<String, String>> hedge) {
+        CompletableFuture<Map<String, String>> result = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (CompletableFuture<Map<String, String>> attempt : Arrays.asList(primary, hedge)) {
+            attempt.whenComplete((names, error) -> {
+                if (error == null) {
+                    result.complete(names);
+                } else if (failures.incrementAndGet() == 2) {
+                    result.completeExceptionally(error);
+                }
+            });
+        }
+        return result;
+    }
+
+    private Map<String, String> await(CompletableFuture<Map<String, String>> future, long timeoutMs) {
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // The caller cancels the abandoned request; it holds its slot until it ends
+            throw new UserServiceUnavailableException("user-service did not answer within " + callTimeoutMs + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UserServiceUnavailableException("interrupted calling user-service");
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause instanceof RuntimeException runtime ? runtime : new IllegalStateException(cause);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, String> post(List<String> ids) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        HttpEntity<List<String>> request = new HttpEntity<>(ids, headers);
+
+        // Call User Service batch endpoint
+        ResponseEntity<Map> response = restTemplate.postForEntity(userServiceUrl + "/api/users/names", request,
+                Map.class);
+
+        if (response.getBody() != null) {
+            return (Map<String, String>) response.getBody();
+        }
+        return Collections.emptyMap();
+    }
+
+    private synchronized void recordLatency(long nanos) {
+        latencySamples[latencyCount % LATENCY_SAMPLES] = nanos;
+        latencyCount++;
+    }
+
+    /**
+     * p95 of recent call latencies, or hedge.min-delay-ms until enough calls
+     * have been seen. Never below the minimum so a fast service is not hedged
+     * on every call.
+     */
+    long hedgeDelayMs() {
+        long[] samples;
+        synchronized (this) {
+            if (latencyCount < MIN_SAMPLES_FOR_HEDGE_DELAY) {
+                return hedgeMinDelayMs;
+            }
+            samples = Arrays.copyOf(latencySamples, Math.min(latencyCount, LATENCY_SAMPLES));
+        }
+        Arrays.sort(samples);
+        long p95 = samples[(int) Math.ceil(samples.length * 0.95) - 1];
+        return Math.max(hedgeMinDelayMs, TimeUnit.NANOSECONDS.toMillis(p95));
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * One request to user-service, run on the executor. Cancelling it
+     * interrupts the thread while the request is running, or stops it
+     * starting; either way the slot is released exactly once.
+     */
+    private final class Request implements Runnable {
+
+        private final List<String> ids;
+        private final CompletableFuture<Map<String, String>> result = new CompletableFuture<>();
+        private Thread runner;
+        private boolean cancelled;
+
+        Request(List<String> ids) {
+            this.ids = ids;
+        }
+
+        @Override
+        public void run() {
+            try {
+                synchronized (this) {
+                    if (cancelled) {
+                        result.completeExceptionally(new UserServiceUnavailableException("user-service call cancelled"));
+                        return;
+                    }
+                    runner = Thread.currentThread();
+                }
+                try {
+                    result.complete(post(ids));
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    synchronized (this) {
+                        runner = null;
+                        // Clear a cancel that arrived as the request ended, so the pool thread starts clean
+                        Thread.interrupted();
+                    }
+                }
+            } finally {
+                bulkhead.release();
+            }
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+            if (runner != null) {
+                runner.interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.clouddev.leaderboardservice.names;
+
+/**
+ * Thrown when a user-service call is not attempted or not answered in time:
+ * the circuit is open, the bulkhead is full, or the call timed out.
+ */
+public class UserServiceUnavailableException extends RuntimeException {
+
+    public UserServiceUnavailableException(String message) {
+        super(message);
+    }
+}
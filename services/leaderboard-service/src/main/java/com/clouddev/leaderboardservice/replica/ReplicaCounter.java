@@ -0,0 +1,50 @@
+package com.clouddev.leaderboardservice.replica;
+
+import java.time.LocalDate;
+
+/**
+ * One replica's share of a user's score, as a state-based CRDT: positive
+ * and negative are grow-only totals (a PN-counter), updates counts the
+ * deltas applied, and (lastActivityDate, streak) is a register that only
+ * moves forward. Only the owning replica adds to it; copies held by other
+ * replicas are combined with merge, which is commutative, associative and
+ * idempotent, so they converge whatever order the copies arrive in.
+ */
+record ReplicaCounter(double positive, double negative, long updates, long streak, LocalDate lastActivityDate) {
+
+    static final ReplicaCounter EMPTY = new ReplicaCounter(0.0d, 0.0d, 0L, 0L, null);
+
+    double value() {
+        return positive - negative;
+    }
+
+    /**
+     * This counter with the delta added and the user's streak moved to the
+     * given values, which must not be behind the current register.
+     */
+    ReplicaCounter add(double delta, long nextStreak, LocalDate nextActivityDate) {
+        return new ReplicaCounter(positive + Math.max(delta, 0.0d), negative + Math.max(-delta, 0.0d), updates + 1,
+                nextStreak, nextActivityDate);
+    }
+
+    ReplicaCounter merge(ReplicaCounter other) {
+        ReplicaCounter register = isStreakBehind(other) ? other : this;
+        return new ReplicaCounter(Math.max(positive, other.positive), Math.max(negative, other.negative),
+                Math.max(updates, other.updates), register.streak, register.lastActivityDate);
+    }
+
+    /**
+     * Orders streak registers by last activity date, then by streak; the
+     * later activity wins because the streak rules only ever move it forward.
+     */
+    boolean isStreakBehind(ReplicaCounter other) {
+        if (other.lastActivityDate == null) {
+            return false;
+        }
+        if (lastActivityDate == null) {
+            return true;
+        }
+        int byDate = lastActivityDate.compareTo(other.lastActivityDate);
+        return byDate < 0 || (byDate == 0 && streak < other.streak);
+    }
+}
@@ -0,0 +1,77 @@
+package com.clouddev.leaderboardservice.replica;
+
+import com.clouddev.leaderboardservice.model.UpsertedScore;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A user's score as one counter per replica. The score is the sum of the
+ * counters, the streak the most advanced register among them, and the
+ * version the number of deltas applied anywhere; a merged state that has
+ * seen more updates always has a higher version. Not thread-safe: callers
+ * synchronise on the instance.
+ */
+final class ReplicatedScore {
+
+    private final String userId;
+    // Sorted so every replica sums the counters in the same order and gets the same double
+    private final Map<String, ReplicaCounter> counters = new TreeMap<>();
+
+    ReplicatedScore(String userId) {
+        this.userId = userId;
+    }
+
+    boolean isEmpty() {
+        return counters.isEmpty();
+    }
+
+    ReplicaCounter counter(String replicaId) {
+        return counters.getOrDefault(replicaId, ReplicaCounter.EMPTY);
+    }
+
+    void put(String replicaId, ReplicaCounter counter) {
+        counters.put(replicaId, counter);
+    }
+
+    /**
+     * Merges in a copy of another replica's counter.
+     *
+     * @return true if the merged state changed
+     */
+    boolean merge(String replicaId, ReplicaCounter counter) {
+        ReplicaCounter current = counters.get(replicaId);
+        ReplicaCounter merged = current != null ? current.merge(counter) : counter;
+        if (merged.equals(current)) {
+            return false;
+        }
+        counters.put(replicaId, merged);
+        return true;
+    }
+
+    long version() {
+        long version = 0;
+        for (ReplicaCounter counter : counters.values()) {
+            version += counter.updates();
+        }
+        return version;
+    }
+
+    /**
+     * The merged view, in the shape returned by the upsert statements.
+     *
+     * @param previousScore the merged score before the write this view
+     *        reports; null if that write created the user, or if the view
+     *        reports no write
+     */
+    UpsertedScore view(Double previousScore) {
+        double score = 0.0d;
+        ReplicaCounter register = ReplicaCounter.EMPTY;
+        for (ReplicaCounter counter : counters.values()) {
+            score += counter.value();
+            if (register.isStreakBehind(counter)) {
+                register = counter;
+            }
+        }
+        return new UpsertedScore(userId, score, register.streak(), register.lastActivityDate(), previousScore);
+    }
+}
@@ -0,0 +1,448 @@
+package com.clouddev.leaderboardservice.replica;
+
+import com.clouddev.leaderboardservice.event.ScoreChangedEvent;
+import com.clouddev.leaderboardservice.model.ScoreDelta;
+import com.clouddev.leaderboardservice.model.UpsertedScore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Active-active score writes: every replica adds deltas to its own
+ * counter per user in memory, so the write path takes no row lock that
+ * another replica could be waiting on.
+ *
+ * Every sync-interval-ms a replica writes its changed counters to
+ * leaderboard_replica_scores (rows keyed by replica id, so no two
+ * replicas ever write the same row), merges in the rows other replicas
+ * changed since its last pull, and copies the merged score and streak of
+ * every user whose view changed into leaderboard_entries, where all reads
+ * find them. That copy is guarded by the merged version, so a replica
+ * with an older view never overwrites a newer one and every replica ends
+ * up writing, or skipping, the same final row.
+ *
+ * Deltas reach the table within one interval, like the write-behind
+ * buffer; the last ones are flushed on shutdown. Counters are never
+ * deleted, so a replica id may change between restarts. Two running
+ * replicas must never share one. On first start the existing
+ * leaderboard_entries scores are copied into a seed counter.
+ *
+ * The copy writes leaderboard_entries only: leaderboard_period_scores and
+ * score_buckets are not kept, so the period boards answer 501 and rank
+ * buckets cannot be enabled alongside replicas.
+ */
+@Component
+public class ReplicatedScores {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicatedScores.class);
+
+    static final String SEED_REPLICA = "seed";
+
+    private static final int CHUNK_SIZE = 500;
+
+    private static final String SEED_FROM_ENTRIES = """
+            INSERT INTO leaderboard_replica_scores
+                (replica_id, user_id, positive, negative, updates, streak_count, last_activity_date, updated_at)
+            SELECT ?, user_id, GREATEST(score, 0), GREATEST(-score, 0), 1, streak_count, last_activity_date,
+                CURRENT_TIMESTAMP
+            FROM leaderboard_entries
+            WHERE NOT EXISTS (SELECT 1 FROM leaderboard_replica_scores)""";
+
+    private static final String DB_NOW = "SELECT CURRENT_TIMESTAMP";
+
+    private static final String SELECT_COUNTERS = """
+            SELECT replica_id, user_id, positive, negative, updates, streak_count, last_activity_date
+            FROM leaderboard_replica_scores""";
+
+    private static final String SELECT_CHANGED_COUNTERS = SELECT_COUNTERS + " WHERE replica_id <> ? AND updated_at > ?";
+
+    private static final String UPDATE_COUNTER = """
+            UPDATE leaderboard_replica_scores
+            SET positive = ?, negative = ?, updates = ?, streak_count = ?, last_activity_date = ?,
+                updated_at = CURRENT_TIMESTAMP
+            WHERE replica_id = ? AND user_id = ?""";
+
+    private static final String INSERT_COUNTER = """
+            INSERT INTO leaderboard_replica_scores
+                (positive, negative, updates, streak_count, last_activity_date, updated_at, replica_id, user_id)
+            VALUES (?, ?, ?, ?, ?, CURRENT_TIMESTAMP, ?, ?)""";
+
+    private static final String SELECT_ENTRIES =
+            "SELECT user_id, score, replica_version FROM leaderboard_entries WHERE user_id IN (%s)";
+
+    private static final String SELECT_ENTRY_SCORE = "SELECT score FROM leaderboard_entries WHERE user_id = ?";
+
+    private static final String UPDATE_ENTRY = """
+            UPDATE leaderboard_entries
+            SET score = ?, streak_count = ?, last_activity_date = ?, replica_version = ?, updated_at = CURRENT_TIMESTAMP
+            WHERE user_id = ? AND replica_version < ?""";
+
+    private static final String INSERT_ENTRY = """
+            INSERT INTO leaderboard_entries
+                (user_id, score, streak_count, last_activity_date, replica_version, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final String replicaId;
+    private final long syncIntervalMs;
+    private final long overlapMs;
+
+    private final Map<String, ReplicatedScore> users = new ConcurrentHashMap<>();
+    private final Set<String> unflushed = ConcurrentHashMap.newKeySet();
+    private final Set<String> unpublished = ConcurrentHashMap.newKeySet();
+    private final Object syncLock = new Object();
+    private Timestamp pulledUpTo;
+    private volatile boolean loaded;
+    private ScheduledExecutorService syncer;
+
+    @Autowired
+    public ReplicatedScores(JdbcTemplate jdbcTemplate,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${leaderboard.replicas.enabled:false}") boolean enabled,
+            @Value("${leaderboard.replicas.replica-id:}") String replicaId,
+            @Value("${leaderboard.replicas.sync-interval-ms:1000}") long syncIntervalMs,
+            @Value("${leaderboard.replicas.overlap-ms:5000}") long overlapMs,
+            @Value("${leaderboard.rank-buckets.enabled:false}") boolean rankBucketsEnabled) {
+        if (enabled && rankBucketsEnabled) {
+            throw new IllegalStateException("leaderboard.replicas.enabled cannot be combined with "
+                    + "leaderboard.rank-buckets.enabled: the replica copy never moves score_buckets");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.replicaId = replicaId == null || replicaId.isBlank() ? UUID.randomUUID().toString() : replicaId.trim();
+        this.syncIntervalMs = syncIntervalMs;
+        this.overlapMs = overlapMs;
+        if (SEED_REPLICA.equals(this.replicaId)) {
+            throw new IllegalArgumentException("leaderboard.replicas.replica-id '" + SEED_REPLICA + "' is reserved");
+        }
+    }
+
+    ReplicatedScores(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher, String replicaId,
+            long overlapMs) {
+        this(jdbcTemplate, eventPublisher, true, replicaId, 0L, overlapMs, false);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String replicaId() {
+        return replicaId;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        load();
+        syncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "leaderboard-replica-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        syncer.scheduleWithFixedDelay(this::syncQuietly, syncIntervalMs, syncIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Reads every counter, this replica's own included, before any write is
+     * accepted: a replica that started from an empty counter would write a
+     * smaller total over its own row. Every user is then checked once
+     * against leaderboard_entries in case a replica stopped before copying.
+     */
+    void load() {
+        try {
+            int seeded = jdbcTemplate.update(SEED_FROM_ENTRIES, SEED_REPLICA);
+            if (seeded > 0) {
+                logger.info("Seeded replica counters from {} existing leaderboard entries", seeded);
+            }
+        } catch (DuplicateKeyException e) {
+            // Another replica seeded the table at the same time
+        }
+
+        synchronized (syncLock) {
+            Timestamp now = dbNow();
+            jdbcTemplate.query(SELECT_COUNTERS, this::mergeRow);
+            pulledUpTo = new Timestamp(now.getTime() - overlapMs);
+            unpublished.addAll(users.keySet());
+            loaded = true;
+        }
+        logger.info("Replica {} loaded counters for {} users", replicaId, users.size());
+    }
+
+    /**
+     * Adds the delta to this replica's counter for the user, applying the
+     * streak rules to the merged view, and returns the merged view after it.
+     */
+    public UpsertedScore add(ScoreDelta delta) {
+        if (!loaded) {
+            throw new IllegalStateException("Replica counters are not loaded yet");
+        }
+        ReplicatedScore state = users.computeIfAbsent(delta.userId(), ReplicatedScore::new);
+        UpsertedScore after;
+        synchronized (state) {
+            Double previousScore = state.isEmpty() ? null : state.view(null).score();
+            UpsertedScore next = state.view(previousScore).plus(delta);
+            state.put(replicaId, state.counter(replicaId).add(delta.scoreDelta(), next.streak(),
+                    next.lastActivityDate()));
+            after = state.view(previousScore);
+        }
+        unflushed.add(delta.userId());
+        unpublished.add(delta.userId());
+        return after;
+    }
+
+    /**
+     * Adds the deltas oldest activity date first, so streaks advance day by
+     * day, and returns the merged view of each user after the last one.
+     */
+    public Map<String, UpsertedScore> addAll(List<ScoreDelta> deltas) {
+        List<ScoreDelta> byDate = new ArrayList<>(deltas);
+        byDate.sort(Comparator.comparing(ScoreDelta::activityDate));
+
+        Map<String, UpsertedScore> latest = new LinkedHashMap<>();
+        for (ScoreDelta delta : byDate) {
+            latest.put(delta.userId(), add(delta));
+        }
+        return latest;
+    }
+
+    /**
+     * The merged view this replica holds for the user.
+     */
+    Optional<UpsertedScore> get(String userId) {
+        ReplicatedScore state = users.get(userId);
+        if (state == null) {
+            return Optional.empty();
+        }
+        synchronized (state) {
+            return state.isEmpty() ? Optional.empty() : Optional.of(state.view(null));
+        }
+    }
+
+    /**
+     * One round of anti-entropy: push this replica's changed counters, pull
+     * the counters other replicas changed, and copy changed views into
+     * leaderboard_entries. Whatever fails is retried next round.
+     */
+    public void sync() {
+        synchronized (syncLock) {
+            pushCounters();
+            pullCounters();
+            copyToEntries();
+        }
+    }
+
+    private void pushCounters() {
+        List<String> userIds = drain(unflushed);
+        try {
+            for (List<String> chunk : chunks(userIds)) {
+                List<Object[]> rows = new ArrayList<>(chunk.size());
+                for (String userId : chunk) {
+                    ReplicaCounter counter;
+                    ReplicatedScore state = users.get(userId);
+                    synchronized (state) {
+                        counter = state.counter(replicaId);
+                    }
+                    rows.add(new Object[] { counter.positive(), counter.negative(), counter.updates(),
+                            counter.streak(), toDate(counter), replicaId, userId });
+                }
+
+                // Only this replica writes its own rows, so a row missing here cannot appear concurrently
+                int[] updated = jdbcTemplate.batchUpdate(UPDATE_COUNTER, rows);
+                List<Object[]> inserts = new ArrayList<>();
+                for (int i = 0; i < updated.length; i++) {
+                    if (updated[i] == 0) {
+                        inserts.add(rows.get(i));
+                    }
+                }
+                if (!inserts.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_COUNTER, inserts);
+                }
+            }
+        } catch (RuntimeException e) {
+            unflushed.addAll(userIds);
+            throw e;
+        }
+    }
+
+    private void pullCounters() {
+        Timestamp now = dbNow();
+        jdbcTemplate.query(SELECT_CHANGED_COUNTERS, this::mergeRow, replicaId, pulledUpTo);
+        // Rows written by transactions still open at "now" can carry an earlier updated_at
+        pulledUpTo = new Timestamp(now.getTime() - overlapMs);
+    }
+
+    private void copyToEntries() {
+        List<String> userIds = drain(unpublished);
+        try {
+            for (List<String> chunk : chunks(userIds)) {
+                copyChunk(chunk);
+            }
+        } catch (RuntimeException e) {
+            unpublished.addAll(userIds);
+            throw e;
+        }
+    }
+
+    private void copyChunk(List<String> userIds) {
+        Map<String, StoredEntry> stored = new HashMap<>();
+        jdbcTemplate.query(String.format(SELECT_ENTRIES, String.join(",", Collections.nCopies(userIds.size(), "?"))),
+                rs -> {
+                    stored.put(rs.getString("user_id"),
+                            new StoredEntry(rs.getDouble("score"), rs.getLong("replica_version")));
+                }, userIds.toArray());
+
+        List<UpsertedScore> views = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        for (String userId : userIds) {
+            ReplicatedScore state = users.get(userId);
+            UpsertedScore view;
+            long version;
+            synchronized (state) {
+                view = state.view(null);
+                version = state.version();
+            }
+
+            StoredEntry entry = stored.get(userId);
+            if (entry == null) {
+                insertEntry(view, version);
+            } else if (entry.version() < version) {
+                views.add(view);
+                updates.add(entryUpdate(view, version));
+            }
+        }
+
+        int[] updated = updates.isEmpty() ? new int[0] : jdbcTemplate.batchUpdate(UPDATE_ENTRY, updates);
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] != 0) {
+                UpsertedScore view = views.get(i);
+                publish(view, stored.get(view.userId()).score());
+            }
+        }
+    }
+
+    private void insertEntry(UpsertedScore view, long version) {
+        try {
+            jdbcTemplate.update(INSERT_ENTRY, view.userId(), view.score(), view.streak(),
+                    view.lastActivityDate() != null ? Date.valueOf(view.lastActivityDate()) : null, version);
+            publish(view, null);
+        } catch (DuplicateKeyException e) {
+            // Another replica copied the user first; fall back to the guarded update
+            Double previous = jdbcTemplate.queryForObject(SELECT_ENTRY_SCORE, Double.class, view.userId());
+            if (jdbcTemplate.update(UPDATE_ENTRY, entryUpdate(view, version)) > 0) {
+                publish(view, previous);
+            }
+        }
+    }
+
+    private static Object[] entryUpdate(UpsertedScore view, long version) {
+        return new Object[] { view.score(), view.streak(),
+                view.lastActivityDate() != null ? Date.valueOf(view.lastActivityDate()) : null, version,
+                view.userId(), version };
+    }
+
+    private void publish(UpsertedScore view, Double previousScore) {
+        // Delivered to the rank index and other in-memory views of this instance
+        eventPublisher.publishEvent(new ScoreChangedEvent(view.userId(), previousScore, view.score(),
+                view.streak(), view.lastActivityDate()));
+    }
+
+    private void mergeRow(ResultSet rs) throws SQLException {
+        String userId = rs.getString("user_id");
+        Date lastActivity = rs.getDate("last_activity_date");
+        ReplicaCounter counter = new ReplicaCounter(rs.getDouble("positive"), rs.getDouble("negative"),
+                rs.getLong("updates"), rs.getLong("streak_count"),
+                lastActivity != null ? lastActivity.toLocalDate() : null);
+
+        ReplicatedScore state = users.computeIfAbsent(userId, ReplicatedScore::new);
+        boolean changed;
+        synchronized (state) {
+            changed = state.merge(rs.getString("replica_id"), counter);
+        }
+        if (changed) {
+            unpublished.add(userId);
+        }
+    }
+
+    private Timestamp dbNow() {
+        return jdbcTemplate.queryForObject(DB_NOW, Timestamp.class);
+    }
+
+    private static Date toDate(ReplicaCounter counter) {
+        return counter.lastActivityDate() != null ? Date.valueOf(counter.lastActivityDate()) : null;
+    }
+
+    private static List<String> drain(Set<String> userIds) {
+        List<String> drained = new ArrayList<>(userIds);
+        drained.forEach(userIds::remove);
+        return drained;
+    }
+
+    private static List<List<String>> chunks(List<String> userIds) {
+        List<List<String>> chunks = new ArrayList<>();
+        for (int i = 0; i < userIds.size(); i += CHUNK_SIZE) {
+            chunks.add(userIds.subList(i, Math.min(userIds.size(), i + CHUNK_SIZE)));
+        }
+        return chunks;
+    }
+
+    private record StoredEntry(double score, long version) {
+    }
+
+    @PreDestroy
+    public void close() {
+        if (syncer != null) {
+            syncer.shutdown();
+            try {
+                syncer.awaitTermination(syncIntervalMs + 5000L, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (loaded) {
+            try {
+                sync();
+            } catch (RuntimeException e) {
+                logger.error("Failed to push replica counters for {} users on shutdown: {}", unflushed.size(),
+                        e.getMessage());
+            }
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (RuntimeException e) {
+            logger.error("Failed to sync replica counters, will retry: {}", e.getMessage());
+        }
+    }
+}
@@ -1,16 +1,19 @@
 package com.clouddev.leaderboardservice.repository;
 
 import com.clouddev.leaderboardservice.entity.LeaderboardEntryEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface LeaderboardRepository extends JpaRepository<LeaderboardEntryEntity, String> {
+public interface LeaderboardRepository extends JpaRepository<LeaderboardEntryEntity, String>, LeaderboardRepositoryCustom {
 
     /**
      * Get top N users ordered by score descending
@@ -19,9 +22,9 @@ public interface LeaderboardRepository extends JpaRepository<LeaderboardEntryEnt
     List<LeaderboardEntryEntity> findTopByOrderByScoreDesc(@Param("limit") int limit);
 
     /**
-     * Get top N entries ordered by score descending
+     * Get top N entries ordered by score descending, ties by user_id (the same order as findAround)
      */
-    @Query(value = "SELECT * FROM leaderboard_entries ORDER BY score DESC LIMIT :limit", nativeQuery = true)
+    @Query(value = "SELECT * FROM leaderboard_entries ORDER BY score DESC, user_id LIMIT :limit", nativeQuery = true)
     List<LeaderboardEntryEntity> findTopN(@Param("limit") int limit);
 
     /**
@@ -34,5 +37,22 @@ public interface LeaderboardRepository extends JpaRepository<LeaderboardEntryEnt
      * Find entry by userId
      */
     Optional<LeaderboardEntryEntity> findByUserId(String userId);
-}
 
+    /**
+     * Keyset page of entries after the given userId, used to load in-memory views
+     */
+    List<LeaderboardEntryEntity> findByUserIdGreaterThanOrderByUserIdAsc(String userId, Pageable pageable);
+
+    /**
+     * Set the denormalized display name; returns 0 if the user has no entry yet
+     */
+    @Modifying
+    @Query("UPDATE LeaderboardEntryEntity e SET e.displayName = :displayName WHERE e.userId = :userId")
+    int updateDisplayName(@Param("userId") String userId, @Param("displayName") String displayName);
+
+    /**
+     * Stored display names for the given users, as [userId, displayName] rows (users without one are left out)
+     */
+    @Query("SELECT e.userId, e.displayName FROM LeaderboardEntryEntity e WHERE e.userId IN :userIds AND e.displayName IS NOT NULL")
+    List<Object[]> findDisplayNames(@Param("userIds") Collection<String> userIds);
+}
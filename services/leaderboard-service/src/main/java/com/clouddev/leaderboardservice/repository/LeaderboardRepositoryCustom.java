@@ -0,0 +1,130 @@
+package com.clouddev.leaderboardservice.repository;
+
+import com.clouddev.leaderboardservice.model.BoardChange;
+import com.clouddev.leaderboardservice.model.LeaderboardWindow;
+import com.clouddev.leaderboardservice.model.PageCursor;
+import com.clouddev.leaderboardservice.model.ScoreDelta;
+import com.clouddev.leaderboardservice.model.UpsertedScore;
+import com.clouddev.leaderboardservice.model.WindowedScore;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Native statements that Spring Data cannot derive, implemented with JDBC in
+ * LeaderboardRepositoryImpl.
+ */
+public interface LeaderboardRepositoryCustom {
+
+    /**
+     * Adds one delta with a single INSERT ... ON CONFLICT (user_id) DO UPDATE
+     * statement, creating the entry if needed. No prior SELECT, and
+     * concurrent calls for the same user never lose an increment.
+     *
+     * @return the user's row after the write
+     */
+    UpsertedScore upsertScore(ScoreDelta delta);
+
+    /**
+     * Adds every delta in one INSERT ... ON CONFLICT (user_id) DO UPDATE
+     * statement, applying the streak rules in SQL. Each userId may appear
+     * at most once per call. Rows are locked in userId order whatever the
+     * order of the deltas, so concurrent batches cannot deadlock.
+     *
+     * @return the resulting row for each user
+     */
+    List<UpsertedScore> upsertScores(List<ScoreDelta> deltas);
+
+    /**
+     * The user's all-time entry and rank (1-based, ties share the best rank)
+     * from one statement. The rank is summed from score_buckets while
+     * leaderboard.rank-buckets is enabled, otherwise counted as in
+     * getUserRank. Empty if the user has no entry.
+     */
+    Optional<WindowedScore> findRankedEntry(String userId);
+
+    /**
+     * Adds the delta to one stripe of the user's activity day in
+     * leaderboard_score_stripes instead of to the entry. The stripes are
+     * folded into the entry later by takeStripes and the upsert.
+     */
+    void addToStripe(ScoreDelta delta, int stripe);
+
+    /**
+     * Adds every delta to the given stripe in one statement. Each (userId,
+     * activityDate) may appear at most once per call.
+     */
+    void addToStripes(List<ScoreDelta> deltas, int stripe);
+
+    /**
+     * Deletes up to limit stripe rows, each user's oldest days first, and
+     * returns them summed per user and day, oldest day first. Meant to be
+     * applied with upsertScores in the same transaction.
+     */
+    List<ScoreDelta> takeStripes(int limit);
+
+    /**
+     * The sum of each user's stripes not yet folded into the entry; users
+     * without stripes are left out.
+     */
+    Map<String, Double> findStripeScores(Collection<String> userIds);
+
+    /**
+     * Stores display names for entries that do not have one yet, in one
+     * statement. Names already set (by a profile-changed event) are never
+     * overwritten, so a name fetched before a rename cannot replace the new
+     * one.
+     *
+     * @return the number of entries updated
+     */
+    int fillMissingDisplayNames(Map<String, String> displayNames);
+
+    /**
+     * Highest scores within one period, in board order (score descending,
+     * then userId; rank = position).
+     */
+    List<WindowedScore> findTopInPeriod(LeaderboardWindow window, LocalDate periodStart, int limit);
+
+    /**
+     * The user's score and rank within one period, or empty if they scored
+     * nothing in it. Tied users share a rank.
+     */
+    Optional<WindowedScore> findRankInPeriod(LeaderboardWindow window, LocalDate periodStart, String userId);
+
+    /**
+     * The user's all-time entry with up to k entries on either side, in
+     * board order (score descending, then userId). Ranks are the same as
+     * findRankedEntry's, so tied users share one. Empty if the user has no entry.
+     */
+    List<WindowedScore> findAround(String userId, int k);
+
+    /**
+     * The all-time entry and rank of each given user that has an entry, in
+     * no particular order, from one statement. Tied users share a rank, as
+     * with getUserRank.
+     */
+    List<WindowedScore> findRanks(Collection<String> userIds);
+
+    /**
+     * Up to limit all-time entries after the cursor in board order (score
+     * descending, then userId), or from the top when after is null. Ranks
+     * continue from the cursor's position.
+     */
+    List<WindowedScore> findPage(PageCursor after, int limit);
+
+    /**
+     * Up to limit all-time entries whose updated_at is at or after from, in
+     * updated_at order, with their current score and streak.
+     */
+    List<BoardChange> findChangedSince(OffsetDateTime from, int limit);
+
+    /**
+     * Deletes every bucket of the window that starts before the given date.
+     *
+     * @return the number of buckets deleted
+     */
+    int deletePeriodsBefore(LeaderboardWindow window, LocalDate periodStart);
+}
@@ -0,0 +1,554 @@
+package com.clouddev.leaderboardservice.repository;
+
+import com.clouddev.leaderboardservice.model.BoardChange;
+import com.clouddev.leaderboardservice.model.LeaderboardWindow;
+import com.clouddev.leaderboardservice.model.PageCursor;
+import com.clouddev.leaderboardservice.model.ScoreDelta;
+import com.clouddev.leaderboardservice.model.UpsertedScore;
+import com.clouddev.leaderboardservice.model.WindowedScore;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+public class LeaderboardRepositoryImpl implements LeaderboardRepositoryCustom {
+
+    /**
+     * Adds the incoming score and applies the streak rules: same day keeps
+     * the streak (at least 1), the next day extends it, an older date is a
+     * late event and leaves it alone, anything else restarts it at 1. The
+     * row lock taken by ON CONFLICT serialises concurrent updates to one user.
+     * previous_score keeps the score the update started from, read from the
+     * locked row, so RETURNING can hand back the exact old score; an insert
+     * leaves it NULL.
+     */
+    private static final String ON_CONFLICT_ADD_SCORE = """
+            ON CONFLICT (user_id) DO UPDATE SET
+                score = e.score + EXCLUDED.score,
+                streak_count = CASE
+                    WHEN e.last_activity_date IS NULL THEN 1
+                    WHEN EXCLUDED.last_activity_date = e.last_activity_date THEN GREATEST(e.streak_count, 1)
+                    WHEN EXCLUDED.last_activity_date = e.last_activity_date + 1 THEN e.streak_count + 1
+                    WHEN EXCLUDED.last_activity_date < e.last_activity_date THEN e.streak_count
+                    ELSE 1
+                END,
+                last_activity_date = GREATEST(e.last_activity_date, EXCLUDED.last_activity_date),
+                previous_score = e.score,
+                updated_at = now()
+            RETURNING e.user_id, e.score, e.streak_count, e.last_activity_date, e.previous_score""";
+
+    /**
+     * Upsert template taking its rows from an "input" CTE of (user_id,
+     * score_delta, activity_date), followed by ON_CONFLICT_ADD_SCORE and
+     * optionally MOVE_RANK_BUCKETS. The same statement adds each non-zero
+     * delta to the user's day, ISO week and month buckets, so the windowed
+     * boards cost no extra round trip and commit with the all-time score.
+     */
+    private static final String UPSERT_TEMPLATE = """
+            WITH input AS (
+                %s
+            ), upserted AS (
+                INSERT INTO leaderboard_entries AS e
+                    (user_id, score, streak_count, last_activity_date, created_at, updated_at)
+                SELECT i.user_id, i.score_delta, 1, i.activity_date, now(), now()
+                FROM input i
+                %s
+            ), buckets AS (
+                INSERT INTO leaderboard_period_scores AS p (period, period_start, user_id, score)
+                SELECT w.period, w.period_start, i.user_id, i.score_delta
+                FROM input i
+                CROSS JOIN LATERAL (VALUES
+                    ('DAY', i.activity_date),
+                    ('WEEK', date_trunc('week', i.activity_date)::date),
+                    ('MONTH', date_trunc('month', i.activity_date)::date)) AS w(period, period_start)
+                WHERE i.score_delta <> 0
+                ON CONFLICT (period, period_start, user_id) DO UPDATE SET score = p.score + EXCLUDED.score
+            )%s
+            SELECT user_id, score, streak_count, last_activity_date, previous_score FROM upserted""";
+
+    /**
+     * Moves each upserted user out of the score_buckets bucket of their old
+     * score and into that of the new one, taking the bucket width as the
+     * parameter after the input's. The old score is previous_score, read
+     * from the locked row by the upsert itself: scores are fractional, so
+     * the new score minus the delta can land on the other side of a bucket
+     * edge. A change within one bucket nets to zero and writes nothing, so
+     * only users crossing a bucket edge lock a count row, and in bucket
+     * order.
+     */
+    private static final String MOVE_RANK_BUCKETS = """
+            , width AS (
+                SELECT ?::float8 AS w
+            ), moves AS (
+                SELECT floor(u.score / width.w)::bigint AS bucket, 1 AS change
+                FROM upserted u CROSS JOIN width
+                UNION ALL
+                SELECT floor(u.previous_score / width.w)::bigint, -1
+                FROM upserted u CROSS JOIN width
+                WHERE u.previous_score IS NOT NULL
+            ), bucket_counts AS (
+                INSERT INTO score_buckets AS b (bucket, count)
+                SELECT bucket, SUM(change) FROM moves
+                GROUP BY bucket
+                HAVING SUM(change) <> 0
+                ORDER BY bucket
+                ON CONFLICT (bucket) DO UPDATE SET count = b.count + EXCLUDED.count
+            )""";
+
+    private static final String SINGLE_INPUT =
+            "SELECT ?::varchar AS user_id, ?::float8 AS score_delta, ?::date AS activity_date";
+
+    /**
+     * Array statements take row locks in array order, so callers' rows are
+     * sorted into this order first: two batches sharing users then lock them
+     * in the same sequence and cannot deadlock on each other.
+     */
+    private static final Comparator<ScoreDelta> LOCK_ORDER = Comparator.comparing(ScoreDelta::userId)
+            .thenComparing(ScoreDelta::activityDate);
+
+    private static final String ARRAY_INPUT =
+            "SELECT * FROM unnest(?::varchar[], ?::float8[], ?::date[]) AS u(user_id, score_delta, activity_date)";
+
+    private static final String UPSERT_SCORE_SQL = UPSERT_TEMPLATE.formatted(
+            SINGLE_INPUT, ON_CONFLICT_ADD_SCORE, "");
+
+    private static final String UPSERT_SCORES_SQL = UPSERT_TEMPLATE.formatted(
+            ARRAY_INPUT, ON_CONFLICT_ADD_SCORE, "");
+
+    private static final String UPSERT_SCORE_BUCKETED_SQL = UPSERT_TEMPLATE.formatted(
+            SINGLE_INPUT, ON_CONFLICT_ADD_SCORE, MOVE_RANK_BUCKETS);
+
+    private static final String UPSERT_SCORES_BUCKETED_SQL = UPSERT_TEMPLATE.formatted(
+            ARRAY_INPUT, ON_CONFLICT_ADD_SCORE, MOVE_RANK_BUCKETS);
+
+    // The entry and its competition rank in one round trip: a count of every higher score
+    private static final String RANKED_ENTRY_SQL = """
+            SELECT e.user_id, e.score, e.streak_count, e.display_name,
+                (SELECT COUNT(*) + 1 FROM leaderboard_entries o WHERE o.score > e.score) AS rank
+            FROM leaderboard_entries e
+            WHERE e.user_id = ?""";
+
+    /**
+     * RANKED_ENTRY_SQL with the rank from score_buckets: the entries in
+     * every higher bucket, read from the summary, plus those above the user
+     * in their own bucket, an index-only range scan on idx_leaderboard_score
+     * no longer than one bucket. Whole-number widths and scores keep bucket
+     * edges exact.
+     */
+    private static final String BUCKETED_RANKED_ENTRY_SQL = """
+            WITH me AS (
+                SELECT user_id, score, streak_count, display_name,
+                    floor(score / ?::float8)::bigint AS bucket, ?::float8 AS w
+                FROM leaderboard_entries
+                WHERE user_id = ?
+            )
+            SELECT me.user_id, me.score, me.streak_count, me.display_name,
+                (SELECT COALESCE(SUM(b.count), 0) FROM score_buckets b WHERE b.bucket > me.bucket)
+                    + (SELECT COUNT(*) FROM leaderboard_entries o
+                       WHERE o.score > me.score AND o.score < (me.bucket + 1) * me.w)
+                    + 1 AS rank
+            FROM me""";
+
+    /**
+     * Adds to one stripe of the user's day in leaderboard_score_stripes. The
+     * row is narrow and none of its indexed columns change, so the update
+     * can be HOT, and concurrent writers for one user that picked different
+     * stripes lock different rows.
+     */
+    private static final String ADD_TO_STRIPE_TEMPLATE = """
+            INSERT INTO leaderboard_score_stripes AS s (user_id, activity_date, stripe, score_delta)
+            %s
+            ON CONFLICT (user_id, activity_date, stripe) DO UPDATE SET score_delta = s.score_delta + EXCLUDED.score_delta""";
+
+    private static final String ADD_TO_STRIPE_SQL = ADD_TO_STRIPE_TEMPLATE.formatted(
+            "VALUES (?, ?::date, ?, ?)");
+
+    private static final String ADD_TO_STRIPES_SQL = ADD_TO_STRIPE_TEMPLATE.formatted("""
+            SELECT u.user_id, u.activity_date, ?, u.score_delta
+            FROM unnest(?::varchar[], ?::date[], ?::float8[]) AS u(user_id, activity_date, score_delta)""");
+
+    // Walks the primary key, so a user's oldest days are taken first; FOR UPDATE waits out writers mid-add
+    private static final String TAKE_STRIPES_SQL = """
+            DELETE FROM leaderboard_score_stripes AS s
+            USING (SELECT user_id, activity_date, stripe FROM leaderboard_score_stripes
+                   ORDER BY user_id, activity_date
+                   LIMIT ?
+                   FOR UPDATE) AS t
+            WHERE s.user_id = t.user_id AND s.activity_date = t.activity_date AND s.stripe = t.stripe
+            RETURNING s.user_id, s.activity_date, s.score_delta""";
+
+    private static final String STRIPE_SCORES_SQL = """
+            SELECT user_id, SUM(score_delta) AS score_delta
+            FROM leaderboard_score_stripes
+            WHERE user_id = ANY(?::varchar[])
+            GROUP BY user_id""";
+
+    /**
+     * All-time competition ranks for a set of users in one statement. Only
+     * entries scoring at least the lowest of them can rank above any, so
+     * RANK() runs over that top slice of the board, an index-only range
+     * scan on idx_leaderboard_score_user_id, and the wanted rows are picked
+     * out of it by user_id. Users without an entry are simply missing.
+     */
+    private static final String RANKS_SQL = """
+            WITH wanted AS (
+                SELECT user_id, score, streak_count, display_name
+                FROM leaderboard_entries
+                WHERE user_id = ANY(?::varchar[])
+            ), ranked AS (
+                SELECT o.user_id, RANK() OVER (ORDER BY o.score DESC) AS rank
+                FROM leaderboard_entries o
+                WHERE o.score >= (SELECT MIN(score) FROM wanted)
+            )
+            SELECT w.user_id, w.score, w.streak_count, w.display_name, r.rank
+            FROM wanted w
+            JOIN ranked r ON r.user_id = w.user_id""";
+
+    private static final String TOP_IN_PERIOD_SQL = """
+            SELECT p.user_id, p.score, e.streak_count, e.display_name
+            FROM leaderboard_period_scores p
+            JOIN leaderboard_entries e ON e.user_id = p.user_id
+            WHERE p.period = ? AND p.period_start = ?
+            ORDER BY p.score DESC, p.user_id ASC
+            LIMIT ?""";
+
+    private static final String RANK_IN_PERIOD_SQL = """
+            SELECT p.user_id, p.score, e.streak_count, e.display_name,
+                (SELECT COUNT(*) + 1 FROM leaderboard_period_scores o
+                 WHERE o.period = p.period AND o.period_start = p.period_start AND o.score > p.score) AS rank
+            FROM leaderboard_period_scores p
+            JOIN leaderboard_entries e ON e.user_id = p.user_id
+            WHERE p.period = ? AND p.period_start = ? AND p.user_id = ?""";
+
+    /**
+     * The user's row and up to k rows on either side in board order (score
+     * descending, then user_id). Each side is a keyset scan from the user's
+     * (score, user_id) on idx_leaderboard_score_user_id, so reading the
+     * window costs O(k) rows however far down the board the user is. The
+     * bounds are scalar subqueries rather than a join so the planner can use
+     * them as index conditions. Ranks are competition ranks as in
+     * RANKED_ENTRY_SQL, so tied users share one. They need a count of the
+     * rows at or above the window's top score, a range scan over everyone
+     * ahead of the window: that part is O(rank), like /rank without rank
+     * buckets. Every other rank follows from the count and the window.
+     */
+    private static final String AROUND_SQL = """
+            WITH me AS (
+                SELECT user_id, score FROM leaderboard_entries WHERE user_id = ?
+            ), rows AS (
+                (SELECT e.user_id, e.score, e.streak_count, e.display_name
+                 FROM leaderboard_entries e
+                 WHERE e.score >= (SELECT score FROM me)
+                     AND (e.score > (SELECT score FROM me) OR e.user_id < (SELECT user_id FROM me))
+                 ORDER BY e.score ASC, e.user_id DESC
+                 LIMIT ?)
+                UNION ALL
+                SELECT e.user_id, e.score, e.streak_count, e.display_name
+                FROM leaderboard_entries e JOIN me ON me.user_id = e.user_id
+                UNION ALL
+                (SELECT e.user_id, e.score, e.streak_count, e.display_name
+                 FROM leaderboard_entries e
+                 WHERE e.score <= (SELECT score FROM me)
+                     AND (e.score < (SELECT score FROM me) OR e.user_id > (SELECT user_id FROM me))
+                 ORDER BY e.score DESC, e.user_id ASC
+                 LIMIT ?)
+            ), peak AS (
+                SELECT MAX(score) AS score FROM rows
+            ), ahead AS (
+                SELECT COUNT(*) FILTER (WHERE e.score > peak.score) AS higher, COUNT(*) AS at_or_above
+                FROM leaderboard_entries e, peak
+                WHERE e.score >= peak.score
+            )
+            SELECT r.user_id, r.score, r.streak_count, r.display_name,
+                CASE WHEN r.score = peak.score THEN ahead.higher + 1
+                     ELSE ahead.at_or_above + RANK() OVER (ORDER BY r.score DESC)
+                         - COUNT(*) FILTER (WHERE r.score = peak.score) OVER ()
+                END AS rank
+            FROM rows r, peak, ahead
+            ORDER BY r.score DESC, r.user_id ASC""";
+
+    private static final String FIRST_PAGE_SQL = """
+            SELECT user_id, score, streak_count, display_name
+            FROM leaderboard_entries
+            ORDER BY score DESC, user_id ASC
+            LIMIT ?""";
+
+    // Same keyset shape as AROUND_SQL's lower leg: an index range scan on idx_leaderboard_score_user_id
+    private static final String PAGE_AFTER_SQL = """
+            SELECT user_id, score, streak_count, display_name
+            FROM leaderboard_entries
+            WHERE score <= ? AND (score < ? OR user_id > ?)
+            ORDER BY score DESC, user_id ASC
+            LIMIT ?""";
+
+    // Range scan on idx_leaderboard_updated_at
+    private static final String CHANGED_SINCE_SQL = """
+            SELECT user_id, score, streak_count
+            FROM leaderboard_entries
+            WHERE updated_at >= ?
+            ORDER BY updated_at, user_id
+            LIMIT ?""";
+
+    private static final String DELETE_PERIODS_BEFORE_SQL =
+            "DELETE FROM leaderboard_period_scores WHERE period = ? AND period_start < ?";
+
+    private static final String FILL_MISSING_DISPLAY_NAMES_SQL = """
+            UPDATE leaderboard_entries AS e SET display_name = n.display_name
+            FROM unnest(?::varchar[], ?::varchar[]) AS n(user_id, display_name)
+            WHERE e.user_id = n.user_id AND e.display_name IS NULL""";
+
+    private static final RowMapper<UpsertedScore> UPSERTED_SCORE_MAPPER = (rs, rowNum) -> new UpsertedScore(
+            rs.getString("user_id"),
+            rs.getDouble("score"),
+            rs.getLong("streak_count"),
+            rs.getObject("last_activity_date", LocalDate.class),
+            rs.getObject("previous_score", Double.class));
+
+    private static final RowMapper<BoardChange> BOARD_CHANGE_MAPPER = (rs, rowNum) -> new BoardChange(
+            rs.getString("user_id"),
+            rs.getDouble("score"),
+            rs.getLong("streak_count"));
+
+    // Rows come back in board order, so the row number is the rank
+    private static final RowMapper<WindowedScore> TOP_IN_PERIOD_MAPPER = (rs, rowNum) -> new WindowedScore(
+            rs.getString("user_id"),
+            rs.getDouble("score"),
+            rs.getLong("streak_count"),
+            rs.getString("display_name"),
+            rowNum + 1L);
+
+    private static final RowMapper<WindowedScore> RANKED_SCORE_MAPPER = (rs, rowNum) -> new WindowedScore(
+            rs.getString("user_id"),
+            rs.getDouble("score"),
+            rs.getLong("streak_count"),
+            rs.getString("display_name"),
+            rs.getLong("rank"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RankBuckets rankBuckets;
+
+    @Autowired
+    public LeaderboardRepositoryImpl(JdbcTemplate jdbcTemplate, RankBuckets rankBuckets) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rankBuckets = rankBuckets;
+    }
+
+    public LeaderboardRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this(jdbcTemplate, RankBuckets.disabled());
+    }
+
+    @Override
+    public UpsertedScore upsertScore(ScoreDelta delta) {
+        if (rankBuckets.isEnabled()) {
+            return jdbcTemplate.queryForObject(UPSERT_SCORE_BUCKETED_SQL, UPSERTED_SCORE_MAPPER,
+                    delta.userId(), delta.scoreDelta(), delta.activityDate(), rankBuckets.width());
+        }
+        return jdbcTemplate.queryForObject(UPSERT_SCORE_SQL, UPSERTED_SCORE_MAPPER,
+                delta.userId(), delta.scoreDelta(), delta.activityDate());
+    }
+
+    @Override
+    public List<UpsertedScore> upsertScores(List<ScoreDelta> deltas) {
+        if (deltas == null || deltas.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<ScoreDelta> sorted = new ArrayList<>(deltas);
+        sorted.sort(LOCK_ORDER);
+        String[] userIds = new String[sorted.size()];
+        Double[] scoreDeltas = new Double[sorted.size()];
+        String[] activityDates = new String[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            ScoreDelta delta = sorted.get(i);
+            userIds[i] = delta.userId();
+            scoreDeltas[i] = delta.scoreDelta();
+            activityDates[i] = delta.activityDate().toString();
+        }
+
+        // Three array parameters keep this a single round trip whatever the batch size
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    rankBuckets.isEnabled() ? UPSERT_SCORES_BUCKETED_SQL : UPSERT_SCORES_SQL);
+            Array userIdArray = connection.createArrayOf("varchar", userIds);
+            Array scoreDeltaArray = connection.createArrayOf("float8", scoreDeltas);
+            Array activityDateArray = connection.createArrayOf("varchar", activityDates);
+            statement.setArray(1, userIdArray);
+            statement.setArray(2, scoreDeltaArray);
+            statement.setArray(3, activityDateArray);
+            if (rankBuckets.isEnabled()) {
+                statement.setDouble(4, rankBuckets.width());
+            }
+            return statement;
+        }, UPSERTED_SCORE_MAPPER);
+    }
+
+    @Override
+    public Optional<WindowedScore> findRankedEntry(String userId) {
+        List<WindowedScore> entry = rankBuckets.isEnabled()
+                ? jdbcTemplate.query(BUCKETED_RANKED_ENTRY_SQL, RANKED_SCORE_MAPPER,
+                        rankBuckets.width(), rankBuckets.width(), userId)
+                : jdbcTemplate.query(RANKED_ENTRY_SQL, RANKED_SCORE_MAPPER, userId);
+        return entry.stream().findFirst();
+    }
+
+    @Override
+    public void addToStripe(ScoreDelta delta, int stripe) {
+        jdbcTemplate.update(ADD_TO_STRIPE_SQL, delta.userId(), delta.activityDate().toString(), stripe,
+                delta.scoreDelta());
+    }
+
+    @Override
+    public void addToStripes(List<ScoreDelta> deltas, int stripe) {
+        if (deltas == null || deltas.isEmpty()) {
+            return;
+        }
+
+        List<ScoreDelta> sorted = new ArrayList<>(deltas);
+        sorted.sort(LOCK_ORDER);
+        String[] userIds = new String[sorted.size()];
+        String[] activityDates = new String[sorted.size()];
+        Double[] scoreDeltas = new Double[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            ScoreDelta delta = sorted.get(i);
+            userIds[i] = delta.userId();
+            activityDates[i] = delta.activityDate().toString();
+            scoreDeltas[i] = delta.scoreDelta();
+        }
+
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(ADD_TO_STRIPES_SQL);
+            statement.setInt(1, stripe);
+            statement.setArray(2, connection.createArrayOf("varchar", userIds));
+            statement.setArray(3, connection.createArrayOf("varchar", activityDates));
+            statement.setArray(4, connection.createArrayOf("float8", scoreDeltas));
+            return statement;
+        });
+    }
+
+    @Override
+    public List<ScoreDelta> takeStripes(int limit) {
+        Map<String, TreeMap<LocalDate, Double>> byUser = new LinkedHashMap<>();
+        jdbcTemplate.query(TAKE_STRIPES_SQL, rs -> {
+            byUser.computeIfAbsent(rs.getString("user_id"), userId -> new TreeMap<>())
+                    .merge(rs.getObject("activity_date", LocalDate.class), rs.getDouble("score_delta"), Double::sum);
+        }, limit);
+
+        List<ScoreDelta> deltas = new ArrayList<>();
+        for (Map.Entry<String, TreeMap<LocalDate, Double>> user : byUser.entrySet()) {
+            for (Map.Entry<LocalDate, Double> day : user.getValue().entrySet()) {
+                deltas.add(new ScoreDelta(user.getKey(), day.getValue(), day.getKey()));
+            }
+        }
+        return deltas;
+    }
+
+    @Override
+    public List<WindowedScore> findRanks(Collection<String> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(RANKS_SQL);
+            statement.setArray(1, connection.createArrayOf("varchar", userIds.toArray()));
+            return statement;
+        }, RANKED_SCORE_MAPPER);
+    }
+
+    @Override
+    public Map<String, Double> findStripeScores(Collection<String> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, Double> scores = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(STRIPE_SCORES_SQL);
+            statement.setArray(1, connection.createArrayOf("varchar", userIds.toArray()));
+            return statement;
+        }, rs -> {
+            scores.put(rs.getString("user_id"), rs.getDouble("score_delta"));
+        });
+        return scores;
+    }
+
+    @Override
+    public int fillMissingDisplayNames(Map<String, String> displayNames) {
+        if (displayNames == null || displayNames.isEmpty()) {
+            return 0;
+        }
+
+        String[] userIds = new String[displayNames.size()];
+        String[] names = new String[displayNames.size()];
+        int i = 0;
+        for (Map.Entry<String, String> entry : displayNames.entrySet()) {
+            userIds[i] = entry.getKey();
+            names[i++] = entry.getValue();
+        }
+
+        return jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(FILL_MISSING_DISPLAY_NAMES_SQL);
+            statement.setArray(1, connection.createArrayOf("varchar", userIds));
+            statement.setArray(2, connection.createArrayOf("varchar", names));
+            return statement;
+        });
+    }
+
+    @Override
+    public List<WindowedScore> findTopInPeriod(LeaderboardWindow window, LocalDate periodStart, int limit) {
+        return jdbcTemplate.query(TOP_IN_PERIOD_SQL, TOP_IN_PERIOD_MAPPER, window.name(), periodStart, limit);
+    }
+
+    @Override
+    public Optional<WindowedScore> findRankInPeriod(LeaderboardWindow window, LocalDate periodStart, String userId) {
+        return jdbcTemplate.query(RANK_IN_PERIOD_SQL, RANKED_SCORE_MAPPER, window.name(), periodStart, userId)
+                .stream().findFirst();
+    }
+
+    @Override
+    public List<WindowedScore> findAround(String userId, int k) {
+        return jdbcTemplate.query(AROUND_SQL, RANKED_SCORE_MAPPER, userId, k, k);
+    }
+
+    @Override
+    public List<WindowedScore> findPage(PageCursor after, int limit) {
+        if (after == null) {
+            return jdbcTemplate.query(FIRST_PAGE_SQL, positionedMapper(0L), limit);
+        }
+        return jdbcTemplate.query(PAGE_AFTER_SQL, positionedMapper(after.position()),
+                after.score(), after.score(), after.userId(), limit);
+    }
+
+    @Override
+    public List<BoardChange> findChangedSince(OffsetDateTime from, int limit) {
+        return jdbcTemplate.query(CHANGED_SINCE_SQL, BOARD_CHANGE_MAPPER, from, limit);
+    }
+
+    @Override
+    public int deletePeriodsBefore(LeaderboardWindow window, LocalDate periodStart) {
+        return jdbcTemplate.update(DELETE_PERIODS_BEFORE_SQL, window.name(), periodStart);
+    }
+
+    // Rows come back in board order starting after the given position
+    private static RowMapper<WindowedScore> positionedMapper(long position) {
+        return (rs, rowNum) -> new WindowedScore(
+                rs.getString("user_id"),
+                rs.getDouble("score"),
+                rs.getLong("streak_count"),
+                rs.getString("display_name"),
+                position + rowNum + 1L);
+    }
+}
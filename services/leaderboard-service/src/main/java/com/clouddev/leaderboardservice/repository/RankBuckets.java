@@ -0,0 +1,95 @@
+package com.clouddev.leaderboardservice.repository;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Settings for the score_buckets summary: the number of entries whose
+ * score falls in each [bucket * width, (bucket + 1) * width) range. The
+ * upsert statements move a user between buckets in the same statement as
+ * the score change, so a rank is the sum of the counts above the user's
+ * bucket plus an index-only count inside it, rather than a count of every
+ * higher row. Rebuilt from leaderboard_entries at startup, which also
+ * picks up a changed width.
+ */
+@Component
+public class RankBuckets {
+
+    private static final Logger logger = LoggerFactory.getLogger(RankBuckets.class);
+
+    // Writers queue on the lock, so none adds to a bucket between the delete and the recount
+    private static final String LOCK_BUCKETS = "LOCK TABLE score_buckets IN EXCLUSIVE MODE";
+
+    private static final String DELETE_BUCKETS = "DELETE FROM score_buckets";
+
+    private static final String COUNT_BUCKETS = """
+            INSERT INTO score_buckets (bucket, count)
+            SELECT floor(score / ?)::bigint AS bucket, COUNT(*)
+            FROM leaderboard_entries
+            GROUP BY 1""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final double width;
+
+    @Autowired
+    public RankBuckets(JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${leaderboard.rank-buckets.enabled:false}") boolean enabled,
+            @Value("${leaderboard.rank-buckets.width:100}") double width) {
+        if (!(width > 0)) {
+            throw new IllegalArgumentException("leaderboard.rank-buckets.width must be positive: " + width);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionManager != null ? new TransactionTemplate(transactionManager) : null;
+        this.enabled = enabled;
+        this.width = width;
+    }
+
+    /**
+     * Disabled settings, for repositories built without Spring.
+     */
+    static RankBuckets disabled() {
+        return new RankBuckets(null, null, false, 100);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public double width() {
+        return width;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Recounts every bucket from leaderboard_entries in one transaction.
+     *
+     * @return the number of non-empty buckets
+     */
+    public int rebuild() {
+        long started = System.nanoTime();
+        Integer buckets = transactionTemplate.execute(status -> {
+            jdbcTemplate.execute(LOCK_BUCKETS);
+            jdbcTemplate.update(DELETE_BUCKETS);
+            return jdbcTemplate.update(COUNT_BUCKETS, width);
+        });
+        logger.info("Rebuilt {} score buckets of width {} in {} ms", buckets, width,
+                (System.nanoTime() - started) / 1_000_000);
+        return buckets != null ? buckets : 0;
+    }
+}
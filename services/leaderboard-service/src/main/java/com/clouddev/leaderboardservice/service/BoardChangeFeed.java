@@ -0,0 +1,115 @@
+package com.clouddev.leaderboardservice.service;
+
+import com.clouddev.leaderboardservice.cache.BoardChangeLog;
+import com.clouddev.leaderboardservice.cache.BoardVersion;
+import com.clouddev.leaderboardservice.model.BoardChange;
+import com.clouddev.leaderboardservice.model.BoardChanges;
+import com.clouddev.leaderboardservice.repository.LeaderboardRepository;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Answers /leaderboard/changes?since= so clients can mirror the all-time
+ * board without downloading it again.
+ *
+ * The BoardChangeLog ring only holds changes made through this instance,
+ * under this instance's version numbers, so it answers only when
+ * single-writer says no other instance writes scores. Otherwise, and for
+ * versions older than the ring, changes are read from the updated_at
+ * index: a version is never ahead of the time of its change (see
+ * BoardVersion), so every entry changed after it has an updated_at at or
+ * after that time, less fallback-overlap-ms for transactions that started
+ * before it and committed after. That holds whichever instance issued the
+ * version or made the change, and across restarts. Without the ring the
+ * version handed back is at least the current time, so it keeps up with
+ * the board even when this instance writes little.
+ * Versions older than fallback-max-age-ms, or with more than max-changes
+ * entries to list, get a resync instead, as do versions that cannot have
+ * come from any board: negative, or ahead of this instance's clock (a
+ * replica whose clock runs ahead, or a made-up value too large to turn
+ * into a time).
+ *
+ * Listing is at least once: an entry may come back on the next call, and
+ * applying it twice is harmless because every change carries the full
+ * score and streak.
+ */
+@Component
+public class BoardChangeFeed {
+
+    private final BoardVersion boardVersion;
+    private final BoardChangeLog changeLog;
+    private final LeaderboardRepository leaderboardRepository;
+    private final int maxChanges;
+    private final long fallbackMaxAgeMs;
+    private final long fallbackOverlapMs;
+    private final boolean answerFromLog;
+    private final Clock clock;
+
+    @Autowired
+    public BoardChangeFeed(BoardVersion boardVersion, BoardChangeLog changeLog,
+            LeaderboardRepository leaderboardRepository,
+            @Value("${leaderboard.changes.max-changes:10000}") int maxChanges,
+            @Value("${leaderboard.changes.fallback-max-age-ms:86400000}") long fallbackMaxAgeMs,
+            @Value("${leaderboard.changes.fallback-overlap-ms:5000}") long fallbackOverlapMs,
+            @Value("${leaderboard.changes.single-writer:false}") boolean singleWriter,
+            @Value("${leaderboard.replicas.enabled:false}") boolean replicasEnabled) {
+        this(boardVersion, changeLog, leaderboardRepository, maxChanges, fallbackMaxAgeMs, fallbackOverlapMs,
+                singleWriter && !replicasEnabled, Clock.systemUTC());
+    }
+
+    BoardChangeFeed(BoardVersion boardVersion, BoardChangeLog changeLog, LeaderboardRepository leaderboardRepository,
+            int maxChanges, long fallbackMaxAgeMs, long fallbackOverlapMs, boolean answerFromLog, Clock clock) {
+        this.boardVersion = boardVersion;
+        this.changeLog = changeLog;
+        this.leaderboardRepository = leaderboardRepository;
+        this.maxChanges = maxChanges;
+        this.fallbackMaxAgeMs = fallbackMaxAgeMs;
+        this.fallbackOverlapMs = fallbackOverlapMs;
+        this.answerFromLog = answerFromLog;
+        this.clock = clock;
+    }
+
+    /**
+     * Entries whose score or streak changed after the given version, each
+     * once with its latest values, and the version to continue from.
+     */
+    public BoardChanges changesSince(long since) {
+        // Read the version first: anything committed later is listed again next time
+        long current = boardVersion.current();
+
+        if (answerFromLog) {
+            Optional<List<BoardChange>> recent = changeLog.changesSince(since, current);
+            if (recent.isPresent()) {
+                return listed(current, recent.get());
+            }
+        }
+
+        Instant now = clock.instant();
+        long nowVersion = ChronoUnit.MICROS.between(Instant.EPOCH, now);
+        if (!answerFromLog) {
+            current = Math.max(current, nowVersion);
+        }
+        if (since < 0 || since > nowVersion) {
+            return BoardChanges.resync(current);
+        }
+        Instant from = Instant.EPOCH.plus(since, ChronoUnit.MICROS).minusMillis(fallbackOverlapMs);
+        if (from.isBefore(now.minusMillis(fallbackMaxAgeMs))) {
+            return BoardChanges.resync(current);
+        }
+        // One row past the limit tells whether the list would be too long
+        return listed(current, leaderboardRepository.findChangedSince(OffsetDateTime.ofInstant(from, ZoneOffset.UTC),
+                maxChanges + 1));
+    }
+
+    private BoardChanges listed(long version, List<BoardChange> changes) {
+        return changes.size() > maxChanges ? BoardChanges.resync(version) : new BoardChanges(version, false, changes);
+    }
+}
@@ -1,47 +1,363 @@
 package com.clouddev.leaderboardservice.service;
 
+import com.clouddev.leaderboardservice.cache.PinnedBoardSnapshots;
 import com.clouddev.leaderboardservice.entity.LeaderboardEntryEntity;
+import com.clouddev.leaderboardservice.event.ScoreChangedEvent;
+import com.clouddev.leaderboardservice.index.RankIndex;
+import com.clouddev.leaderboardservice.index.RankedEntry;
+import com.clouddev.leaderboardservice.index.ScoreHistogram;
+import com.clouddev.leaderboardservice.model.GroupLeaderboard;
 import com.clouddev.leaderboardservice.model.LeaderboardEntry;
+import com.clouddev.leaderboardservice.model.LeaderboardNeighborhood;
+import com.clouddev.leaderboardservice.model.LeaderboardPage;
+import com.clouddev.leaderboardservice.model.LeaderboardWindow;
+import com.clouddev.leaderboardservice.model.PageCursor;
+import com.clouddev.leaderboardservice.model.ScoreDelta;
+import com.clouddev.leaderboardservice.model.ScorePercentile;
+import com.clouddev.leaderboardservice.model.ScoreUpdateItem;
+import com.clouddev.leaderboardservice.model.ScoreUpdateResult;
+import com.clouddev.leaderboardservice.model.UpsertedScore;
+import com.clouddev.leaderboardservice.model.UserRankResult;
+import com.clouddev.leaderboardservice.model.WindowedScore;
+import com.clouddev.leaderboardservice.names.NameLookupExecutor;
+import com.clouddev.leaderboardservice.names.UserNameCache;
+import com.clouddev.leaderboardservice.names.UserNameResolver;
+import com.clouddev.leaderboardservice.replica.ReplicatedScores;
 import com.clouddev.leaderboardservice.repository.LeaderboardRepository;
+import com.clouddev.leaderboardservice.shard.ShardWriteException;
+import com.clouddev.leaderboardservice.shard.ShardedLeaderboard;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class LeaderboardService {
 
-    private final LeaderboardRepository leaderboardRepository;
-    private final org.springframework.web.client.RestTemplate restTemplate;
+    private static final Logger logger = LoggerFactory.getLogger(LeaderboardService.class);
+
+    private static final int MAX_USER_ID_LENGTH = 255;
 
-    @org.springframework.beans.factory.annotation.Value("${USER_SERVICE_URL:http://user-service:8081}")
-    private String userServiceUrl;
+    private final LeaderboardRepository leaderboardRepository;
+    private final RankIndex rankIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserNameCache userNameCache;
+    private final UserNameResolver userNameResolver;
+    private final PinnedBoardSnapshots pinnedBoardSnapshots;
+    private final ScoreHistogram scoreHistogram;
+    private final ShardedLeaderboard shardedLeaderboard;
+    private final ReplicatedScores replicatedScores;
+    private final ScoreStripes scoreStripes;
+    private final NameLookupExecutor nameLookupExecutor;
+    private final boolean storeFetchedNames;
 
     public LeaderboardService(LeaderboardRepository leaderboardRepository,
-            org.springframework.web.client.RestTemplate restTemplate) {
+            RankIndex rankIndex,
+            ApplicationEventPublisher eventPublisher,
+            UserNameCache userNameCache,
+            UserNameResolver userNameResolver,
+            PinnedBoardSnapshots pinnedBoardSnapshots,
+            ScoreHistogram scoreHistogram,
+            ShardedLeaderboard shardedLeaderboard,
+            ReplicatedScores replicatedScores,
+            ScoreStripes scoreStripes,
+            NameLookupExecutor nameLookupExecutor,
+            @Value("${leaderboard.profile-events.enabled:false}") boolean profileEventsEnabled) {
         this.leaderboardRepository = leaderboardRepository;
-        this.restTemplate = restTemplate;
+        this.rankIndex = rankIndex;
+        this.eventPublisher = eventPublisher;
+        this.userNameCache = userNameCache;
+        this.userNameResolver = userNameResolver;
+        this.pinnedBoardSnapshots = pinnedBoardSnapshots;
+        this.scoreHistogram = scoreHistogram;
+        this.shardedLeaderboard = shardedLeaderboard;
+        this.replicatedScores = replicatedScores;
+        this.scoreStripes = scoreStripes;
+        this.nameLookupExecutor = nameLookupExecutor;
+        // Only profile-changed events replace a stored name, so without them it would never be renamed
+        this.storeFetchedNames = profileEventsEnabled;
     }
 
     @Transactional
     public void updateScore(String userId, double delta) {
-        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        updateScore(userId, delta, LocalDate.now(ZoneOffset.UTC));
+    }
+
+    /**
+     * Adds the delta with one atomic upsert. Concurrent updates for the same
+     * user are serialised by the row lock, so no increment is lost. When
+     * sharded, the write goes to the user's shard instead; with replicas,
+     * to this replica's counter, copied to the board on its next sync; with
+     * stripes, to a random stripe, folded in by the compactor.
+     */
+    @Transactional
+    public void updateScore(String userId, double delta, LocalDate today) {
+        ScoreDelta scoreDelta = new ScoreDelta(userId, delta, today);
+        if (replicatedScores.isEnabled()) {
+            // ScoreChangedEvent follows once the merged score is copied to leaderboard_entries
+            replicatedScores.add(scoreDelta);
+            return;
+        }
+        if (scoreStripes.isEnabled()) {
+            // ScoreChangedEvent follows once the compactor folds the stripe into the entry
+            leaderboardRepository.addToStripe(scoreDelta, scoreStripes.next());
+            return;
+        }
+        UpsertedScore saved = shardedLeaderboard.isEnabled()
+                ? shardedLeaderboard.upsertScore(scoreDelta)
+                : leaderboardRepository.upsertScore(scoreDelta);
+        // Delivered after commit to the rank index and other in-memory views
+        eventPublisher.publishEvent(new ScoreChangedEvent(userId, saved.previousScore(), saved.score(),
+                saved.streak(), saved.lastActivityDate()));
+    }
+
+    /**
+     * Applies a batch of deltas in one transaction using the bulk upsert, so
+     * each round is one statement no matter how many users it touches. A
+     * user's deltas are grouped by activity date and applied oldest date
+     * first so streaks advance day by day.
+     */
+    @Transactional
+    public void applyScoreDeltas(List<ScoreDelta> deltas) {
+        if (deltas == null || deltas.isEmpty()) {
+            return;
+        }
+        // Replicas first, as in updateScore, so no write path feeds stripes while they are on
+        if (scoreStripes.isEnabled() && !replicatedScores.isEnabled()) {
+            addToStripes(deltas);
+            return;
+        }
+        upsertInRounds(deltas);
+    }
+
+    /**
+     * Folds up to limit stripe rows into the entries with the bulk upsert,
+     * in one transaction with taking them, and publishes the score changes.
+     *
+     * @return the number of (user, day) deltas applied
+     */
+    @Transactional
+    public int compactStripes(int limit) {
+        List<ScoreDelta> deltas = leaderboardRepository.takeStripes(limit);
+        if (!deltas.isEmpty()) {
+            upsertInRounds(deltas);
+        }
+        return deltas.size();
+    }
+
+    /**
+     * Validates and applies a client-supplied batch of score updates in one
+     * transaction. Invalid items are rejected individually and do not stop
+     * the rest of the batch; results are returned in request order.
+     */
+    @Transactional
+    public List<ScoreUpdateResult> applyScoreBatch(List<ScoreUpdateItem> items) {
+        if (items == null || items.isEmpty()) {
+            return Collections.emptyList();
+        }
 
-        Optional<LeaderboardEntryEntity> existingEntry = leaderboardRepository.findByUserId(userId);
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        String[] errors = new String[items.size()];
+        List<ScoreDelta> deltas = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            ScoreUpdateItem item = items.get(i);
+            errors[i] = validate(item);
+            if (errors[i] == null) {
+                LocalDate activityDate = item.activityDate() != null ? item.activityDate() : today;
+                deltas.add(new ScoreDelta(item.userId(), item.scoreDelta(), activityDate));
+            }
+        }
 
-        if (existingEntry.isPresent()) {
-            LeaderboardEntryEntity entry = existingEntry.get();
-            entry.setScore(entry.getScore() + delta);
-            updateStreak(entry, today);
-            leaderboardRepository.save(entry);
+        Map<String, UpsertedScore> upserted;
+        String failure = null;
+        if (deltas.isEmpty()) {
+            upserted = Collections.emptyMap();
+        } else if (scoreStripes.isEnabled() && !replicatedScores.isEnabled()) {
+            addToStripes(deltas);
+            upserted = withStripes(deltas);
         } else {
-            LeaderboardEntryEntity newEntry = new LeaderboardEntryEntity(userId, delta, 1L, today);
-            leaderboardRepository.save(newEntry);
+            try {
+                upserted = upsertInRounds(deltas);
+            } catch (ShardWriteException e) {
+                if (e.committed().isEmpty()) {
+                    throw e;
+                }
+                // The shards that committed keep their rows; only the other users' items failed
+                upserted = publishLatest(e.committed());
+                failure = "shard write failed: " + e.getMessage();
+            }
+        }
+
+        List<ScoreUpdateResult> results = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            String userId = items.get(i) != null ? items.get(i).userId() : null;
+            if (errors[i] != null) {
+                results.add(ScoreUpdateResult.rejected(userId, errors[i]));
+            } else {
+                UpsertedScore row = upserted.get(userId);
+                results.add(row != null
+                        ? ScoreUpdateResult.applied(userId, row.score(), row.streak())
+                        : ScoreUpdateResult.failed(userId, failure));
+            }
         }
+        return results;
+    }
+
+    private static String validate(ScoreUpdateItem item) {
+        if (item == null) {
+            return "item is required";
+        }
+        if (item.userId() == null || item.userId().isBlank()) {
+            return "userId is required";
+        }
+        if (item.userId().length() > MAX_USER_ID_LENGTH) {
+            return "userId is longer than " + MAX_USER_ID_LENGTH + " characters";
+        }
+        if (item.scoreDelta() == null) {
+            return "scoreDelta is required";
+        }
+        if (!Double.isFinite(item.scoreDelta())) {
+            return "scoreDelta must be a finite number";
+        }
+        return null;
+    }
+
+    /**
+     * Adds the deltas to one stripe in one statement, same-day deltas for a
+     * user summed first.
+     */
+    private void addToStripes(List<ScoreDelta> deltas) {
+        Map<String, TreeMap<LocalDate, Double>> byUser = new LinkedHashMap<>();
+        for (ScoreDelta delta : deltas) {
+            byUser.computeIfAbsent(delta.userId(), userId -> new TreeMap<>())
+                    .merge(delta.activityDate(), delta.scoreDelta(), Double::sum);
+        }
+        List<ScoreDelta> summed = new ArrayList<>(deltas.size());
+        for (Map.Entry<String, TreeMap<LocalDate, Double>> user : byUser.entrySet()) {
+            for (Map.Entry<LocalDate, Double> day : user.getValue().entrySet()) {
+                summed.add(new ScoreDelta(user.getKey(), day.getValue(), day.getKey()));
+            }
+        }
+        leaderboardRepository.addToStripes(summed, scoreStripes.next());
+    }
+
+    /**
+     * Each user's entry plus the stripes not yet folded into it. The streak
+     * and last activity date advance by this batch's deltas only, oldest
+     * date first, as the compactor will advance them.
+     */
+    private Map<String, UpsertedScore> withStripes(List<ScoreDelta> deltas) {
+        Map<String, TreeMap<LocalDate, Double>> byUser = new LinkedHashMap<>();
+        for (ScoreDelta delta : deltas) {
+            byUser.computeIfAbsent(delta.userId(), id -> new TreeMap<>())
+                    .merge(delta.activityDate(), delta.scoreDelta(), Double::sum);
+        }
+        Map<String, LeaderboardEntryEntity> entities = new HashMap<>();
+        for (LeaderboardEntryEntity entity : leaderboardRepository.findAllById(byUser.keySet())) {
+            entities.put(entity.getUserId(), entity);
+        }
+        Map<String, Double> pending = leaderboardRepository.findStripeScores(byUser.keySet());
+
+        Map<String, UpsertedScore> views = new LinkedHashMap<>();
+        for (Map.Entry<String, TreeMap<LocalDate, Double>> user : byUser.entrySet()) {
+            String userId = user.getKey();
+            LeaderboardEntryEntity entity = entities.get(userId);
+            UpsertedScore view = entity != null
+                    ? new UpsertedScore(userId, entity.getScore(), entity.getStreakCount(),
+                            entity.getLastActivityDate(), entity.getScore())
+                    : new UpsertedScore(userId, 0.0d, 0L, null, null);
+            for (Map.Entry<LocalDate, Double> day : user.getValue().entrySet()) {
+                view = view.plus(new ScoreDelta(userId, 0.0d, day.getKey()));
+            }
+            double score = (entity != null ? entity.getScore() : 0.0d) + pending.getOrDefault(userId, 0.0d);
+            views.put(userId, new UpsertedScore(userId, score, view.streak(), view.lastActivityDate(),
+                    entity != null ? entity.getScore() : null));
+        }
+        return views;
+    }
+
+    /**
+     * Runs the upsert once per round. The statement can touch each user only
+     * once, so round k carries every user's k-th distinct activity date, with
+     * same-day deltas summed. Publishes one event per user with the score
+     * from before the batch.
+     *
+     * @return the final row for each user
+     */
+    private Map<String, UpsertedScore> upsertInRounds(List<ScoreDelta> deltas) {
+        if (replicatedScores.isEnabled()) {
+            return replicatedScores.addAll(deltas);
+        }
+
+        Map<String, TreeMap<LocalDate, Double>> byUser = new LinkedHashMap<>();
+        for (ScoreDelta delta : deltas) {
+            byUser.computeIfAbsent(delta.userId(), userId -> new TreeMap<>())
+                    .merge(delta.activityDate(), delta.scoreDelta(), Double::sum);
+        }
+
+        List<List<ScoreDelta>> rounds = new ArrayList<>();
+        for (Map.Entry<String, TreeMap<LocalDate, Double>> user : byUser.entrySet()) {
+            int round = 0;
+            for (Map.Entry<LocalDate, Double> day : user.getValue().entrySet()) {
+                if (rounds.size() == round) {
+                    rounds.add(new ArrayList<>());
+                }
+                rounds.get(round++).add(new ScoreDelta(user.getKey(), day.getValue(), day.getKey()));
+            }
+        }
+
+        if (shardedLeaderboard.isEnabled()) {
+            // One call, so each shard commits all rounds of its users together
+            return publishLatest(shardedLeaderboard.upsertRounds(rounds));
+        }
+        List<UpsertedScore> rows = new ArrayList<>();
+        for (List<ScoreDelta> round : rounds) {
+            rows.addAll(leaderboardRepository.upsertScores(round));
+        }
+        return publishLatest(rows);
+    }
+
+    /**
+     * Publishes one event per user from the rows of a batch, each user's
+     * rows in the order they were written, with the score from before the
+     * batch.
+     *
+     * @return the final row for each user
+     */
+    private Map<String, UpsertedScore> publishLatest(List<UpsertedScore> rows) {
+        Map<String, UpsertedScore> latest = new LinkedHashMap<>();
+        Map<String, Double> previousScores = new HashMap<>();
+        for (UpsertedScore row : rows) {
+            if (!latest.containsKey(row.userId())) {
+                previousScores.put(row.userId(), row.previousScore());
+            }
+            latest.put(row.userId(), row);
+        }
+
+        // Delivered after commit to the rank index and other in-memory views
+        for (UpsertedScore row : latest.values()) {
+            eventPublisher.publishEvent(new ScoreChangedEvent(row.userId(), previousScores.get(row.userId()),
+                    row.score(), row.streak(), row.lastActivityDate()));
+        }
+        return latest;
     }
 
     public List<LeaderboardEntry> getTopN(int n) {
@@ -49,30 +365,28 @@ public class LeaderboardService {
             return Collections.emptyList();
         }
 
+        if (shardedLeaderboard.isEnabled()) {
+            return toEntries(shardedLeaderboard.top(n));
+        }
+        if (rankIndex.isServing()) {
+            return toEntries(rankIndex.top(n));
+        }
+
         List<LeaderboardEntryEntity> entities = leaderboardRepository.findTopN(n);
         if (entities == null || entities.isEmpty()) {
             return Collections.emptyList();
         }
 
-        // Collect User IDs
-        List<String> userIds = new ArrayList<>();
-        for (LeaderboardEntryEntity entity : entities) {
-            userIds.add(entity.getUserId());
-        }
-
-        // Fetch Usernames
-        java.util.Map<String, String> userNames = fetchUserNames(userIds);
+        // Names come with the rows; only entries without a stored name need a lookup
+        Map<String, String> userNames = fetchUserNames(withoutDisplayName(entities));
 
         List<LeaderboardEntry> entries = new ArrayList<>(entities.size());
         for (int i = 0; i < entities.size(); i++) {
             LeaderboardEntryEntity entity = entities.get(i);
             long rank = i + 1L;
-            String userId = entity.getUserId();
-            String username = userNames.getOrDefault(userId, userId); // Fallback to ID if name not found
-
             entries.add(new LeaderboardEntry(
-                    userId,
-                    username,
+                    entity.getUserId(),
+                    displayName(entity, userNames),
                     entity.getScore(),
                     rank,
                     entity.getStreakCount()));
@@ -80,76 +394,429 @@ public class LeaderboardService {
         return entries;
     }
 
+    /**
+     * The user's all-time entry and rank. With stripes, the score includes
+     * the stripes not yet compacted; the rank is that of the compacted
+     * score until the compactor has run.
+     */
     public Optional<LeaderboardEntry> getRank(String userId) {
-        Optional<LeaderboardEntryEntity> entityOpt = leaderboardRepository.findByUserId(userId);
-        if (entityOpt.isEmpty()) {
-            return Optional.empty();
+        Optional<LeaderboardEntry> entry = findRank(userId);
+        if (entry.isEmpty() || !scoreStripes.isEnabled()) {
+            return entry;
+        }
+        Double pending = leaderboardRepository.findStripeScores(List.of(userId)).get(userId);
+        if (pending == null) {
+            return entry;
+        }
+        LeaderboardEntry compacted = entry.get();
+        return Optional.of(new LeaderboardEntry(compacted.getUserId(), compacted.getUsername(),
+                compacted.getScore() + pending, compacted.getRank(), compacted.getStreak()));
+    }
+
+    /**
+     * All-time ranks for many users, in request order, with unknown users
+     * flagged. Read from the shards or the rank index when those serve
+     * ranks, otherwise with one RANK() query; names are resolved in one
+     * batch either way. Like getRank, scores include pending stripes.
+     */
+    public List<UserRankResult> getRanks(List<String> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return Collections.emptyList();
         }
 
-        LeaderboardEntryEntity entity = entityOpt.get();
-        Long rank = leaderboardRepository.getUserRank(userId);
+        Set<String> distinct = new LinkedHashSet<>(userIds);
+        List<LeaderboardEntry> entries;
+        if (shardedLeaderboard.isEnabled() || rankIndex.isServing()) {
+            List<RankedEntry> ranked = new ArrayList<>(distinct.size());
+            for (String userId : distinct) {
+                Optional<RankedEntry> entry = shardedLeaderboard.isEnabled()
+                        ? shardedLeaderboard.rankOf(userId)
+                        : rankIndex.rankOf(userId);
+                entry.ifPresent(ranked::add);
+            }
+            entries = toEntries(ranked);
+        } else {
+            entries = toWindowedEntries(leaderboardRepository.findRanks(distinct));
+        }
 
-        // Fetch single username
-        java.util.Map<String, String> userNames = fetchUserNames(Collections.singletonList(userId));
-        String username = userNames.getOrDefault(userId, userId);
+        Map<String, Double> pending = scoreStripes.isEnabled() && !entries.isEmpty()
+                ? leaderboardRepository.findStripeScores(distinct)
+                : Collections.emptyMap();
+        Map<String, LeaderboardEntry> byUser = new HashMap<>();
+        for (LeaderboardEntry entry : entries) {
+            Double stripes = pending.get(entry.getUserId());
+            byUser.put(entry.getUserId(), stripes == null ? entry : new LeaderboardEntry(entry.getUserId(),
+                    entry.getUsername(), entry.getScore() + stripes, entry.getRank(), entry.getStreak()));
+        }
+
+        List<UserRankResult> results = new ArrayList<>(userIds.size());
+        for (String userId : userIds) {
+            LeaderboardEntry entry = byUser.get(userId);
+            results.add(entry != null ? UserRankResult.found(entry) : UserRankResult.unknown(userId));
+        }
+        return results;
+    }
+
+    /**
+     * The user's entry and rank. From the database, the entry carries its
+     * stored display name, so user-service is asked only for a row without
+     * one. Shard rows carry no name, so there the lookup runs on the name
+     * lookup threads while the shards are read, and a slow user-service
+     * adds only what it takes beyond the scatter; it is cancelled when the
+     * user has no entry.
+     */
+    private Optional<LeaderboardEntry> findRank(String userId) {
+        if (shardedLeaderboard.isEnabled()) {
+            CompletableFuture<Map<String, String>> userNames = lookUpUserName(userId);
+            Optional<RankedEntry> ranked = shardedLeaderboard.rankOf(userId);
+            if (ranked.isEmpty()) {
+                cancelUserName(userId, userNames);
+                return Optional.empty();
+            }
+            return ranked.map(entry -> new LeaderboardEntry(entry.userId(),
+                    awaitUserNames(userNames).getOrDefault(userId, userId), entry.score(), entry.rank(),
+                    entry.streak()));
+        }
+        if (rankIndex.isServing()) {
+            return rankIndex.rankOf(userId).map(ranked -> toEntries(List.of(ranked)).get(0));
+        }
 
-        return Optional.of(new LeaderboardEntry(
-                entity.getUserId(),
-                username,
-                entity.getScore(),
-                rank != null ? rank : 0L,
-                entity.getStreakCount()));
+        // Entry, rank and stored name in one round trip
+        return leaderboardRepository.findRankedEntry(userId).map(ranked -> new LeaderboardEntry(ranked.userId(),
+                ranked.displayName() != null
+                        ? ranked.displayName()
+                        : fetchUserNames(List.of(userId)).getOrDefault(userId, userId),
+                ranked.score(), ranked.rank(), ranked.streak()));
+    }
+
+    /**
+     * Starts the user's name lookup on the name lookup threads. It is
+     * skipped if cancelled before it starts.
+     */
+    private CompletableFuture<Map<String, String>> lookUpUserName(String userId) {
+        CompletableFuture<Map<String, String>> userNames = new CompletableFuture<>();
+        nameLookupExecutor.execute(() -> {
+            if (userNames.isDone()) {
+                return;
+            }
+            try {
+                Map<String, String> names = fetchUserNames(List.of(userId));
+                if (!userNames.complete(names)) {
+                    // Cancelled while loading: drop the negative entry it cached
+                    userNameCache.invalidate(userId);
+                }
+            } catch (RuntimeException e) {
+                userNames.completeExceptionally(e);
+            }
+        });
+        return userNames;
+    }
+
+    /**
+     * Cancels a lookup for a user without an entry. One that already
+     * finished has cached a negative entry, which is dropped here; one
+     * still loading drops it when it finishes.
+     */
+    private void cancelUserName(String userId, CompletableFuture<Map<String, String>> userNames) {
+        if (!userNames.cancel(false)) {
+            userNameCache.invalidate(userId);
+        }
+    }
+
+    private static Map<String, String> awaitUserNames(CompletableFuture<Map<String, String>> userNames) {
+        try {
+            return userNames.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * The user's entry with up to k entries on either side on the all-time
+     * board, or empty if the user has no entry. Read from the rank index
+     * when it is serving, otherwise with one keyset query; names for the
+     * whole window are resolved in one batch.
+     */
+    public Optional<LeaderboardNeighborhood> getAround(String userId, int k) {
+        int span = Math.max(0, k);
+        List<LeaderboardEntry> entries = rankIndex.isServing()
+                ? toEntries(rankIndex.around(userId, span))
+                : toWindowedEntries(leaderboardRepository.findAround(userId, span));
+
+        for (LeaderboardEntry entry : entries) {
+            if (entry.getUserId().equals(userId)) {
+                return Optional.of(new LeaderboardNeighborhood(userId, entry.getRank(), entries));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * The first limit members of a group ranked among themselves by
+     * all-time score. Names are resolved only for the entries returned.
+     */
+    public GroupLeaderboard getGroupBoard(String groupId, Collection<String> members, int limit) {
+        List<RankedEntry> ranked = rankAmong(members);
+        List<RankedEntry> shown = ranked.subList(0, Math.min(Math.max(0, limit), ranked.size()));
+        return new GroupLeaderboard(groupId, ranked.size(), toEntries(shown));
+    }
+
+    /**
+     * The user's entry ranked among a group's members, or empty if the user
+     * is not a member with a score. As with getRank, members tied on score
+     * share a rank.
+     */
+    public Optional<LeaderboardEntry> getRankInGroup(Collection<String> members, String userId) {
+        // In board order, so a member's rank is the position of the first member with the same score
+        long rank = 0L;
+        double previousScore = Double.NaN;
+        for (RankedEntry entry : rankAmong(members)) {
+            if (Double.compare(entry.score(), previousScore) != 0) {
+                rank = entry.rank();
+                previousScore = entry.score();
+            }
+            if (entry.userId().equals(userId)) {
+                RankedEntry ranked = new RankedEntry(userId, entry.score(), entry.streak(), rank);
+                return Optional.of(toEntries(List.of(ranked)).get(0));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Ranks the members from the rank index when it is serving, otherwise
+     * by primary key for just these users, never by scanning the board.
+     */
+    private List<RankedEntry> rankAmong(Collection<String> members) {
+        if (members.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (rankIndex.isServing()) {
+            return rankIndex.rankAmong(members);
+        }
+
+        List<RankedEntry> found = new ArrayList<>(members.size());
+        for (LeaderboardEntryEntity entity : leaderboardRepository.findAllById(members)) {
+            found.add(new RankedEntry(entity.getUserId(), entity.getScore(), entity.getStreakCount(), 0L));
+        }
+        return RankedEntry.ranked(found);
+    }
+
+    /**
+     * The share of the board scoring at or above the user, from the score
+     * histogram. Only the user's own score is read; empty if the user has
+     * no entry.
+     *
+     * @throws IllegalStateException if the histogram has not been loaded yet
+     */
+    public Optional<ScorePercentile> getPercentile(String userId) {
+        Optional<Double> score = rankIndex.isServing()
+                ? rankIndex.rankOf(userId).map(RankedEntry::score)
+                : leaderboardRepository.findByUserId(userId).map(LeaderboardEntryEntity::getScore);
+        return score.map(value -> new ScorePercentile(userId, value, scoreHistogram.topPercent(value),
+                scoreHistogram.total()));
+    }
+
+    /**
+     * One page of the all-time board after the cursor (from the top when it
+     * is null), read with a keyset seek so deep pages cost the same as the
+     * first. With pin set on the first page, paging runs over a snapshot of
+     * the board and every later cursor stays on it; if the board is too
+     * large to pin, the live board is paged instead.
+     *
+     * @return empty if the cursor's pinned snapshot is no longer held
+     */
+    public Optional<LeaderboardPage> getPage(PageCursor after, int limit, boolean pin) {
+        if (after != null && after.snapshotId() != null) {
+            return pinnedBoardSnapshots.get(after.snapshotId())
+                    .map(snapshot -> toPage(snapshot.page(after.position(), limit + 1), limit, snapshot));
+        }
+        if (pin && after == null) {
+            Optional<PinnedBoardSnapshots.Snapshot> snapshot = pinnedBoardSnapshots.pin();
+            if (snapshot.isPresent()) {
+                return Optional.of(toPage(snapshot.get().page(0L, limit + 1), limit, snapshot.get()));
+            }
+        }
+
+        // One row past the page tells whether there is a next page
+        List<WindowedScore> rows;
+        if (rankIndex.isServing()) {
+            List<RankedEntry> ranked = after == null
+                    ? rankIndex.top(limit + 1)
+                    : rankIndex.after(after.score(), after.userId(), limit + 1);
+            rows = new ArrayList<>(ranked.size());
+            for (RankedEntry entry : ranked) {
+                rows.add(new WindowedScore(entry.userId(), entry.score(), entry.streak(), null, entry.rank()));
+            }
+        } else {
+            rows = leaderboardRepository.findPage(after, limit + 1);
+        }
+        return Optional.of(toPage(rows, limit, null));
+    }
+
+    private LeaderboardPage toPage(List<WindowedScore> rows, int limit, PinnedBoardSnapshots.Snapshot snapshot) {
+        List<WindowedScore> page = rows.size() > limit ? rows.subList(0, limit) : rows;
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            WindowedScore last = page.get(page.size() - 1);
+            nextCursor = new PageCursor(last.score(), last.userId(), last.rank(),
+                    snapshot != null ? snapshot.id() : null).encode();
+        }
+        return new LeaderboardPage(toWindowedEntries(page), nextCursor, snapshot != null ? snapshot.version() : null);
+    }
+
+    /**
+     * Top N by score earned in the current day, week or month (UTC). ALL is
+     * the all-time board.
+     */
+    public List<LeaderboardEntry> getTopN(int n, LeaderboardWindow window) {
+        if (window == LeaderboardWindow.ALL) {
+            return getTopN(n);
+        }
+        if (n <= 0) {
+            return Collections.emptyList();
+        }
+        LocalDate periodStart = window.periodStart(LocalDate.now(ZoneOffset.UTC));
+        return toWindowedEntries(leaderboardRepository.findTopInPeriod(window, periodStart, n));
+    }
+
+    /**
+     * The user's rank by score earned in the current day, week or month
+     * (UTC), or empty if they have not scored in it yet.
+     */
+    public Optional<LeaderboardEntry> getRank(String userId, LeaderboardWindow window) {
+        if (window == LeaderboardWindow.ALL) {
+            return getRank(userId);
+        }
+        LocalDate periodStart = window.periodStart(LocalDate.now(ZoneOffset.UTC));
+        return leaderboardRepository.findRankInPeriod(window, periodStart, userId)
+                .map(score -> toWindowedEntries(List.of(score)).get(0));
+    }
+
+    private List<LeaderboardEntry> toWindowedEntries(List<WindowedScore> scores) {
+        if (scores == null || scores.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<String> unnamed = new ArrayList<>();
+        for (WindowedScore score : scores) {
+            if (score.displayName() == null) {
+                unnamed.add(score.userId());
+            }
+        }
+        Map<String, String> userNames = fetchUserNames(unnamed);
+
+        List<LeaderboardEntry> entries = new ArrayList<>(scores.size());
+        for (WindowedScore score : scores) {
+            String username = score.displayName() != null
+                    ? score.displayName()
+                    : userNames.getOrDefault(score.userId(), score.userId());
+            entries.add(new LeaderboardEntry(score.userId(), username, score.score(), score.rank(), score.streak()));
+        }
+        return entries;
+    }
+
+    private List<LeaderboardEntry> toEntries(List<RankedEntry> ranked) {
+        if (ranked.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<String> userIds = new ArrayList<>(ranked.size());
+        for (RankedEntry entry : ranked) {
+            userIds.add(entry.userId());
+        }
+        Map<String, String> userNames = fetchUserNames(userIds);
+
+        List<LeaderboardEntry> entries = new ArrayList<>(ranked.size());
+        for (RankedEntry entry : ranked) {
+            entries.add(new LeaderboardEntry(
+                    entry.userId(),
+                    userNames.getOrDefault(entry.userId(), entry.userId()),
+                    entry.score(),
+                    entry.rank(),
+                    entry.streak()));
+        }
+        return entries;
     }
 
     public long getStreak(String userId) {
+        if (shardedLeaderboard.isEnabled()) {
+            return shardedLeaderboard.find(userId).map(RankedEntry::streak).orElse(0L);
+        }
         return leaderboardRepository.findByUserId(userId)
                 .map(LeaderboardEntryEntity::getStreakCount)
                 .orElse(0L);
     }
 
-    private void updateStreak(LeaderboardEntryEntity entry, LocalDate today) {
-        LocalDate lastDate = entry.getLastActivityDate();
-        long currentCount = entry.getStreakCount();
-
-        if (lastDate == null) {
-            entry.setStreakCount(1L);
-        } else if (lastDate.isEqual(today)) {
-            // Same day, no change to streak
-            if (currentCount == 0) {
-                entry.setStreakCount(1L);
+    private static List<String> withoutDisplayName(List<LeaderboardEntryEntity> entities) {
+        List<String> userIds = new ArrayList<>();
+        for (LeaderboardEntryEntity entity : entities) {
+            if (entity.getDisplayName() == null) {
+                userIds.add(entity.getUserId());
             }
-        } else if (lastDate.plusDays(1).isEqual(today)) {
-            // Consecutive day, increment streak
-            entry.setStreakCount(currentCount + 1L);
-        } else {
-            // Streak broken, reset to 1
-            entry.setStreakCount(1L);
         }
+        return userIds;
+    }
 
-        entry.setLastActivityDate(today);
+    private static String displayName(LeaderboardEntryEntity entity, Map<String, String> userNames) {
+        if (entity.getDisplayName() != null) {
+            return entity.getDisplayName();
+        }
+        return userNames.getOrDefault(entity.getUserId(), entity.getUserId()); // Fallback to ID if name not found
     }
 
-    private java.util.Map<String, String> fetchUserNames(List<String> userIds) {
+    private Map<String, String> fetchUserNames(List<String> userIds) {
         if (userIds == null || userIds.isEmpty()) {
             return Collections.emptyMap();
         }
-        try {
-            org.springframework.http.HttpHeaders headers = new org.springframework.http.HttpHeaders();
-            headers.setContentType(org.springframework.http.MediaType.APPLICATION_JSON);
-            org.springframework.http.HttpEntity<List<String>> request = new org.springframework.http.HttpEntity<>(
-                    userIds, headers);
+        return userNameCache.getAll(userIds, this::loadUserNames);
+    }
+
+    /**
+     * Loads names missing from the local cache: stored display names first,
+     * then user-service for users no profile-changed event has named yet.
+     * When profile events are enabled, names fetched from user-service are
+     * written back so later reads find them locally; without them a stored
+     * name would never change, so renames show up after the cache TTL
+     * instead. If user-service fails, the stored names are still returned.
+     */
+    private Map<String, String> loadUserNames(Set<String> userIds) {
+        Map<String, String> names = new HashMap<>();
+        for (Object[] row : leaderboardRepository.findDisplayNames(userIds)) {
+            names.put((String) row[0], (String) row[1]);
+        }
 
-            // Call User Service batch endpoint
-            org.springframework.http.ResponseEntity<java.util.Map> response = restTemplate
-                    .postForEntity(userServiceUrl + "/api/users/names", request, java.util.Map.class);
+        Set<String> unnamed = new LinkedHashSet<>(userIds);
+        unnamed.removeAll(names.keySet());
+        if (unnamed.isEmpty()) {
+            return names;
+        }
+
+        // Batched with concurrent lookups before reaching user-service
+        Map<String, String> fetched;
+        try {
+            fetched = userNameResolver.resolve(unnamed);
+        } catch (RuntimeException e) {
+            if (names.isEmpty()) {
+                throw e;
+            }
+            logger.warn("Failed to fetch usernames for {} users: {}", unnamed.size(), e.getMessage());
+            return names;
+        }
 
-            if (response.getBody() != null) {
-                return (java.util.Map<String, String>) response.getBody();
+        if (!fetched.isEmpty()) {
+            if (storeFetchedNames) {
+                try {
+                    leaderboardRepository.fillMissingDisplayNames(fetched);
+                } catch (DataAccessException e) {
+                    logger.warn("Failed to store display names for {} users: {}", fetched.size(), e.getMessage());
+                }
             }
-        } catch (Exception e) {
-            System.err.println("Failed to fetch usernames: " + e.getMessage());
-            // Fallback - return empty map
+            names.putAll(fetched);
         }
-        return Collections.emptyMap();
+        return names;
     }
 }
@@ -0,0 +1,89 @@
+package com.clouddev.leaderboardservice.service;
+
+import com.clouddev.leaderboardservice.model.LeaderboardWindow;
+import com.clouddev.leaderboardservice.repository.LeaderboardRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deletes day, week and month buckets that have rolled out of their
+ * retention, so leaderboard_period_scores only holds the last few periods
+ * of each window. Runs at startup and then every expire-interval-ms.
+ */
+@Component
+public class PeriodScoreExpirer {
+
+    private static final Logger logger = LoggerFactory.getLogger(PeriodScoreExpirer.class);
+
+    private final LeaderboardRepository leaderboardRepository;
+    private final int keepDays;
+    private final int keepWeeks;
+    private final int keepMonths;
+    private final long expireIntervalMs;
+    private ScheduledExecutorService expirer;
+
+    public PeriodScoreExpirer(LeaderboardRepository leaderboardRepository,
+            @Value("${leaderboard.windows.keep-days:7}") int keepDays,
+            @Value("${leaderboard.windows.keep-weeks:4}") int keepWeeks,
+            @Value("${leaderboard.windows.keep-months:3}") int keepMonths,
+            @Value("${leaderboard.windows.expire-interval-ms:3600000}") long expireIntervalMs) {
+        this.leaderboardRepository = leaderboardRepository;
+        this.keepDays = Math.max(1, keepDays);
+        this.keepWeeks = Math.max(1, keepWeeks);
+        this.keepMonths = Math.max(1, keepMonths);
+        this.expireIntervalMs = expireIntervalMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        expirer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "period-score-expirer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        expirer.scheduleWithFixedDelay(this::expireQuietly, 0L, expireIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Deletes buckets older than the retained periods, counting the period
+     * that contains today as the first one kept.
+     *
+     * @return the number of buckets deleted
+     */
+    public int expire(LocalDate today) {
+        return leaderboardRepository.deletePeriodsBefore(LeaderboardWindow.DAY,
+                LeaderboardWindow.DAY.periodStart(today, keepDays - 1))
+                + leaderboardRepository.deletePeriodsBefore(LeaderboardWindow.WEEK,
+                        LeaderboardWindow.WEEK.periodStart(today, keepWeeks - 1))
+                + leaderboardRepository.deletePeriodsBefore(LeaderboardWindow.MONTH,
+                        LeaderboardWindow.MONTH.periodStart(today, keepMonths - 1));
+    }
+
+    @PreDestroy
+    public void close() {
+        if (expirer != null) {
+            expirer.shutdownNow();
+        }
+    }
+
+    private void expireQuietly() {
+        try {
+            int deleted = expire(LocalDate.now(ZoneOffset.UTC));
+            if (deleted > 0) {
+                logger.info("Deleted {} expired leaderboard period buckets", deleted);
+            }
+        } catch (DataAccessException e) {
+            logger.error("Failed to delete expired leaderboard period buckets, will retry: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.clouddev.leaderboardservice.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Folds score stripes into leaderboard_entries every compact-interval-ms,
+ * batch-size stripe rows per transaction, until none are left. Each batch
+ * goes through the bulk upsert, so streaks, period buckets and
+ * ScoreChangedEvents come out as if the deltas had been written directly.
+ * Several instances can compact at once: a stripe row is taken by one of
+ * them only. Runs a last time on shutdown.
+ */
+@Component
+public class ScoreStripeCompactor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScoreStripeCompactor.class);
+
+    private final LeaderboardService leaderboardService;
+    private final ScoreStripes scoreStripes;
+    private final long compactIntervalMs;
+    private final int batchSize;
+    private ScheduledExecutorService compactor;
+
+    public ScoreStripeCompactor(LeaderboardService leaderboardService,
+            ScoreStripes scoreStripes,
+            @Value("${leaderboard.stripes.compact-interval-ms:500}") long compactIntervalMs,
+            @Value("${leaderboard.stripes.batch-size:1000}") int batchSize) {
+        this.leaderboardService = leaderboardService;
+        this.scoreStripes = scoreStripes;
+        this.compactIntervalMs = compactIntervalMs;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!scoreStripes.isEnabled()) {
+            return;
+        }
+        compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "score-stripe-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        compactor.scheduleWithFixedDelay(this::compactQuietly, compactIntervalMs, compactIntervalMs,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Compacts until a batch comes back empty.
+     *
+     * @return the number of (user, day) deltas applied
+     */
+    public int compact() {
+        int applied = 0;
+        int batch;
+        do {
+            batch = leaderboardService.compactStripes(batchSize);
+            applied += batch;
+        } while (batch > 0);
+        return applied;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (compactor == null) {
+            return;
+        }
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(compactIntervalMs + 5000L, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        compactQuietly();
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (DataAccessException e) {
+            logger.error("Failed to compact score stripes, will retry: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.clouddev.leaderboardservice.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for the striped score layout. When enabled, score writes add
+ * to one of N narrow rows per user and day in leaderboard_score_stripes
+ * instead of updating the wide leaderboard_entries row, so a burst for
+ * one user spreads over N row locks and each write can be a HOT update.
+ * ScoreStripeCompactor folds the stripes into the entries.
+ */
+@Component
+public class ScoreStripes {
+
+    private final boolean enabled;
+    private final int stripes;
+
+    public ScoreStripes(@Value("${leaderboard.stripes.enabled:false}") boolean enabled,
+            @Value("${leaderboard.stripes.count:8}") int stripes) {
+        this.enabled = enabled;
+        this.stripes = Math.max(1, stripes);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The stripe for the next write. Random rather than per user, so
+     * concurrent writes for the same user rarely wait on the same row.
+     */
+    public int next() {
+        return ThreadLocalRandom.current().nextInt(stripes);
+    }
+}
@@ -0,0 +1,265 @@
+package com.clouddev.leaderboardservice.service;
+
+import com.clouddev.leaderboardservice.model.ScoreDelta;
+import com.clouddev.leaderboardservice.shard.ShardWriteException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Write-behind buffer for score updates.
+ *
+ * Deltas are summed per user in a striped map (one lock per stripe, so
+ * concurrent requests for different users rarely contend) and written to
+ * Postgres in one transaction when the number of pending users reaches
+ * max-pending or every flush-interval-ms, whichever comes first. The buffer
+ * is drained on shutdown.
+ *
+ * Failed flushes are merged back, so while the database is down the buffer
+ * keeps every acknowledged delta in memory. It holds at most max-buffered
+ * users: past that, an update for a user not already buffered is written
+ * straight through, and fails with the database rather than growing the
+ * buffer. A requeue after a failed flush can take it up to twice that.
+ */
+@Component
+public class ScoreUpdateBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScoreUpdateBuffer.class);
+
+    private final LeaderboardService leaderboardService;
+    private final boolean enabled;
+    private final int maxPending;
+    private final long flushIntervalMs;
+    private final int maxBuffered;
+
+    private final Stripe[] stripes;
+    private final AtomicInteger pendingUsers = new AtomicInteger();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final Object flushLock = new Object();
+    private ScheduledExecutorService flusher;
+    private volatile boolean closed;
+
+    public ScoreUpdateBuffer(LeaderboardService leaderboardService,
+            @Value("${leaderboard.write-behind.enabled:false}") boolean enabled,
+            @Value("${leaderboard.write-behind.stripes:16}") int stripes,
+            @Value("${leaderboard.write-behind.max-pending:500}") int maxPending,
+            @Value("${leaderboard.write-behind.flush-interval-ms:1000}") long flushIntervalMs,
+            @Value("${leaderboard.write-behind.max-buffered:10000}") int maxBuffered) {
+        this.leaderboardService = leaderboardService;
+        this.enabled = enabled;
+        this.maxPending = maxPending;
+        this.flushIntervalMs = flushIntervalMs;
+        this.maxBuffered = maxBuffered;
+        this.stripes = new Stripe[Math.max(1, stripes)];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new Stripe();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int pendingUsers() {
+        return pendingUsers.get();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "score-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Adds a delta to the buffer. Once the buffer has been closed for
+     * shutdown, or when it is full and the user is not buffered yet, the
+     * update is written straight through instead.
+     */
+    public void add(String userId, double delta, LocalDate activityDate) {
+        if (closed) {
+            leaderboardService.updateScore(userId, delta, activityDate);
+            return;
+        }
+
+        boolean full = false;
+        Stripe stripe = stripeFor(userId);
+        synchronized (stripe) {
+            PendingScore pending = stripe.pending.get(userId);
+            if (pending != null) {
+                pending.add(delta, activityDate);
+            } else if (pendingUsers.get() >= maxBuffered) {
+                full = true;
+            } else {
+                stripe.pending.put(userId, new PendingScore(delta, activityDate));
+                pendingUsers.incrementAndGet();
+            }
+        }
+        if (full) {
+            // Flushes are failing or falling behind: don't hold more acknowledged deltas in memory
+            leaderboardService.updateScore(userId, delta, activityDate);
+            return;
+        }
+
+        if (closed) {
+            // close() may have drained the buffer before this delta went in
+            flush();
+            return;
+        }
+        if (pendingUsers.get() >= maxPending && flusher != null && flushRequested.compareAndSet(false, true)) {
+            try {
+                flusher.execute(this::flushQuietly);
+            } catch (RejectedExecutionException e) {
+                // Shutting down: write it now rather than leave it with no flush to come
+                flush();
+            }
+        }
+    }
+
+    /**
+     * Swaps out every stripe and writes the collected deltas in one batch.
+     * If the write fails the deltas are merged back so the next flush
+     * retries them, except those of users whose shard committed.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            flushRequested.set(false);
+            Map<String, PendingScore> drained = drain();
+            if (drained.isEmpty()) {
+                return;
+            }
+
+            try {
+                leaderboardService.applyScoreDeltas(toDeltas(drained));
+            } catch (RuntimeException e) {
+                if (e instanceof ShardWriteException partial) {
+                    // Written on the shards that committed, so retrying them would count them twice
+                    drained.keySet().removeAll(partial.committedUserIds());
+                }
+                requeue(drained);
+                throw e;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        closed = true;
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(flushIntervalMs + 5000L, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.error("Failed to drain {} buffered score updates on shutdown: {}", pendingUsers.get(),
+                    e.getMessage());
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.error("Failed to flush buffered score updates, will retry: {}", e.getMessage());
+        }
+    }
+
+    private Map<String, PendingScore> drain() {
+        Map<String, PendingScore> drained = new HashMap<>();
+        for (Stripe stripe : stripes) {
+            Map<String, PendingScore> taken;
+            synchronized (stripe) {
+                if (stripe.pending.isEmpty()) {
+                    continue;
+                }
+                taken = stripe.pending;
+                stripe.pending = new HashMap<>();
+            }
+            pendingUsers.addAndGet(-taken.size());
+            drained.putAll(taken);
+        }
+        return drained;
+    }
+
+    private void requeue(Map<String, PendingScore> drained) {
+        for (Map.Entry<String, PendingScore> entry : drained.entrySet()) {
+            Stripe stripe = stripeFor(entry.getKey());
+            synchronized (stripe) {
+                PendingScore current = stripe.pending.get(entry.getKey());
+                if (current == null) {
+                    stripe.pending.put(entry.getKey(), entry.getValue());
+                    pendingUsers.incrementAndGet();
+                } else {
+                    current.merge(entry.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * One delta per user and activity date, oldest first, so period buckets
+     * are credited on the day the points were earned and the streak
+     * advances day by day when the buffered updates crossed midnight.
+     */
+    private static List<ScoreDelta> toDeltas(Map<String, PendingScore> drained) {
+        List<ScoreDelta> deltas = new ArrayList<>(drained.size());
+        for (Map.Entry<String, PendingScore> entry : drained.entrySet()) {
+            for (Map.Entry<LocalDate, Double> day : entry.getValue().byDate.entrySet()) {
+                deltas.add(new ScoreDelta(entry.getKey(), day.getValue(), day.getKey()));
+            }
+        }
+        return deltas;
+    }
+
+    private Stripe stripeFor(String userId) {
+        int hash = userId.hashCode();
+        hash ^= (hash >>> 16);
+        return stripes[Math.floorMod(hash, stripes.length)];
+    }
+
+    private static final class Stripe {
+        private Map<String, PendingScore> pending = new HashMap<>();
+    }
+
+    private static final class PendingScore {
+        private final TreeMap<LocalDate, Double> byDate = new TreeMap<>();
+
+        PendingScore(double delta, LocalDate activityDate) {
+            add(delta, activityDate);
+        }
+
+        void add(double moreDelta, LocalDate activityDate) {
+            byDate.merge(activityDate, moreDelta, Double::sum);
+        }
+
+        void merge(PendingScore other) {
+            other.byDate.forEach((activityDate, delta) -> add(delta, activityDate));
+        }
+    }
+}
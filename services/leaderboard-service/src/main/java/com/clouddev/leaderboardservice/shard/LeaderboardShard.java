@@ -0,0 +1,183 @@
+package com.clouddev.leaderboardservice.shard;
+
+import com.clouddev.leaderboardservice.index.RankedEntry;
+import com.clouddev.leaderboardservice.model.ScoreDelta;
+import com.clouddev.leaderboardservice.model.UpsertedScore;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import javax.sql.DataSource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * One partition of the all-time board in its own database. The SQL is kept
+ * to what PostgreSQL and H2 both accept, so shards can be separate
+ * PostgreSQL servers in production and in-memory H2 databases in tests.
+ */
+final class LeaderboardShard {
+
+    private static final String SCHEMA = """
+            CREATE TABLE IF NOT EXISTS leaderboard_entries (
+                user_id VARCHAR(255) PRIMARY KEY,
+                score DOUBLE PRECISION NOT NULL DEFAULT 0,
+                streak_count BIGINT NOT NULL DEFAULT 0,
+                last_activity_date DATE,
+                created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+                updated_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP
+            )""";
+
+    private static final String SCORE_INDEX =
+            "CREATE INDEX IF NOT EXISTS idx_leaderboard_score_user_id ON leaderboard_entries (score DESC, user_id)";
+
+    private static final String LOCK_ROWS = """
+            SELECT user_id, score, streak_count, last_activity_date FROM leaderboard_entries
+            WHERE user_id IN (%s) ORDER BY user_id FOR UPDATE""";
+
+    private static final String UPDATE_ROW = """
+            UPDATE leaderboard_entries
+            SET score = ?, streak_count = ?, last_activity_date = ?, updated_at = CURRENT_TIMESTAMP
+            WHERE user_id = ?""";
+
+    private static final String INSERT_ROW = """
+            INSERT INTO leaderboard_entries (user_id, score, streak_count, last_activity_date, created_at, updated_at)
+            VALUES (?, ?, 1, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)""";
+
+    private static final String TOP_N =
+            "SELECT user_id, score, streak_count FROM leaderboard_entries ORDER BY score DESC, user_id LIMIT ?";
+
+    private static final String FIND =
+            "SELECT user_id, score, streak_count FROM leaderboard_entries WHERE user_id = ?";
+
+    private static final String COUNT_ABOVE = "SELECT COUNT(*) FROM leaderboard_entries WHERE score > ?";
+
+    /** Attempts for a write that lost an insert race to a concurrent first write for the same user. */
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final String name;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    LeaderboardShard(String name, DataSource dataSource) {
+        this.name = name;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    String name() {
+        return name;
+    }
+
+    JdbcTemplate jdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    void initializeSchema() {
+        jdbcTemplate.execute(SCHEMA);
+        jdbcTemplate.execute(SCORE_INDEX);
+    }
+
+    /**
+     * Adds each delta in one shard transaction: the existing rows are locked
+     * in userId order, the new values computed with UpsertedScore.plus (the
+     * streak rules of the primary upsert), then written with one batched
+     * UPDATE and one batched INSERT. Each user may appear at most once.
+     */
+    List<UpsertedScore> upsertScores(List<ScoreDelta> deltas) {
+        return upsertRounds(List.of(deltas));
+    }
+
+    /**
+     * Applies the rounds in order in one shard transaction, each as in
+     * upsertScores, so the shard commits all of a user's deltas or none.
+     * Rows come back in round order.
+     */
+    List<UpsertedScore> upsertRounds(List<List<ScoreDelta>> rounds) {
+        if (rounds.stream().allMatch(List::isEmpty)) {
+            return Collections.emptyList();
+        }
+        for (int attempt = 1;; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> {
+                    List<UpsertedScore> rows = new ArrayList<>();
+                    for (List<ScoreDelta> round : rounds) {
+                        if (!round.isEmpty()) {
+                            rows.addAll(upsertLocked(round));
+                        }
+                    }
+                    return rows;
+                });
+            } catch (DuplicateKeyException e) {
+                // Another writer inserted one of the users first; its row is there to lock now
+                if (attempt == MAX_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private List<UpsertedScore> upsertLocked(List<ScoreDelta> deltas) {
+        Object[] userIds = new Object[deltas.size()];
+        for (int i = 0; i < deltas.size(); i++) {
+            userIds[i] = deltas.get(i).userId();
+        }
+        String placeholders = String.join(",", Collections.nCopies(userIds.length, "?"));
+
+        Map<String, UpsertedScore> existing = new HashMap<>();
+        jdbcTemplate.query(String.format(LOCK_ROWS, placeholders), rs -> {
+            Date lastActivity = rs.getDate("last_activity_date");
+            String userId = rs.getString("user_id");
+            existing.put(userId, new UpsertedScore(userId, rs.getDouble("score"), rs.getLong("streak_count"),
+                    lastActivity != null ? lastActivity.toLocalDate() : null, rs.getDouble("score")));
+        }, userIds);
+
+        List<UpsertedScore> results = new ArrayList<>(deltas.size());
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+        for (ScoreDelta delta : deltas) {
+            UpsertedScore before = existing.get(delta.userId());
+            if (before == null) {
+                results.add(new UpsertedScore(delta.userId(), delta.scoreDelta(), 1L, delta.activityDate(), null));
+                inserts.add(new Object[] { delta.userId(), delta.scoreDelta(), Date.valueOf(delta.activityDate()) });
+            } else {
+                UpsertedScore after = before.plus(delta);
+                results.add(after);
+                updates.add(new Object[] { after.score(), after.streak(),
+                        after.lastActivityDate() != null ? Date.valueOf(after.lastActivityDate()) : null,
+                        after.userId() });
+            }
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_ROW, updates);
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_ROW, inserts);
+        }
+        return results;
+    }
+
+    /**
+     * The shard's first n entries in board order. Ranks are left at 0; they
+     * only mean something once the shards are merged.
+     */
+    List<RankedEntry> top(int n) {
+        return jdbcTemplate.query(TOP_N, (rs, rowNum) -> new RankedEntry(rs.getString("user_id"),
+                rs.getDouble("score"), rs.getLong("streak_count"), 0L), n);
+    }
+
+    Optional<RankedEntry> find(String userId) {
+        return jdbcTemplate.query(FIND, (rs, rowNum) -> new RankedEntry(rs.getString("user_id"),
+                rs.getDouble("score"), rs.getLong("streak_count"), 0L), userId).stream().findFirst();
+    }
+
+    long countAbove(double score) {
+        Long count = jdbcTemplate.queryForObject(COUNT_ABOVE, Long.class, score);
+        return count != null ? count : 0L;
+    }
+}
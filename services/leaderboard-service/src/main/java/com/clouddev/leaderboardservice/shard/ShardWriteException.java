@@ -0,0 +1,37 @@
+package com.clouddev.leaderboardservice.shard;
+
+import com.clouddev.leaderboardservice.model.UpsertedScore;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Thrown when a sharded batch failed on at least one shard. Every shard
+ * commits on its own, so the rows of the shards that did commit stay
+ * written: a retry must leave their users out, or their deltas are applied
+ * twice.
+ */
+public class ShardWriteException extends RuntimeException {
+
+    private final transient List<UpsertedScore> committed;
+
+    public ShardWriteException(List<UpsertedScore> committed, RuntimeException cause) {
+        super(cause.getMessage(), cause);
+        this.committed = List.copyOf(committed);
+    }
+
+    /**
+     * The final row of every user whose shard committed, grouped by shard.
+     */
+    public List<UpsertedScore> committed() {
+        return committed;
+    }
+
+    public Set<String> committedUserIds() {
+        Set<String> userIds = new HashSet<>();
+        for (UpsertedScore row : committed) {
+            userIds.add(row.userId());
+        }
+        return userIds;
+    }
+}
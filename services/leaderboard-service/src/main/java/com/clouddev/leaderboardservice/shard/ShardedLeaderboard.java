@@ -0,0 +1,331 @@
+package com.clouddev.leaderboardservice.shard;
+
+import com.clouddev.leaderboardservice.index.RankedEntry;
+import com.clouddev.leaderboardservice.model.ScoreDelta;
+import com.clouddev.leaderboardservice.model.UpsertedScore;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * The all-time board hash-partitioned by userId over several databases,
+ * one per entry in leaderboard.shards.urls.
+ *
+ * A user's row lives only on its owning shard, so writes touch one shard
+ * (a batch touches each owning shard once, in parallel). Reads scatter to
+ * every shard in parallel and gather: the top n is a k-way heap merge of
+ * each shard's own top n, and a rank is one plus the sum of every shard's
+ * count of higher scores. Batches commit per shard, not across shards: a
+ * shard failure is reported with the rows the other shards committed (see
+ * ShardWriteException), so callers can retry only the rest.
+ *
+ * The shard of a user is fixed by the number of urls; changing the list
+ * moves users between shards and needs the rows moved with it.
+ *
+ * Only top n, ranks and streaks are gathered this way. Features that keep
+ * their own copy of the board in spring.datasource or in memory (rank
+ * index, rank buckets, histogram, stripes, replicas) never see sharded
+ * writes, so startup refuses to combine them with shards; the remaining
+ * primary-only reads answer 501 (see LeaderboardController).
+ */
+@Component
+public class ShardedLeaderboard {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardedLeaderboard.class);
+
+    private static final Comparator<RankedEntry> BOARD_ORDER = Comparator.comparingDouble(RankedEntry::score)
+            .reversed().thenComparing(RankedEntry::userId);
+
+    private final List<LeaderboardShard> shards;
+    private final List<HikariDataSource> dataSources;
+    private final ExecutorService scatter;
+
+    @Autowired
+    public ShardedLeaderboard(@Value("${leaderboard.shards.enabled:false}") boolean enabled,
+            @Value("${leaderboard.shards.urls:}") String urls,
+            @Value("${leaderboard.shards.username:${spring.datasource.username:}}") String username,
+            @Value("${leaderboard.shards.password:${spring.datasource.password:}}") String password,
+            @Value("${leaderboard.shards.pool-size:10}") int poolSize,
+            @Value("${leaderboard.shards.initialize-schema:true}") boolean initializeSchema,
+            @Value("${leaderboard.rank-index.enabled:false}") boolean rankIndexEnabled,
+            @Value("${leaderboard.rank-buckets.enabled:false}") boolean rankBucketsEnabled,
+            @Value("${leaderboard.histogram.enabled:true}") boolean histogramEnabled,
+            @Value("${leaderboard.stripes.enabled:false}") boolean stripesEnabled,
+            @Value("${leaderboard.replicas.enabled:false}") boolean replicasEnabled) {
+        this.dataSources = new ArrayList<>();
+        if (!enabled) {
+            this.shards = Collections.emptyList();
+            this.scatter = null;
+            return;
+        }
+        requireOff("leaderboard.rank-index.enabled", rankIndexEnabled);
+        requireOff("leaderboard.rank-buckets.enabled", rankBucketsEnabled);
+        requireOff("leaderboard.histogram.enabled", histogramEnabled);
+        requireOff("leaderboard.stripes.enabled", stripesEnabled);
+        requireOff("leaderboard.replicas.enabled", replicasEnabled);
+
+        List<LeaderboardShard> configured = new ArrayList<>();
+        for (String url : urls.split(",")) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("leaderboard-shard-" + configured.size());
+            dataSource.setJdbcUrl(url.trim());
+            dataSource.setUsername(username);
+            dataSource.setPassword(password);
+            dataSource.setMaximumPoolSize(Math.max(1, poolSize));
+            dataSources.add(dataSource);
+            configured.add(new LeaderboardShard(dataSource.getPoolName(), dataSource));
+        }
+        if (configured.isEmpty()) {
+            throw new IllegalStateException("leaderboard.shards.enabled needs at least one leaderboard.shards.urls entry");
+        }
+        if (initializeSchema) {
+            configured.forEach(LeaderboardShard::initializeSchema);
+        }
+        this.shards = List.copyOf(configured);
+        this.scatter = newScatterPool(shards.size());
+        logger.info("Leaderboard sharded over {} databases", shards.size());
+    }
+
+    ShardedLeaderboard(List<LeaderboardShard> shards) {
+        this.shards = List.copyOf(shards);
+        this.dataSources = Collections.emptyList();
+        this.scatter = newScatterPool(shards.size());
+    }
+
+    private static void requireOff(String property, boolean enabled) {
+        if (enabled) {
+            throw new IllegalStateException("leaderboard.shards.enabled cannot be combined with " + property
+                    + ": it reads spring.datasource or an in-memory copy, which sharded writes never reach");
+        }
+    }
+
+    private static ExecutorService newScatterPool(int threads) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "leaderboard-shard-scatter-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public boolean isEnabled() {
+        return !shards.isEmpty();
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    /**
+     * The owning shard. String.hashCode is fixed by the language spec, so
+     * every instance routes a user the same way; the high bits are folded in
+     * because similar ids often differ only in their last characters.
+     */
+    int shardOf(String userId) {
+        int hash = userId.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), shards.size());
+    }
+
+    public UpsertedScore upsertScore(ScoreDelta delta) {
+        return shards.get(shardOf(delta.userId())).upsertScores(List.of(delta)).get(0);
+    }
+
+    /**
+     * Applies the deltas on their owning shards, one shard transaction each.
+     * Each user may appear at most once. Rows come back grouped by shard.
+     *
+     * @throws ShardWriteException if any shard failed, with the rows of the
+     *         shards that committed
+     */
+    public List<UpsertedScore> upsertScores(List<ScoreDelta> deltas) {
+        return upsertRounds(List.of(deltas));
+    }
+
+    /**
+     * Applies the rounds on the owning shards, each shard running all of
+     * its part of every round in one transaction, so a user's deltas are
+     * committed together or not at all. Each user may appear at most once
+     * per round. Rows come back grouped by shard, in round order.
+     *
+     * @throws ShardWriteException if any shard failed, with the rows of the
+     *         shards that committed
+     */
+    public List<UpsertedScore> upsertRounds(List<List<ScoreDelta>> rounds) {
+        List<List<List<ScoreDelta>>> byShard = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            List<List<ScoreDelta>> shardRounds = new ArrayList<>(rounds.size());
+            for (int round = 0; round < rounds.size(); round++) {
+                shardRounds.add(new ArrayList<>());
+            }
+            byShard.add(shardRounds);
+        }
+        for (int round = 0; round < rounds.size(); round++) {
+            for (ScoreDelta delta : rounds.get(round)) {
+                byShard.get(shardOf(delta.userId())).get(round).add(delta);
+            }
+        }
+
+        List<UpsertedScore> rows = new ArrayList<>();
+        RuntimeException failure = null;
+        for (Future<List<UpsertedScore>> future : submit(shard -> shards.get(shard).upsertRounds(byShard.get(shard)))) {
+            try {
+                rows.addAll(await(future));
+            } catch (RuntimeException e) {
+                failure = failure != null ? failure : e;
+            }
+        }
+        if (failure != null) {
+            throw new ShardWriteException(rows, failure);
+        }
+        return rows;
+    }
+
+    /**
+     * The first n entries across all shards with positional ranks. Each
+     * shard returns its own top n in board order, so the global top n is
+     * among them; a heap over the shard heads picks it in n steps.
+     */
+    public List<RankedEntry> top(int n) {
+        if (n <= 0) {
+            return Collections.emptyList();
+        }
+        PriorityQueue<ShardCursor> heads = new PriorityQueue<>(
+                Comparator.comparing(ShardCursor::head, BOARD_ORDER));
+        for (List<RankedEntry> local : scatter(shard -> shards.get(shard).top(n))) {
+            if (!local.isEmpty()) {
+                heads.add(new ShardCursor(local));
+            }
+        }
+
+        List<RankedEntry> merged = new ArrayList<>(n);
+        while (merged.size() < n && !heads.isEmpty()) {
+            ShardCursor cursor = heads.poll();
+            RankedEntry entry = cursor.head();
+            merged.add(new RankedEntry(entry.userId(), entry.score(), entry.streak(), merged.size() + 1L));
+            if (cursor.advance()) {
+                heads.add(cursor);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * The user's row from its owning shard, with rank 0.
+     */
+    public Optional<RankedEntry> find(String userId) {
+        return shards.get(shardOf(userId)).find(userId);
+    }
+
+    /**
+     * The user's competition rank, where tied scores share a rank: one plus
+     * the number of higher scores summed over every shard.
+     */
+    public Optional<RankedEntry> rankOf(String userId) {
+        Optional<RankedEntry> own = find(userId);
+        if (own.isEmpty()) {
+            return Optional.empty();
+        }
+        RankedEntry entry = own.get();
+        long above = 0;
+        for (long count : scatter(shard -> shards.get(shard).countAbove(entry.score()))) {
+            above += count;
+        }
+        return Optional.of(new RankedEntry(entry.userId(), entry.score(), entry.streak(), above + 1));
+    }
+
+    /**
+     * Runs the call for every shard index in parallel and returns the results in
+     * shard order. The first failure is rethrown once all calls are done.
+     */
+    private <T> List<T> scatter(IntFunction<T> call) {
+        List<T> results = new ArrayList<>(shards.size());
+        RuntimeException failure = null;
+        for (Future<T> future : submit(call)) {
+            try {
+                results.add(await(future));
+            } catch (RuntimeException e) {
+                failure = failure != null ? failure : e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+
+    /**
+     * Runs the call for every shard on the scatter pool, or inline when
+     * there is only one shard.
+     */
+    private <T> List<Future<T>> submit(IntFunction<T> call) {
+        if (shards.size() == 1) {
+            FutureTask<T> inline = new FutureTask<>(() -> call.apply(0));
+            inline.run();
+            return List.of(inline);
+        }
+        List<Future<T>> futures = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            int shard = i;
+            futures.add(scatter.submit(() -> call.apply(shard)));
+        }
+        return futures;
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for shards", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime
+                    ? runtime : new IllegalStateException("Shard call failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scatter != null) {
+            scatter.shutdownNow();
+        }
+        dataSources.forEach(HikariDataSource::close);
+    }
+
+    private static final class ShardCursor {
+
+        private final List<RankedEntry> rows;
+        private int next;
+
+        ShardCursor(List<RankedEntry> rows) {
+            this.rows = rows;
+        }
+
+        RankedEntry head() {
+            return rows.get(next);
+        }
+
+        boolean advance() {
+            return ++next < rows.size();
+        }
+    }
+}
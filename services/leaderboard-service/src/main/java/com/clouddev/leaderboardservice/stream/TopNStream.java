@@ -0,0 +1,427 @@
+package com.clouddev.leaderboardservice.stream;
+
+import com.clouddev.leaderboardservice.cache.BoardVersion;
+import com.clouddev.leaderboardservice.model.LeaderboardDiff;
+import com.clouddev.leaderboardservice.model.LeaderboardEntry;
+import com.clouddev.leaderboardservice.service.LeaderboardService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes the all-time top N to /leaderboard/stream subscribers: the whole
+ * list when they connect, then only what changed.
+ *
+ * Subscribers are grouped by n and each group remembers the list it was
+ * last sent. One ticker thread wakes every tick-ms and, if the board
+ * version has moved (or refresh-ms has passed, for changes this instance
+ * does not see), reads the top N once for the largest n subscribed. It
+ * then sends each group a single diff against its previous list, however
+ * many updates landed during the tick; groups whose prefix did not change
+ * get nothing. The diff is serialized once per group, not per subscriber.
+ *
+ * Streams are async servlet requests, so an idle subscriber holds its
+ * connection and an emitter but no thread. A comment line every
+ * heartbeat-ms keeps proxies from closing idle streams and lets failed
+ * writes find connections the client has dropped.
+ *
+ * Writes block once a client stops reading and its socket buffer fills, so
+ * they run on a small sender pool rather than the ticker. A subscriber
+ * still busy with the previous tick's write when the next diff is due has
+ * fallen behind and is closed; it holds at most one sender thread until
+ * its write fails, and never holds up the ticker or other subscribers.
+ */
+@Component
+public class TopNStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(TopNStream.class);
+
+    private final LeaderboardService leaderboardService;
+    private final BoardVersion boardVersion;
+    private final ObjectMapper objectMapper;
+    private final long tickMs;
+    private final long refreshNanos;
+    private final long heartbeatNanos;
+    private final long timeoutMs;
+    private final int maxSubscribers;
+    private final LongSupplier clock;
+    private final Executor sender;
+
+    private final Object lock = new Object();
+    // Guarded by lock
+    private final Map<Integer, Group> groups = new HashMap<>();
+    private int subscriberCount;
+    private long publishedVersion = -1L;
+
+    // Set when a group joined with a list older than the last published one
+    private volatile boolean stale;
+
+    // Only touched by the ticker thread
+    private long lastVersion = -1L;
+    private long lastReadNanos;
+    private long lastHeartbeatNanos;
+    private ScheduledExecutorService ticker;
+
+    @Autowired
+    public TopNStream(LeaderboardService leaderboardService, BoardVersion boardVersion, ObjectMapper objectMapper,
+            @Value("${leaderboard.stream.tick-ms:1000}") long tickMs,
+            @Value("${leaderboard.stream.refresh-ms:5000}") long refreshMs,
+            @Value("${leaderboard.stream.heartbeat-ms:15000}") long heartbeatMs,
+            @Value("${leaderboard.stream.timeout-ms:1800000}") long timeoutMs,
+            @Value("${leaderboard.stream.max-subscribers:10000}") int maxSubscribers,
+            @Value("${leaderboard.stream.send-threads:8}") int sendThreads) {
+        this(leaderboardService, boardVersion, objectMapper, tickMs, refreshMs, heartbeatMs, timeoutMs, maxSubscribers,
+                System::nanoTime, senderPool(sendThreads));
+    }
+
+    TopNStream(LeaderboardService leaderboardService, BoardVersion boardVersion, ObjectMapper objectMapper,
+            long tickMs, long refreshMs, long heartbeatMs, long timeoutMs, int maxSubscribers, LongSupplier clock,
+            Executor sender) {
+        this.leaderboardService = leaderboardService;
+        this.boardVersion = boardVersion;
+        this.objectMapper = objectMapper;
+        this.tickMs = Math.max(1L, tickMs);
+        this.refreshNanos = refreshMs * 1_000_000L;
+        this.heartbeatNanos = heartbeatMs * 1_000_000L;
+        this.timeoutMs = timeoutMs;
+        this.maxSubscribers = maxSubscribers;
+        this.clock = clock;
+        this.sender = sender;
+        this.lastHeartbeatNanos = clock.getAsLong();
+    }
+
+    private static ExecutorService senderPool(int sendThreads) {
+        int threads = Math.max(1, sendThreads);
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "leaderboard-stream-send-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    @PostConstruct
+    public void start() {
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "leaderboard-stream-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(this::tickQuietly, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+        if (sender instanceof ExecutorService pool) {
+            pool.shutdownNow();
+        }
+        for (Subscriber subscriber : allSubscribers()) {
+            subscriber.emitter.complete();
+        }
+    }
+
+    /**
+     * Opens a stream of the top n. Its first event is a "snapshot" with the
+     * current list; "diff" events follow. Empty if max-subscribers streams
+     * are already open.
+     */
+    public Optional<SseEmitter> subscribe(int n) {
+        return subscribe(n, new SseEmitter(timeoutMs));
+    }
+
+    Optional<SseEmitter> subscribe(int n, SseEmitter emitter) {
+        emitter.onCompletion(() -> remove(n, emitter));
+        emitter.onTimeout(emitter::complete);
+        synchronized (lock) {
+            if (subscriberCount >= maxSubscribers) {
+                return Optional.empty();
+            }
+            Group group = groups.get(n);
+            if (group != null) {
+                return joinLocked(group, emitter);
+            }
+        }
+
+        // The first subscriber of an n reads its list outside the lock, which
+        // every other subscribe and the ticker need
+        long version = boardVersion.current();
+        List<LeaderboardEntry> top = List.copyOf(leaderboardService.getTopN(n));
+        synchronized (lock) {
+            if (subscriberCount >= maxSubscribers) {
+                return Optional.empty();
+            }
+            // Another subscriber of this n may have created the group meanwhile;
+            // its subscribers hold its list, so join that one
+            Group group = groups.computeIfAbsent(n, key -> new Group(key, version, top));
+            return joinLocked(group, emitter);
+        }
+    }
+
+    private Optional<SseEmitter> joinLocked(Group group, SseEmitter emitter) {
+        group.subscribers.put(emitter, new Subscriber(group.n, emitter));
+        subscriberCount++;
+        // A tick published a newer list while this group's was read; have the
+        // next tick read again even if the version has not moved since
+        if (group.version < publishedVersion) {
+            stale = true;
+        }
+
+        // Sent under the lock so it cannot overtake the first diff; the
+        // emitter only buffers it until the response has started
+        if (!send(emitter, "snapshot", group.version, serialize(group.entries))) {
+            removeLocked(group.n, emitter);
+            return Optional.empty();
+        }
+        return Optional.of(emitter);
+    }
+
+    public int subscriberCount() {
+        synchronized (lock) {
+            return subscriberCount;
+        }
+    }
+
+    /**
+     * Sends each group what changed since its last event, if the board may
+     * have changed, and a heartbeat when one is due.
+     */
+    void tick() {
+        long now = clock.getAsLong();
+        int largestN;
+        synchronized (lock) {
+            if (groups.isEmpty()) {
+                lastVersion = -1L;
+                return;
+            }
+            largestN = Collections.max(groups.keySet());
+        }
+
+        // Read the version first: a change landing mid-read is picked up by the next tick
+        long version = boardVersion.current();
+        if (stale || version != lastVersion || now - lastReadNanos >= refreshNanos) {
+            stale = false;
+            List<LeaderboardEntry> top = leaderboardService.getTopN(largestN);
+            lastVersion = version;
+            lastReadNanos = now;
+            publish(version, largestN, top);
+        }
+
+        if (now - lastHeartbeatNanos >= heartbeatNanos) {
+            lastHeartbeatNanos = now;
+            for (Subscriber subscriber : allSubscribers()) {
+                subscriber.heartbeat();
+            }
+        }
+    }
+
+    private void publish(long version, int readN, List<LeaderboardEntry> top) {
+        List<Delivery> deliveries = new ArrayList<>();
+        synchronized (lock) {
+            publishedVersion = Math.max(publishedVersion, version);
+            for (Group group : groups.values()) {
+                // Groups that joined after the read already hold a newer list
+                if (group.n > readN || group.version > version) {
+                    continue;
+                }
+                List<LeaderboardEntry> current = top.subList(0, Math.min(group.n, top.size()));
+                LeaderboardDiff diff = LeaderboardDiff.between(group.entries, current);
+                group.version = version;
+                if (diff.isEmpty()) {
+                    continue;
+                }
+                group.entries = List.copyOf(current);
+                deliveries.add(new Delivery(List.copyOf(group.subscribers.values()), serialize(diff)));
+            }
+        }
+
+        // Subscribers that join from here on got the new list as their snapshot and are not in these copies
+        for (Delivery delivery : deliveries) {
+            for (Subscriber subscriber : delivery.subscribers()) {
+                subscriber.diff(version, delivery.json());
+            }
+        }
+    }
+
+    private boolean send(SseEmitter emitter, String name, long version, String json) {
+        try {
+            emitter.send(event(name, version, json));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            logger.debug("Dropping leaderboard stream after failed send: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private static SseEmitter.SseEventBuilder event(String name, long version, String json) {
+        return SseEmitter.event().name(name).id(Long.toString(version)).data(json, MediaType.APPLICATION_JSON);
+    }
+
+    private void remove(int n, SseEmitter emitter) {
+        synchronized (lock) {
+            removeLocked(n, emitter);
+        }
+    }
+
+    private void removeLocked(int n, SseEmitter emitter) {
+        Group group = groups.get(n);
+        if (group != null && group.subscribers.remove(emitter) != null) {
+            subscriberCount--;
+            if (group.subscribers.isEmpty()) {
+                groups.remove(n);
+            }
+        }
+    }
+
+    private List<Subscriber> allSubscribers() {
+        synchronized (lock) {
+            List<Subscriber> all = new ArrayList<>(subscriberCount);
+            for (Group group : groups.values()) {
+                all.addAll(group.subscribers.values());
+            }
+            return all;
+        }
+    }
+
+    private String serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize leaderboard stream event", e);
+        }
+    }
+
+    private void tickQuietly() {
+        try {
+            tick();
+        } catch (RuntimeException e) {
+            logger.error("Failed to update leaderboard streams, will retry: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Subscribers of one n and the list they were last sent.
+     */
+    private static final class Group {
+        private final int n;
+        private final Map<SseEmitter, Subscriber> subscribers = new LinkedHashMap<>();
+        private long version;
+        private List<LeaderboardEntry> entries;
+
+        private Group(int n, long version, List<LeaderboardEntry> entries) {
+            this.n = n;
+            this.version = version;
+            this.entries = entries;
+        }
+    }
+
+    /**
+     * One stream and whether a write to it is queued or in progress. Writes
+     * to a stream run one at a time, so events reach it in order.
+     */
+    private final class Subscriber {
+        private final int n;
+        private final SseEmitter emitter;
+        // Guarded by this
+        private boolean writing;
+        private boolean dropped;
+
+        private Subscriber(int n, SseEmitter emitter) {
+            this.n = n;
+            this.emitter = emitter;
+        }
+
+        private void diff(long version, String json) {
+            boolean behind;
+            synchronized (this) {
+                if (dropped) {
+                    return;
+                }
+                behind = writing;
+                dropped = behind;
+                writing = true;
+            }
+            if (behind) {
+                // Closed once the stuck write returns; the client reconnects for a fresh snapshot
+                logger.debug("Dropping leaderboard stream that is not keeping up");
+                remove(n, emitter);
+                return;
+            }
+            write(event("diff", version, json));
+        }
+
+        private void heartbeat() {
+            synchronized (this) {
+                // A write still in progress keeps the connection busy anyway
+                if (dropped || writing) {
+                    return;
+                }
+                writing = true;
+            }
+            write(SseEmitter.event().comment(""));
+        }
+
+        private void write(SseEmitter.SseEventBuilder event) {
+            try {
+                sender.execute(() -> {
+                    boolean sent = false;
+                    try {
+                        emitter.send(event);
+                        sent = true;
+                    } catch (IOException | IllegalStateException e) {
+                        logger.debug("Dropping leaderboard stream after failed send: {}", e.getMessage());
+                    }
+                    boolean close;
+                    synchronized (this) {
+                        writing = false;
+                        close = dropped;
+                    }
+                    if (!sent) {
+                        remove(n, emitter);
+                    } else if (close) {
+                        emitter.complete();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+                synchronized (this) {
+                    writing = false;
+                }
+            }
+        }
+    }
+
+    private record Delivery(List<Subscriber> subscribers, String json) {
+    }
+}
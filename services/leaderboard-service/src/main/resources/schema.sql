@@ -8,12 +8,80 @@ CREATE TABLE IF NOT EXISTS leaderboard_entries (
     score DOUBLE PRECISION NOT NULL DEFAULT 0,
     streak_count BIGINT NOT NULL DEFAULT 0,
     last_activity_date DATE,
+    display_name VARCHAR(255),
+    replica_version BIGINT NOT NULL DEFAULT 0,
+    previous_score DOUBLE PRECISION,
     created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP
 );
 
+-- Display name copied from user-service profile-changed events (NULL until the first one arrives)
+ALTER TABLE leaderboard_entries ADD COLUMN IF NOT EXISTS display_name VARCHAR(255);
+
+-- Deltas merged into the row in leaderboard.replicas mode (only a view that has seen more overwrites it)
+ALTER TABLE leaderboard_entries ADD COLUMN IF NOT EXISTS replica_version BIGINT NOT NULL DEFAULT 0;
+
+-- Score before the last upsert, set by its ON CONFLICT DO UPDATE so RETURNING can report the exact old score
+ALTER TABLE leaderboard_entries ADD COLUMN IF NOT EXISTS previous_score DOUBLE PRECISION;
+
 -- Index for efficient ranking queries (equivalent to Redis ZREVRANK)
 CREATE INDEX IF NOT EXISTS idx_leaderboard_score ON leaderboard_entries(score DESC);
 
+-- Keyset index for the around-me window and tie-broken top-N (score descending, then user_id)
+CREATE INDEX IF NOT EXISTS idx_leaderboard_score_user_id ON leaderboard_entries(score DESC, user_id);
+
+-- Range index for the /leaderboard/changes fallback once a version is older than the in-memory change log
+CREATE INDEX IF NOT EXISTS idx_leaderboard_updated_at ON leaderboard_entries(updated_at);
+
 -- Index for user lookups
 CREATE INDEX IF NOT EXISTS idx_leaderboard_user_id ON leaderboard_entries(user_id);
+
+-- Per-period scores for the daily, weekly (ISO, Monday start) and monthly boards.
+-- Written in the same statement as leaderboard_entries; old periods are deleted by PeriodScoreExpirer.
+CREATE TABLE IF NOT EXISTS leaderboard_period_scores (
+    period VARCHAR(5) NOT NULL,
+    period_start DATE NOT NULL,
+    user_id VARCHAR(255) NOT NULL,
+    score DOUBLE PRECISION NOT NULL DEFAULT 0,
+    PRIMARY KEY (period, period_start, user_id)
+);
+
+-- Index for top-N and rank queries within one period
+CREATE INDEX IF NOT EXISTS idx_period_scores_score ON leaderboard_period_scores(period, period_start, score DESC);
+
+-- Index for the tie-broken top-N within one period (score descending, then user_id)
+CREATE INDEX IF NOT EXISTS idx_period_scores_score_user_id ON leaderboard_period_scores(period, period_start, score DESC, user_id);
+
+-- Per-replica score counters for leaderboard.replicas mode (a PN-counter per user, merged by ReplicatedScores).
+-- Each replica only writes rows with its own replica_id, and the others pull them by updated_at.
+CREATE TABLE IF NOT EXISTS leaderboard_replica_scores (
+    replica_id VARCHAR(64) NOT NULL,
+    user_id VARCHAR(255) NOT NULL,
+    positive DOUBLE PRECISION NOT NULL DEFAULT 0,
+    negative DOUBLE PRECISION NOT NULL DEFAULT 0,
+    updates BIGINT NOT NULL DEFAULT 0,
+    streak_count BIGINT NOT NULL DEFAULT 0,
+    last_activity_date DATE,
+    updated_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (replica_id, user_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_replica_scores_updated_at ON leaderboard_replica_scores(updated_at);
+
+-- Score deltas not yet folded into leaderboard_entries, for leaderboard.stripes mode.
+-- Each write adds to one of N stripes of the user's day, so a burst for one user spreads over N row locks.
+-- The row is narrow and no indexed column changes on update, so PostgreSQL can apply it as a HOT update.
+CREATE TABLE IF NOT EXISTS leaderboard_score_stripes (
+    user_id VARCHAR(255) NOT NULL,
+    activity_date DATE NOT NULL,
+    stripe SMALLINT NOT NULL,
+    score_delta DOUBLE PRECISION NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, activity_date, stripe)
+);
+
+-- Entries per score range [bucket * width, (bucket + 1) * width), for leaderboard.rank-buckets mode.
+-- Kept current by the upsert statements and rebuilt by RankBuckets at startup.
+CREATE TABLE IF NOT EXISTS score_buckets (
+    bucket BIGINT PRIMARY KEY,
+    count BIGINT NOT NULL DEFAULT 0
+);
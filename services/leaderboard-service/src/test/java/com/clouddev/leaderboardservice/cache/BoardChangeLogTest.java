@@ -0,0 +1,74 @@
+package com.clouddev.leaderboardservice.cache;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.clouddev.leaderboardservice.event.ScoreChangedEvent;
+import com.clouddev.leaderboardservice.model.BoardChange;
+
+@DisplayName("BoardChangeLog Tests")
+class BoardChangeLogTest {
+
+    private static final long START = 1_000L;
+
+    private BoardChangeLog changeLog;
+
+    private BoardVersion boardVersion;
+
+    @BeforeEach
+    void setUp() {
+        changeLog = new BoardChangeLog(3);
+        boardVersion = new BoardVersion(changeLog, START);
+    }
+
+    private void change(String userId, double score) {
+        boardVersion.onScoreChanged(new ScoreChangedEvent(userId, null, score, 1L, LocalDate.now()));
+    }
+
+    @Test
+    @DisplayName("Should list each changed entry once with its latest values, in order of last change")
+    void shouldListLatestChangePerEntry() {
+        // Arrange
+        change("a", 10.0);
+        change("b", 20.0);
+        change("a", 30.0);
+
+        // Act
+        List<BoardChange> changes = changeLog.changesSince(START, boardVersion.current()).get();
+
+        // Assert
+        assertEquals(List.of(new BoardChange("b", 20.0, 1L), new BoardChange("a", 30.0, 1L)), changes);
+        assertEquals(List.of(new BoardChange("a", 30.0, 1L)), changeLog.changesSince(START + 2, START + 3).get());
+        assertTrue(changeLog.changesSince(START + 3, START + 3).get().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should not answer versions whose changes have been overwritten")
+    void shouldNotAnswerOverwrittenVersions() {
+        // Arrange
+        change("a", 10.0);
+        change("b", 20.0);
+        change("c", 30.0);
+        change("d", 40.0);
+
+        // Act & Assert
+        assertTrue(changeLog.changesSince(START, START + 4).isEmpty());
+        assertEquals(List.of("b", "c", "d"), changeLog.changesSince(START + 1, START + 4).get().stream()
+                .map(BoardChange::userId).toList());
+        assertTrue(changeLog.changesSince(START + 5, START + 4).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should answer only the current version before any change")
+    void shouldAnswerCurrentVersionWhenEmpty() {
+        // Act & Assert
+        assertTrue(changeLog.changesSince(START, START).get().isEmpty());
+        assertTrue(changeLog.changesSince(START - 1, START).isEmpty());
+    }
+}
@@ -0,0 +1,208 @@
+package com.clouddev.leaderboardservice.cache;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.isNull;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.clouddev.leaderboardservice.event.ScoreChangedEvent;
+import com.clouddev.leaderboardservice.index.RankIndex;
+import com.clouddev.leaderboardservice.index.RankedEntry;
+import com.clouddev.leaderboardservice.model.PageCursor;
+import com.clouddev.leaderboardservice.model.WindowedScore;
+import com.clouddev.leaderboardservice.repository.LeaderboardRepository;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PinnedBoardSnapshots Tests")
+@SuppressWarnings("null")
+class PinnedBoardSnapshotsTest {
+
+    private static final long TTL_MS = 60_000L;
+
+    @Mock
+    private LeaderboardRepository leaderboardRepository;
+
+    @Mock
+    private RankIndex rankIndex;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BoardVersion boardVersion;
+
+    private AtomicLong clock;
+
+    private PinnedBoardSnapshots snapshots;
+
+    @BeforeEach
+    void setUp() {
+        boardVersion = new BoardVersion();
+        clock = new AtomicLong();
+        snapshots = new PinnedBoardSnapshots(leaderboardRepository, rankIndex, boardVersion, transactionManager,
+                TTL_MS, 2, 3, clock::get);
+    }
+
+    private void bumpVersion() {
+        boardVersion.onScoreChanged(new ScoreChangedEvent("user1", 1.0, 2.0, 1L, LocalDate.now()));
+    }
+
+    private static List<WindowedScore> rows(int count) {
+        List<WindowedScore> rows = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            rows.add(new WindowedScore("user" + i, 100.0 - i, 1L, null, i));
+        }
+        return rows;
+    }
+
+    @Nested
+    @DisplayName("Pinning Tests")
+    class PinningTests {
+
+        @Test
+        @DisplayName("Should share one snapshot while the board version is unchanged")
+        void shouldShareSnapshotPerVersion() {
+            // Arrange
+            when(leaderboardRepository.findPage(isNull(), anyInt())).thenReturn(rows(2));
+
+            // Act
+            PinnedBoardSnapshots.Snapshot first = snapshots.pin().get();
+            PinnedBoardSnapshots.Snapshot second = snapshots.pin().get();
+            bumpVersion();
+            PinnedBoardSnapshots.Snapshot third = snapshots.pin().get();
+
+            // Assert
+            assertSame(first, second);
+            assertNotEquals(first.id(), third.id());
+            assertEquals(1L, third.version());
+            verify(leaderboardRepository, times(2)).findPage(isNull(), anyInt());
+        }
+
+        @Test
+        @DisplayName("Should keep serving pinned pages after the board changes")
+        void shouldServePinnedPagesAfterChange() {
+            // Arrange
+            when(leaderboardRepository.findPage(isNull(), anyInt())).thenReturn(rows(3));
+            PinnedBoardSnapshots.Snapshot pinned = snapshots.pin().get();
+            bumpVersion();
+
+            // Act
+            List<WindowedScore> page = snapshots.get(pinned.id()).get().page(1L, 5);
+
+            // Assert
+            assertEquals(List.of("user2", "user3"), page.stream().map(WindowedScore::userId).toList());
+            assertEquals(2L, page.get(0).rank());
+        }
+
+        @Test
+        @DisplayName("Should copy the rank index when it is serving")
+        void shouldCopyRankIndex() {
+            // Arrange
+            when(rankIndex.isServing()).thenReturn(true);
+            when(rankIndex.top(4)).thenReturn(List.of(
+                    new RankedEntry("user1", 50.0, 2L, 1L),
+                    new RankedEntry("user2", 40.0, 1L, 2L)));
+
+            // Act
+            PinnedBoardSnapshots.Snapshot pinned = snapshots.pin().get();
+
+            // Assert
+            assertEquals(2, pinned.size());
+            assertEquals(2L, pinned.page(0L, 10).get(0).streak());
+            verify(leaderboardRepository, never()).findPage(any(), anyInt());
+        }
+
+        @Test
+        @DisplayName("Should not pin a board larger than max entries")
+        void shouldNotPinLargeBoard() {
+            // Arrange
+            when(leaderboardRepository.findPage(isNull(), anyInt())).thenReturn(rows(4));
+
+            // Act & Assert
+            assertTrue(snapshots.pin().isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should keyset through the table in batches")
+        void shouldLoadTableInBatches() {
+            // Arrange
+            List<WindowedScore> firstBatch = new ArrayList<>();
+            for (int i = 1; i <= 1000; i++) {
+                firstBatch.add(new WindowedScore("user" + i, 1.0, 1L, null, i));
+            }
+            snapshots = new PinnedBoardSnapshots(leaderboardRepository, rankIndex, boardVersion, transactionManager,
+                    TTL_MS, 2, 5000, clock::get);
+            when(leaderboardRepository.findPage(isNull(), anyInt())).thenReturn(firstBatch);
+            when(leaderboardRepository.findPage(new PageCursor(1.0, "user1000", 1000L, null), 1000))
+                    .thenReturn(List.of(new WindowedScore("user1001", 0.5, 1L, null, 1001L)));
+
+            // Act
+            PinnedBoardSnapshots.Snapshot pinned = snapshots.pin().get();
+
+            // Assert
+            assertEquals(1001, pinned.size());
+        }
+    }
+
+    @Nested
+    @DisplayName("Expiry Tests")
+    class ExpiryTests {
+
+        @Test
+        @DisplayName("Should drop snapshots idle for longer than the TTL")
+        void shouldExpireIdleSnapshots() {
+            // Arrange
+            when(leaderboardRepository.findPage(isNull(), anyInt())).thenReturn(rows(1));
+            long id = snapshots.pin().get().id();
+
+            // Act
+            clock.addAndGet((TTL_MS - 1) * 1_000_000L);
+            boolean keptWhileRead = snapshots.get(id).isPresent();
+            clock.addAndGet(TTL_MS * 1_000_000L);
+
+            // Assert
+            assertTrue(keptWhileRead);
+            assertTrue(snapshots.get(id).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should evict the least recently read snapshot beyond the limit")
+        void shouldEvictLeastRecentlyRead() {
+            // Arrange
+            when(leaderboardRepository.findPage(isNull(), anyInt())).thenReturn(rows(1));
+            long first = snapshots.pin().get().id();
+            bumpVersion();
+            long second = snapshots.pin().get().id();
+            snapshots.get(first);
+            bumpVersion();
+
+            // Act
+            long third = snapshots.pin().get().id();
+
+            // Assert
+            assertTrue(snapshots.get(first).isPresent());
+            assertTrue(snapshots.get(second).isEmpty());
+            assertTrue(snapshots.get(third).isPresent());
+            assertTrue(snapshots.get(42L).isEmpty());
+        }
+    }
+}
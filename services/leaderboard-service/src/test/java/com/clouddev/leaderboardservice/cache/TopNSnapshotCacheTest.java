@@ -0,0 +1,177 @@
+package com.clouddev.leaderboardservice.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.anyInt;
+import org.mockito.Mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.clouddev.leaderboardservice.event.ScoreChangedEvent;
+import com.clouddev.leaderboardservice.model.LeaderboardEntry;
+import com.clouddev.leaderboardservice.model.LeaderboardWindow;
+import com.clouddev.leaderboardservice.service.LeaderboardService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TopNSnapshotCache Tests")
+@SuppressWarnings("null")
+class TopNSnapshotCacheTest {
+
+    private static final long MAX_AGE_MS = 2000L;
+
+    @Mock
+    private LeaderboardService leaderboardService;
+
+    private BoardVersion boardVersion;
+
+    private AtomicLong clock;
+
+    private TopNSnapshotCache cache;
+
+    @BeforeEach
+    void setUp() {
+        boardVersion = new BoardVersion();
+        clock = new AtomicLong();
+        cache = new TopNSnapshotCache(leaderboardService, boardVersion, new ObjectMapper(), true, 100, 2,
+                MAX_AGE_MS, clock::get);
+    }
+
+    private void bumpVersion() {
+        boardVersion.onScoreChanged(new ScoreChangedEvent("user1", 1.0, 2.0, 1L, LocalDate.now()));
+    }
+
+    @Nested
+    @DisplayName("Snapshot Tests")
+    class SnapshotTests {
+
+        @Test
+        @DisplayName("Should serve the same bytes until the board changes")
+        void shouldServeCachedBytes() {
+            // Arrange
+            when(leaderboardService.getTopN(3))
+                    .thenReturn(List.of(new LeaderboardEntry("user1", "alice", 100.0, 1L, 2L)));
+
+            // Act
+            TopNSnapshotCache.Snapshot first = cache.topN(3);
+            TopNSnapshotCache.Snapshot second = cache.topN(3);
+
+            // Assert
+            assertSame(first, second);
+            verify(leaderboardService, times(1)).getTopN(3);
+            String json = new String(first.body(), StandardCharsets.UTF_8);
+            assertTrue(json.contains("\"username\":\"alice\""));
+            assertTrue(first.etag().startsWith("\"") && first.etag().endsWith("\""));
+        }
+
+        @Test
+        @DisplayName("Should rebuild after a score change bumps the version")
+        void shouldRebuildAfterVersionBump() {
+            // Arrange
+            when(leaderboardService.getTopN(3))
+                    .thenReturn(List.of(new LeaderboardEntry("user1", "alice", 100.0, 1L, 2L)))
+                    .thenReturn(List.of(new LeaderboardEntry("user1", "alice", 150.0, 1L, 2L)));
+            TopNSnapshotCache.Snapshot before = cache.topN(3);
+
+            // Act
+            bumpVersion();
+            TopNSnapshotCache.Snapshot after = cache.topN(3);
+
+            // Assert
+            verify(leaderboardService, times(2)).getTopN(3);
+            assertEquals(before.version() + 1, after.version());
+            assertNotEquals(before.etag(), after.etag());
+        }
+
+        @Test
+        @DisplayName("Should rebuild once the snapshot is older than max age")
+        void shouldRebuildWhenTooOld() {
+            // Arrange
+            when(leaderboardService.getTopN(3)).thenReturn(List.of());
+            cache.topN(3);
+
+            // Act
+            clock.addAndGet(MAX_AGE_MS * 1_000_000L);
+            cache.topN(3);
+
+            // Assert
+            verify(leaderboardService, times(2)).getTopN(3);
+        }
+
+        @Test
+        @DisplayName("Should not store more than max entries page sizes")
+        void shouldBoundStoredPageSizes() {
+            // Arrange
+            when(leaderboardService.getTopN(anyInt())).thenReturn(List.of());
+
+            // Act
+            cache.topN(1);
+            cache.topN(2);
+            cache.topN(3);
+            cache.topN(3);
+            cache.topN(1);
+
+            // Assert
+            verify(leaderboardService, times(1)).getTopN(1);
+            verify(leaderboardService, times(2)).getTopN(3);
+        }
+
+        @Test
+        @DisplayName("Should keep windowed boards apart from the all-time board")
+        void shouldKeySnapshotsByWindow() {
+            // Arrange
+            when(leaderboardService.getTopN(3))
+                    .thenReturn(List.of(new LeaderboardEntry("user1", "alice", 900.0, 1L, 2L)));
+            when(leaderboardService.getTopN(3, LeaderboardWindow.WEEK))
+                    .thenReturn(List.of(new LeaderboardEntry("user2", "bob", 40.0, 1L, 1L)));
+
+            // Act
+            TopNSnapshotCache.Snapshot allTime = cache.topN(3);
+            TopNSnapshotCache.Snapshot week = cache.topN(LeaderboardWindow.WEEK, 3);
+            TopNSnapshotCache.Snapshot weekAgain = cache.topN(LeaderboardWindow.WEEK, 3);
+
+            // Assert
+            assertNotEquals(allTime.etag(), week.etag());
+            assertSame(week, weekAgain);
+            assertTrue(new String(week.body(), StandardCharsets.UTF_8).contains("\"username\":\"bob\""));
+            verify(leaderboardService, times(1)).getTopN(3, LeaderboardWindow.WEEK);
+        }
+    }
+
+    @Nested
+    @DisplayName("ETag Tests")
+    class ETagTests {
+
+        @Test
+        @DisplayName("Should match its own ETag, weak form, lists and wildcard")
+        void shouldMatchIfNoneMatch() {
+            // Arrange
+            when(leaderboardService.getTopN(3)).thenReturn(List.of());
+            TopNSnapshotCache.Snapshot snapshot = cache.topN(3);
+            String etag = snapshot.etag();
+
+            // Act & Assert
+            assertTrue(snapshot.matches(etag));
+            assertTrue(snapshot.matches("W/" + etag));
+            assertTrue(snapshot.matches("\"other\", " + etag));
+            assertTrue(snapshot.matches("*"));
+            assertFalse(snapshot.matches("\"other\""));
+            assertFalse(snapshot.matches(null));
+        }
+    }
+}
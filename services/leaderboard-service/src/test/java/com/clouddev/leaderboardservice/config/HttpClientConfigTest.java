@@ -0,0 +1,117 @@
+package com.clouddev.leaderboardservice.config;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.http.HttpHost;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import com.sun.net.httpserver.HttpServer;
+
+@DisplayName("HttpClientConfig Tests")
+class HttpClientConfigTest {
+
+    private final HttpClientConfig config = new HttpClientConfig();
+
+    @Nested
+    @DisplayName("Route Limit Tests")
+    class RouteLimitTests {
+
+        @Test
+        @DisplayName("Should parse per-route limits")
+        void shouldParseRouteLimits() {
+            // Act
+            Map<HttpHost, Integer> limits = HttpClientConfig.parseRouteLimits("user-service:8081=50, other:80=5");
+
+            // Assert
+            assertEquals(Map.of(new HttpHost("http", "user-service", 8081), 50,
+                    new HttpHost("http", "other", 80), 5), limits);
+            assertEquals(Map.of(), HttpClientConfig.parseRouteLimits(""));
+        }
+
+        @Test
+        @DisplayName("Should reject malformed entries")
+        void shouldRejectMalformedEntries() {
+            assertThrows(IllegalArgumentException.class, () -> HttpClientConfig.parseRouteLimits("user-service=50"));
+        }
+
+        @Test
+        @DisplayName("Should apply route overrides to the pool")
+        void shouldApplyRouteOverrides() {
+            // Act
+            PoolingHttpClientConnectionManager pool = config.httpClientConnectionManager(100, 20,
+                    "user-service:8081=50", 500L, 2000L);
+
+            // Assert
+            assertEquals(50, pool.getMaxPerRoute(new HttpRoute(new HttpHost("http", "user-service", 8081))));
+            assertEquals(20, pool.getMaxPerRoute(new HttpRoute(new HttpHost("http", "other", 80))));
+            pool.close();
+        }
+    }
+
+    @Nested
+    @DisplayName("Pooling Tests")
+    class PoolingTests {
+
+        private HttpServer stub;
+
+        private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+        @BeforeEach
+        void startStub() throws IOException {
+            stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            stub.createContext("/api/users/names", exchange -> {
+                clientPorts.add(exchange.getRemoteAddress().getPort());
+                exchange.getRequestBody().readAllBytes();
+                byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            stub.start();
+        }
+
+        @AfterEach
+        void stopStub() {
+            stub.stop(0);
+        }
+
+        @Test
+        @DisplayName("Should reuse one kept-alive connection for sequential calls")
+        void shouldReuseConnection() throws IOException {
+            // Arrange
+            PoolingHttpClientConnectionManager pool = config.httpClientConnectionManager(100, 20, "", 500L, 2000L);
+            CloseableHttpClient httpClient = config.pooledHttpClient(pool, 1000L, 500L, 30_000L);
+            RestTemplate restTemplate = config.restTemplate(httpClient, false, 500L, 1000L);
+            String url = "http://127.0.0.1:" + stub.getAddress().getPort() + "/api/users/names";
+
+            // Act
+            for (int i = 0; i < 10; i++) {
+                restTemplate.postForEntity(url, List.of("user" + i), Map.class);
+            }
+
+            // Assert
+            assertEquals(1, clientPorts.size());
+            assertEquals(1, pool.getTotalStats().getAvailable());
+            httpClient.close();
+        }
+    }
+}
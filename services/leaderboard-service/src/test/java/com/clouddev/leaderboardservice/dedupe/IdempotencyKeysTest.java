@@ -0,0 +1,144 @@
+package com.clouddev.leaderboardservice.dedupe;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("IdempotencyKeys Tests")
+class IdempotencyKeysTest {
+
+    private static final long TTL_MS = 10_000L;
+    private static final int MAX_KEYS = 4;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private AtomicLong clock;
+
+    private IdempotencyKeys keys;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new AtomicLong();
+        keys = new IdempotencyKeys(meterRegistry, true, MAX_KEYS, TTL_MS, clock::get);
+    }
+
+    private double count(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+
+    @Nested
+    @DisplayName("Claim Tests")
+    class ClaimTests {
+
+        @Test
+        @DisplayName("Should drop a repeated key for the same user only")
+        void shouldDropRepeatedKey() {
+            // Act & Assert
+            assertTrue(keys.claim("user1", "workout-1"));
+            assertFalse(keys.claim("user1", "workout-1"));
+            assertTrue(keys.claim("user2", "workout-1"));
+            assertTrue(keys.claim("user1", null));
+            assertTrue(keys.claim("user1", null));
+
+            assertEquals(1.0, count("leaderboard.dedupe.hits"));
+            assertEquals(2.0, count("leaderboard.dedupe.misses"));
+            assertEquals(2.0, meterRegistry.get("leaderboard.dedupe.size").gauge().value());
+        }
+
+        @Test
+        @DisplayName("Should accept a released key again so a failed update can be retried")
+        void shouldAcceptReleasedKey() {
+            // Arrange
+            keys.claim("user1", "workout-1");
+
+            // Act
+            keys.release("user1", "workout-1");
+
+            // Assert
+            assertTrue(keys.claim("user1", "workout-1"));
+        }
+
+        @Test
+        @DisplayName("Should apply every update when disabled")
+        void shouldApplyEverythingWhenDisabled() {
+            // Arrange
+            IdempotencyKeys disabled = new IdempotencyKeys(new SimpleMeterRegistry(), false, MAX_KEYS, TTL_MS,
+                    clock::get);
+
+            // Act & Assert
+            assertTrue(disabled.claim("user1", "workout-1"));
+            assertTrue(disabled.claim("user1", "workout-1"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Window Tests")
+    class WindowTests {
+
+        @Test
+        @DisplayName("Should forget keys once their ttl has passed")
+        void shouldForgetExpiredKeys() {
+            // Arrange
+            keys.claim("user1", "workout-1");
+
+            // Act
+            clock.addAndGet(TTL_MS * 1_000_000L);
+
+            // Assert
+            assertTrue(keys.claim("user1", "workout-1"));
+        }
+
+        @Test
+        @DisplayName("Should keep the latest max-keys keys across filter generations")
+        void shouldKeepLatestKeys() {
+            // Arrange
+            for (int i = 0; i < 3 * MAX_KEYS; i++) {
+                keys.claim("user1", "workout-" + i);
+            }
+
+            // Act & Assert
+            assertEquals(MAX_KEYS, keys.size());
+            assertEquals(2.0 * MAX_KEYS, count("leaderboard.dedupe.evictions"));
+            for (int i = 2 * MAX_KEYS; i < 3 * MAX_KEYS; i++) {
+                assertFalse(keys.claim("user1", "workout-" + i), "workout-" + i);
+            }
+            assertTrue(keys.claim("user1", "workout-0"));
+        }
+    }
+
+    @Nested
+    @DisplayName("BloomFilter Tests")
+    class BloomFilterTests {
+
+        @Test
+        @DisplayName("Should never miss an added key and rarely report an unseen one")
+        void shouldStayNearTargetRate() {
+            // Arrange
+            BloomFilter filter = new BloomFilter(10_000, 0.01d);
+            for (int i = 0; i < 10_000; i++) {
+                filter.add(BloomFilter.hash("added-" + i));
+            }
+
+            // Act
+            int falsePositives = 0;
+            for (int i = 0; i < 10_000; i++) {
+                assertTrue(filter.mightContain(BloomFilter.hash("added-" + i)));
+                if (filter.mightContain(BloomFilter.hash("unseen-" + i))) {
+                    falsePositives++;
+                }
+            }
+
+            // Assert
+            assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+        }
+    }
+}
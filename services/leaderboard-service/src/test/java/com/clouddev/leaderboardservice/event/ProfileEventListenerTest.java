@@ -0,0 +1,128 @@
+package com.clouddev.leaderboardservice.event;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+import com.clouddev.leaderboardservice.names.DisplayNameUpdater;
+import com.clouddev.leaderboardservice.names.UserNameCache;
+import com.clouddev.leaderboardservice.repository.LeaderboardRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Delivers profile-changed messages in process, straight from the listener to
+ * the updater, so no RabbitMQ broker is needed.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProfileEventListener Tests")
+@SuppressWarnings("null")
+class ProfileEventListenerTest {
+
+    @Mock
+    private LeaderboardRepository leaderboardRepository;
+
+    @Mock
+    private UserNameCache userNameCache;
+
+    private ProfileEventListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new ProfileEventListener(new ObjectMapper(),
+                new DisplayNameUpdater(leaderboardRepository, userNameCache));
+    }
+
+    private static Message message(String json) {
+        return new Message(json.getBytes(StandardCharsets.UTF_8), new MessageProperties());
+    }
+
+    @Nested
+    @DisplayName("Delivery Tests")
+    class DeliveryTests {
+
+        @Test
+        @DisplayName("Should store the new display name and drop the cached one")
+        void shouldStoreDisplayName() {
+            // Arrange
+            when(leaderboardRepository.updateDisplayName("user-1", "Alice")).thenReturn(1);
+
+            // Act
+            listener.onMessage(message("""
+                    {"type":"ProfileChanged","timestamp":"2026-10-17T10:00:00Z",
+                     "data":{"userId":"user-1","name":"Alice"}}"""));
+
+            // Assert
+            verify(leaderboardRepository).updateDisplayName("user-1", "Alice");
+            verify(userNameCache).invalidate("user-1");
+        }
+
+        @Test
+        @DisplayName("Should clear the display name when the profile has none")
+        void shouldClearBlankName() {
+            // Act
+            listener.onMessage(message("""
+                    {"type":"ProfileChanged","data":{"userId":"user-1","name":"  "}}"""));
+
+            // Assert
+            verify(leaderboardRepository).updateDisplayName("user-1", null);
+        }
+
+        @Test
+        @DisplayName("Should accept events for users without an entry yet")
+        void shouldAcceptEventsForUnknownUsers() {
+            // Arrange
+            when(leaderboardRepository.updateDisplayName("new-user", "Bob")).thenReturn(0);
+
+            // Act
+            listener.onMessage(message("""
+                    {"type":"ProfileChanged","data":{"userId":"new-user","name":"Bob"}}"""));
+
+            // Assert
+            verify(userNameCache).invalidate("new-user");
+        }
+    }
+
+    @Nested
+    @DisplayName("Parsing Tests")
+    class ParsingTests {
+
+        @Test
+        @DisplayName("Should read userId and name from the event envelope")
+        void shouldParseEnvelope() {
+            // Act
+            ProfileChangedEvent event = listener.parse("""
+                    {"type":"ProfileChanged","data":{"userId":"user-1"}}""".getBytes(StandardCharsets.UTF_8));
+
+            // Assert
+            assertEquals("user-1", event.userId());
+            assertNull(event.name());
+        }
+
+        @Test
+        @DisplayName("Should reject malformed messages without requeue")
+        void shouldRejectMalformedMessages() {
+            // Act & Assert
+            assertThrows(AmqpRejectAndDontRequeueException.class, () -> listener.onMessage(message("not json")));
+            assertThrows(AmqpRejectAndDontRequeueException.class,
+                    () -> listener.onMessage(message("{\"data\":{\"name\":\"Alice\"}}")));
+            verify(leaderboardRepository, never()).updateDisplayName(anyString(), any());
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.clouddev.leaderboardservice.event;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import org.mockito.Mock;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+import com.clouddev.leaderboardservice.dedupe.IdempotencyKeys;
+import com.clouddev.leaderboardservice.model.ScoreDelta;
+import com.clouddev.leaderboardservice.model.UpsertedScore;
+import com.clouddev.leaderboardservice.service.LeaderboardService;
+import com.clouddev.leaderboardservice.shard.ShardWriteException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabbitmq.client.Channel;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Delivers workout-logged batches in process, straight from the listener to
+ * the service. WorkoutEventsBrokerTest covers acks and redelivery against a
+ * broker.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WorkoutEventListener Tests")
+@SuppressWarnings("null")
+class WorkoutEventListenerTest {
+
+    @Mock
+    private LeaderboardService leaderboardService;
+
+    @Mock
+    private Channel channel;
+
+    private WorkoutEventListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new WorkoutEventListener(new ObjectMapper(), leaderboardService,
+                new IdempotencyKeys(new SimpleMeterRegistry(), true, 100, 60_000L));
+    }
+
+    private static Message message(long deliveryTag, String json) {
+        MessageProperties properties = new MessageProperties();
+        properties.setDeliveryTag(deliveryTag);
+        return new Message(json.getBytes(StandardCharsets.UTF_8), properties);
+    }
+
+    private Optional<WorkoutEventListener.LoggedWorkout> parse(String json) {
+        return listener.parse(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Nested
+    @DisplayName("Delivery Tests")
+    class DeliveryTests {
+
+        @Test
+        @DisplayName("Should apply a whole batch with one call and leave out messages worth nothing")
+        void shouldApplyBatchOnce() throws IOException {
+            // Act
+            listener.onMessages(List.of(
+                    message(1L, """
+                            {"type":"WorkoutLogged","timestamp":"2026-10-17T10:00:00Z",
+                             "data":{"userId":"user-1","duration":30,"calories":200}}"""),
+                    message(2L, "not json"),
+                    message(3L, """
+                            {"type":"WorkoutLogged","data":{"userId":"user-2","duration":0,"calories":0}}"""),
+                    message(4L, """
+                            {"type":"WorkoutLogged","timestamp":"2026-10-16T23:59:00Z",
+                             "data":{"userId":"user-3","duration":"45","calories":"120.5"}}""")), channel);
+
+            // Assert
+            verify(leaderboardService).applyScoreDeltas(List.of(
+                    new ScoreDelta("user-1", 30 + 200 * 0.1, LocalDate.of(2026, 10, 17)),
+                    new ScoreDelta("user-3", 45 + 120.5 * 0.1, LocalDate.of(2026, 10, 16))));
+            verify(channel).basicAck(4L, true);
+        }
+
+        @Test
+        @DisplayName("Should requeue every message of a batch that fails to apply")
+        void shouldRequeueFailedBatch() throws IOException {
+            // Arrange
+            doThrow(new IllegalStateException("database unavailable"))
+                    .when(leaderboardService).applyScoreDeltas(anyList());
+
+            // Act
+            listener.onMessages(List.of(
+                    message(7L, "{\"type\":\"WorkoutLogged\",\"data\":{\"userId\":\"user-1\",\"duration\":5}}"),
+                    message(8L, "not json")), channel);
+
+            // Assert
+            verify(channel).basicNack(7L, false, true);
+            verify(channel).basicNack(8L, false, true);
+            verify(channel, never()).basicAck(anyLong(), anyBoolean());
+        }
+
+        @Test
+        @DisplayName("Should ack the workouts a shard committed and requeue only the rest")
+        void shouldRequeueOnlyUncommittedShards() throws IOException {
+            // Arrange
+            String first = """
+                    {"type":"WorkoutLogged","data":{"workoutId":1,"userId":"user-1","duration":5}}""";
+            String second = """
+                    {"type":"WorkoutLogged","data":{"workoutId":2,"userId":"user-2","duration":5}}""";
+            doThrow(new ShardWriteException(List.of(new UpsertedScore("user-1", 5.0, 1L, null, null)),
+                    new IllegalStateException("shard unavailable"))).doNothing()
+                    .when(leaderboardService).applyScoreDeltas(anyList());
+            listener.onMessages(List.of(message(1L, first), message(2L, second)), channel);
+
+            // Act: the broker redelivers both, as a requeue after a crash would
+            listener.onMessages(List.of(message(3L, first), message(4L, second)), channel);
+
+            // Assert
+            verify(channel).basicAck(1L, false);
+            verify(channel).basicNack(2L, false, true);
+            verify(leaderboardService).applyScoreDeltas(
+                    List.of(new ScoreDelta("user-2", 5.0, LocalDate.now(ZoneOffset.UTC))));
+            verify(channel).basicAck(4L, true);
+        }
+
+        @Test
+        @DisplayName("Should score a redelivered workout once and retry one whose batch failed")
+        void shouldScoreEachWorkoutOnce() throws IOException {
+            // Arrange
+            String workout = """
+                    {"type":"WorkoutLogged","data":{"workoutId":42,"userId":"user-1","duration":5}}""";
+            doThrow(new IllegalStateException("database unavailable")).doNothing()
+                    .when(leaderboardService).applyScoreDeltas(anyList());
+            listener.onMessages(List.of(message(1L, workout)), channel);
+
+            // Act
+            listener.onMessages(List.of(message(2L, workout), message(3L, workout)), channel);
+            listener.onMessages(List.of(message(4L, workout)), channel);
+
+            // Assert
+            ScoreDelta delta = new ScoreDelta("user-1", 5.0, LocalDate.now(ZoneOffset.UTC));
+            verify(leaderboardService, times(2)).applyScoreDeltas(List.of(delta));
+            verify(leaderboardService).applyScoreDeltas(List.of());
+            verify(channel).basicAck(4L, true);
+        }
+    }
+
+    @Nested
+    @DisplayName("Parsing Tests")
+    class ParsingTests {
+
+        @Test
+        @DisplayName("Should fall back to today when the timestamp is missing or not an instant")
+        void shouldDefaultActivityDate() {
+            // Act
+            Optional<WorkoutEventListener.LoggedWorkout> missing = parse("""
+                    {"type":"WorkoutLogged","data":{"userId":"user-1","duration":10}}""");
+            Optional<WorkoutEventListener.LoggedWorkout> local = parse("""
+                    {"type":"WorkoutLogged","timestamp":"2026-10-17 10:00","data":{"userId":"user-1","duration":10}}""");
+
+            // Assert
+            LocalDate today = LocalDate.now(ZoneOffset.UTC);
+            assertEquals(today, missing.orElseThrow().delta().activityDate());
+            assertEquals(today, local.orElseThrow().delta().activityDate());
+        }
+
+        @Test
+        @DisplayName("Should skip other event types and events without a usable userId")
+        void shouldSkipUnusableEvents() {
+            // Act & Assert
+            assertTrue(parse("""
+                    {"type":"WorkoutDeleted","data":{"userId":"user-1","duration":10}}""").isEmpty());
+            assertTrue(parse("""
+                    {"type":"WorkoutLogged","data":{"duration":10}}""").isEmpty());
+            assertTrue(parse("""
+                    {"type":"WorkoutLogged","data":{"userId":" ","duration":10}}""").isEmpty());
+            assertTrue(parse("""
+                    {"type":"WorkoutLogged","data":{"userId":"%s","duration":10}}""".formatted("u".repeat(256)))
+                    .isEmpty());
+            assertTrue(parse("""
+                    {"type":"WorkoutLogged","data":{"userId":"user-1","duration":-5}}""").isEmpty());
+        }
+    }
+}
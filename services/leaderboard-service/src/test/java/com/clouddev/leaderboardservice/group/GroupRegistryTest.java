@@ -0,0 +1,92 @@
+package com.clouddev.leaderboardservice.group;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("GroupRegistry Tests")
+class GroupRegistryTest {
+
+    private GroupRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new GroupRegistry(2, 3);
+    }
+
+    @Nested
+    @DisplayName("Membership Tests")
+    class MembershipTests {
+
+        @Test
+        @DisplayName("Should replace members and share interned IDs between groups")
+        void shouldReplaceMembers() {
+            // Arrange
+            registry.put("challenge-1", List.of("alice", "bob", "alice"));
+            registry.put("friends-1", List.of("carol", "bob"));
+
+            // Act
+            registry.put("challenge-1", List.of("carol", "dave"));
+
+            // Assert
+            assertEquals(List.of("carol", "dave"), registry.members("challenge-1").orElseThrow());
+            assertEquals(List.of("bob", "carol"), registry.members("friends-1").orElseThrow());
+        }
+
+        @Test
+        @DisplayName("Should add and remove members without touching the published set")
+        void shouldAddAndRemoveMembers() {
+            // Arrange
+            registry.put("friends-1", List.of("alice"));
+            List<String> before = registry.members("friends-1").orElseThrow();
+
+            // Act
+            registry.addMembers("friends-1", List.of("bob", "carol"));
+            registry.removeMembers("friends-1", List.of("alice", "never-seen"));
+
+            // Assert
+            assertEquals(List.of("bob", "carol"), registry.members("friends-1").orElseThrow());
+            assertEquals(List.of("alice"), before);
+            assertFalse(registry.removeMembers("missing", List.of("bob")));
+        }
+    }
+
+    @Nested
+    @DisplayName("Limit Tests")
+    class LimitTests {
+
+        @Test
+        @DisplayName("Should refuse new groups past max-groups but still replace existing ones")
+        void shouldLimitGroups() {
+            // Arrange
+            registry.put("g1", List.of("alice"));
+            registry.put("g2", List.of("bob"));
+
+            // Act & Assert
+            assertFalse(registry.put("g3", List.of("carol")));
+            assertTrue(registry.put("g1", List.of("carol")));
+            assertTrue(registry.remove("g2"));
+            assertTrue(registry.put("g3", List.of("carol")));
+            assertEquals(2, registry.size());
+        }
+
+        @Test
+        @DisplayName("Should refuse growing a group past max-members")
+        void shouldLimitMembers() {
+            // Arrange
+            registry.put("g1", List.of("alice", "bob"));
+
+            // Act & Assert
+            assertThrows(IllegalArgumentException.class,
+                    () -> registry.addMembers("g1", List.of("carol", "dave")));
+            assertEquals(List.of("alice", "bob"), registry.members("g1").orElseThrow());
+        }
+    }
+}
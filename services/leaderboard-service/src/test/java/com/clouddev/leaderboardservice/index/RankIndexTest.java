@@ -0,0 +1,285 @@
+package com.clouddev.leaderboardservice.index;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.clouddev.leaderboardservice.entity.LeaderboardEntryEntity;
+import com.clouddev.leaderboardservice.event.ScoreChangedEvent;
+import com.clouddev.leaderboardservice.repository.LeaderboardRepository;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RankIndex Tests")
+@SuppressWarnings("null")
+class RankIndexTest {
+
+    @Mock
+    private LeaderboardRepository leaderboardRepository;
+
+    private RankIndex rankIndex;
+
+    @BeforeEach
+    void setUp() {
+        rankIndex = new RankIndex(leaderboardRepository, true, 2);
+    }
+
+    @Nested
+    @DisplayName("Ranking Tests")
+    class RankingTests {
+
+        @Test
+        @DisplayName("Should rank users by score descending")
+        void shouldRankUsersByScoreDescending() {
+            // Arrange
+            rankIndex.put("user1", 100.0, 1L);
+            rankIndex.put("user2", 300.0, 2L);
+            rankIndex.put("user3", 200.0, 3L);
+
+            // Act & Assert
+            assertEquals(1L, rankIndex.rankOf("user2").get().rank());
+            assertEquals(2L, rankIndex.rankOf("user3").get().rank());
+            assertEquals(3L, rankIndex.rankOf("user1").get().rank());
+            assertEquals(3L, rankIndex.rankOf("user3").get().streak());
+        }
+
+        @Test
+        @DisplayName("Should rank a member set among itself and skip users not on the board")
+        void shouldRankAmongMembers() {
+            // Arrange
+            rankIndex.put("user1", 100.0, 1L);
+            rankIndex.put("user2", 300.0, 2L);
+            rankIndex.put("user3", 200.0, 3L);
+            rankIndex.put("user4", 100.0, 4L);
+
+            // Act
+            List<RankedEntry> ranked = rankIndex.rankAmong(List.of("user4", "user1", "user3", "missing"));
+
+            // Assert
+            assertEquals(List.of(
+                    new RankedEntry("user3", 200.0, 3L, 1L),
+                    new RankedEntry("user1", 100.0, 1L, 2L),
+                    new RankedEntry("user4", 100.0, 4L, 3L)), ranked);
+        }
+
+        @Test
+        @DisplayName("Should give tied users the same rank")
+        void shouldGiveTiedUsersSameRank() {
+            // Arrange
+            rankIndex.put("a", 500.0, 1L);
+            rankIndex.put("b", 200.0, 1L);
+            rankIndex.put("c", 200.0, 1L);
+            rankIndex.put("d", 100.0, 1L);
+
+            // Act & Assert
+            assertEquals(2L, rankIndex.rankOf("b").get().rank());
+            assertEquals(2L, rankIndex.rankOf("c").get().rank());
+            assertEquals(4L, rankIndex.rankOf("d").get().rank());
+        }
+
+        @Test
+        @DisplayName("Should move user when score changes")
+        void shouldMoveUserWhenScoreChanges() {
+            // Arrange
+            rankIndex.put("user1", 100.0, 1L);
+            rankIndex.put("user2", 200.0, 1L);
+
+            // Act
+            rankIndex.onScoreChanged(new ScoreChangedEvent("user1", 100.0, 250.0, 2L, LocalDate.now()));
+
+            // Assert
+            assertEquals(1L, rankIndex.rankOf("user1").get().rank());
+            assertEquals(2L, rankIndex.rankOf("user2").get().rank());
+            assertEquals(2, rankIndex.size());
+        }
+
+        @Test
+        @DisplayName("Should reload the row when events arrive out of commit order")
+        void shouldReloadOnOutOfOrderEvents() {
+            // Arrange
+            LocalDate today = LocalDate.now();
+            rankIndex.put("user1", 100.0, 1L);
+            rankIndex.put("user2", 175.0, 1L);
+            when(leaderboardRepository.findById("user1"))
+                    .thenReturn(Optional.of(new LeaderboardEntryEntity("user1", 200.0, 3L, today)));
+
+            // Act: the second commit's event is delivered first
+            rankIndex.onScoreChanged(new ScoreChangedEvent("user1", 150.0, 200.0, 3L, today));
+            rankIndex.onScoreChanged(new ScoreChangedEvent("user1", 100.0, 150.0, 2L, today));
+
+            // Assert
+            assertEquals(200.0, rankIndex.rankOf("user1").get().score());
+            assertEquals(3L, rankIndex.rankOf("user1").get().streak());
+            assertEquals(1L, rankIndex.rankOf("user1").get().rank());
+            verify(leaderboardRepository, times(2)).findById("user1");
+        }
+
+        @Test
+        @DisplayName("Should return empty for unknown user")
+        void shouldReturnEmptyForUnknownUser() {
+            assertTrue(rankIndex.rankOf("missing").isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should return top N in board order")
+        void shouldReturnTopNInBoardOrder() {
+            // Arrange
+            rankIndex.put("user1", 10.0, 1L);
+            rankIndex.put("user2", 30.0, 1L);
+            rankIndex.put("user3", 20.0, 1L);
+
+            // Act
+            List<RankedEntry> top = rankIndex.top(2);
+
+            // Assert
+            assertEquals(2, top.size());
+            assertEquals("user2", top.get(0).userId());
+            assertEquals(1L, top.get(0).rank());
+            assertEquals("user3", top.get(1).userId());
+            assertEquals(2L, top.get(1).rank());
+            assertEquals(3, rankIndex.top(50).size());
+        }
+
+        @Test
+        @DisplayName("Should return k entries either side in board order")
+        void shouldReturnEntriesAround() {
+            // Arrange
+            for (int i = 1; i <= 10; i++) {
+                rankIndex.put("user" + i, i * 10.0, 1L);
+            }
+            rankIndex.put("zed", 50.0, 1L);
+
+            // Act
+            List<RankedEntry> middle = rankIndex.around("user5", 2);
+            List<RankedEntry> top = rankIndex.around("user10", 2);
+            List<RankedEntry> bottom = rankIndex.around("user1", 1);
+
+            // Assert
+            assertEquals(List.of("user7", "user6", "user5", "zed", "user4"),
+                    middle.stream().map(RankedEntry::userId).toList());
+            assertEquals(List.of(4L, 5L, 6L, 6L, 8L), middle.stream().map(RankedEntry::rank).toList());
+            assertEquals(rankIndex.rankOf("zed").orElseThrow().rank(),
+                    rankIndex.around("zed", 0).get(0).rank());
+            assertEquals(List.of(1L, 2L, 3L), top.stream().map(RankedEntry::rank).toList());
+            assertEquals(List.of("user2", "user1"), bottom.stream().map(RankedEntry::userId).toList());
+            assertEquals(11L, bottom.get(1).rank());
+            assertTrue(rankIndex.around("missing", 2).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should page after a key even when that user has since moved")
+        void shouldPageAfterKey() {
+            // Arrange
+            rankIndex.put("a", 30.0, 1L);
+            rankIndex.put("b", 20.0, 1L);
+            rankIndex.put("c", 20.0, 1L);
+            rankIndex.put("d", 10.0, 1L);
+
+            // Act
+            List<RankedEntry> afterB = rankIndex.after(20.0, "b", 5);
+            rankIndex.put("b", 40.0, 1L);
+            List<RankedEntry> afterMovedB = rankIndex.after(20.0, "b", 5);
+
+            // Assert
+            assertEquals(List.of("c", "d"), afterB.stream().map(RankedEntry::userId).toList());
+            assertEquals(3L, afterB.get(0).rank());
+            assertEquals(List.of("c", "d"), afterMovedB.stream().map(RankedEntry::userId).toList());
+            assertEquals(3L, afterMovedB.get(0).rank());
+            assertTrue(rankIndex.after(10.0, "d", 5).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should agree with a brute-force count under random updates")
+        void shouldAgreeWithBruteForce() {
+            // Arrange
+            Random random = new Random(42);
+            Map<String, Double> expected = new HashMap<>();
+
+            // Act
+            for (int i = 0; i < 5000; i++) {
+                String userId = "user" + random.nextInt(300);
+                double score = random.nextInt(50) * 10.0;
+                rankIndex.put(userId, score, 1L);
+                expected.put(userId, score);
+            }
+
+            // Assert
+            for (Map.Entry<String, Double> entry : expected.entrySet()) {
+                long higher = expected.values().stream().filter(score -> score > entry.getValue()).count();
+                assertEquals(higher + 1L, rankIndex.rankOf(entry.getKey()).get().rank());
+            }
+
+            List<Double> sortedScores = new ArrayList<>(expected.values());
+            sortedScores.sort(Collections.reverseOrder());
+            List<RankedEntry> top = rankIndex.top(expected.size());
+            for (int i = 0; i < top.size(); i++) {
+                assertEquals(sortedScores.get(i), top.get(i).score());
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Loading Tests")
+    class LoadingTests {
+
+        @Test
+        @DisplayName("Should load all pages and become ready")
+        void shouldLoadAllPagesAndBecomeReady() {
+            // Arrange
+            LocalDate today = LocalDate.now();
+            when(leaderboardRepository.findByUserIdGreaterThanOrderByUserIdAsc(eq(""), any()))
+                    .thenReturn(Arrays.asList(
+                            new LeaderboardEntryEntity("a", 10.0, 1L, today),
+                            new LeaderboardEntryEntity("b", 30.0, 1L, today)));
+            when(leaderboardRepository.findByUserIdGreaterThanOrderByUserIdAsc(eq("b"), any()))
+                    .thenReturn(List.of(new LeaderboardEntryEntity("c", 20.0, 4L, today)));
+            assertFalse(rankIndex.isServing());
+
+            // Act
+            rankIndex.load();
+
+            // Assert
+            assertTrue(rankIndex.isServing());
+            assertEquals(3, rankIndex.size());
+            assertEquals(2L, rankIndex.rankOf("c").get().rank());
+        }
+
+        @Test
+        @DisplayName("Should keep newer scores that arrive while loading")
+        void shouldKeepNewerScoresThatArriveWhileLoading() {
+            // Arrange
+            LocalDate today = LocalDate.now();
+            rankIndex.put("a", 99.0, 2L);
+            when(leaderboardRepository.findByUserIdGreaterThanOrderByUserIdAsc(eq(""), any()))
+                    .thenReturn(List.of(new LeaderboardEntryEntity("a", 10.0, 1L, today)));
+
+            // Act
+            rankIndex.load();
+
+            // Assert
+            assertEquals(99.0, rankIndex.rankOf("a").get().score());
+            assertEquals(1, rankIndex.size());
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.clouddev.leaderboardservice.index;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.notNull;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.clouddev.leaderboardservice.event.ScoreChangedEvent;
+import com.clouddev.leaderboardservice.model.ScoreDistribution;
+import com.clouddev.leaderboardservice.model.WindowedScore;
+import com.clouddev.leaderboardservice.repository.LeaderboardRepository;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ScoreHistogram Tests")
+@SuppressWarnings("null")
+class ScoreHistogramTest {
+
+    @Mock
+    private LeaderboardRepository leaderboardRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ScoreHistogram histogram;
+
+    @BeforeEach
+    void setUp() {
+        histogram = new ScoreHistogram(leaderboardRepository, transactionManager, true, 4, 1000);
+    }
+
+    private void loadScores(double... scores) {
+        List<WindowedScore> rows = new ArrayList<>();
+        for (int i = 0; i < scores.length; i++) {
+            rows.add(new WindowedScore("user" + i, scores[i], 1L, null, i + 1L));
+        }
+        when(leaderboardRepository.findPage(isNull(), anyInt())).thenReturn(rows);
+        histogram.load();
+    }
+
+    private static ScoreChangedEvent changed(String userId, Double previous, double score) {
+        return new ScoreChangedEvent(userId, previous, score, 1L, LocalDate.now());
+    }
+
+    @Nested
+    @DisplayName("Bucket Tests")
+    class BucketTests {
+
+        @Test
+        @DisplayName("Should place every value inside its bucket within the relative width")
+        void shouldBoundBucketWidth() {
+            // Arrange
+            LogHistogram buckets = new LogHistogram(4);
+            Random random = new Random(7);
+
+            // Act & Assert
+            for (int i = 0; i < 10_000; i++) {
+                double value = Math.floor(Math.pow(10, random.nextDouble() * 12));
+                int bucket = buckets.bucketOf(value);
+                assertTrue(buckets.lowerBound(bucket) <= value, "lower bound of " + value);
+                assertTrue(value < buckets.upperBound(bucket), "upper bound of " + value);
+                double width = buckets.upperBound(bucket) - buckets.lowerBound(bucket);
+                assertTrue(width <= Math.max(1.0, buckets.lowerBound(bucket) / 16.0), "width at " + value);
+            }
+            assertEquals(0, buckets.bucketOf(-50.0));
+            assertEquals(buckets.bucketCount() - 1, buckets.bucketOf(Double.MAX_VALUE));
+        }
+
+        @Test
+        @DisplayName("Should move a count between buckets without changing the total")
+        void shouldMoveCounts() {
+            // Arrange
+            LogHistogram buckets = new LogHistogram(4);
+            buckets.record(10.0);
+
+            // Act
+            buckets.move(10.0, 5000.0);
+
+            // Assert
+            assertEquals(0L, buckets.count(buckets.bucketOf(10.0)));
+            assertEquals(1L, buckets.count(buckets.bucketOf(5000.0)));
+            assertEquals(1L, buckets.total());
+        }
+    }
+
+    @Nested
+    @DisplayName("Loading Tests")
+    class LoadingTests {
+
+        @Test
+        @DisplayName("Should not serve before it has been loaded")
+        void shouldNotServeBeforeLoad() {
+            // Act
+            histogram.onScoreChanged(changed("user1", null, 10.0));
+
+            // Assert
+            assertFalse(histogram.isReady());
+            assertThrows(IllegalStateException.class, () -> histogram.topPercent(10.0));
+        }
+
+        @Test
+        @DisplayName("Should add changes that arrive during the scan after it finishes")
+        void shouldApplyChangesDuringScan() {
+            // Arrange
+            histogram = new ScoreHistogram(leaderboardRepository, transactionManager, true, 4, 1);
+            when(leaderboardRepository.findPage(isNull(), anyInt()))
+                    .thenReturn(List.of(new WindowedScore("user1", 30.0, 1L, null, 1L)));
+            when(leaderboardRepository.findPage(notNull(), anyInt())).thenAnswer(invocation -> {
+                // Committed after the scan's snapshot, so only the event carries it
+                histogram.onScoreChanged(changed("late", null, 500.0));
+                histogram.onScoreChanged(changed("user0", 10.0, 20.0));
+                return List.of(new WindowedScore("user0", 10.0, 1L, null, 2L));
+            }).thenReturn(List.of());
+
+            // Act
+            histogram.load();
+
+            // Assert
+            assertTrue(histogram.isReady());
+            ScoreDistribution distribution = histogram.distribution();
+            assertEquals(3L, distribution.total());
+            assertEquals(List.of(new ScoreDistribution.Bucket(20.0, 21.0, 1L),
+                    new ScoreDistribution.Bucket(30.0, 31.0, 1L),
+                    new ScoreDistribution.Bucket(496.0, 512.0, 1L)), distribution.buckets());
+        }
+
+        @Test
+        @DisplayName("Should take its snapshot only after a commit in progress has delivered its change")
+        void shouldNotCountChangeCommittedBeforeSnapshotTwice() throws InterruptedException {
+            // Arrange
+            when(leaderboardRepository.findPage(isNull(), anyInt()))
+                    .thenReturn(List.of(new WindowedScore("user0", 20.0, 1L, null, 1L)));
+            TransactionSynchronizationManager.initSynchronization();
+            Thread loader;
+            try {
+                histogram.holdCommit(changed("user0", 10.0, 20.0));
+                loader = new Thread(histogram::load);
+                loader.start();
+                loader.join(200L);
+
+                // Act: the writer commits and delivers its change while the load waits
+                assertTrue(loader.isAlive(), "load took its snapshot during a commit");
+                histogram.onScoreChanged(changed("user0", 10.0, 20.0));
+                TransactionSynchronizationManager.getSynchronizations()
+                        .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+            loader.join(5000L);
+
+            // Assert
+            assertEquals(List.of(new ScoreDistribution.Bucket(20.0, 21.0, 1L)), histogram.distribution().buckets());
+        }
+    }
+
+    @Nested
+    @DisplayName("Percentile Tests")
+    class PercentileTests {
+
+        @Test
+        @DisplayName("Should report the share of users at or above a score")
+        void shouldReportTopPercent() {
+            // Arrange
+            double[] scores = new double[100];
+            for (int i = 0; i < scores.length; i++) {
+                scores[i] = i + 1.0;
+            }
+            loadScores(scores);
+
+            // Act & Assert
+            assertEquals(1.0, histogram.topPercent(100.0), 1.0);
+            assertEquals(50.0, histogram.topPercent(51.0), 3.0);
+            assertEquals(100.0, histogram.topPercent(1.0), 0.001);
+        }
+
+        @Test
+        @DisplayName("Should follow score changes after loading")
+        void shouldFollowScoreChanges() {
+            // Arrange
+            loadScores(10.0, 20.0, 30.0, 40.0);
+
+            // Act
+            histogram.onScoreChanged(changed("user0", 10.0, 1000.0));
+            histogram.onScoreChanged(changed("new", null, 5.0));
+
+            // Assert
+            assertEquals(5L, histogram.total());
+            assertEquals(20.0, histogram.topPercent(1000.0), 0.001);
+            assertEquals(100.0, histogram.topPercent(5.0), 0.001);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.clouddev.leaderboardservice.names;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("UserNameCache Tests")
+class UserNameCacheTest {
+
+    private static final long TTL_MS = 10_000L;
+    private static final long NEGATIVE_TTL_MS = 1_000L;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private AtomicLong clock;
+
+    private UserNameCache cache;
+
+    private List<Set<String>> loaderCalls;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new AtomicLong();
+        cache = new UserNameCache(meterRegistry, true, 3, TTL_MS, NEGATIVE_TTL_MS, clock::get);
+        loaderCalls = new ArrayList<>();
+    }
+
+    private Map<String, String> lookup(String... userIds) {
+        return cache.getAll(List.of(userIds), missing -> {
+            loaderCalls.add(Set.copyOf(missing));
+            return Map.of("user1", "alice", "user2", "bob", "user3", "carol", "user4", "dave");
+        });
+    }
+
+    private double count(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+
+    @Nested
+    @DisplayName("Lookup Tests")
+    class LookupTests {
+
+        @Test
+        @DisplayName("Should only send misses to the loader")
+        void shouldOnlyLoadMisses() {
+            // Arrange
+            lookup("user1");
+
+            // Act
+            Map<String, String> names = lookup("user1", "user2");
+
+            // Assert
+            assertEquals(Map.of("user1", "alice", "user2", "bob"), names);
+            assertEquals(List.of(Set.of("user1"), Set.of("user2")), loaderCalls);
+            assertEquals(1.0, count("leaderboard.username.cache.hits"));
+            assertEquals(2.0, count("leaderboard.username.cache.misses"));
+        }
+
+        @Test
+        @DisplayName("Should remember IDs without a name until the negative TTL passes")
+        void shouldCacheNegativeEntries() {
+            // Arrange
+            lookup("ghost");
+
+            // Act
+            Map<String, String> cached = lookup("ghost");
+            clock.addAndGet(NEGATIVE_TTL_MS * 1_000_000L);
+            lookup("ghost");
+
+            // Assert
+            assertTrue(cached.isEmpty());
+            assertEquals(2, loaderCalls.size());
+        }
+
+        @Test
+        @DisplayName("Should reload names after the TTL passes")
+        void shouldExpireAfterTtl() {
+            // Arrange
+            lookup("user1");
+
+            // Act
+            clock.addAndGet(TTL_MS * 1_000_000L);
+            lookup("user1");
+
+            // Assert
+            assertEquals(2, loaderCalls.size());
+        }
+
+        @Test
+        @DisplayName("Should not cache anything when the loader fails")
+        void shouldNotCacheOnFailure() {
+            // Arrange
+            lookup("user1");
+
+            // Act
+            Map<String, String> names = cache.getAll(List.of("user1", "user2"), missing -> {
+                throw new IllegalStateException("user-service down");
+            });
+            lookup("user2");
+
+            // Assert
+            assertEquals(Map.of("user1", "alice"), names);
+            assertEquals(List.of(Set.of("user1"), Set.of("user2")), loaderCalls);
+        }
+    }
+
+    @Nested
+    @DisplayName("Eviction Tests")
+    class EvictionTests {
+
+        @Test
+        @DisplayName("Should evict the least recently used entry when full")
+        void shouldEvictLeastRecentlyUsed() {
+            // Arrange
+            lookup("user1", "user2", "user3");
+            lookup("user1");
+
+            // Act
+            lookup("user4");
+            lookup("user1", "user2");
+
+            // Assert
+            assertEquals(3, cache.size());
+            assertEquals(Set.of("user2"), loaderCalls.get(loaderCalls.size() - 1));
+            assertEquals(2.0, count("leaderboard.username.cache.evictions"));
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.clouddev.leaderboardservice.names;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.ArgumentMatchers.any;
+import org.mockito.Mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UserNameResolver Tests")
+@SuppressWarnings({ "unchecked", "null" })
+class UserNameResolverTest {
+
+    private static final Map<String, String> NAMES = Map.of("user1", "alice", "user2", "bob", "user3", "carol");
+
+    @Mock
+    private UserServiceClient userServiceClient;
+
+    private UserNameResolver resolver;
+
+    @AfterEach
+    void tearDown() {
+        if (resolver != null) {
+            resolver.close();
+        }
+    }
+
+    @Nested
+    @DisplayName("Coalescing Tests")
+    class CoalescingTests {
+
+        @Test
+        @DisplayName("Should send concurrent lookups as one call and split the answer")
+        void shouldCoalesceConcurrentLookups() throws Exception {
+            // Arrange
+            resolver = new UserNameResolver(userServiceClient, true, 200, 100, 2, 4, 5_000);
+            when(userServiceClient.fetchNames(any())).thenReturn(NAMES);
+            int callers = 3;
+            CountDownLatch start = new CountDownLatch(1);
+            ExecutorService executor = Executors.newFixedThreadPool(callers);
+            List<CompletableFuture<Map<String, String>>> results = new ArrayList<>();
+
+            // Act
+            for (int i = 1; i <= callers; i++) {
+                String userId = "user" + i;
+                results.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return resolver.resolve(Set.of(userId));
+                }, executor));
+            }
+            start.countDown();
+
+            // Assert
+            for (int i = 1; i <= callers; i++) {
+                assertEquals(Map.of("user" + i, NAMES.get("user" + i)), results.get(i - 1).get(5, TimeUnit.SECONDS));
+            }
+            ArgumentCaptor<Set<String>> captor = ArgumentCaptor.forClass(Set.class);
+            verify(userServiceClient, times(1)).fetchNames(captor.capture());
+            assertEquals(Set.of("user1", "user2", "user3"), captor.getValue());
+            executor.shutdown();
+        }
+
+        @Test
+        @DisplayName("Should send a batch early once it reaches the size limit")
+        void shouldDispatchWhenBatchIsFull() throws Exception {
+            // Arrange
+            resolver = new UserNameResolver(userServiceClient, true, 60_000, 2, 2, 4, 5_000);
+            when(userServiceClient.fetchNames(any())).thenReturn(NAMES);
+
+            // Act
+            CompletableFuture<Map<String, String>> first = resolver.load(Set.of("user1"));
+            CompletableFuture<Map<String, String>> second = resolver.load(Set.of("user2"));
+
+            // Assert
+            assertEquals(Map.of("user1", "alice"), first.get(5, TimeUnit.SECONDS));
+            assertEquals(Map.of("user2", "bob"), second.get(5, TimeUnit.SECONDS));
+            verify(userServiceClient, times(1)).fetchNames(Set.of("user1", "user2"));
+        }
+
+        @Test
+        @DisplayName("Should leave out IDs without a name")
+        void shouldLeaveOutUnknownIds() {
+            // Arrange
+            resolver = new UserNameResolver(userServiceClient, true, 1, 100, 1, 4, 5_000);
+            when(userServiceClient.fetchNames(any())).thenReturn(NAMES);
+
+            // Act
+            Map<String, String> names = resolver.resolve(Set.of("user1", "ghost"));
+
+            // Assert
+            assertEquals(Map.of("user1", "alice"), names);
+        }
+    }
+
+    @Nested
+    @DisplayName("Failure Tests")
+    class FailureTests {
+
+        @Test
+        @DisplayName("Should fail every caller in the batch when the call fails")
+        void shouldFailEveryCaller() {
+            // Arrange
+            resolver = new UserNameResolver(userServiceClient, true, 60_000, 2, 1, 4, 5_000);
+            when(userServiceClient.fetchNames(any())).thenThrow(new IllegalStateException("user-service down"));
+
+            // Act
+            CompletableFuture<Map<String, String>> first = resolver.load(Set.of("user1"));
+            CompletableFuture<Map<String, String>> second = resolver.load(Set.of("user2"));
+
+            // Assert
+            CompletionException error = assertThrows(CompletionException.class, first::join);
+            assertTrue(error.getCause() instanceof IllegalStateException);
+            assertThrows(CompletionException.class, second::join);
+        }
+
+        @Test
+        @DisplayName("Should give up waiting after max-wait-ms while user-service is slow")
+        void shouldStopWaitingForSlowUserService() throws Exception {
+            // Arrange
+            resolver = new UserNameResolver(userServiceClient, true, 1, 100, 1, 4, 100);
+            CountDownLatch release = new CountDownLatch(1);
+            when(userServiceClient.fetchNames(any())).thenAnswer(invocation -> {
+                release.await();
+                return NAMES;
+            });
+
+            // Act
+            long started = System.nanoTime();
+            assertThrows(UserServiceUnavailableException.class, () -> resolver.resolve(Set.of("user1")));
+            long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            release.countDown();
+
+            // Assert
+            assertTrue(waitedMs < 1000, "waited " + waitedMs + " ms");
+        }
+
+        @Test
+        @DisplayName("Should answer later batches while an earlier call is still running")
+        void shouldNotQueueBehindSlowCall() throws Exception {
+            // Arrange
+            resolver = new UserNameResolver(userServiceClient, true, 1, 100, 1, 4, 5_000);
+            CountDownLatch release = new CountDownLatch(1);
+            when(userServiceClient.fetchNames(any())).thenAnswer(invocation -> {
+                Set<String> userIds = invocation.getArgument(0);
+                if (userIds.contains("user1")) {
+                    release.await();
+                }
+                return NAMES;
+            });
+            CompletableFuture<Map<String, String>> slow = resolver.load(Set.of("user1"));
+            // Let the first window close so the next lookup opens a new batch
+            Thread.sleep(50);
+
+            // Act
+            Map<String, String> names = resolver.load(Set.of("user2")).get(5, TimeUnit.SECONDS);
+
+            // Assert
+            assertEquals(Map.of("user2", "bob"), names);
+            release.countDown();
+            assertEquals(Map.of("user1", "alice"), slow.get(5, TimeUnit.SECONDS));
+        }
+
+        @Test
+        @DisplayName("Should call user-service directly when disabled")
+        void shouldCallDirectlyWhenDisabled() {
+            // Arrange
+            resolver = new UserNameResolver(userServiceClient, false, 60_000, 100, 1, 4, 5_000);
+            when(userServiceClient.fetchNames(Set.of("user1"))).thenReturn(Map.of("user1", "alice"));
+
+            // Act & Assert
+            assertEquals(Map.of("user1", "alice"), resolver.resolve(Set.of("user1")));
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.clouddev.leaderboardservice.names;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Runs UserServiceClient against a local stub of /api/users/names whose
+ * latency and status can be changed per request.
+ */
+@DisplayName("UserServiceClient Tests")
+class UserServiceClientTest {
+
+    private static final long CALL_TIMEOUT_MS = 300L;
+
+    private HttpServer stub;
+
+    private ExecutorService stubExecutor;
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private volatile IntUnaryOperator delayForRequest = request -> 0;
+
+    private volatile int status = 200;
+
+    private UserServiceClient client;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stubExecutor = Executors.newCachedThreadPool();
+        stub.setExecutor(stubExecutor);
+        stub.createContext("/api/users/names", exchange -> {
+            int request = requests.incrementAndGet();
+            exchange.getRequestBody().readAllBytes();
+            sleep(delayForRequest.applyAsInt(request));
+            byte[] body = "{\"user1\":\"alice\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        stub.start();
+    }
+
+    @AfterEach
+    void stopStub() {
+        if (client != null) {
+            client.close();
+        }
+        stub.stop(0);
+        stubExecutor.shutdownNow();
+    }
+
+    private UserServiceClient client(int maxConcurrent, int failureThreshold, long circuitOpenMs, boolean hedge) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(200);
+        requestFactory.setReadTimeout(2000);
+        String url = "http://127.0.0.1:" + stub.getAddress().getPort();
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        // Warm up class loading and the connection so timings only measure the stub
+        restTemplate.postForEntity(url + "/api/users/names", List.of("warmup"), Map.class);
+        requests.set(0);
+        return new UserServiceClient(restTemplate, url, CALL_TIMEOUT_MS, maxConcurrent, 10L, failureThreshold,
+                circuitOpenMs, hedge, 50L);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    @Nested
+    @DisplayName("Timeout Tests")
+    class TimeoutTests {
+
+        @Test
+        @DisplayName("Should return names from a healthy user-service")
+        void shouldReturnNames() {
+            // Arrange
+            client = client(4, 5, 10_000L, false);
+
+            // Act & Assert
+            assertEquals(Map.of("user1", "alice"), client.fetchNames(List.of("user1")));
+        }
+
+        @Test
+        @DisplayName("Should bound tail latency by the call timeout while user-service is slow")
+        void shouldBoundTailLatencyWhenSlow() {
+            // Arrange
+            client = client(4, 1000, 10_000L, false);
+            delayForRequest = request -> 1500;
+            List<Long> latencies = new ArrayList<>();
+
+            // Act
+            for (int i = 0; i < 5; i++) {
+                long start = System.nanoTime();
+                assertThrows(UserServiceUnavailableException.class, () -> client.fetchNames(List.of("user1")));
+                latencies.add(elapsedMs(start));
+            }
+
+            // Assert
+            long worst = Collections.max(latencies);
+            assertTrue(worst < CALL_TIMEOUT_MS + 200, "worst call took " + worst + " ms");
+        }
+    }
+
+    @Nested
+    @DisplayName("Circuit Breaker Tests")
+    class CircuitBreakerTests {
+
+        @Test
+        @DisplayName("Should open after repeated failures and refuse calls without reaching user-service")
+        void shouldOpenAfterFailures() {
+            // Arrange
+            client = client(4, 3, 10_000L, false);
+            status = 503;
+            for (int i = 0; i < 3; i++) {
+                assertThrows(HttpServerErrorException.class, () -> client.fetchNames(List.of("user1")));
+            }
+
+            // Act
+            long start = System.nanoTime();
+            assertThrows(UserServiceUnavailableException.class, () -> client.fetchNames(List.of("user1")));
+
+            // Assert
+            assertEquals(CircuitBreaker.State.OPEN, client.circuitState());
+            assertEquals(3, requests.get());
+            assertTrue(elapsedMs(start) < 50);
+        }
+
+        @Test
+        @DisplayName("Should fail fast once user-service is down")
+        void shouldFailFastWhenDown() {
+            // Arrange
+            client = client(4, 2, 10_000L, false);
+            stub.stop(0);
+            for (int i = 0; i < 2; i++) {
+                assertThrows(RuntimeException.class, () -> client.fetchNames(List.of("user1")));
+            }
+
+            // Act
+            long start = System.nanoTime();
+            for (int i = 0; i < 100; i++) {
+                assertThrows(UserServiceUnavailableException.class, () -> client.fetchNames(List.of("user1")));
+            }
+
+            // Assert
+            assertTrue(elapsedMs(start) < 100, "100 refused calls took " + elapsedMs(start) + " ms");
+        }
+
+        @Test
+        @DisplayName("Should close again after a successful probe")
+        void shouldCloseAfterProbe() {
+            // Arrange
+            client = client(4, 1, 100L, false);
+            status = 500;
+            assertThrows(HttpServerErrorException.class, () -> client.fetchNames(List.of("user1")));
+            status = 200;
+            sleep(150);
+
+            // Act
+            Map<String, String> names = client.fetchNames(List.of("user1"));
+
+            // Assert
+            assertEquals(Map.of("user1", "alice"), names);
+            assertEquals(CircuitBreaker.State.CLOSED, client.circuitState());
+        }
+    }
+
+    @Nested
+    @DisplayName("Bulkhead Tests")
+    class BulkheadTests {
+
+        @Test
+        @DisplayName("Should refuse calls beyond the concurrency limit instead of queueing them")
+        void shouldRefuseBeyondLimit() throws Exception {
+            // Arrange
+            client = client(2, 1000, 10_000L, false);
+            delayForRequest = request -> 250;
+            ExecutorService callers = Executors.newFixedThreadPool(5);
+            List<Callable<Boolean>> calls = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                calls.add(() -> {
+                    try {
+                        client.fetchNames(List.of("user1"));
+                        return true;
+                    } catch (UserServiceUnavailableException e) {
+                        return false;
+                    }
+                });
+            }
+
+            // Act
+            int succeeded = 0;
+            for (Future<Boolean> result : callers.invokeAll(calls)) {
+                if (result.get()) {
+                    succeeded++;
+                }
+            }
+            callers.shutdown();
+
+            // Assert
+            assertEquals(2, succeeded);
+            assertEquals(2, requests.get());
+        }
+
+        @Test
+        @DisplayName("Should keep a timed-out request's slot until the request actually ends")
+        void shouldHoldSlotUntilAbandonedRequestEnds() {
+            // Arrange
+            client = client(1, 1000, 10_000L, false);
+            delayForRequest = request -> request == 1 ? 800 : 0;
+            assertThrows(UserServiceUnavailableException.class, () -> client.fetchNames(List.of("user1")));
+
+            // Act & Assert
+            assertThrows(UserServiceUnavailableException.class, () -> client.fetchNames(List.of("user1")));
+            assertEquals(1, requests.get());
+            sleep(800);
+            assertEquals(Map.of("user1", "alice"), client.fetchNames(List.of("user1")));
+        }
+    }
+
+    @Nested
+    @DisplayName("Hedging Tests")
+    class HedgingTests {
+
+        @Test
+        @DisplayName("Should answer from the hedge when the first request is slow")
+        void shouldHedgeSlowRequest() {
+            // Arrange
+            client = client(4, 1000, 10_000L, true);
+            delayForRequest = request -> request == 1 ? 1000 : 0;
+
+            // Act
+            long start = System.nanoTime();
+            Map<String, String> names = client.fetchNames(Set.of("user1"));
+
+            // Assert
+            assertEquals(Map.of("user1", "alice"), names);
+            assertEquals(2, requests.get());
+            assertTrue(elapsedMs(start) < CALL_TIMEOUT_MS, "hedged call took " + elapsedMs(start) + " ms");
+        }
+
+        @Test
+        @DisplayName("Should not hedge calls that finish before the hedge delay")
+        void shouldNotHedgeFastRequest() {
+            // Arrange
+            client = client(4, 1000, 10_000L, true);
+
+            // Act
+            for (int i = 0; i < 10; i++) {
+                client.fetchNames(List.of("user1"));
+            }
+
+            // Assert
+            assertEquals(10, requests.get());
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.clouddev.leaderboardservice.replica;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import com.clouddev.leaderboardservice.event.ScoreChangedEvent;
+import com.clouddev.leaderboardservice.model.ScoreDelta;
+import com.clouddev.leaderboardservice.model.UpsertedScore;
+
+@DisplayName("ReplicatedScores Tests")
+class ReplicatedScoresTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    private List<ScoreChangedEvent> events;
+
+    private List<ReplicatedScores> replicas;
+
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        // Every replica shares one in-memory database, as they would share PostgreSQL
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        events = new ArrayList<>();
+        replicas = new ArrayList<>();
+        today = LocalDate.of(2026, 3, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    private ReplicatedScores replica(String replicaId) {
+        ReplicatedScores replica = new ReplicatedScores(jdbcTemplate, event -> {
+            synchronized (events) {
+                events.add((ScoreChangedEvent) event);
+            }
+        }, replicaId, 5000L);
+        replica.load();
+        replicas.add(replica);
+        return replica;
+    }
+
+    private void syncAll(int rounds) {
+        for (int round = 0; round < rounds; round++) {
+            replicas.forEach(ReplicatedScores::sync);
+        }
+    }
+
+    private Map<String, Object> entry(String userId) {
+        return jdbcTemplate.queryForMap(
+                "SELECT score, streak_count, last_activity_date, replica_version FROM leaderboard_entries WHERE user_id = ?",
+                userId);
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }
+
+    @Nested
+    @DisplayName("Write Tests")
+    class WriteTests {
+
+        @Test
+        @DisplayName("Should count a write in memory and touch no shared row until the sync")
+        void shouldWriteLocally() {
+            // Arrange
+            ReplicatedScores a = replica("a");
+
+            // Act
+            UpsertedScore first = a.add(new ScoreDelta("user1", 10.0, today));
+            UpsertedScore second = a.add(new ScoreDelta("user1", -4.0, today.plusDays(1)));
+
+            // Assert
+            assertTrue(first.inserted());
+            assertEquals(6.0, second.score());
+            assertEquals(2L, second.streak());
+            assertEquals(0L, count("leaderboard_entries"));
+            assertEquals(0L, count("leaderboard_replica_scores"));
+
+            a.sync();
+            assertEquals(6.0, entry("user1").get("score"));
+            assertEquals(1L, count("leaderboard_replica_scores"));
+            assertEquals(1, events.size());
+            assertNull(events.get(0).previousScore());
+        }
+
+        @Test
+        @DisplayName("Should refuse writes until the replica's counters are loaded")
+        void shouldRefuseWritesBeforeLoad() {
+            // Arrange
+            ReplicatedScores notLoaded = new ReplicatedScores(jdbcTemplate, event -> { }, "a", 5000L);
+
+            // Act & Assert
+            assertThrows(IllegalStateException.class, () -> notLoaded.add(new ScoreDelta("user1", 1.0, today)));
+        }
+
+        @Test
+        @DisplayName("Should refuse to start with rank buckets, which the copy never moves")
+        void shouldRefuseRankBuckets() {
+            // Act & Assert
+            assertThrows(IllegalStateException.class,
+                    () -> new ReplicatedScores(jdbcTemplate, event -> { }, true, "a", 1000L, 5000L, true));
+        }
+
+        @Test
+        @DisplayName("Should start from the existing board by seeding it as one counter")
+        void shouldSeedFromExistingEntries() {
+            // Arrange
+            jdbcTemplate.update("INSERT INTO leaderboard_entries (user_id, score, streak_count, last_activity_date) "
+                    + "VALUES ('user1', 50.0, 3, ?)", today.minusDays(1));
+            ReplicatedScores a = replica("a");
+            ReplicatedScores b = replica("b");
+
+            // Act
+            a.add(new ScoreDelta("user1", 10.0, today));
+            b.add(new ScoreDelta("user1", -5.0, today));
+            syncAll(2);
+
+            // Assert
+            assertEquals(55.0, entry("user1").get("score"));
+            assertEquals(4L, entry("user1").get("streak_count"));
+            assertEquals(1L, jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM leaderboard_replica_scores WHERE replica_id = ?", Long.class,
+                    ReplicatedScores.SEED_REPLICA));
+        }
+    }
+
+    @Nested
+    @DisplayName("Convergence Tests")
+    class ConvergenceTests {
+
+        @Test
+        @DisplayName("Should converge every replica and the board on the sum of all writes")
+        void shouldConvergeOnSum() throws Exception {
+            // Arrange
+            List<ReplicatedScores> writers = List.of(replica("a"), replica("b"), replica("c"));
+            Map<String, Double> expected = new HashMap<>();
+            Random random = new Random(7);
+            List<List<ScoreDelta>> perReplica = new ArrayList<>();
+            for (int r = 0; r < writers.size(); r++) {
+                List<ScoreDelta> deltas = new ArrayList<>();
+                for (int i = 0; i < 400; i++) {
+                    String userId = "user" + random.nextInt(25);
+                    double delta = random.nextInt(21) - 5;
+                    deltas.add(new ScoreDelta(userId, delta, today));
+                    expected.merge(userId, delta, Double::sum);
+                }
+                perReplica.add(deltas);
+            }
+
+            // Act: all replicas write and sync concurrently
+            ExecutorService pool = Executors.newFixedThreadPool(writers.size());
+            List<Future<?>> futures = new ArrayList<>();
+            for (int r = 0; r < writers.size(); r++) {
+                ReplicatedScores replica = writers.get(r);
+                List<ScoreDelta> deltas = perReplica.get(r);
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < deltas.size(); i++) {
+                        replica.add(deltas.get(i));
+                        if (i % 50 == 0) {
+                            replica.sync();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            pool.shutdown();
+            syncAll(2);
+
+            // Assert
+            for (Map.Entry<String, Double> user : expected.entrySet()) {
+                for (ReplicatedScores replica : writers) {
+                    assertEquals(user.getValue(), replica.get(user.getKey()).orElseThrow().score(),
+                            replica.replicaId() + " " + user.getKey());
+                }
+                assertEquals(user.getValue(), entry(user.getKey()).get("score"), user.getKey());
+            }
+        }
+
+        @Test
+        @DisplayName("Should merge streaks by the latest activity date across replicas")
+        void shouldMergeStreaks() {
+            // Arrange
+            ReplicatedScores a = replica("a");
+            ReplicatedScores b = replica("b");
+            ReplicatedScores c = replica("c");
+            a.add(new ScoreDelta("user1", 1.0, today));
+            syncAll(1);
+
+            // Act: b extends the streak it learned from a, c logs the same day without having synced since
+            b.add(new ScoreDelta("user1", 1.0, today.plusDays(1)));
+            c.add(new ScoreDelta("user1", 1.0, today.plusDays(1)));
+            a.add(new ScoreDelta("user1", 1.0, today.minusDays(3)));
+            syncAll(2);
+
+            // Assert
+            for (ReplicatedScores replica : List.of(a, b, c)) {
+                UpsertedScore view = replica.get("user1").orElseThrow();
+                assertEquals(4.0, view.score());
+                assertEquals(2L, view.streak());
+                assertEquals(today.plusDays(1), view.lastActivityDate());
+            }
+            assertEquals(2L, entry("user1").get("streak_count"));
+            assertEquals(4L, entry("user1").get("replica_version"));
+        }
+
+        @Test
+        @DisplayName("Should copy each merged view once, however many replicas hold it")
+        void shouldCopyEachViewOnce() {
+            // Arrange
+            ReplicatedScores a = replica("a");
+            ReplicatedScores b = replica("b");
+            a.add(new ScoreDelta("user1", 5.0, today));
+            b.add(new ScoreDelta("user1", 3.0, today));
+
+            // Act
+            syncAll(3);
+
+            // Assert
+            assertEquals(8.0, entry("user1").get("score"));
+            List<Double> published = events.stream().map(ScoreChangedEvent::score).toList();
+            assertEquals(8.0, published.get(published.size() - 1));
+            assertTrue(published.size() <= 3, "published " + published);
+        }
+    }
+}
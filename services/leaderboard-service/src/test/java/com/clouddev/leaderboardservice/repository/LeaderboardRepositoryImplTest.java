@@ -0,0 +1,668 @@
+package com.clouddev.leaderboardservice.repository;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import com.clouddev.leaderboardservice.model.BoardChange;
+import com.clouddev.leaderboardservice.model.LeaderboardWindow;
+import com.clouddev.leaderboardservice.model.PageCursor;
+import com.clouddev.leaderboardservice.model.ScoreDelta;
+import com.clouddev.leaderboardservice.model.UpsertedScore;
+import com.clouddev.leaderboardservice.model.WindowedScore;
+
+/**
+ * Runs the native upserts against a real Postgres, since H2 does not support
+ * ON CONFLICT ... DO UPDATE. Uses the database at -Dtest.postgres.url when
+ * set (its tables are truncated, so give it a scratch database), otherwise
+ * a Testcontainers Postgres. Without either the tests are skipped, unless
+ * test.postgres.required is set, as the ci profile does, where they fail.
+ */
+@EnabledIf(value = "postgresAvailable", disabledReason = "Docker is not available and test.postgres.url is not set")
+@DisplayName("LeaderboardRepositoryImpl Tests")
+class LeaderboardRepositoryImplTest {
+
+    private static PostgreSQLContainer<?> postgres;
+
+    private static JdbcTemplate jdbcTemplate;
+
+    private LeaderboardRepositoryImpl repository;
+
+    private LocalDate today;
+
+    static boolean postgresAvailable() {
+        return externalUrl() != null || Boolean.getBoolean("test.postgres.required")
+                || DockerClientFactory.instance().isDockerAvailable();
+    }
+
+    private static String externalUrl() {
+        String url = System.getProperty("test.postgres.url");
+        return url != null && !url.isBlank() ? url : null;
+    }
+
+    @BeforeAll
+    static void createSchema() {
+        DriverManagerDataSource dataSource;
+        String url = externalUrl();
+        if (url != null) {
+            dataSource = new DriverManagerDataSource(url, System.getProperty("test.postgres.username", "postgres"),
+                    System.getProperty("test.postgres.password", ""));
+        } else {
+            postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+            postgres.start();
+            dataSource = new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(),
+                    postgres.getPassword());
+        }
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @AfterAll
+    static void stopPostgres() {
+        if (postgres != null) {
+            postgres.stop();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("TRUNCATE leaderboard_entries, leaderboard_period_scores, score_buckets");
+        repository = new LeaderboardRepositoryImpl(jdbcTemplate);
+        today = LocalDate.now(ZoneOffset.UTC);
+    }
+
+    private void insert(String userId, double score, long streak, LocalDate lastActivityDate) {
+        jdbcTemplate.update("INSERT INTO leaderboard_entries (user_id, score, streak_count, last_activity_date) "
+                + "VALUES (?, ?, ?, ?)", userId, score, streak, lastActivityDate);
+    }
+
+    @Nested
+    @DisplayName("Upsert Score Tests")
+    class UpsertScoreTests {
+
+        @Test
+        @DisplayName("Should create new entry for new user")
+        void shouldCreateNewEntryForNewUser() {
+            // Act
+            UpsertedScore result = repository.upsertScore(new ScoreDelta("new-user", 100.0, today));
+
+            // Assert
+            assertTrue(result.inserted());
+            assertEquals(100.0, result.score());
+            assertEquals(1L, result.streak());
+            assertEquals(today, result.lastActivityDate());
+        }
+
+        @Test
+        @DisplayName("Should add delta to existing score")
+        void shouldAddDeltaToExistingScore() {
+            // Arrange
+            insert("user", 100.0, 1L, today);
+
+            // Act
+            UpsertedScore result = repository.upsertScore(new ScoreDelta("user", -30.0, today));
+
+            // Assert
+            assertFalse(result.inserted());
+            assertEquals(100.0, result.previousScore());
+            assertEquals(70.0, result.score());
+        }
+
+        @Test
+        @DisplayName("Should return the exact previous score for fractional deltas")
+        void shouldReturnExactPreviousScore() {
+            // Arrange
+            insert("user", 0.2, 1L, today);
+
+            // Act
+            UpsertedScore result = repository.upsertScore(new ScoreDelta("user", 0.1, today));
+
+            // Assert
+            assertEquals(0.2, result.previousScore());
+            assertEquals(0.2 + 0.1, result.score());
+        }
+
+        @Test
+        @DisplayName("Should increment streak for consecutive day")
+        void shouldIncrementStreakForConsecutiveDay() {
+            // Arrange
+            insert("user", 100.0, 5L, today.minusDays(1));
+
+            // Act & Assert
+            assertEquals(6L, repository.upsertScore(new ScoreDelta("user", 10.0, today)).streak());
+        }
+
+        @Test
+        @DisplayName("Should reset streak for non-consecutive day")
+        void shouldResetStreakForNonConsecutiveDay() {
+            // Arrange
+            insert("user", 100.0, 10L, today.minusDays(3));
+
+            // Act & Assert
+            assertEquals(1L, repository.upsertScore(new ScoreDelta("user", 10.0, today)).streak());
+        }
+
+        @Test
+        @DisplayName("Should maintain streak for same day activity")
+        void shouldMaintainStreakForSameDayActivity() {
+            // Arrange
+            insert("user", 100.0, 5L, today);
+
+            // Act & Assert
+            assertEquals(5L, repository.upsertScore(new ScoreDelta("user", 10.0, today)).streak());
+        }
+
+        @Test
+        @DisplayName("Should keep streak and last date for a late update on an earlier day")
+        void shouldKeepStreakForEarlierDay() {
+            // Arrange
+            insert("user", 100.0, 6L, today);
+
+            // Act
+            UpsertedScore result = repository.upsertScore(new ScoreDelta("user", 10.0, today.minusDays(2)));
+
+            // Assert
+            assertEquals(110.0, result.score());
+            assertEquals(6L, result.streak());
+            assertEquals(today, result.lastActivityDate());
+        }
+
+        @Test
+        @DisplayName("Should not lose increments under concurrent updates to one user")
+        void shouldNotLoseConcurrentIncrements() throws Exception {
+            // Arrange
+            int threads = 8;
+            int updatesPerThread = 100;
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                tasks.add(() -> {
+                    start.await();
+                    for (int i = 0; i < updatesPerThread; i++) {
+                        repository.upsertScore(new ScoreDelta("hot-user", 1.0, today));
+                    }
+                    return null;
+                });
+            }
+
+            // Act
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Callable<Void> task : tasks) {
+                futures.add(executor.submit(task));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+            executor.shutdown();
+
+            // Assert
+            Double score = jdbcTemplate.queryForObject(
+                    "SELECT score FROM leaderboard_entries WHERE user_id = 'hot-user'", Double.class);
+            assertEquals(threads * updatesPerThread, score);
+            assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM leaderboard_entries", Integer.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("Upsert Scores Tests")
+    class UpsertScoresTests {
+
+        @Test
+        @DisplayName("Should insert and update many users in one statement")
+        void shouldUpsertManyUsers() {
+            // Arrange
+            insert("user1", 100.0, 4L, today.minusDays(1));
+
+            // Act
+            List<UpsertedScore> results = repository.upsertScores(List.of(
+                    new ScoreDelta("user1", 20.0, today),
+                    new ScoreDelta("user2", 5.0, today)));
+
+            // Assert
+            assertEquals(2, results.size());
+            UpsertedScore user1 = results.stream().filter(r -> r.userId().equals("user1")).findFirst().get();
+            UpsertedScore user2 = results.stream().filter(r -> r.userId().equals("user2")).findFirst().get();
+            assertEquals(120.0, user1.score());
+            assertEquals(5L, user1.streak());
+            assertFalse(user1.inserted());
+            assertEquals(5.0, user2.score());
+            assertTrue(user2.inserted());
+        }
+
+        @Test
+        @DisplayName("Should not deadlock when concurrent batches list the same users in opposite orders")
+        void shouldNotDeadlockOnOppositeOrders() throws Exception {
+            // Arrange
+            int users = 200;
+            int batchesPerThread = 20;
+            List<ScoreDelta> ascending = new ArrayList<>();
+            for (int u = 0; u < users; u++) {
+                String userId = String.format("user%03d", u);
+                insert(userId, 0.0, 1L, today);
+                ascending.add(new ScoreDelta(userId, 1.0, today));
+            }
+            List<ScoreDelta> descending = new ArrayList<>(ascending);
+            Collections.reverse(descending);
+
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Void>> futures = new ArrayList<>();
+            for (List<ScoreDelta> batch : List.of(ascending, descending)) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < batchesPerThread; i++) {
+                        repository.upsertScores(batch);
+                    }
+                    return null;
+                }));
+            }
+
+            // Act
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+            executor.shutdown();
+
+            // Assert
+            assertEquals(users, jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM leaderboard_entries WHERE score = ?", Integer.class, 2.0 * batchesPerThread));
+        }
+    }
+
+    @Nested
+    @DisplayName("Display Name Tests")
+    class DisplayNameTests {
+
+        @Test
+        @DisplayName("Should fill missing display names without overwriting stored ones")
+        void shouldFillOnlyMissingDisplayNames() {
+            // Arrange
+            insert("user1", 100.0, 1L, today);
+            insert("user2", 50.0, 1L, today);
+            jdbcTemplate.update("UPDATE leaderboard_entries SET display_name = 'Renamed' WHERE user_id = 'user2'");
+
+            // Act
+            int updated = repository.fillMissingDisplayNames(Map.of(
+                    "user1", "Alice",
+                    "user2", "Old name",
+                    "missing", "Nobody"));
+
+            // Assert
+            assertEquals(1, updated);
+            assertEquals("Alice", jdbcTemplate.queryForObject(
+                    "SELECT display_name FROM leaderboard_entries WHERE user_id = 'user1'", String.class));
+            assertEquals("Renamed", jdbcTemplate.queryForObject(
+                    "SELECT display_name FROM leaderboard_entries WHERE user_id = 'user2'", String.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("Period Bucket Tests")
+    class PeriodBucketTests {
+
+        private double bucket(LeaderboardWindow window, LocalDate date, String userId) {
+            List<Double> scores = jdbcTemplate.queryForList("SELECT score FROM leaderboard_period_scores "
+                    + "WHERE period = ? AND period_start = ? AND user_id = ?", Double.class,
+                    window.name(), window.periodStart(date), userId);
+            return scores.isEmpty() ? 0.0d : scores.get(0);
+        }
+
+        @Test
+        @DisplayName("Should add deltas to the day, week and month buckets Java computes")
+        void shouldWriteBucketsMatchingJavaPeriods() {
+            // Arrange
+            LocalDate sunday = LocalDate.of(2026, 10, 18);
+            LocalDate monday = LocalDate.of(2026, 10, 19);
+
+            // Act
+            repository.upsertScore(new ScoreDelta("user1", 10.0, sunday));
+            repository.upsertScores(List.of(new ScoreDelta("user1", 5.0, monday)));
+            repository.upsertScore(new ScoreDelta("user1", 2.0, monday));
+
+            // Assert
+            assertEquals(10.0, bucket(LeaderboardWindow.DAY, sunday, "user1"));
+            assertEquals(7.0, bucket(LeaderboardWindow.DAY, monday, "user1"));
+            assertEquals(10.0, bucket(LeaderboardWindow.WEEK, sunday, "user1"));
+            assertEquals(7.0, bucket(LeaderboardWindow.WEEK, monday, "user1"));
+            assertEquals(17.0, bucket(LeaderboardWindow.MONTH, monday, "user1"));
+        }
+
+        @Test
+        @DisplayName("Should not create buckets for zero deltas")
+        void shouldSkipZeroDeltas() {
+            // Act
+            repository.upsertScore(new ScoreDelta("user1", 0.0, today));
+
+            // Assert
+            assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM leaderboard_period_scores",
+                    Integer.class));
+            assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM leaderboard_entries", Integer.class));
+        }
+
+        @Test
+        @DisplayName("Should rank users by score within the period only")
+        void shouldRankWithinPeriod() {
+            // Arrange
+            repository.upsertScore(new ScoreDelta("veteran", 1000.0, today.minusMonths(2)));
+            repository.upsertScore(new ScoreDelta("veteran", 5.0, today));
+            repository.upsertScore(new ScoreDelta("newcomer", 50.0, today));
+            repository.upsertScore(new ScoreDelta("tied", 50.0, today));
+            LocalDate weekStart = LeaderboardWindow.WEEK.periodStart(today);
+
+            // Act
+            List<WindowedScore> top = repository.findTopInPeriod(LeaderboardWindow.WEEK, weekStart, 10);
+            WindowedScore veteran = repository.findRankInPeriod(LeaderboardWindow.WEEK, weekStart, "veteran").get();
+
+            // Assert
+            assertEquals(List.of("newcomer", "tied", "veteran"), top.stream().map(WindowedScore::userId).toList());
+            assertEquals(50.0, top.get(0).score());
+            assertEquals(1L, top.get(0).rank());
+            assertEquals("veteran", top.get(2).userId());
+            assertEquals(3L, top.get(2).rank());
+            assertEquals(5.0, veteran.score());
+            assertEquals(3L, veteran.rank());
+            assertEquals(1L, repository.findRankInPeriod(LeaderboardWindow.WEEK, weekStart, "tied").get().rank());
+            assertTrue(repository.findRankInPeriod(LeaderboardWindow.DAY, today.minusDays(1), "veteran").isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should delete only buckets of the window older than the cutoff")
+        void shouldDeleteOldPeriods() {
+            // Arrange
+            repository.upsertScore(new ScoreDelta("user1", 1.0, today.minusDays(10)));
+            repository.upsertScore(new ScoreDelta("user1", 1.0, today));
+
+            // Act
+            int deleted = repository.deletePeriodsBefore(LeaderboardWindow.DAY, today.minusDays(6));
+
+            // Assert
+            assertEquals(1, deleted);
+            assertEquals(0.0, bucket(LeaderboardWindow.DAY, today.minusDays(10), "user1"));
+            assertEquals(1.0, bucket(LeaderboardWindow.DAY, today, "user1"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Around Me Tests")
+    class AroundTests {
+
+        @Test
+        @DisplayName("Should return k rows either side with the same ranks as a rank lookup")
+        void shouldReturnRowsAroundUser() {
+            // Arrange
+            for (int i = 1; i <= 10; i++) {
+                insert("user" + i, i * 10.0, 1L, today);
+            }
+            insert("user5b", 50.0, 1L, today);
+            jdbcTemplate.update("UPDATE leaderboard_entries SET display_name = 'Eve' WHERE user_id = 'user5'");
+            List<String> boardOrder = jdbcTemplate.queryForList(
+                    "SELECT user_id FROM leaderboard_entries ORDER BY score DESC, user_id", String.class);
+
+            // Act
+            List<WindowedScore> middle = repository.findAround("user5", 2);
+            List<WindowedScore> top = repository.findAround("user10", 2);
+            List<WindowedScore> bottom = repository.findAround("user1", 3);
+
+            // Assert
+            int position = boardOrder.indexOf("user5");
+            assertEquals(boardOrder.subList(position - 2, position + 3),
+                    middle.stream().map(WindowedScore::userId).toList());
+            for (WindowedScore row : middle) {
+                assertEquals(repository.findRankedEntry(row.userId()).orElseThrow().rank(), row.rank());
+            }
+            assertEquals(List.of(6L, 6L, 8L), repository.findAround("user4", 1).stream()
+                    .map(WindowedScore::rank).toList());
+            assertEquals("Eve", middle.get(2).displayName());
+            assertEquals(List.of(1L, 2L, 3L), top.stream().map(WindowedScore::rank).toList());
+            assertEquals(4, bottom.size());
+            assertEquals(11L, bottom.get(3).rank());
+        }
+
+        @Test
+        @DisplayName("Should return nothing for a user without an entry")
+        void shouldReturnEmptyForUnknownUser() {
+            // Arrange
+            insert("user1", 10.0, 1L, today);
+
+            // Act & Assert
+            assertTrue(repository.findAround("missing", 5).isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Ranked Entry Tests")
+    class RankedEntryTests {
+
+        @Test
+        @DisplayName("Should read the entry with its rank, ties sharing a rank")
+        void shouldReadEntryWithRank() {
+            // Arrange
+            insert("top", 500.0, 1L, today);
+            insert("tiedA", 300.0, 2L, today);
+            insert("tiedB", 300.0, 3L, today);
+            jdbcTemplate.update("UPDATE leaderboard_entries SET display_name = 'Bea' WHERE user_id = 'tiedB'");
+
+            // Act
+            WindowedScore ranked = repository.findRankedEntry("tiedB").orElseThrow();
+
+            // Assert
+            assertEquals(new WindowedScore("tiedB", 300.0, 3L, "Bea", 2L), ranked);
+            assertEquals(2L, repository.findRankedEntry("tiedA").orElseThrow().rank());
+            assertTrue(repository.findRankedEntry("missing").isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Bulk Rank Tests")
+    class BulkRankTests {
+
+        @Test
+        @DisplayName("Should rank the requested users over the whole board, ties sharing a rank")
+        void shouldRankRequestedUsers() {
+            // Arrange
+            insert("top", 500.0, 1L, today);
+            insert("tiedA", 300.0, 2L, today);
+            insert("tiedB", 300.0, 1L, today);
+            insert("middle", 200.0, 4L, today);
+            insert("bottom", 10.0, 1L, today);
+
+            // Act
+            List<WindowedScore> ranks = repository.findRanks(List.of("tiedB", "middle", "missing"));
+
+            // Assert
+            Map<String, Long> byUser = new TreeMap<>();
+            ranks.forEach(score -> byUser.put(score.userId(), score.rank()));
+            assertEquals(Map.of("tiedB", 2L, "middle", 4L), byUser);
+            assertTrue(repository.findRanks(List.of("missing")).isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Paging Tests")
+    class PagingTests {
+
+        @Test
+        @DisplayName("Should visit every entry once in board order across pages")
+        void shouldPageThroughBoard() {
+            // Arrange
+            for (int i = 1; i <= 7; i++) {
+                insert("user" + i, (i % 3) * 10.0, 1L, today);
+            }
+            List<String> boardOrder = jdbcTemplate.queryForList(
+                    "SELECT user_id FROM leaderboard_entries ORDER BY score DESC, user_id", String.class);
+
+            // Act
+            List<WindowedScore> seen = new ArrayList<>();
+            PageCursor after = null;
+            List<WindowedScore> page;
+            do {
+                page = repository.findPage(after, 3);
+                seen.addAll(page);
+                if (!page.isEmpty()) {
+                    WindowedScore last = page.get(page.size() - 1);
+                    after = new PageCursor(last.score(), last.userId(), last.rank(), null);
+                }
+            } while (page.size() == 3);
+
+            // Assert
+            assertEquals(boardOrder, seen.stream().map(WindowedScore::userId).toList());
+            for (int i = 0; i < seen.size(); i++) {
+                assertEquals(i + 1L, seen.get(i).rank());
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Changed Since Tests")
+    class ChangedSinceTests {
+
+        @Test
+        @DisplayName("Should list entries updated at or after the given time in update order")
+        void shouldListEntriesUpdatedSince() {
+            // Arrange
+            insert("old", 10.0, 1L, today);
+            insert("recent", 20.0, 1L, today);
+            insert("latest", 30.0, 2L, today);
+            OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+            jdbcTemplate.update("UPDATE leaderboard_entries SET updated_at = ? WHERE user_id = 'old'",
+                    now.minusHours(2));
+            jdbcTemplate.update("UPDATE leaderboard_entries SET updated_at = ? WHERE user_id = 'recent'",
+                    now.minusMinutes(5));
+            jdbcTemplate.update("UPDATE leaderboard_entries SET updated_at = ? WHERE user_id = 'latest'",
+                    now.minusMinutes(1));
+
+            // Act
+            List<BoardChange> changes = repository.findChangedSince(now.minusHours(1), 10);
+
+            // Assert
+            assertEquals(List.of(new BoardChange("recent", 20.0, 1L), new BoardChange("latest", 30.0, 2L)), changes);
+            assertEquals(1, repository.findChangedSince(now.minusHours(1), 1).size());
+        }
+    }
+
+    @Nested
+    @DisplayName("Rank Bucket Tests")
+    class RankBucketTests {
+
+        private RankBuckets rankBuckets;
+
+        private LeaderboardRepositoryImpl bucketed;
+
+        @BeforeEach
+        void setUp() {
+            rankBuckets = new RankBuckets(jdbcTemplate, new DataSourceTransactionManager(jdbcTemplate.getDataSource()),
+                    true, 10.0);
+            bucketed = new LeaderboardRepositoryImpl(jdbcTemplate, rankBuckets);
+        }
+
+        private Map<Long, Long> buckets() {
+            Map<Long, Long> counts = new TreeMap<>();
+            jdbcTemplate.query("SELECT bucket, count FROM score_buckets WHERE count <> 0",
+                    rs -> { counts.put(rs.getLong("bucket"), rs.getLong("count")); });
+            return counts;
+        }
+
+        private long countedRank(String userId) {
+            return jdbcTemplate.queryForObject("SELECT COUNT(*) + 1 FROM leaderboard_entries WHERE score > "
+                    + "(SELECT score FROM leaderboard_entries WHERE user_id = ?)", Long.class, userId);
+        }
+
+        @Test
+        @DisplayName("Should move users between buckets in the upsert statement")
+        void shouldMoveUsersBetweenBuckets() {
+            // Act
+            bucketed.upsertScore(new ScoreDelta("user1", 5.0, today));
+            bucketed.upsertScores(List.of(
+                    new ScoreDelta("user1", 3.0, today),
+                    new ScoreDelta("user2", 15.0, today),
+                    new ScoreDelta("user3", 12.0, today)));
+            bucketed.upsertScore(new ScoreDelta("user3", -20.0, today));
+
+            // Assert
+            assertEquals(Map.of(-1L, 1L, 0L, 1L, 1L, 1L), buckets());
+        }
+
+        @Test
+        @DisplayName("Should take the old bucket from the stored score when fractional deltas end on an edge")
+        void shouldMoveFromStoredScoreAtBucketEdge() {
+            // Act: 6.3 + 3.7 lands exactly on 10.0, but 16.4 - 6.4 comes back just under it
+            bucketed.upsertScore(new ScoreDelta("user1", 6.3, today));
+            bucketed.upsertScores(List.of(new ScoreDelta("user1", 3.7, today)));
+            bucketed.upsertScore(new ScoreDelta("user1", 6.4, today));
+            bucketed.upsertScores(List.of(new ScoreDelta("user1", 0.1, today)));
+
+            // Assert
+            Map<Long, Long> recounted = new TreeMap<>();
+            jdbcTemplate.query("SELECT floor(score / 10)::bigint AS bucket, COUNT(*) AS count FROM leaderboard_entries "
+                    + "GROUP BY 1", rs -> { recounted.put(rs.getLong("bucket"), rs.getLong("count")); });
+            assertEquals(Map.of(1L, 1L), recounted);
+            assertEquals(recounted, buckets());
+        }
+
+        @Test
+        @DisplayName("Should rank like the row count, ties sharing the best rank")
+        void shouldRankLikeRowCount() {
+            // Arrange
+            List<ScoreDelta> deltas = new ArrayList<>();
+            for (int i = 0; i < 60; i++) {
+                deltas.add(new ScoreDelta("user" + i, (i * 7) % 45, today));
+            }
+            bucketed.upsertScores(deltas);
+            bucketed.upsertScore(new ScoreDelta("user3", 30.0, today));
+
+            // Act & Assert
+            for (int i = 0; i < 60; i++) {
+                assertEquals(countedRank("user" + i), bucketed.findRankedEntry("user" + i).orElseThrow().rank(), "user" + i);
+            }
+            assertTrue(bucketed.findRankedEntry("missing").isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should rebuild the buckets from the entries")
+        void shouldRebuildFromEntries() {
+            // Arrange
+            insert("user1", 4.0, 1L, today);
+            insert("user2", 9.0, 1L, today);
+            insert("user3", 25.0, 1L, today);
+
+            // Act
+            int rebuilt = rankBuckets.rebuild();
+
+            // Assert
+            assertEquals(2, rebuilt);
+            assertEquals(Map.of(0L, 2L, 2L, 1L), buckets());
+            assertEquals(3L, bucketed.findRankedEntry("user1").orElseThrow().rank());
+        }
+    }
+}
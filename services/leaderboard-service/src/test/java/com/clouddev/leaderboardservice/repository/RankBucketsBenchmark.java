@@ -0,0 +1,95 @@
+package com.clouddev.leaderboardservice.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+/**
+ * Compares getUserRank's COUNT(*) of every higher row with findRankedEntry
+ * reading the score_buckets rank at 1M and 10M entries. Not part of the normal build: it replaces the
+ * board in the database it is given, so point it at a scratch database.
+ *
+ * <pre>
+ * mvn test -Dtest=RankBucketsBenchmark -Dbenchmark.postgres.url=jdbc:postgresql://localhost:5432/scratch \
+ *     -Dbenchmark.postgres.username=postgres -Dbenchmark.postgres.password= [-Dbenchmark.rows=1000000,10000000]
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark.postgres.url", matches = ".+")
+@DisplayName("Rank Buckets Benchmark")
+class RankBucketsBenchmark {
+
+    // The statement behind LeaderboardRepository.getUserRank
+    private static final String COUNT_RANK_SQL = "SELECT COUNT(*) + 1 FROM leaderboard_entries WHERE score > "
+            + "(SELECT COALESCE(score, 0) FROM leaderboard_entries WHERE user_id = ?)";
+
+    // Scores spread uniformly over [0, 1M), so a width of 100 gives 10k buckets
+    private static final String LOAD_ENTRIES_SQL = """
+            INSERT INTO leaderboard_entries (user_id, score, streak_count, last_activity_date)
+            SELECT 'user' || g, floor(random() * 1000000), 1, CURRENT_DATE
+            FROM generate_series(1, ?) AS g""";
+
+    private static final int WARMUP = 50;
+    private static final int LOOKUPS = 500;
+
+    @Test
+    @DisplayName("Should rank faster from score buckets than by counting rows")
+    void compareRankQueries() {
+        // One connection throughout, so connecting is not part of the measured time
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+                System.getProperty("benchmark.postgres.url"),
+                System.getProperty("benchmark.postgres.username", "postgres"),
+                System.getProperty("benchmark.postgres.password", ""), true);
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        RankBuckets rankBuckets = new RankBuckets(jdbcTemplate, new DataSourceTransactionManager(dataSource), true,
+                Double.parseDouble(System.getProperty("benchmark.width", "100")));
+        LeaderboardRepositoryImpl repository = new LeaderboardRepositoryImpl(jdbcTemplate, rankBuckets);
+
+        for (String rows : System.getProperty("benchmark.rows", "1000000,10000000").split(",")) {
+            int n = Integer.parseInt(rows.trim());
+            load(jdbcTemplate, rankBuckets, n);
+
+            Random random = new Random(42);
+            List<String> userIds = new ArrayList<>();
+            for (int i = 0; i < WARMUP + LOOKUPS; i++) {
+                userIds.add("user" + (1 + random.nextInt(n)));
+            }
+            for (String userId : userIds.subList(0, WARMUP)) {
+                assertEquals(jdbcTemplate.queryForObject(COUNT_RANK_SQL, Long.class, userId),
+                        repository.findRankedEntry(userId).orElseThrow().rank(), userId);
+            }
+
+            List<String> measured = userIds.subList(WARMUP, userIds.size());
+            long countNanos = time(() -> measured.forEach(
+                    userId -> jdbcTemplate.queryForObject(COUNT_RANK_SQL, Long.class, userId)));
+            long bucketNanos = time(() -> measured.forEach(repository::findRankedEntry));
+            System.out.printf("%,d entries: COUNT(*) %.3f ms/rank, score_buckets %.3f ms/rank (%.1fx)%n", n,
+                    countNanos / 1e6 / LOOKUPS, bucketNanos / 1e6 / LOOKUPS, (double) countNanos / bucketNanos);
+        }
+        dataSource.destroy();
+    }
+
+    private static void load(JdbcTemplate jdbcTemplate, RankBuckets rankBuckets, int n) {
+        jdbcTemplate.execute("TRUNCATE leaderboard_entries, leaderboard_period_scores, score_buckets");
+        jdbcTemplate.update(LOAD_ENTRIES_SQL, n);
+        // Sets the visibility map so both counts can be index-only scans
+        jdbcTemplate.execute("VACUUM ANALYZE leaderboard_entries");
+        rankBuckets.rebuild();
+    }
+
+    private static long time(Runnable lookups) {
+        long started = System.nanoTime();
+        lookups.run();
+        return System.nanoTime() - started;
+    }
+}
@@ -0,0 +1,159 @@
+package com.clouddev.leaderboardservice.service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.clouddev.leaderboardservice.cache.BoardChangeLog;
+import com.clouddev.leaderboardservice.cache.BoardVersion;
+import com.clouddev.leaderboardservice.model.BoardChange;
+import com.clouddev.leaderboardservice.model.BoardChanges;
+import com.clouddev.leaderboardservice.repository.LeaderboardRepository;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BoardChangeFeed Tests")
+@SuppressWarnings("null")
+class BoardChangeFeedTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-17T12:00:00Z");
+    private static final long CURRENT = NOW.toEpochMilli() * 1000L;
+
+    @Mock
+    private BoardVersion boardVersion;
+
+    @Mock
+    private BoardChangeLog changeLog;
+
+    @Mock
+    private LeaderboardRepository leaderboardRepository;
+
+    private BoardChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        when(boardVersion.current()).thenReturn(CURRENT);
+        feed = new BoardChangeFeed(boardVersion, changeLog, leaderboardRepository, 2, 3_600_000L, 5_000L, true,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private static long versionAt(Instant instant) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, instant);
+    }
+
+    @Test
+    @DisplayName("Should answer recent versions from the change log")
+    void shouldAnswerFromChangeLog() {
+        // Arrange
+        List<BoardChange> changes = List.of(new BoardChange("a", 10.0, 1L));
+        when(changeLog.changesSince(CURRENT - 3, CURRENT)).thenReturn(Optional.of(changes));
+
+        // Act
+        BoardChanges result = feed.changesSince(CURRENT - 3);
+
+        // Assert
+        assertEquals(new BoardChanges(CURRENT, false, changes), result);
+        verify(leaderboardRepository, never()).findChangedSince(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should read every version from updated_at when other instances also write")
+    void shouldSkipChangeLogWithOtherWriters() {
+        // Arrange: this instance has written little since it started ten minutes ago
+        when(boardVersion.current()).thenReturn(versionAt(NOW.minusSeconds(600)) + 3);
+        feed = new BoardChangeFeed(boardVersion, changeLog, leaderboardRepository, 2, 3_600_000L, 5_000L, false,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+        long since = versionAt(NOW.minusSeconds(600)) + 1;
+        List<BoardChange> changes = List.of(new BoardChange("written-elsewhere", 10.0, 1L));
+        when(leaderboardRepository.findChangedSince(
+                OffsetDateTime.ofInstant(NOW.minusSeconds(605), ZoneOffset.UTC).plusNanos(1_000L), 3))
+                .thenReturn(changes);
+
+        // Act
+        BoardChanges result = feed.changesSince(since);
+
+        // Assert
+        assertEquals(new BoardChanges(CURRENT, false, changes), result);
+        verify(changeLog, never()).changesSince(anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Should fall back to updated_at from the version's time less the overlap")
+    void shouldFallBackToUpdatedAt() {
+        // Arrange
+        long since = versionAt(NOW.minusSeconds(600));
+        List<BoardChange> changes = List.of(new BoardChange("a", 10.0, 1L), new BoardChange("b", 5.0, 2L));
+        when(changeLog.changesSince(since, CURRENT)).thenReturn(Optional.empty());
+        when(leaderboardRepository.findChangedSince(OffsetDateTime.ofInstant(NOW.minusSeconds(605), ZoneOffset.UTC),
+                3)).thenReturn(changes);
+
+        // Act
+        BoardChanges result = feed.changesSince(since);
+
+        // Assert
+        assertFalse(result.resync());
+        assertEquals(changes, result.changes());
+        assertEquals(CURRENT, result.version());
+    }
+
+    @Test
+    @DisplayName("Should ask for a resync when the version is older than the fallback allows")
+    void shouldResyncOldVersions() {
+        // Arrange
+        when(changeLog.changesSince(anyLong(), anyLong())).thenReturn(Optional.empty());
+
+        // Act
+        BoardChanges result = feed.changesSince(versionAt(NOW.minusSeconds(7200)));
+
+        // Assert
+        assertTrue(result.resync());
+        assertEquals(CURRENT, result.version());
+        verify(leaderboardRepository, never()).findChangedSince(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should ask for a resync when more entries changed than max changes")
+    void shouldResyncLongLists() {
+        // Arrange
+        when(changeLog.changesSince(anyLong(), anyLong())).thenReturn(Optional.empty());
+        when(leaderboardRepository.findChangedSince(any(), anyInt())).thenReturn(List.of(
+                new BoardChange("a", 1.0, 1L), new BoardChange("b", 2.0, 1L), new BoardChange("c", 3.0, 1L)));
+
+        // Act & Assert
+        assertTrue(feed.changesSince(versionAt(NOW.minusSeconds(60))).resync());
+    }
+
+    @Test
+    @DisplayName("Should ask for a resync instead of failing on versions no board can have")
+    void shouldResyncImpossibleVersions() {
+        // Arrange
+        when(changeLog.changesSince(anyLong(), anyLong())).thenReturn(Optional.empty());
+
+        // Act & Assert
+        for (long since : new long[] { Long.MAX_VALUE, versionAt(NOW.plusSeconds(1)), -1L, Long.MIN_VALUE }) {
+            BoardChanges result = feed.changesSince(since);
+            assertTrue(result.resync(), Long.toString(since));
+            assertEquals(CURRENT, result.version());
+        }
+        verify(leaderboardRepository, never()).findChangedSince(any(), anyInt());
+    }
+}
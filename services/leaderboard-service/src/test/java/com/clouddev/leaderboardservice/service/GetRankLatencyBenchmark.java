@@ -0,0 +1,164 @@
+package com.clouddev.leaderboardservice.service;
+
+import com.clouddev.leaderboardservice.cache.PinnedBoardSnapshots;
+import com.clouddev.leaderboardservice.index.RankIndex;
+import com.clouddev.leaderboardservice.index.RankedEntry;
+import com.clouddev.leaderboardservice.index.ScoreHistogram;
+import com.clouddev.leaderboardservice.model.LeaderboardEntry;
+import com.clouddev.leaderboardservice.model.WindowedScore;
+import com.clouddev.leaderboardservice.names.NameLookupExecutor;
+import com.clouddev.leaderboardservice.names.UserNameCache;
+import com.clouddev.leaderboardservice.names.UserNameResolver;
+import com.clouddev.leaderboardservice.replica.ReplicatedScores;
+import com.clouddev.leaderboardservice.repository.LeaderboardRepository;
+import com.clouddev.leaderboardservice.shard.ShardedLeaderboard;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import org.mockito.invocation.InvocationOnMock;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * getRank latency against simulated queries and a slow user-service.
+ * Sharded, with the name lookup after the shard reads (0 lookup threads)
+ * and alongside them; unsharded, the default, with the display name stored
+ * on the entry and with none stored, which falls through to user-service.
+ * Not part of the normal build.
+ *
+ * <pre>
+ * mvn test -Dtest=GetRankLatencyBenchmark -Dbenchmark.rank-latency=true [-Dbenchmark.query-ms=3 -Dbenchmark.lookup-ms=15]
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark.rank-latency", matches = "true")
+@DisplayName("getRank Latency Benchmark")
+class GetRankLatencyBenchmark {
+
+    private static final int CLIENTS = 4;
+    private static final int CALLS_PER_CLIENT = 250;
+    private static final int WARMUP = 50;
+
+    // Share of user-service calls that take SLOW_LOOKUP_MS instead
+    private static final double SLOW_LOOKUP_SHARE = 0.02;
+    private static final long SLOW_LOOKUP_MS = 80;
+
+    private final long queryMs = Long.getLong("benchmark.query-ms", 3);
+    private final long lookupMs = Long.getLong("benchmark.lookup-ms", 15);
+
+    @Test
+    @DisplayName("Should report getRank latency sharded and unsharded, with and without stored names")
+    void compareRankPaths() throws Exception {
+        System.out.printf("query %d ms, name lookup %d ms (%.0f%% at %d ms), %d clients x %d calls%n",
+                queryMs, lookupMs, SLOW_LOOKUP_SHARE * 100, SLOW_LOOKUP_MS, CLIENTS, CALLS_PER_CLIENT);
+        report("sharded, sequential lookup", measure(new NameLookupExecutor(0), true, false));
+        report("sharded, parallel lookup", measure(new NameLookupExecutor(32), true, false));
+        report("unsharded, stored names", measure(new NameLookupExecutor(32), false, true));
+        report("unsharded, no stored names", measure(new NameLookupExecutor(32), false, false));
+    }
+
+    private static void report(String path, long[] sortedNanos) {
+        System.out.printf("%-28s p50 %.1f ms, p99 %.1f ms%n", path + ":", percentile(sortedNanos, 50),
+                percentile(sortedNanos, 99));
+    }
+
+    private long[] measure(NameLookupExecutor nameLookupExecutor, boolean sharded, boolean storedNames)
+            throws Exception {
+        LeaderboardService service = service(nameLookupExecutor, sharded, storedNames);
+        for (int i = 0; i < WARMUP; i++) {
+            service.getRank("user" + i);
+        }
+
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        List<Future<long[]>> results = new ArrayList<>();
+        for (int c = 0; c < CLIENTS; c++) {
+            int client = c;
+            results.add(clients.submit(() -> {
+                long[] nanos = new long[CALLS_PER_CLIENT];
+                for (int i = 0; i < CALLS_PER_CLIENT; i++) {
+                    String userId = "user" + client + "-" + i;
+                    long started = System.nanoTime();
+                    LeaderboardEntry entry = service.getRank(userId).orElseThrow();
+                    nanos[i] = System.nanoTime() - started;
+                    assertEquals("name-" + userId, entry.getUsername());
+                }
+                return nanos;
+            }));
+        }
+        long[] all = new long[CLIENTS * CALLS_PER_CLIENT];
+        for (int c = 0; c < CLIENTS; c++) {
+            System.arraycopy(results.get(c).get(), 0, all, c * CALLS_PER_CLIENT, CALLS_PER_CLIENT);
+        }
+        clients.shutdown();
+        nameLookupExecutor.close();
+        Arrays.sort(all);
+        return all;
+    }
+
+    private LeaderboardService service(NameLookupExecutor nameLookupExecutor, boolean sharded,
+            boolean storedNames) {
+        LeaderboardRepository repository = mock(LeaderboardRepository.class);
+        when(repository.findDisplayNames(any())).thenAnswer(invocation -> {
+            Thread.sleep(queryMs);
+            return List.of();
+        });
+        when(repository.findRankedEntry(anyString())).thenAnswer(
+                invocation -> windowedScore(invocation, storedNames));
+
+        // Shard rows carry no stored name, so every read needs the lookup
+        ShardedLeaderboard shardedLeaderboard = mock(ShardedLeaderboard.class);
+        when(shardedLeaderboard.isEnabled()).thenReturn(sharded);
+        when(shardedLeaderboard.rankOf(anyString())).thenAnswer(this::rankedEntry);
+
+        UserNameResolver userNameResolver = mock(UserNameResolver.class);
+        when(userNameResolver.resolve(any())).thenAnswer(this::resolve);
+
+        // Disabled, so every read goes to user-service
+        UserNameCache userNameCache = new UserNameCache(new SimpleMeterRegistry(), false, 10000, 600000, 60000);
+
+        return new LeaderboardService(repository, mock(RankIndex.class), mock(ApplicationEventPublisher.class),
+                userNameCache, userNameResolver, mock(PinnedBoardSnapshots.class), mock(ScoreHistogram.class),
+                shardedLeaderboard, mock(ReplicatedScores.class), mock(ScoreStripes.class),
+                nameLookupExecutor, false);
+    }
+
+    private Optional<RankedEntry> rankedEntry(InvocationOnMock invocation) throws InterruptedException {
+        Thread.sleep(queryMs + ThreadLocalRandom.current().nextLong(2));
+        return Optional.of(new RankedEntry(invocation.getArgument(0), 100.0, 1L, 42L));
+    }
+
+    private Optional<WindowedScore> windowedScore(InvocationOnMock invocation, boolean storedName)
+            throws InterruptedException {
+        Thread.sleep(queryMs + ThreadLocalRandom.current().nextLong(2));
+        String userId = invocation.getArgument(0);
+        return Optional.of(new WindowedScore(userId, 100.0, 1L, storedName ? "name-" + userId : null, 42L));
+    }
+
+    private Map<String, String> resolve(InvocationOnMock invocation) throws InterruptedException {
+        Set<String> userIds = invocation.getArgument(0);
+        boolean slow = ThreadLocalRandom.current().nextDouble() < SLOW_LOOKUP_SHARE;
+        Thread.sleep(slow ? SLOW_LOOKUP_MS : lookupMs + ThreadLocalRandom.current().nextLong(3));
+        String userId = userIds.iterator().next();
+        return Map.of(userId, "name-" + userId);
+    }
+
+    private static double percentile(long[] sortedNanos, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, index)] / 1e6;
+    }
+}
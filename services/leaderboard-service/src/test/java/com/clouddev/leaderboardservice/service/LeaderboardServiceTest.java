@@ -1,13 +1,21 @@
 package com.clouddev.leaderboardservice.service;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
+import java.time.temporal.TemporalAdjusters;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -16,17 +24,48 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.anyInt;
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.clouddev.leaderboardservice.cache.PinnedBoardSnapshots;
 import com.clouddev.leaderboardservice.entity.LeaderboardEntryEntity;
+import com.clouddev.leaderboardservice.event.ScoreChangedEvent;
+import com.clouddev.leaderboardservice.index.RankIndex;
+import com.clouddev.leaderboardservice.index.RankedEntry;
+import com.clouddev.leaderboardservice.index.ScoreHistogram;
+import com.clouddev.leaderboardservice.model.GroupLeaderboard;
 import com.clouddev.leaderboardservice.model.LeaderboardEntry;
+import com.clouddev.leaderboardservice.model.LeaderboardNeighborhood;
+import com.clouddev.leaderboardservice.model.LeaderboardPage;
+import com.clouddev.leaderboardservice.model.LeaderboardWindow;
+import com.clouddev.leaderboardservice.model.PageCursor;
+import com.clouddev.leaderboardservice.model.ScoreDelta;
+import com.clouddev.leaderboardservice.model.ScorePercentile;
+import com.clouddev.leaderboardservice.model.ScoreUpdateItem;
+import com.clouddev.leaderboardservice.model.ScoreUpdateResult;
+import com.clouddev.leaderboardservice.model.UpsertedScore;
+import com.clouddev.leaderboardservice.model.UserRankResult;
+import com.clouddev.leaderboardservice.model.WindowedScore;
+import com.clouddev.leaderboardservice.names.NameLookupExecutor;
+import com.clouddev.leaderboardservice.names.UserNameCache;
+import com.clouddev.leaderboardservice.names.UserNameResolver;
+import com.clouddev.leaderboardservice.names.UserServiceUnavailableException;
+import com.clouddev.leaderboardservice.replica.ReplicatedScores;
 import com.clouddev.leaderboardservice.repository.LeaderboardRepository;
+import com.clouddev.leaderboardservice.shard.ShardWriteException;
+import com.clouddev.leaderboardservice.shard.ShardedLeaderboard;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("LeaderboardService Tests")
@@ -36,7 +75,37 @@ class LeaderboardServiceTest {
     @Mock
     private LeaderboardRepository leaderboardRepository;
 
-    @InjectMocks
+    @Mock
+    private RankIndex rankIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private UserNameCache userNameCache;
+
+    @Mock
+    private UserNameResolver userNameResolver;
+
+    @Mock
+    private PinnedBoardSnapshots pinnedBoardSnapshots;
+
+    @Mock
+    private ScoreHistogram scoreHistogram;
+
+    @Mock
+    private ShardedLeaderboard shardedLeaderboard;
+
+    @Mock
+    private ReplicatedScores replicatedScores;
+
+    @Mock
+    private ScoreStripes scoreStripes;
+
+    // Runs lookups on the calling thread
+    @Spy
+    private NameLookupExecutor nameLookupExecutor = new NameLookupExecutor(0);
+
     private LeaderboardService leaderboardService;
 
     private LocalDate today;
@@ -44,6 +113,13 @@ class LeaderboardServiceTest {
     @BeforeEach
     void setUp() {
         today = LocalDate.now(ZoneOffset.UTC);
+        leaderboardService = service(true);
+    }
+
+    private LeaderboardService service(boolean profileEventsEnabled) {
+        return new LeaderboardService(leaderboardRepository, rankIndex, eventPublisher, userNameCache,
+                userNameResolver, pinnedBoardSnapshots, scoreHistogram, shardedLeaderboard, replicatedScores,
+                scoreStripes, nameLookupExecutor, profileEventsEnabled);
     }
 
     @Nested
@@ -57,46 +133,38 @@ class LeaderboardServiceTest {
             String userId = "new-user";
             double delta = 100.0;
 
-            when(leaderboardRepository.findByUserId(userId)).thenReturn(Optional.empty());
-            when(leaderboardRepository.save(any(LeaderboardEntryEntity.class)))
-                    .thenAnswer(invocation -> invocation.getArgument(0));
+            when(leaderboardRepository.upsertScore(any()))
+                    .thenReturn(new UpsertedScore(userId, delta, 1L, today, null));
 
             // Act
             leaderboardService.updateScore(userId, delta);
 
             // Assert
-            ArgumentCaptor<LeaderboardEntryEntity> captor = ArgumentCaptor.forClass(LeaderboardEntryEntity.class);
-            verify(leaderboardRepository).save(captor.capture());
+            verify(leaderboardRepository).upsertScore(new ScoreDelta(userId, delta, today));
 
-            LeaderboardEntryEntity savedEntry = captor.getValue();
-            assertEquals(userId, savedEntry.getUserId());
-            assertEquals(delta, savedEntry.getScore());
-            assertEquals(1L, savedEntry.getStreakCount());
-            assertEquals(today, savedEntry.getLastActivityDate());
+            ArgumentCaptor<ScoreChangedEvent> captor = ArgumentCaptor.forClass(ScoreChangedEvent.class);
+            verify(eventPublisher).publishEvent(captor.capture());
+            assertNull(captor.getValue().previousScore());
+            assertEquals(delta, captor.getValue().score());
+            assertEquals(1L, captor.getValue().streak());
         }
 
         @Test
-        @DisplayName("Should update existing user's score")
+        @DisplayName("Should update existing user's score with one statement and no read")
         void shouldUpdateExistingUserScore() {
             // Arrange
             String userId = "existing-user";
-            double initialScore = 100.0;
-            double delta = 50.0;
 
-            LeaderboardEntryEntity existingEntry = new LeaderboardEntryEntity(userId, initialScore, 1L, today);
-            when(leaderboardRepository.findByUserId(userId)).thenReturn(Optional.of(existingEntry));
-            when(leaderboardRepository.save(any(LeaderboardEntryEntity.class)))
-                    .thenAnswer(invocation -> invocation.getArgument(0));
+            when(leaderboardRepository.upsertScore(any()))
+                    .thenReturn(new UpsertedScore(userId, 150.0, 1L, today, 100.0));
 
             // Act
-            leaderboardService.updateScore(userId, delta);
+            leaderboardService.updateScore(userId, 50.0);
 
             // Assert
-            ArgumentCaptor<LeaderboardEntryEntity> captor = ArgumentCaptor.forClass(LeaderboardEntryEntity.class);
-            verify(leaderboardRepository).save(captor.capture());
-
-            LeaderboardEntryEntity savedEntry = captor.getValue();
-            assertEquals(initialScore + delta, savedEntry.getScore());
+            verify(leaderboardRepository).upsertScore(new ScoreDelta(userId, 50.0, today));
+            verify(leaderboardRepository, never()).findByUserId(any());
+            verify(leaderboardRepository, never()).save(any());
         }
 
         @Test
@@ -104,87 +172,224 @@ class LeaderboardServiceTest {
         void shouldHandleNegativeScoreDelta() {
             // Arrange
             String userId = "user";
-            double initialScore = 100.0;
-            double delta = -30.0;
 
-            LeaderboardEntryEntity existingEntry = new LeaderboardEntryEntity(userId, initialScore, 1L, today);
-            when(leaderboardRepository.findByUserId(userId)).thenReturn(Optional.of(existingEntry));
-            when(leaderboardRepository.save(any(LeaderboardEntryEntity.class)))
-                    .thenAnswer(invocation -> invocation.getArgument(0));
+            when(leaderboardRepository.upsertScore(any()))
+                    .thenReturn(new UpsertedScore(userId, 70.0, 1L, today, 100.0));
 
             // Act
-            leaderboardService.updateScore(userId, delta);
+            leaderboardService.updateScore(userId, -30.0);
 
             // Assert
-            ArgumentCaptor<LeaderboardEntryEntity> captor = ArgumentCaptor.forClass(LeaderboardEntryEntity.class);
-            verify(leaderboardRepository).save(captor.capture());
+            ArgumentCaptor<ScoreChangedEvent> captor = ArgumentCaptor.forClass(ScoreChangedEvent.class);
+            verify(eventPublisher).publishEvent(captor.capture());
+            assertEquals(100.0, captor.getValue().previousScore());
+            assertEquals(70.0, captor.getValue().score());
+        }
 
-            assertEquals(70.0, captor.getValue().getScore());
+        @Test
+        @DisplayName("Should report the previous score read by the upsert rather than derive it from the delta")
+        void shouldReportPreviousScoreFromUpsert() {
+            // Arrange
+            String userId = "user";
+            // 0.2 + 0.1 rounds up, so score - delta would not give back 0.2
+            when(leaderboardRepository.upsertScore(any()))
+                    .thenReturn(new UpsertedScore(userId, 0.2 + 0.1, 1L, today, 0.2));
+
+            // Act
+            leaderboardService.updateScore(userId, 0.1);
+
+            // Assert
+            ArgumentCaptor<ScoreChangedEvent> captor = ArgumentCaptor.forClass(ScoreChangedEvent.class);
+            verify(eventPublisher).publishEvent(captor.capture());
+            assertEquals(0.2, captor.getValue().previousScore());
         }
 
         @Test
-        @DisplayName("Should increment streak for consecutive day")
-        void shouldIncrementStreakForConsecutiveDay() {
+        @DisplayName("Should pass the activity date through to the upsert")
+        void shouldPassActivityDate() {
             // Arrange
             String userId = "user";
-            LocalDate yesterday = today.minusDays(1);
+            LocalDate twoDaysAgo = today.minusDays(2);
 
-            LeaderboardEntryEntity existingEntry = new LeaderboardEntryEntity(userId, 100.0, 5L, yesterday);
-            when(leaderboardRepository.findByUserId(userId)).thenReturn(Optional.of(existingEntry));
-            when(leaderboardRepository.save(any(LeaderboardEntryEntity.class)))
-                    .thenAnswer(invocation -> invocation.getArgument(0));
+            when(leaderboardRepository.upsertScore(any()))
+                    .thenReturn(new UpsertedScore(userId, 110.0, 6L, today, 100.0));
 
             // Act
-            leaderboardService.updateScore(userId, 10.0);
+            leaderboardService.updateScore(userId, 10.0, twoDaysAgo);
 
             // Assert
-            ArgumentCaptor<LeaderboardEntryEntity> captor = ArgumentCaptor.forClass(LeaderboardEntryEntity.class);
-            verify(leaderboardRepository).save(captor.capture());
-
-            assertEquals(6L, captor.getValue().getStreakCount());
+            verify(leaderboardRepository).upsertScore(new ScoreDelta(userId, 10.0, twoDaysAgo));
         }
 
         @Test
-        @DisplayName("Should reset streak for non-consecutive day")
-        void shouldResetStreakForNonConsecutiveDay() {
+        @DisplayName("Should publish score change with previous and new score")
+        void shouldPublishScoreChangedEvent() {
             // Arrange
             String userId = "user";
-            LocalDate threeDaysAgo = today.minusDays(3);
 
-            LeaderboardEntryEntity existingEntry = new LeaderboardEntryEntity(userId, 100.0, 10L, threeDaysAgo);
-            when(leaderboardRepository.findByUserId(userId)).thenReturn(Optional.of(existingEntry));
-            when(leaderboardRepository.save(any(LeaderboardEntryEntity.class)))
-                    .thenAnswer(invocation -> invocation.getArgument(0));
+            when(leaderboardRepository.upsertScore(any()))
+                    .thenReturn(new UpsertedScore(userId, 125.0, 3L, today, 100.0));
 
             // Act
-            leaderboardService.updateScore(userId, 10.0);
+            leaderboardService.updateScore(userId, 25.0);
 
             // Assert
-            ArgumentCaptor<LeaderboardEntryEntity> captor = ArgumentCaptor.forClass(LeaderboardEntryEntity.class);
-            verify(leaderboardRepository).save(captor.capture());
+            ArgumentCaptor<ScoreChangedEvent> captor = ArgumentCaptor.forClass(ScoreChangedEvent.class);
+            verify(eventPublisher).publishEvent(captor.capture());
+
+            ScoreChangedEvent event = captor.getValue();
+            assertEquals(userId, event.userId());
+            assertEquals(100.0, event.previousScore());
+            assertEquals(125.0, event.score());
+            assertEquals(3L, event.streak());
+            assertEquals(today, event.lastActivityDate());
+        }
+    }
+
+    @Nested
+    @DisplayName("Apply Score Deltas Tests")
+    class ApplyScoreDeltasTests {
 
-            assertEquals(1L, captor.getValue().getStreakCount());
+        @Test
+        @DisplayName("Should apply deltas with one upsert and no lookups")
+        void shouldApplyDeltasWithOneUpsert() {
+            // Arrange
+            when(leaderboardRepository.upsertScores(any())).thenReturn(Arrays.asList(
+                    new UpsertedScore("user1", 120.0, 5L, today, 100.0),
+                    new UpsertedScore("user2", 10.0, 1L, today, null)));
+
+            // Act
+            leaderboardService.applyScoreDeltas(Arrays.asList(
+                    new ScoreDelta("user1", 20.0, today),
+                    new ScoreDelta("user2", 5.0, today),
+                    new ScoreDelta("user2", 5.0, today)));
+
+            // Assert
+            verify(leaderboardRepository).upsertScores(Arrays.asList(
+                    new ScoreDelta("user1", 20.0, today),
+                    new ScoreDelta("user2", 10.0, today)));
+            verify(leaderboardRepository, never()).findByUserId(any());
+            verify(leaderboardRepository, never()).saveAll(any());
+
+            ArgumentCaptor<ScoreChangedEvent> events = ArgumentCaptor.forClass(ScoreChangedEvent.class);
+            verify(eventPublisher, times(2)).publishEvent(events.capture());
+            assertEquals(100.0, events.getAllValues().get(0).previousScore());
+            assertEquals(120.0, events.getAllValues().get(0).score());
+            assertNull(events.getAllValues().get(1).previousScore());
         }
 
         @Test
-        @DisplayName("Should maintain streak for same day activity")
-        void shouldMaintainStreakForSameDayActivity() {
+        @DisplayName("Should apply a user's dates oldest first in separate rounds")
+        void shouldApplyDatesInRounds() {
             // Arrange
-            String userId = "user";
+            LocalDate yesterday = today.minusDays(1);
+            when(leaderboardRepository.upsertScores(any()))
+                    .thenReturn(List.of(new UpsertedScore("user1", 103.0, 3L, yesterday, 100.0)))
+                    .thenReturn(List.of(new UpsertedScore("user1", 110.0, 4L, today, 103.0)));
 
-            LeaderboardEntryEntity existingEntry = new LeaderboardEntryEntity(userId, 100.0, 5L, today);
-            when(leaderboardRepository.findByUserId(userId)).thenReturn(Optional.of(existingEntry));
-            when(leaderboardRepository.save(any(LeaderboardEntryEntity.class)))
-                    .thenAnswer(invocation -> invocation.getArgument(0));
+            // Act
+            leaderboardService.applyScoreDeltas(Arrays.asList(
+                    new ScoreDelta("user1", 7.0, today),
+                    new ScoreDelta("user1", 3.0, yesterday)));
+
+            // Assert
+            InOrder inOrder = inOrder(leaderboardRepository);
+            inOrder.verify(leaderboardRepository).upsertScores(List.of(new ScoreDelta("user1", 3.0, yesterday)));
+            inOrder.verify(leaderboardRepository).upsertScores(List.of(new ScoreDelta("user1", 7.0, today)));
+
+            ArgumentCaptor<ScoreChangedEvent> event = ArgumentCaptor.forClass(ScoreChangedEvent.class);
+            verify(eventPublisher).publishEvent(event.capture());
+            assertEquals(100.0, event.getValue().previousScore());
+            assertEquals(110.0, event.getValue().score());
+            assertEquals(4L, event.getValue().streak());
+        }
+    }
+
+    @Nested
+    @DisplayName("Apply Score Batch Tests")
+    class ApplyScoreBatchTests {
+
+        @Test
+        @DisplayName("Should return results in request order with final scores")
+        void shouldReturnResultsInRequestOrder() {
+            // Arrange
+            when(leaderboardRepository.upsertScores(any())).thenReturn(Arrays.asList(
+                    new UpsertedScore("user1", 15.0, 1L, today, null),
+                    new UpsertedScore("user2", 50.0, 2L, today, 45.0)));
 
             // Act
-            leaderboardService.updateScore(userId, 10.0);
+            List<ScoreUpdateResult> results = leaderboardService.applyScoreBatch(Arrays.asList(
+                    new ScoreUpdateItem("user1", 10.0, null),
+                    new ScoreUpdateItem("user2", 5.0, today),
+                    new ScoreUpdateItem("user1", 5.0, null)));
 
             // Assert
-            ArgumentCaptor<LeaderboardEntryEntity> captor = ArgumentCaptor.forClass(LeaderboardEntryEntity.class);
-            verify(leaderboardRepository).save(captor.capture());
+            verify(leaderboardRepository).upsertScores(Arrays.asList(
+                    new ScoreDelta("user1", 15.0, today),
+                    new ScoreDelta("user2", 5.0, today)));
+            assertEquals(3, results.size());
+            assertEquals(ScoreUpdateResult.applied("user1", 15.0, 1L), results.get(0));
+            assertEquals(ScoreUpdateResult.applied("user2", 50.0, 2L), results.get(1));
+            assertEquals(ScoreUpdateResult.applied("user1", 15.0, 1L), results.get(2));
+        }
+
+        @Test
+        @DisplayName("Should reject invalid items and apply the rest")
+        void shouldRejectInvalidItems() {
+            // Arrange
+            when(leaderboardRepository.upsertScores(any()))
+                    .thenReturn(List.of(new UpsertedScore("user1", 1.0, 1L, today, null)));
+
+            // Act
+            List<ScoreUpdateResult> results = leaderboardService.applyScoreBatch(Arrays.asList(
+                    new ScoreUpdateItem(" ", 1.0, null),
+                    new ScoreUpdateItem("user2", null, null),
+                    new ScoreUpdateItem("user3", Double.NaN, null),
+                    new ScoreUpdateItem("x".repeat(256), 1.0, null),
+                    null,
+                    new ScoreUpdateItem("user1", 1.0, null)));
+
+            // Assert
+            verify(leaderboardRepository).upsertScores(List.of(new ScoreDelta("user1", 1.0, today)));
+            for (int i = 0; i < 5; i++) {
+                assertEquals(ScoreUpdateResult.Status.REJECTED, results.get(i).status());
+            }
+            assertEquals("scoreDelta is required", results.get(1).error());
+            assertEquals(ScoreUpdateResult.Status.APPLIED, results.get(5).status());
+        }
+
+        @Test
+        @DisplayName("Should not write when every item is rejected")
+        void shouldNotWriteWhenAllRejected() {
+            // Act
+            List<ScoreUpdateResult> results = leaderboardService.applyScoreBatch(
+                    List.of(new ScoreUpdateItem(null, 1.0, null)));
+
+            // Assert
+            assertEquals(1, results.size());
+            verify(leaderboardRepository, never()).upsertScores(any());
+            verify(eventPublisher, never()).publishEvent(any());
+        }
+
+        @Test
+        @DisplayName("Should report items on a failed shard as failed and keep the committed ones applied")
+        void shouldReportFailedShard() {
+            // Arrange
+            when(shardedLeaderboard.isEnabled()).thenReturn(true);
+            when(shardedLeaderboard.upsertRounds(any())).thenThrow(new ShardWriteException(
+                    List.of(new UpsertedScore("user1", 10.0, 1L, today, null)),
+                    new IllegalStateException("shard unavailable")));
+
+            // Act
+            List<ScoreUpdateResult> results = leaderboardService.applyScoreBatch(List.of(
+                    new ScoreUpdateItem("user1", 10.0, today),
+                    new ScoreUpdateItem("user2", 5.0, today)));
 
-            assertEquals(5L, captor.getValue().getStreakCount());
+            // Assert
+            assertEquals(ScoreUpdateResult.Status.APPLIED, results.get(0).status());
+            assertEquals(10.0, results.get(0).score());
+            assertEquals(ScoreUpdateResult.Status.FAILED, results.get(1).status());
+            verify(eventPublisher).publishEvent(new ScoreChangedEvent("user1", null, 10.0, 1L, today));
         }
     }
 
@@ -257,6 +462,27 @@ class LeaderboardServiceTest {
             // Assert
             assertTrue(result.isEmpty());
         }
+
+        @Test
+        @DisplayName("Should answer from rank index when it is serving")
+        void shouldAnswerFromRankIndex() {
+            // Arrange
+            when(rankIndex.isServing()).thenReturn(true);
+            when(rankIndex.top(2)).thenReturn(Arrays.asList(
+                    new RankedEntry("user1", 1000.0, 10L, 1L),
+                    new RankedEntry("user2", 800.0, 5L, 2L)));
+
+            // Act
+            List<LeaderboardEntry> result = leaderboardService.getTopN(2);
+
+            // Assert
+            assertEquals(2, result.size());
+            assertEquals("user1", result.get(0).getUserId());
+            assertEquals(1000.0, result.get(0).getScore());
+            assertEquals(10L, result.get(0).getStreak());
+            assertEquals(2L, result.get(1).getRank());
+            verify(leaderboardRepository, never()).findTopN(anyInt());
+        }
     }
 
     @Nested
@@ -268,10 +494,8 @@ class LeaderboardServiceTest {
         void shouldReturnUserRank() {
             // Arrange
             String userId = "user1";
-            LeaderboardEntryEntity entity = new LeaderboardEntryEntity(userId, 500.0, 5L, today);
-
-            when(leaderboardRepository.findByUserId(userId)).thenReturn(Optional.of(entity));
-            when(leaderboardRepository.getUserRank(userId)).thenReturn(3L);
+            when(leaderboardRepository.findRankedEntry(userId))
+                    .thenReturn(Optional.of(new WindowedScore(userId, 500.0, 5L, null, 3L)));
 
             // Act
             Optional<LeaderboardEntry> result = leaderboardService.getRank(userId);
@@ -284,35 +508,136 @@ class LeaderboardServiceTest {
             assertEquals(5L, result.get().getStreak());
         }
 
+        @Test
+        @DisplayName("Should read entry and rank in one statement and look up a missing name after it")
+        void shouldComposeOneQueryWithNameLookup() {
+            // Arrange
+            when(leaderboardRepository.findRankedEntry("user1"))
+                    .thenReturn(Optional.of(new WindowedScore("user1", 500.0, 5L, null, 3L)));
+            when(userNameCache.getAll(any(), any())).thenReturn(Map.of("user1", "Alice"));
+
+            // Act
+            Optional<LeaderboardEntry> result = leaderboardService.getRank("user1");
+
+            // Assert
+            assertEquals("Alice", result.orElseThrow().getUsername());
+            verify(nameLookupExecutor, never()).execute(any());
+            verify(leaderboardRepository, never()).findByUserId(any());
+            verify(leaderboardRepository, never()).getUserRank(any());
+        }
+
+        @Test
+        @DisplayName("Should prefer the stored display name over the looked-up one")
+        void shouldPreferStoredDisplayName() {
+            // Arrange
+            when(leaderboardRepository.findRankedEntry("user1"))
+                    .thenReturn(Optional.of(new WindowedScore("user1", 500.0, 5L, "Stored", 3L)));
+
+            // Act
+            Optional<LeaderboardEntry> result = leaderboardService.getRank("user1");
+
+            // Assert
+            assertEquals("Stored", result.orElseThrow().getUsername());
+            verify(userNameCache, never()).getAll(any(), any());
+        }
+
         @Test
         @DisplayName("Should return empty for non-existent user")
         void shouldReturnEmptyForNonExistentUser() {
             // Arrange
-            when(leaderboardRepository.findByUserId("nonexistent")).thenReturn(Optional.empty());
+            when(leaderboardRepository.findRankedEntry("nonexistent")).thenReturn(Optional.empty());
 
             // Act
             Optional<LeaderboardEntry> result = leaderboardService.getRank("nonexistent");
 
             // Assert
             assertTrue(result.isEmpty());
+            verify(userNameCache, never()).getAll(any(), any());
         }
 
         @Test
-        @DisplayName("Should handle null rank from repository")
-        void shouldHandleNullRank() {
+        @DisplayName("Should drop the name looked up alongside the shards for a user without an entry")
+        void shouldDropNameLookupForMissingShardedUser() {
             // Arrange
-            String userId = "user1";
-            LeaderboardEntryEntity entity = new LeaderboardEntryEntity(userId, 500.0, 5L, today);
+            when(shardedLeaderboard.isEnabled()).thenReturn(true);
+            when(shardedLeaderboard.rankOf("nonexistent")).thenReturn(Optional.empty());
+            when(userNameCache.getAll(any(), any())).thenReturn(Map.of());
 
-            when(leaderboardRepository.findByUserId(userId)).thenReturn(Optional.of(entity));
-            when(leaderboardRepository.getUserRank(userId)).thenReturn(null);
+            // Act
+            Optional<LeaderboardEntry> result = leaderboardService.getRank("nonexistent");
+
+            // Assert
+            assertTrue(result.isEmpty());
+            verify(nameLookupExecutor).execute(any());
+            verify(userNameCache).invalidate("nonexistent");
+        }
+
+        @Test
+        @DisplayName("Should answer from rank index when it is serving")
+        void shouldAnswerFromRankIndex() {
+            // Arrange
+            when(rankIndex.isServing()).thenReturn(true);
+            when(rankIndex.rankOf("user1")).thenReturn(Optional.of(new RankedEntry("user1", 500.0, 5L, 3L)));
 
             // Act
-            Optional<LeaderboardEntry> result = leaderboardService.getRank(userId);
+            Optional<LeaderboardEntry> result = leaderboardService.getRank("user1");
 
             // Assert
             assertTrue(result.isPresent());
-            assertEquals(0L, result.get().getRank());
+            assertEquals(3L, result.get().getRank());
+            assertEquals(500.0, result.get().getScore());
+            verify(leaderboardRepository, never()).getUserRank(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Bulk Rank Tests")
+    class BulkRankTests {
+
+        @Test
+        @DisplayName("Should rank every user with one query and one name batch, in request order")
+        @SuppressWarnings("unchecked")
+        void shouldRankInRequestOrder() {
+            // Arrange
+            when(leaderboardRepository.findRanks(any())).thenReturn(List.of(
+                    new WindowedScore("user3", 700.0, 1L, null, 9L),
+                    new WindowedScore("user1", 900.0, 2L, "Alice", 4L)));
+            when(userNameCache.getAll(any(), any())).thenReturn(Map.of("user3", "Carol"));
+
+            // Act
+            List<UserRankResult> results = leaderboardService.getRanks(
+                    List.of("user1", "ghost", "user3", "user1"));
+
+            // Assert
+            assertEquals(List.of(
+                    new UserRankResult("user1", UserRankResult.Status.FOUND, "Alice", 900.0, 4L, 2L),
+                    UserRankResult.unknown("ghost"),
+                    new UserRankResult("user3", UserRankResult.Status.FOUND, "Carol", 700.0, 9L, 1L),
+                    new UserRankResult("user1", UserRankResult.Status.FOUND, "Alice", 900.0, 4L, 2L)), results);
+            ArgumentCaptor<Set<String>> requested = ArgumentCaptor.forClass(Set.class);
+            verify(leaderboardRepository, times(1)).findRanks(requested.capture());
+            assertEquals(Set.of("user1", "ghost", "user3"), requested.getValue());
+            verify(userNameCache, times(1)).getAll(any(), any());
+            verify(leaderboardRepository, never()).getUserRank(any());
+        }
+
+        @Test
+        @DisplayName("Should answer from rank index when it is serving")
+        void shouldAnswerFromRankIndex() {
+            // Arrange
+            when(rankIndex.isServing()).thenReturn(true);
+            when(rankIndex.rankOf("user1")).thenReturn(Optional.of(new RankedEntry("user1", 1000.0, 10L, 1L)));
+            when(rankIndex.rankOf("ghost")).thenReturn(Optional.empty());
+            when(userNameCache.getAll(any(), any())).thenReturn(Map.of("user1", "Alice"));
+
+            // Act
+            List<UserRankResult> results = leaderboardService.getRanks(List.of("ghost", "user1"));
+
+            // Assert
+            assertEquals(UserRankResult.Status.UNKNOWN, results.get(0).status());
+            assertEquals(1L, results.get(1).rank());
+            assertEquals("Alice", results.get(1).username());
+            verify(leaderboardRepository, never()).findRanks(any());
         }
     }
 
@@ -349,4 +674,630 @@ class LeaderboardServiceTest {
             assertEquals(0L, streak);
         }
     }
+
+    @Nested
+    @DisplayName("Display Name Tests")
+    class DisplayNameTests {
+
+        private LeaderboardEntryEntity named(String userId, double score, String displayName) {
+            LeaderboardEntryEntity entity = new LeaderboardEntryEntity(userId, score, 1L, today);
+            entity.setDisplayName(displayName);
+            return entity;
+        }
+
+        /** Lets the mocked cache miss so the service's loader runs. */
+        @SuppressWarnings("unchecked")
+        private void cacheMisses() {
+            when(userNameCache.getAll(any(), any())).thenAnswer(invocation -> {
+                Set<String> userIds = new LinkedHashSet<>(invocation.getArgument(0));
+                return ((Function<Set<String>, Map<String, String>>) invocation.getArgument(1)).apply(userIds);
+            });
+        }
+
+        @Test
+        @DisplayName("Should use stored display names without a lookup")
+        void shouldUseStoredDisplayNames() {
+            // Arrange
+            when(leaderboardRepository.findTopN(2)).thenReturn(Arrays.asList(
+                    named("user1", 1000.0, "Alice"),
+                    named("user2", 800.0, "Bob")));
+
+            // Act
+            List<LeaderboardEntry> result = leaderboardService.getTopN(2);
+
+            // Assert
+            assertEquals("Alice", result.get(0).getUsername());
+            assertEquals("Bob", result.get(1).getUsername());
+            verify(userNameCache, never()).getAll(any(), any());
+        }
+
+        @Test
+        @DisplayName("Should look up only unnamed entries and store what user-service returns")
+        void shouldLookUpOnlyUnnamedEntries() {
+            // Arrange
+            cacheMisses();
+            when(leaderboardRepository.findTopN(3)).thenReturn(Arrays.asList(
+                    named("user1", 1000.0, "Alice"),
+                    named("user2", 800.0, null),
+                    named("user3", 600.0, null)));
+            when(leaderboardRepository.findDisplayNames(Set.of("user2", "user3"))).thenReturn(List.of());
+            when(userNameResolver.resolve(Set.of("user2", "user3"))).thenReturn(Map.of("user2", "Bob"));
+
+            // Act
+            List<LeaderboardEntry> result = leaderboardService.getTopN(3);
+
+            // Assert
+            assertEquals("Alice", result.get(0).getUsername());
+            assertEquals("Bob", result.get(1).getUsername());
+            assertEquals("user3", result.get(2).getUsername());
+            verify(leaderboardRepository).fillMissingDisplayNames(Map.of("user2", "Bob"));
+        }
+
+        @Test
+        @DisplayName("Should not store fetched names when no profile event could ever replace them")
+        void shouldNotStoreNamesWithoutProfileEvents() {
+            // Arrange
+            cacheMisses();
+            when(leaderboardRepository.findTopN(1)).thenReturn(List.of(named("user1", 1000.0, null)));
+            when(leaderboardRepository.findDisplayNames(Set.of("user1"))).thenReturn(List.of());
+            when(userNameResolver.resolve(Set.of("user1"))).thenReturn(Map.of("user1", "Alice"));
+
+            // Act
+            List<LeaderboardEntry> result = service(false).getTopN(1);
+
+            // Assert
+            assertEquals("Alice", result.get(0).getUsername());
+            verify(leaderboardRepository, never()).fillMissingDisplayNames(any());
+        }
+
+        @Test
+        @DisplayName("Should take rank index names from stored display names first")
+        void shouldPreferStoredNamesForRankIndex() {
+            // Arrange
+            cacheMisses();
+            when(rankIndex.isServing()).thenReturn(true);
+            when(rankIndex.top(2)).thenReturn(Arrays.asList(
+                    new RankedEntry("user1", 1000.0, 10L, 1L),
+                    new RankedEntry("user2", 800.0, 5L, 2L)));
+            when(leaderboardRepository.findDisplayNames(Set.of("user1", "user2")))
+                    .thenReturn(List.<Object[]>of(new Object[] { "user1", "Alice" }));
+            doThrow(new UserServiceUnavailableException("circuit open"))
+                    .when(userNameResolver).resolve(Set.of("user2"));
+
+            // Act
+            List<LeaderboardEntry> result = leaderboardService.getTopN(2);
+
+            // Assert
+            assertEquals("Alice", result.get(0).getUsername());
+            assertEquals("user2", result.get(1).getUsername());
+            verify(leaderboardRepository, never()).fillMissingDisplayNames(any());
+        }
+
+        @Test
+        @DisplayName("Should pass the failure on when nothing is stored either")
+        void shouldFailWhenNothingIsStored() {
+            // Arrange
+            when(leaderboardRepository.findDisplayNames(Set.of("user1"))).thenReturn(List.of());
+            doThrow(new UserServiceUnavailableException("circuit open"))
+                    .when(userNameResolver).resolve(Set.of("user1"));
+            when(userNameCache.getAll(any(), any())).thenAnswer(invocation -> {
+                @SuppressWarnings("unchecked")
+                Function<Set<String>, Map<String, String>> loader = invocation.getArgument(1);
+                assertThrows(UserServiceUnavailableException.class, () -> loader.apply(Set.of("user1")));
+                return Map.of();
+            });
+            when(leaderboardRepository.findRankedEntry("user1"))
+                    .thenReturn(Optional.of(new WindowedScore("user1", 10.0, 1L, null, 1L)));
+
+            // Act
+            Optional<LeaderboardEntry> result = leaderboardService.getRank("user1");
+
+            // Assert
+            assertEquals("user1", result.get().getUsername());
+        }
+    }
+
+    @Nested
+    @DisplayName("Windowed Board Tests")
+    class WindowedBoardTests {
+
+        @Test
+        @DisplayName("Should read the current ISO week's bucket")
+        void shouldReadCurrentWeek() {
+            // Arrange
+            LocalDate monday = today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            when(leaderboardRepository.findTopInPeriod(LeaderboardWindow.WEEK, monday, 2)).thenReturn(List.of(
+                    new WindowedScore("user2", 70.0, 3L, "Bob", 1L),
+                    new WindowedScore("user1", 20.0, 9L, "Alice", 2L)));
+
+            // Act
+            List<LeaderboardEntry> result = leaderboardService.getTopN(2, LeaderboardWindow.WEEK);
+
+            // Assert
+            assertEquals(2, result.size());
+            assertEquals("user2", result.get(0).getUserId());
+            assertEquals("Bob", result.get(0).getUsername());
+            assertEquals(70.0, result.get(0).getScore());
+            assertEquals(3L, result.get(0).getStreak());
+            assertEquals(2L, result.get(1).getRank());
+            verify(leaderboardRepository, never()).findTopN(anyInt());
+        }
+
+        @Test
+        @DisplayName("Should rank a user within the current month")
+        void shouldRankWithinMonth() {
+            // Arrange
+            when(leaderboardRepository.findRankInPeriod(LeaderboardWindow.MONTH, today.withDayOfMonth(1), "user1"))
+                    .thenReturn(Optional.of(new WindowedScore("user1", 20.0, 9L, "Alice", 4L)));
+
+            // Act
+            Optional<LeaderboardEntry> result = leaderboardService.getRank("user1", LeaderboardWindow.MONTH);
+
+            // Assert
+            assertTrue(result.isPresent());
+            assertEquals(4L, result.get().getRank());
+            assertEquals(20.0, result.get().getScore());
+        }
+
+        @Test
+        @DisplayName("Should return empty when the user has not scored today")
+        void shouldReturnEmptyWithoutScoreInWindow() {
+            // Arrange
+            when(leaderboardRepository.findRankInPeriod(LeaderboardWindow.DAY, today, "user1"))
+                    .thenReturn(Optional.empty());
+
+            // Act & Assert
+            assertTrue(leaderboardService.getRank("user1", LeaderboardWindow.DAY).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should use the all-time board for ALL")
+        void shouldUseAllTimeBoardForAll() {
+            // Arrange
+            when(leaderboardRepository.findTopN(2)).thenReturn(List.of());
+
+            // Act
+            leaderboardService.getTopN(2, LeaderboardWindow.ALL);
+
+            // Assert
+            verify(leaderboardRepository).findTopN(2);
+            verify(leaderboardRepository, never()).findTopInPeriod(any(), any(), anyInt());
+        }
+
+        @Test
+        @DisplayName("Should map dates to the start of their period")
+        void shouldComputePeriodStarts() {
+            // Arrange
+            LocalDate sunday = LocalDate.of(2026, 10, 18);
+
+            // Act & Assert
+            assertEquals(sunday, LeaderboardWindow.DAY.periodStart(sunday));
+            assertEquals(LocalDate.of(2026, 10, 12), LeaderboardWindow.WEEK.periodStart(sunday));
+            assertEquals(LocalDate.of(2026, 10, 1), LeaderboardWindow.MONTH.periodStart(sunday));
+            assertEquals(LocalDate.of(2026, 9, 28), LeaderboardWindow.WEEK.periodStart(sunday, 2));
+            assertEquals(LeaderboardWindow.WEEK, LeaderboardWindow.parse("Week"));
+            assertEquals(LeaderboardWindow.ALL, LeaderboardWindow.parse(null));
+            assertThrows(IllegalArgumentException.class, () -> LeaderboardWindow.parse("year"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Around Me Tests")
+    class AroundTests {
+
+        @Test
+        @DisplayName("Should return the window with names resolved in one batch")
+        @SuppressWarnings("unchecked")
+        void shouldReturnWindowWithOneNameBatch() {
+            // Arrange
+            when(leaderboardRepository.findAround("user2", 1)).thenReturn(List.of(
+                    new WindowedScore("user1", 900.0, 2L, "Alice", 41L),
+                    new WindowedScore("user2", 800.0, 5L, null, 42L),
+                    new WindowedScore("user3", 700.0, 1L, null, 43L)));
+            when(userNameCache.getAll(any(), any())).thenReturn(Map.of("user2", "Bob", "user3", "Carol"));
+
+            // Act
+            Optional<LeaderboardNeighborhood> result = leaderboardService.getAround("user2", 1);
+
+            // Assert
+            assertTrue(result.isPresent());
+            assertEquals(42L, result.get().rank());
+            List<LeaderboardEntry> entries = result.get().entries();
+            assertEquals(3, entries.size());
+            assertEquals("Alice", entries.get(0).getUsername());
+            assertEquals("Bob", entries.get(1).getUsername());
+            assertEquals(43L, entries.get(2).getRank());
+
+            ArgumentCaptor<List<String>> captor = ArgumentCaptor.forClass(List.class);
+            verify(userNameCache, times(1)).getAll(captor.capture(), any());
+            assertEquals(List.of("user2", "user3"), captor.getValue());
+        }
+
+        @Test
+        @DisplayName("Should answer from rank index when it is serving")
+        void shouldAnswerFromRankIndex() {
+            // Arrange
+            when(rankIndex.isServing()).thenReturn(true);
+            when(rankIndex.around("user1", 5)).thenReturn(Arrays.asList(
+                    new RankedEntry("user1", 1000.0, 10L, 1L),
+                    new RankedEntry("user2", 800.0, 5L, 2L)));
+
+            // Act
+            Optional<LeaderboardNeighborhood> result = leaderboardService.getAround("user1", 5);
+
+            // Assert
+            assertTrue(result.isPresent());
+            assertEquals(1L, result.get().rank());
+            assertEquals(2, result.get().entries().size());
+            verify(leaderboardRepository, never()).findAround(any(), anyInt());
+        }
+
+        @Test
+        @DisplayName("Should return empty for a user not on the board")
+        void shouldReturnEmptyForUnknownUser() {
+            // Arrange
+            when(leaderboardRepository.findAround("missing", 5)).thenReturn(List.of());
+
+            // Act & Assert
+            assertTrue(leaderboardService.getAround("missing", 5).isEmpty());
+            verify(userNameCache, never()).getAll(any(), any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Paging Tests")
+    class PagingTests {
+
+        @Test
+        @DisplayName("Should return a cursor only when another page follows")
+        void shouldReturnCursorWhenMoreRows() {
+            // Arrange
+            PageCursor after = new PageCursor(90.0, "user2", 2L, null);
+            when(leaderboardRepository.findPage(after, 3)).thenReturn(List.of(
+                    new WindowedScore("user3", 80.0, 1L, "Carol", 3L),
+                    new WindowedScore("user4", 70.0, 1L, "Dan", 4L),
+                    new WindowedScore("user5", 60.0, 1L, "Erin", 5L)));
+            when(leaderboardRepository.findPage(new PageCursor(70.0, "user4", 4L, null), 3)).thenReturn(List.of(
+                    new WindowedScore("user5", 60.0, 1L, "Erin", 5L)));
+
+            // Act
+            LeaderboardPage page = leaderboardService.getPage(after, 2, false).get();
+            LeaderboardPage last = leaderboardService.getPage(PageCursor.parse(page.nextCursor()), 2, false).get();
+
+            // Assert
+            assertEquals(List.of("user3", "user4"), page.entries().stream().map(LeaderboardEntry::getUserId).toList());
+            assertEquals(4L, page.entries().get(1).getRank());
+            assertNull(page.version());
+            assertEquals(1, last.entries().size());
+            assertNull(last.nextCursor());
+        }
+
+        @Test
+        @DisplayName("Should page the rank index with a keyset seek when it is serving")
+        void shouldPageRankIndex() {
+            // Arrange
+            when(rankIndex.isServing()).thenReturn(true);
+            when(rankIndex.after(90.0, "user2", 2)).thenReturn(List.of(new RankedEntry("user3", 80.0, 1L, 3L)));
+            when(userNameCache.getAll(any(), any())).thenReturn(Map.of("user3", "Carol"));
+
+            // Act
+            LeaderboardPage page = leaderboardService.getPage(new PageCursor(90.0, "user2", 2L, null), 1, false).get();
+
+            // Assert
+            assertEquals("Carol", page.entries().get(0).getUsername());
+            assertEquals(3L, page.entries().get(0).getRank());
+            assertNull(page.nextCursor());
+            verify(leaderboardRepository, never()).findPage(any(), anyInt());
+        }
+
+        @Test
+        @DisplayName("Should keep a pinned cursor on its snapshot")
+        void shouldStayOnPinnedSnapshot() {
+            // Arrange
+            PinnedBoardSnapshots.Snapshot snapshot = new PinnedBoardSnapshots.Snapshot(7L, 12L, List.of(
+                    new WindowedScore("user1", 90.0, 1L, "Alice", 1L),
+                    new WindowedScore("user2", 80.0, 1L, "Bob", 2L)));
+            when(pinnedBoardSnapshots.pin()).thenReturn(Optional.of(snapshot));
+            when(pinnedBoardSnapshots.get(7L)).thenReturn(Optional.of(snapshot));
+
+            // Act
+            LeaderboardPage first = leaderboardService.getPage(null, 1, true).get();
+            PageCursor next = PageCursor.parse(first.nextCursor());
+            LeaderboardPage second = leaderboardService.getPage(next, 1, false).get();
+
+            // Assert
+            assertEquals(12L, first.version());
+            assertEquals(7L, next.snapshotId());
+            assertEquals("user2", second.entries().get(0).getUserId());
+            assertNull(second.nextCursor());
+            verify(leaderboardRepository, never()).findPage(any(), anyInt());
+        }
+
+        @Test
+        @DisplayName("Should return empty once the pinned snapshot is gone")
+        void shouldReturnEmptyForExpiredSnapshot() {
+            // Arrange
+            when(pinnedBoardSnapshots.get(7L)).thenReturn(Optional.empty());
+
+            // Act & Assert
+            assertTrue(leaderboardService.getPage(new PageCursor(80.0, "user2", 2L, 7L), 10, false).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should round-trip cursors and reject malformed ones")
+        void shouldRoundTripCursors() {
+            // Arrange
+            PageCursor cursor = new PageCursor(12.5, "team:blue:7", 40L, -3L);
+
+            // Act & Assert
+            assertEquals(cursor, PageCursor.parse(cursor.encode()));
+            assertNull(PageCursor.parse(" "));
+            assertThrows(IllegalArgumentException.class, () -> PageCursor.parse("not a cursor!"));
+            assertThrows(IllegalArgumentException.class, () -> PageCursor.parse("OjE6Mg"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Percentile Tests")
+    class PercentileTests {
+
+        @Test
+        @DisplayName("Should read only the user's score and ask the histogram")
+        void shouldUseHistogramForPercentile() {
+            // Arrange
+            when(leaderboardRepository.findByUserId("user1"))
+                    .thenReturn(Optional.of(new LeaderboardEntryEntity("user1", 950.0, 3L, today)));
+            when(scoreHistogram.topPercent(950.0)).thenReturn(7.0);
+            when(scoreHistogram.total()).thenReturn(1200L);
+
+            // Act
+            Optional<ScorePercentile> result = leaderboardService.getPercentile("user1");
+
+            // Assert
+            assertTrue(result.isPresent());
+            assertEquals(7.0, result.get().topPercent());
+            assertEquals(950.0, result.get().score());
+            assertEquals(1200L, result.get().total());
+            verify(leaderboardRepository, never()).getUserRank(any());
+        }
+
+        @Test
+        @DisplayName("Should return empty for a user not on the board")
+        void shouldReturnEmptyForUnknownUser() {
+            // Arrange
+            when(leaderboardRepository.findByUserId("missing")).thenReturn(Optional.empty());
+
+            // Act & Assert
+            assertTrue(leaderboardService.getPercentile("missing").isEmpty());
+            verify(scoreHistogram, never()).topPercent(anyDouble());
+        }
+    }
+
+    @Nested
+    @DisplayName("Group Tests")
+    class GroupTests {
+
+        @Test
+        @DisplayName("Should rank members by primary key and resolve names only for the entries shown")
+        @SuppressWarnings("unchecked")
+        void shouldRankMembersFromRows() {
+            // Arrange
+            List<String> members = List.of("user1", "user2", "user3", "missing");
+            when(leaderboardRepository.findAllById(members)).thenReturn(List.of(
+                    new LeaderboardEntryEntity("user1", 100.0, 1L, today),
+                    new LeaderboardEntryEntity("user2", 300.0, 2L, today),
+                    new LeaderboardEntryEntity("user3", 200.0, 3L, today)));
+            when(userNameCache.getAll(any(), any())).thenReturn(Map.of("user2", "Bob"));
+
+            // Act
+            GroupLeaderboard board = leaderboardService.getGroupBoard("challenge-1", members, 2);
+
+            // Assert
+            assertEquals(3, board.size());
+            assertEquals(2, board.entries().size());
+            assertEquals("Bob", board.entries().get(0).getUsername());
+            assertEquals(2L, board.entries().get(1).getRank());
+            assertEquals("user3", board.entries().get(1).getUserId());
+
+            ArgumentCaptor<List<String>> captor = ArgumentCaptor.forClass(List.class);
+            verify(userNameCache).getAll(captor.capture(), any());
+            assertEquals(List.of("user2", "user3"), captor.getValue());
+        }
+
+        @Test
+        @DisplayName("Should give members tied on score the same rank in the group")
+        void shouldShareRankOnTies() {
+            // Arrange
+            List<String> members = List.of("a", "b", "c");
+            when(rankIndex.isServing()).thenReturn(true);
+            when(rankIndex.rankAmong(members)).thenReturn(List.of(
+                    new RankedEntry("a", 500.0, 1L, 1L),
+                    new RankedEntry("b", 200.0, 1L, 2L),
+                    new RankedEntry("c", 200.0, 1L, 3L)));
+
+            // Act
+            Optional<LeaderboardEntry> result = leaderboardService.getRankInGroup(members, "c");
+
+            // Assert
+            assertTrue(result.isPresent());
+            assertEquals(2L, result.get().getRank());
+            assertTrue(leaderboardService.getRankInGroup(members, "other").isEmpty());
+            verify(leaderboardRepository, never()).findAllById(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Sharding Tests")
+    class ShardingTests {
+
+        @Test
+        @DisplayName("Should send writes to the shards instead of the primary table")
+        void shouldWriteToShards() {
+            // Arrange
+            when(shardedLeaderboard.isEnabled()).thenReturn(true);
+            when(shardedLeaderboard.upsertRounds(any())).thenReturn(List.of(
+                    new UpsertedScore("user1", 30.0, 1L, today, 20.0),
+                    new UpsertedScore("user2", 5.0, 1L, today, null)));
+
+            // Act
+            leaderboardService.applyScoreDeltas(List.of(
+                    new ScoreDelta("user1", 10.0, today),
+                    new ScoreDelta("user2", 5.0, today)));
+
+            // Assert
+            verify(leaderboardRepository, never()).upsertScores(any());
+            ArgumentCaptor<ScoreChangedEvent> captor = ArgumentCaptor.forClass(ScoreChangedEvent.class);
+            verify(eventPublisher, times(2)).publishEvent(captor.capture());
+            assertEquals(20.0, captor.getAllValues().get(0).previousScore());
+            assertNull(captor.getAllValues().get(1).previousScore());
+        }
+
+        @Test
+        @DisplayName("Should read the merged top n and summed rank from the shards")
+        void shouldReadFromShards() {
+            // Arrange
+            when(shardedLeaderboard.isEnabled()).thenReturn(true);
+            when(shardedLeaderboard.top(2)).thenReturn(List.of(
+                    new RankedEntry("user2", 300.0, 2L, 1L),
+                    new RankedEntry("user1", 100.0, 1L, 2L)));
+            when(shardedLeaderboard.rankOf("user1")).thenReturn(Optional.of(new RankedEntry("user1", 100.0, 1L, 2L)));
+            when(userNameCache.getAll(any(), any())).thenReturn(Map.of("user1", "Alice"));
+
+            // Act
+            List<LeaderboardEntry> top = leaderboardService.getTopN(2);
+            Optional<LeaderboardEntry> rank = leaderboardService.getRank("user1");
+
+            // Assert
+            assertEquals(2, top.size());
+            assertEquals("user2", top.get(0).getUserId());
+            assertEquals("Alice", top.get(1).getUsername());
+            assertEquals(2L, rank.orElseThrow().getRank());
+            verify(leaderboardRepository, never()).findTopN(anyInt());
+            verify(leaderboardRepository, never()).getUserRank(any());
+            verify(rankIndex, never()).isServing();
+        }
+    }
+
+    @Nested
+    @DisplayName("Replica Tests")
+    class ReplicaTests {
+
+        @Test
+        @DisplayName("Should add to the replica's counters and leave the row and events to its sync")
+        void shouldWriteToReplicaCounters() {
+            // Arrange
+            when(replicatedScores.isEnabled()).thenReturn(true);
+            when(replicatedScores.addAll(any())).thenReturn(Map.of(
+                    "user1", new UpsertedScore("user1", 12.0, 2L, today, 7.0)));
+
+            // Act
+            leaderboardService.updateScore("user1", 5.0, today);
+            List<ScoreUpdateResult> results = leaderboardService.applyScoreBatch(
+                    List.of(new ScoreUpdateItem("user1", 7.0, today)));
+
+            // Assert
+            verify(replicatedScores).add(new ScoreDelta("user1", 5.0, today));
+            assertEquals(12.0, results.get(0).score());
+            verify(leaderboardRepository, never()).upsertScore(any());
+            verify(leaderboardRepository, never()).upsertScores(any());
+            verify(eventPublisher, never()).publishEvent(any());
+        }
+
+        @Test
+        @DisplayName("Should send batches to the replica's counters rather than to stripes")
+        void shouldPreferReplicasOverStripes() {
+            // Arrange
+            when(replicatedScores.isEnabled()).thenReturn(true);
+            when(scoreStripes.isEnabled()).thenReturn(true);
+            when(replicatedScores.addAll(any())).thenReturn(Map.of(
+                    "user1", new UpsertedScore("user1", 12.0, 2L, today, 7.0)));
+
+            // Act
+            leaderboardService.applyScoreDeltas(List.of(new ScoreDelta("user1", 5.0, today)));
+            leaderboardService.applyScoreBatch(List.of(new ScoreUpdateItem("user1", 7.0, today)));
+
+            // Assert
+            verify(replicatedScores, times(2)).addAll(any());
+            verify(leaderboardRepository, never()).addToStripes(any(), anyInt());
+        }
+    }
+
+    @Nested
+    @DisplayName("Stripe Tests")
+    class StripeTests {
+
+        @Test
+        @DisplayName("Should add to a stripe and leave the entry and events to the compactor")
+        void shouldWriteToStripe() {
+            // Arrange
+            when(scoreStripes.isEnabled()).thenReturn(true);
+            when(scoreStripes.next()).thenReturn(3);
+
+            // Act
+            leaderboardService.updateScore("user1", 5.0, today);
+
+            // Assert
+            verify(leaderboardRepository).addToStripe(new ScoreDelta("user1", 5.0, today), 3);
+            verify(leaderboardRepository, never()).upsertScore(any());
+            verify(eventPublisher, never()).publishEvent(any());
+        }
+
+        @Test
+        @DisplayName("Should fold taken stripes in with the bulk upsert and publish the changes")
+        void shouldCompactStripes() {
+            // Arrange
+            List<ScoreDelta> taken = List.of(new ScoreDelta("user1", 12.0, today));
+            when(leaderboardRepository.takeStripes(100)).thenReturn(taken);
+            when(leaderboardRepository.upsertScores(taken)).thenReturn(List.of(
+                    new UpsertedScore("user1", 42.0, 2L, today, 30.0)));
+
+            // Act
+            int applied = leaderboardService.compactStripes(100);
+
+            // Assert
+            assertEquals(1, applied);
+            ArgumentCaptor<ScoreChangedEvent> event = ArgumentCaptor.forClass(ScoreChangedEvent.class);
+            verify(eventPublisher).publishEvent(event.capture());
+            assertEquals(30.0, event.getValue().previousScore());
+            assertEquals(42.0, event.getValue().score());
+        }
+
+        @Test
+        @DisplayName("Should answer a batch with the entry plus pending stripes")
+        void shouldAnswerBatchWithPendingStripes() {
+            // Arrange
+            when(scoreStripes.isEnabled()).thenReturn(true);
+            when(scoreStripes.next()).thenReturn(0);
+            when(leaderboardRepository.findAllById(any())).thenReturn(List.of());
+            when(leaderboardRepository.findStripeScores(any())).thenReturn(Map.of("user1", 9.0));
+
+            // Act
+            List<ScoreUpdateResult> results = leaderboardService.applyScoreBatch(
+                    List.of(new ScoreUpdateItem("user1", 4.0, today)));
+
+            // Assert
+            verify(leaderboardRepository).addToStripes(List.of(new ScoreDelta("user1", 4.0, today)), 0);
+            assertEquals(9.0, results.get(0).score());
+            assertEquals(1L, results.get(0).streak());
+            verify(leaderboardRepository, never()).upsertScores(any());
+            verify(eventPublisher, never()).publishEvent(any());
+        }
+
+        @Test
+        @DisplayName("Should add pending stripes to the score returned with the rank")
+        void shouldAddPendingStripesToRank() {
+            // Arrange
+            when(scoreStripes.isEnabled()).thenReturn(true);
+            when(leaderboardRepository.findRankedEntry("user1"))
+                    .thenReturn(Optional.of(new WindowedScore("user1", 500.0, 5L, "Alice", 3L)));
+            when(leaderboardRepository.findStripeScores(List.of("user1"))).thenReturn(Map.of("user1", 7.5));
+
+            // Act
+            LeaderboardEntry entry = leaderboardService.getRank("user1").orElseThrow();
+
+            // Assert
+            assertEquals(507.5, entry.getScore());
+            assertEquals(3L, entry.getRank());
+        }
+    }
 }
@@ -0,0 +1,42 @@
+package com.clouddev.leaderboardservice.service;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.clouddev.leaderboardservice.model.LeaderboardWindow;
+import com.clouddev.leaderboardservice.repository.LeaderboardRepository;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PeriodScoreExpirer Tests")
+@SuppressWarnings("null")
+class PeriodScoreExpirerTest {
+
+    @Mock
+    private LeaderboardRepository leaderboardRepository;
+
+    @Test
+    @DisplayName("Should keep the configured number of periods per window, counting the current one")
+    void shouldDeleteBeforeRetainedPeriods() {
+        // Arrange
+        PeriodScoreExpirer expirer = new PeriodScoreExpirer(leaderboardRepository, 7, 4, 3, 60_000L);
+        LocalDate sunday = LocalDate.of(2026, 10, 18);
+        when(leaderboardRepository.deletePeriodsBefore(LeaderboardWindow.DAY, LocalDate.of(2026, 10, 12)))
+                .thenReturn(5);
+
+        // Act
+        int deleted = expirer.expire(sunday);
+
+        // Assert
+        assertEquals(5, deleted);
+        verify(leaderboardRepository).deletePeriodsBefore(LeaderboardWindow.WEEK, LocalDate.of(2026, 9, 21));
+        verify(leaderboardRepository).deletePeriodsBefore(LeaderboardWindow.MONTH, LocalDate.of(2026, 8, 1));
+    }
+}
@@ -0,0 +1,169 @@
+package com.clouddev.leaderboardservice.service;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.ArgumentMatchers.anyList;
+import org.mockito.Mock;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.clouddev.leaderboardservice.model.ScoreDelta;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ScoreUpdateBuffer Tests")
+@SuppressWarnings({ "unchecked", "null" })
+class ScoreUpdateBufferTest {
+
+    @Mock
+    private LeaderboardService leaderboardService;
+
+    private ScoreUpdateBuffer buffer;
+
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        // Long interval so only explicit or size-triggered flushes run
+        buffer = new ScoreUpdateBuffer(leaderboardService, true, 4, 3, 60_000L, 5);
+        today = LocalDate.now(ZoneOffset.UTC);
+    }
+
+    @Nested
+    @DisplayName("Coalescing Tests")
+    class CoalescingTests {
+
+        @Test
+        @DisplayName("Should sum deltas per user into one write")
+        void shouldSumDeltasPerUser() {
+            // Arrange
+            buffer.add("user1", 10.0, today);
+            buffer.add("user1", 5.0, today);
+            buffer.add("user2", 7.0, today);
+
+            // Act
+            buffer.flush();
+
+            // Assert
+            ArgumentCaptor<List<ScoreDelta>> captor = ArgumentCaptor.forClass(List.class);
+            verify(leaderboardService).applyScoreDeltas(captor.capture());
+
+            List<ScoreDelta> deltas = captor.getValue();
+            assertEquals(2, deltas.size());
+            assertTrue(deltas.contains(new ScoreDelta("user1", 15.0, today)));
+            assertTrue(deltas.contains(new ScoreDelta("user2", 7.0, today)));
+            assertEquals(0, buffer.pendingUsers());
+        }
+
+        @Test
+        @DisplayName("Should write one delta per date, oldest first, when updates cross midnight")
+        void shouldSumPerDateAcrossMidnight() {
+            // Arrange
+            LocalDate yesterday = today.minusDays(1);
+            buffer.add("user1", 5.0, today);
+            buffer.add("user1", 10.0, yesterday);
+            buffer.add("user1", 2.0, today);
+
+            // Act
+            buffer.flush();
+
+            // Assert
+            ArgumentCaptor<List<ScoreDelta>> captor = ArgumentCaptor.forClass(List.class);
+            verify(leaderboardService).applyScoreDeltas(captor.capture());
+            assertEquals(List.of(new ScoreDelta("user1", 10.0, yesterday), new ScoreDelta("user1", 7.0, today)),
+                    captor.getValue());
+        }
+
+        @Test
+        @DisplayName("Should not write when nothing is pending")
+        void shouldNotWriteWhenEmpty() {
+            // Act
+            buffer.flush();
+
+            // Assert
+            verify(leaderboardService, never()).applyScoreDeltas(anyList());
+        }
+    }
+
+    @Nested
+    @DisplayName("Flush Trigger Tests")
+    class FlushTriggerTests {
+
+        @Test
+        @DisplayName("Should flush in the background once max pending users is reached")
+        void shouldFlushWhenSizeReached() {
+            // Arrange
+            buffer.start();
+
+            // Act
+            buffer.add("user1", 1.0, today);
+            buffer.add("user2", 1.0, today);
+            buffer.add("user3", 1.0, today);
+
+            // Assert
+            verify(leaderboardService, timeout(2000)).applyScoreDeltas(anyList());
+            buffer.close();
+        }
+
+        @Test
+        @DisplayName("Should requeue deltas when the write fails")
+        void shouldRequeueOnFailure() {
+            // Arrange
+            buffer.add("user1", 10.0, today);
+            doThrow(new RuntimeException("db down")).when(leaderboardService).applyScoreDeltas(anyList());
+
+            // Act & Assert
+            assertThrows(RuntimeException.class, () -> buffer.flush());
+            assertEquals(1, buffer.pendingUsers());
+        }
+
+        @Test
+        @DisplayName("Should write new users through once the buffer is full")
+        void shouldWriteThroughWhenFull() {
+            // Arrange: flushes keep failing, so nothing leaves the buffer
+            doThrow(new RuntimeException("db down")).when(leaderboardService).applyScoreDeltas(anyList());
+            for (int i = 1; i <= 5; i++) {
+                buffer.add("user" + i, 1.0, today);
+            }
+            assertThrows(RuntimeException.class, () -> buffer.flush());
+
+            // Act
+            buffer.add("user1", 2.0, today);
+            buffer.add("user6", 3.0, today);
+
+            // Assert
+            assertEquals(5, buffer.pendingUsers());
+            verify(leaderboardService, never()).updateScore("user1", 2.0, today);
+            verify(leaderboardService).updateScore("user6", 3.0, today);
+        }
+
+        @Test
+        @DisplayName("Should drain on close and write through afterwards")
+        void shouldDrainOnClose() {
+            // Arrange
+            buffer.add("user1", 10.0, today);
+
+            // Act
+            buffer.close();
+            buffer.add("user2", 3.0, today);
+
+            // Assert
+            verify(leaderboardService).applyScoreDeltas(List.of(new ScoreDelta("user1", 10.0, today)));
+            verify(leaderboardService).updateScore("user2", 3.0, today);
+            assertEquals(0, buffer.pendingUsers());
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.clouddev.leaderboardservice.shard;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.clouddev.leaderboardservice.index.RankedEntry;
+import com.clouddev.leaderboardservice.model.ScoreDelta;
+import com.clouddev.leaderboardservice.model.UpsertedScore;
+
+@DisplayName("ShardedLeaderboard Tests")
+class ShardedLeaderboardTest {
+
+    private static final int SHARDS = 3;
+
+    private List<LeaderboardShard> shards;
+
+    private ShardedLeaderboard leaderboard;
+
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        // One in-memory H2 database per shard, all in this JVM
+        String run = UUID.randomUUID().toString();
+        shards = new ArrayList<>();
+        for (int i = 0; i < SHARDS; i++) {
+            LeaderboardShard shard = new LeaderboardShard("shard-" + i,
+                    new DriverManagerDataSource("jdbc:h2:mem:" + run + "-" + i + ";DB_CLOSE_DELAY=-1"));
+            shard.initializeSchema();
+            shards.add(shard);
+        }
+        leaderboard = new ShardedLeaderboard(shards);
+        today = LocalDate.of(2026, 3, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (LeaderboardShard shard : shards) {
+            shard.jdbcTemplate().execute("SHUTDOWN");
+        }
+        leaderboard.shutdown();
+    }
+
+    private long rowsOn(int shard) {
+        return shards.get(shard).jdbcTemplate().queryForObject("SELECT COUNT(*) FROM leaderboard_entries", Long.class);
+    }
+
+    @Nested
+    @DisplayName("Write Tests")
+    class WriteTests {
+
+        @Test
+        @DisplayName("Should store each user only on its owning shard")
+        void shouldStoreUsersOnOwningShard() {
+            // Arrange
+            List<ScoreDelta> deltas = new ArrayList<>();
+            for (int i = 0; i < 300; i++) {
+                deltas.add(new ScoreDelta("user" + i, i, today));
+            }
+
+            // Act
+            List<UpsertedScore> rows = leaderboard.upsertScores(deltas);
+
+            // Assert
+            assertEquals(300, rows.size());
+            assertTrue(rows.stream().allMatch(UpsertedScore::inserted));
+            long total = 0;
+            for (int shard = 0; shard < SHARDS; shard++) {
+                assertTrue(rowsOn(shard) > 50, "shard " + shard + " holds " + rowsOn(shard));
+                total += rowsOn(shard);
+            }
+            assertEquals(300, total);
+            for (int i = 0; i < 300; i++) {
+                String userId = "user" + i;
+                for (int shard = 0; shard < SHARDS; shard++) {
+                    assertEquals(shard == leaderboard.shardOf(userId), shards.get(shard).find(userId).isPresent());
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Should report the shards that committed so a retry applies each delta once")
+        void shouldRetryOnlyUncommittedUsers() {
+            // Arrange: two rounds per user, and shard 1 unable to write
+            List<ScoreDelta> yesterday = new ArrayList<>();
+            List<ScoreDelta> todays = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                yesterday.add(new ScoreDelta("user" + i, 2.0, today.minusDays(1)));
+                todays.add(new ScoreDelta("user" + i, 3.0, today));
+            }
+            shards.get(1).jdbcTemplate().execute("ALTER TABLE leaderboard_entries RENAME TO broken");
+
+            // Act
+            ShardWriteException failure = assertThrows(ShardWriteException.class,
+                    () -> leaderboard.upsertRounds(List.of(yesterday, todays)));
+            shards.get(1).jdbcTemplate().execute("ALTER TABLE broken RENAME TO leaderboard_entries");
+            Set<String> committed = failure.committedUserIds();
+            leaderboard.upsertRounds(List.of(
+                    yesterday.stream().filter(delta -> !committed.contains(delta.userId())).toList(),
+                    todays.stream().filter(delta -> !committed.contains(delta.userId())).toList()));
+
+            // Assert
+            for (int i = 0; i < 30; i++) {
+                String userId = "user" + i;
+                assertEquals(leaderboard.shardOf(userId) != 1, committed.contains(userId), userId);
+                RankedEntry entry = leaderboard.find(userId).orElseThrow();
+                assertEquals(5.0, entry.score(), userId);
+                assertEquals(2L, entry.streak(), userId);
+            }
+        }
+
+        @Test
+        @DisplayName("Should add scores and apply the streak rules of the primary upsert")
+        void shouldApplyStreakRules() {
+            // Act
+            leaderboard.upsertScore(new ScoreDelta("user1", 10.0, today));
+            leaderboard.upsertScore(new ScoreDelta("user1", 5.0, today));
+            UpsertedScore nextDay = leaderboard.upsertScore(new ScoreDelta("user1", 5.0, today.plusDays(1)));
+            UpsertedScore late = leaderboard.upsertScore(new ScoreDelta("user1", 1.0, today));
+            UpsertedScore gap = leaderboard.upsertScore(new ScoreDelta("user1", 1.0, today.plusDays(5)));
+
+            // Assert
+            assertFalse(nextDay.inserted());
+            assertEquals(20.0, nextDay.score());
+            assertEquals(2L, nextDay.streak());
+            assertEquals(2L, late.streak());
+            assertEquals(today.plusDays(1), late.lastActivityDate());
+            assertEquals(22.0, gap.score());
+            assertEquals(1L, gap.streak());
+            assertEquals(Optional.of(new RankedEntry("user1", 22.0, 1L, 0L)), leaderboard.find("user1"));
+        }
+
+        @Test
+        @DisplayName("Should lose no increment when first writes for a user race")
+        void shouldSerialiseConcurrentWrites() throws Exception {
+            // Arrange
+            ExecutorService writers = Executors.newFixedThreadPool(8);
+            List<Future<?>> futures = new ArrayList<>();
+
+            // Act
+            for (int t = 0; t < 8; t++) {
+                futures.add(writers.submit(() -> {
+                    for (int i = 0; i < 25; i++) {
+                        leaderboard.upsertScores(List.of(new ScoreDelta("hot", 1.0, today),
+                                new ScoreDelta("user" + i, 1.0, today)));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            writers.shutdown();
+
+            // Assert
+            assertEquals(200.0, leaderboard.find("hot").orElseThrow().score());
+            assertEquals(8.0, leaderboard.find("user7").orElseThrow().score());
+        }
+    }
+
+    @Nested
+    @DisplayName("Read Tests")
+    class ReadTests {
+
+        private List<RankedEntry> all;
+
+        @BeforeEach
+        void populate() {
+            Random random = new Random(42);
+            List<ScoreDelta> deltas = new ArrayList<>();
+            all = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                // Few distinct scores, so ties cross shard boundaries
+                double score = random.nextInt(40);
+                deltas.add(new ScoreDelta("user" + i, score, today));
+                all.add(new RankedEntry("user" + i, score, 1L, 0L));
+            }
+            leaderboard.upsertScores(deltas);
+        }
+
+        @Test
+        @DisplayName("Should merge the shards' top n into the single-table board order")
+        void shouldMergeTopN() {
+            // Act
+            List<RankedEntry> top = leaderboard.top(60);
+
+            // Assert
+            assertEquals(RankedEntry.ranked(all).subList(0, 60), top);
+            assertEquals(500, leaderboard.top(1000).size());
+        }
+
+        @Test
+        @DisplayName("Should rank by the higher scores summed over every shard, with ties sharing a rank")
+        void shouldSumHigherScores() {
+            for (RankedEntry entry : all.subList(0, 50)) {
+                // Arrange
+                long expected = 1 + all.stream().filter(other -> other.score() > entry.score()).count();
+
+                // Act
+                RankedEntry ranked = leaderboard.rankOf(entry.userId()).orElseThrow();
+
+                // Assert
+                assertEquals(expected, ranked.rank(), entry.userId());
+                assertEquals(entry.score(), ranked.score());
+            }
+            assertTrue(leaderboard.rankOf("missing").isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse to start alongside features that read the primary database")
+    void shouldRefuseUnshardedFeatures() {
+        // Act & Assert
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> new ShardedLeaderboard(true, "jdbc:h2:mem:unused", "", "", 1, false,
+                        false, false, true, false, false));
+        assertTrue(error.getMessage().contains("leaderboard.histogram.enabled"));
+    }
+}
@@ -0,0 +1,264 @@
+package com.clouddev.leaderboardservice.stream;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.clouddev.leaderboardservice.cache.BoardVersion;
+import com.clouddev.leaderboardservice.model.LeaderboardEntry;
+import com.clouddev.leaderboardservice.service.LeaderboardService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TopNStream Tests")
+@SuppressWarnings("null")
+class TopNStreamTest {
+
+    private static final long REFRESH_MS = 5000L;
+
+    @Mock
+    private LeaderboardService leaderboardService;
+
+    @Mock
+    private BoardVersion boardVersion;
+
+    private AtomicLong version;
+
+    private AtomicLong clock;
+
+    private TopNStream stream;
+
+    @BeforeEach
+    void setUp() {
+        version = new AtomicLong();
+        clock = new AtomicLong();
+        when(boardVersion.current()).thenAnswer(invocation -> version.get());
+        stream = new TopNStream(leaderboardService, boardVersion, new ObjectMapper(), 1000L, REFRESH_MS,
+                15_000L, 60_000L, 2, clock::get, Runnable::run);
+    }
+
+    private void bumpVersion() {
+        version.incrementAndGet();
+    }
+
+    private static LeaderboardEntry entry(String userId, double score, long rank) {
+        return new LeaderboardEntry(userId, "name-" + userId, score, rank, 1L);
+    }
+
+    /**
+     * Records the text of every event instead of writing to a response.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+        private final List<String> events = new ArrayList<>();
+        private boolean completed;
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            StringBuilder text = new StringBuilder();
+            builder.build().forEach(part -> text.append(part.getData()));
+            events.add(text.toString());
+        }
+    }
+
+    @Nested
+    @DisplayName("Subscribe Tests")
+    class SubscribeTests {
+
+        @Test
+        @DisplayName("Should send the current top N first and share it between subscribers of the same n")
+        void shouldSendSnapshotOnSubscribe() {
+            // Arrange
+            when(leaderboardService.getTopN(2)).thenReturn(List.of(entry("a", 30.0, 1L), entry("b", 20.0, 2L)));
+            RecordingEmitter first = new RecordingEmitter();
+            RecordingEmitter second = new RecordingEmitter();
+
+            // Act
+            stream.subscribe(2, first);
+            stream.subscribe(2, second);
+
+            // Assert
+            assertEquals(1, first.events.size());
+            assertTrue(first.events.get(0).startsWith("event:snapshot\nid:0\ndata:[{\"userId\":\"a\""));
+            assertEquals(first.events, second.events);
+            assertEquals(2, stream.subscriberCount());
+            verify(leaderboardService, times(1)).getTopN(2);
+        }
+
+        @Test
+        @DisplayName("Should refuse subscribers beyond the limit")
+        void shouldRefuseBeyondLimit() {
+            // Arrange
+            when(leaderboardService.getTopN(1)).thenReturn(List.of(entry("a", 30.0, 1L)));
+            stream.subscribe(1, new RecordingEmitter());
+            stream.subscribe(1, new RecordingEmitter());
+
+            // Act & Assert
+            assertTrue(stream.subscribe(1, new RecordingEmitter()).isEmpty());
+            assertEquals(2, stream.subscriberCount());
+        }
+
+        @Test
+        @DisplayName("Should read the first list without holding the lock and catch up with a tick that ran meanwhile")
+        void shouldReadOutsideLockAndCatchUp() throws InterruptedException {
+            // Arrange
+            when(leaderboardService.getTopN(2)).thenReturn(
+                    List.of(entry("a", 30.0, 1L), entry("b", 20.0, 2L)),
+                    List.of(entry("b", 40.0, 1L), entry("a", 30.0, 2L)));
+            RecordingEmitter top2 = new RecordingEmitter();
+            stream.subscribe(2, top2);
+            Thread ticker = new Thread(stream::tick);
+            // The n=1 read sees version 0; a change and a tick land before it returns
+            when(leaderboardService.getTopN(1)).thenAnswer(invocation -> {
+                bumpVersion();
+                ticker.start();
+                ticker.join(TimeUnit.SECONDS.toMillis(5));
+                return List.of(entry("a", 30.0, 1L));
+            });
+            RecordingEmitter top1 = new RecordingEmitter();
+
+            // Act
+            stream.subscribe(1, top1);
+            stream.tick();
+
+            // Assert
+            assertFalse(ticker.isAlive(), "tick waited for subscribe's read");
+            assertEquals(2, top2.events.size());
+            assertEquals(2, top1.events.size());
+            assertTrue(top1.events.get(0).startsWith("event:snapshot\nid:0\n"), top1.events.get(0));
+            assertTrue(top1.events.get(1).startsWith("event:diff\nid:1\n"), top1.events.get(1));
+            assertTrue(top1.events.get(1).contains("\"exits\":[\"a\"]"), top1.events.get(1));
+        }
+    }
+
+    @Nested
+    @DisplayName("Tick Tests")
+    class TickTests {
+
+        @Test
+        @DisplayName("Should coalesce the changes of one tick into a single diff")
+        void shouldCoalesceChangesIntoOneDiff() {
+            // Arrange
+            when(leaderboardService.getTopN(3)).thenReturn(
+                    List.of(entry("a", 30.0, 1L), entry("b", 20.0, 2L), entry("c", 10.0, 3L)),
+                    List.of(entry("b", 40.0, 1L), entry("a", 30.0, 2L), entry("d", 25.0, 3L)));
+            RecordingEmitter emitter = new RecordingEmitter();
+            stream.subscribe(3, emitter);
+            bumpVersion();
+            bumpVersion();
+            bumpVersion();
+
+            // Act
+            stream.tick();
+
+            // Assert
+            assertEquals(2, emitter.events.size());
+            String diff = emitter.events.get(1);
+            assertTrue(diff.startsWith("event:diff\nid:3\n"), diff);
+            assertTrue(diff.contains("\"moves\":[{\"userId\":\"b\""), diff);
+            assertTrue(diff.contains("{\"userId\":\"a\",\"score\":30.0,\"rank\":2"), diff);
+            assertTrue(diff.contains("\"entries\":[{\"userId\":\"d\""), diff);
+            assertTrue(diff.contains("\"exits\":[\"c\"]"), diff);
+        }
+
+        @Test
+        @DisplayName("Should send nothing and skip the read while the board is unchanged")
+        void shouldSkipUnchangedBoard() {
+            // Arrange
+            when(leaderboardService.getTopN(1)).thenReturn(List.of(entry("a", 30.0, 1L)));
+            RecordingEmitter emitter = new RecordingEmitter();
+            stream.subscribe(1, emitter);
+            stream.tick();
+
+            // Act
+            stream.tick();
+            clock.addAndGet(REFRESH_MS * 1_000_000L);
+            stream.tick();
+
+            // Assert
+            assertEquals(1, emitter.events.size());
+            // Subscribe, the first tick, and the refresh once refresh-ms has passed
+            verify(leaderboardService, times(3)).getTopN(1);
+        }
+
+        @Test
+        @DisplayName("Should diff each n against its own prefix of one read")
+        void shouldServeSeveralSizesFromOneRead() {
+            // Arrange
+            when(leaderboardService.getTopN(1)).thenReturn(List.of(entry("a", 30.0, 1L)));
+            when(leaderboardService.getTopN(2)).thenReturn(
+                    List.of(entry("a", 30.0, 1L), entry("b", 20.0, 2L)),
+                    List.of(entry("a", 30.0, 1L), entry("c", 25.0, 2L)));
+            RecordingEmitter top1 = new RecordingEmitter();
+            RecordingEmitter top2 = new RecordingEmitter();
+            stream.subscribe(1, top1);
+            stream.subscribe(2, top2);
+            bumpVersion();
+
+            // Act
+            stream.tick();
+
+            // Assert
+            assertEquals(1, top1.events.size());
+            assertEquals(2, top2.events.size());
+            assertTrue(top2.events.get(1).contains("\"exits\":[\"b\"]"));
+            verify(leaderboardService, times(1)).getTopN(1);
+        }
+
+        @Test
+        @DisplayName("Should send from the sender pool and close a subscriber still writing the previous diff")
+        void shouldCloseSubscriberThatFallsBehind() {
+            // Arrange
+            List<Runnable> writes = new ArrayList<>();
+            stream = new TopNStream(leaderboardService, boardVersion, new ObjectMapper(), 1000L, REFRESH_MS,
+                    15_000L, 60_000L, 2, clock::get, writes::add);
+            when(leaderboardService.getTopN(1)).thenReturn(
+                    List.of(entry("a", 30.0, 1L)),
+                    List.of(entry("b", 40.0, 1L)),
+                    List.of(entry("c", 50.0, 1L)));
+            RecordingEmitter slow = new RecordingEmitter();
+            RecordingEmitter fast = new RecordingEmitter();
+            stream.subscribe(1, slow);
+            stream.subscribe(1, fast);
+            bumpVersion();
+            stream.tick();
+            // Only the fast subscriber's write finishes before the next tick
+            writes.get(1).run();
+            bumpVersion();
+
+            // Act
+            stream.tick();
+            writes.get(0).run();
+            writes.get(2).run();
+
+            // Assert
+            assertEquals(3, writes.size());
+            assertEquals(1, stream.subscriberCount());
+            assertEquals(2, slow.events.size());
+            assertTrue(slow.completed);
+            assertEquals(3, fast.events.size());
+            assertFalse(fast.completed);
+        }
+    }
+}
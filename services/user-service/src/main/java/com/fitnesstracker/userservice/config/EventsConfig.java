@@ -0,0 +1,28 @@
+package com.fitnesstracker.userservice.config;
+
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * RabbitMQ setup for publishing profile events: the shared durable
+ * fitness_events topic exchange and JSON message bodies.
+ */
+@Configuration
+@ConditionalOnProperty(name = "user-service.events.enabled", havingValue = "true")
+public class EventsConfig {
+
+    @Bean
+    public TopicExchange fitnessEventsExchange(@Value("${user-service.events.exchange:fitness_events}") String exchange) {
+        return new TopicExchange(exchange, true, false);
+    }
+
+    @Bean
+    public MessageConverter jsonMessageConverter() {
+        return new Jackson2JsonMessageConverter();
+    }
+}
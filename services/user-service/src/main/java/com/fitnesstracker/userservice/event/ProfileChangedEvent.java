@@ -0,0 +1,10 @@
+package com.fitnesstracker.userservice.event;
+
+/**
+ * Published in process by ProfileService after a profile is created or
+ * updated. ProfileEventPublisher forwards it to RabbitMQ when enabled.
+ *
+ * @param name the display name, or null if the profile has none
+ */
+public record ProfileChangedEvent(String userId, String name) {
+}
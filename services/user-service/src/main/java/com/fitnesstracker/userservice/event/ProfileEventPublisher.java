@@ -0,0 +1,57 @@
+package com.fitnesstracker.userservice.event;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Publishes profile changes to the fitness_events exchange as
+ * {@code user.profile.changed}, using the same envelope as the other
+ * services' events. Runs after the profile is committed; if RabbitMQ is
+ * unavailable the event is logged and dropped so the profile update still
+ * succeeds.
+ */
+@Component
+@ConditionalOnProperty(name = "user-service.events.enabled", havingValue = "true")
+public class ProfileEventPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProfileEventPublisher.class);
+
+    private final RabbitTemplate rabbitTemplate;
+    private final String exchange;
+    private final String routingKey;
+
+    public ProfileEventPublisher(RabbitTemplate rabbitTemplate,
+            @Value("${user-service.events.exchange:fitness_events}") String exchange,
+            @Value("${user-service.events.profile-changed-routing-key:user.profile.changed}") String routingKey) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.exchange = exchange;
+        this.routingKey = routingKey;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProfileChanged(ProfileChangedEvent event) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("userId", event.userId());
+        data.put("name", event.name());
+
+        Map<String, Object> envelope = new LinkedHashMap<>();
+        envelope.put("type", "ProfileChanged");
+        envelope.put("timestamp", Instant.now().toString());
+        envelope.put("data", data);
+
+        try {
+            rabbitTemplate.convertAndSend(exchange, routingKey, envelope);
+        } catch (AmqpException e) {
+            logger.warn("Failed to publish ProfileChanged event for user {}: {}", event.userId(), e.getMessage());
+        }
+    }
+}
@@ -2,8 +2,10 @@ package com.fitnesstracker.userservice.service;
 
 import com.fitnesstracker.userservice.dto.ProfileUpdateRequest;
 import com.fitnesstracker.userservice.dto.UserProfileDTO;
+import com.fitnesstracker.userservice.event.ProfileChangedEvent;
 import com.fitnesstracker.userservice.model.UserProfile;
 import com.fitnesstracker.userservice.repository.UserProfileRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
@@ -12,9 +14,11 @@ import java.util.Optional;
 public class ProfileService {
 
     private final UserProfileRepository profileRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public ProfileService(UserProfileRepository profileRepository) {
+    public ProfileService(UserProfileRepository profileRepository, ApplicationEventPublisher eventPublisher) {
         this.profileRepository = profileRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -25,7 +29,9 @@ public class ProfileService {
         if (newProfile.getUserId() == null || newProfile.getEmail() == null) {
             throw new IllegalArgumentException("User ID and email are required for profile creation.");
         }
-        return profileRepository.save(newProfile);
+        UserProfile saved = profileRepository.save(newProfile);
+        publishProfileChanged(saved);
+        return saved;
     }
 
     /**
@@ -62,7 +68,14 @@ public class ProfileService {
         }
 
         // Save and convert to DTO
-        return convertToDto(profileRepository.save(profile));
+        UserProfile saved = profileRepository.save(profile);
+        publishProfileChanged(saved);
+        return convertToDto(saved);
+    }
+
+    // Lets other services (e.g. leaderboard display names) keep their copies current
+    private void publishProfileChanged(UserProfile profile) {
+        eventPublisher.publishEvent(new ProfileChangedEvent(profile.getUserId(), profile.getName()));
     }
 
     // Helper method to map the JPA entity to a DTO for API responses
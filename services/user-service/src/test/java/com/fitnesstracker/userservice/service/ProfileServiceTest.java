@@ -16,12 +16,15 @@ import org.mockito.ArgumentCaptor;
 import static org.mockito.ArgumentMatchers.any;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import com.fitnesstracker.userservice.dto.ProfileUpdateRequest;
 import com.fitnesstracker.userservice.dto.UserProfileDTO;
+import com.fitnesstracker.userservice.event.ProfileChangedEvent;
 import com.fitnesstracker.userservice.model.UserProfile;
 import com.fitnesstracker.userservice.repository.UserProfileRepository;
 
@@ -33,6 +36,9 @@ class ProfileServiceTest {
     @Mock
     private UserProfileRepository profileRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ProfileService profileService;
 
@@ -69,6 +75,16 @@ class ProfileServiceTest {
             verify(profileRepository).save(testProfile);
         }
 
+        @Test
+        @DisplayName("Should publish profile-changed event after create")
+        void shouldPublishProfileChangedAfterCreate() {
+            when(profileRepository.save(any(UserProfile.class))).thenReturn(testProfile);
+
+            profileService.createProfile(testProfile);
+
+            verify(eventPublisher).publishEvent(new ProfileChangedEvent("user-123", "Test User"));
+        }
+
         @Test
         @DisplayName("Should throw exception when userId is null")
         void shouldThrowExceptionWhenUserIdIsNull() {
@@ -179,6 +195,21 @@ class ProfileServiceTest {
                     RuntimeException.class,
                     () -> profileService.updateProfile("nonexistent", request));
             assertEquals("User profile not found.", exception.getMessage());
+            verify(eventPublisher, never()).publishEvent(any());
+        }
+
+        @Test
+        @DisplayName("Should publish profile-changed event with the new name")
+        void shouldPublishProfileChangedAfterUpdate() {
+            ProfileUpdateRequest request = new ProfileUpdateRequest();
+            request.setName("Renamed User");
+
+            when(profileRepository.findById("user-123")).thenReturn(Optional.of(testProfile));
+            when(profileRepository.save(any(UserProfile.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+            profileService.updateProfile("user-123", request);
+
+            verify(eventPublisher).publishEvent(new ProfileChangedEvent("user-123", "Renamed User"));
         }
 
         @Test